@@ -0,0 +1,100 @@
+package com.sri.ai.test.praise.performance;
+
+import static com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.anytime.gabriel.TestCases.getTableVariableByName;
+import static com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.anytime.gabriel.TestCases.isingModelGridWithWeigthsAndPotetialFixed;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.anytime.rodrigo.AnytimeExactBP;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.api.ExactBPNode;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ExactBP;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModel;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIModelReader;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.util.computation.anytime.api.Approximation;
+
+/**
+ * JMH measurements of {@link ExactBP} and {@link AnytimeExactBP} on Ising grids and UAI models
+ * (the JMH counterpart of {@link com.sri.ai.test.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.anytime.BenchmarkingIsingModel}).
+ * <p>
+ * A model is either <code>ising:N</code>, an N by N Ising grid with fixed weights and potentials
+ * queried on its central variable, or the path of a UAI Markov network queried on its first variable.
+ * {@link AnytimeExactBP} is measured up to <code>maximumNumberOfApproximations</code> approximations
+ * (or its exact answer, if reached before that).
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmarks.include=ExactBPBenchmark</code>
+ * (from the project's root directory, or with <code>-p model=&lt;model&gt;</code> passed to JMH).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExactBPBenchmark {
+
+	private static final String ISING_PREFIX = "ising:";
+
+	@Param({"ising:4", "ising:6", "UAITests/or_chain_10.fg.uai", "UAITests/BN_0.uai"})
+	public String model;
+
+	@Param({"20"})
+	public int maximumNumberOfApproximations;
+
+	private Variable query;
+	private TableFactorNetwork network;
+
+	@Setup
+	public void makeNetwork() throws IOException {
+		if (model.startsWith(ISING_PREFIX)) {
+			int gridSize = Integer.parseInt(model.substring(ISING_PREFIX.length()));
+			@SuppressWarnings("unchecked")
+			List<TableFactor> factors = (List<TableFactor>) isingModelGridWithWeigthsAndPotetialFixed(gridSize, 1.0, 1.0, true);
+			query = getTableVariableByName("A_" + gridSize/2 + "_" + gridSize/2, factors);
+			network = new TableFactorNetwork(factors);
+		}
+		else {
+			File file = new File(model);
+			if (!file.isFile()) {
+				throw new Error("UAI file " + file.getAbsolutePath() + " does not exist.");
+			}
+			UAIModel uaiModel = UAIModelReader.read(file);
+			network = new TableFactorNetwork(uaiModel);
+			query = network.getBs().iterator().next();
+		}
+	}
+
+	@Benchmark
+	public Factor exactBP() {
+		return new ExactBP(query, network).apply();
+	}
+
+	@Benchmark
+	public Approximation<Factor> anytimeExactBP() {
+		ExactBPNode<Variable,Factor> exactBP = new ExactBP(query, network);
+		AnytimeExactBP<Variable,Factor> anytimeExactBP = new AnytimeExactBP<>(exactBP);
+		Approximation<Factor> result = null;
+		for (int i = 0; i != maximumNumberOfApproximations && anytimeExactBP.hasNext(); i++) {
+			result = anytimeExactBP.next();
+		}
+		return result;
+	}
+}
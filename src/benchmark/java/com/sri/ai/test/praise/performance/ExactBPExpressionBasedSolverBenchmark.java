@@ -0,0 +1,89 @@
+package com.sri.ai.test.praise.performance;
+
+import static com.sri.ai.expresso.helper.Expressions.parse;
+import static com.sri.ai.util.Util.list;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sri.ai.expresso.api.Expression;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.core.byalgorithm.exactbp.ExactBPExpressionBasedSolver;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.solver.HOGMCompiledModelCache;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.solver.HOGMMultiQueryProblemSolver;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.solver.HOGMProblemResult;
+import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedModel;
+import com.sri.ai.praise.core.representation.classbased.hogm.components.HOGMExpressionBasedModel;
+
+/**
+ * JMH measurements of {@link ExactBPExpressionBasedSolver} and {@link HOGMMultiQueryProblemSolver}
+ * with and without explanations (see {@link ExactBPExpressionBasedSolver#setExplanationsEnabled(boolean)}),
+ * on a chain of <code>chainLength</code> Boolean variables queried on its last one
+ * (the HOGM solver takes the compiled model from a cache, so that only solving is measured).
+ * <p>
+ * With explanations, every message carries an explanation tree and is computed inside explanation blocks
+ * (even if no explanation logger is listening), so the difference between the two settings is the cost of explanations alone.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmarks.include=ExactBPExpressionBasedSolverBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExactBPExpressionBasedSolverBenchmark {
+
+	@Param({"5", "10"})
+	public int chainLength;
+
+	@Param({"true", "false"})
+	public boolean explanationsEnabled;
+
+	private String modelString;
+	private Expression query;
+	private ExpressionBasedModel model;
+	private HOGMCompiledModelCache modelCache;
+
+	@Setup
+	public void makeModel() {
+		StringBuilder hogm = new StringBuilder();
+		for (int i = 0; i != chainLength; i++) {
+			hogm.append("random x" + i + ": Boolean;");
+		}
+		hogm.append("x0 0.3;");
+		for (int i = 1; i != chainLength; i++) {
+			hogm.append("if x" + (i - 1) + " then x" + i + " 0.8 else x" + i + " 0.1;");
+		}
+		modelString = hogm.toString();
+		query = parse("x" + (chainLength - 1));
+		model = new HOGMExpressionBasedModel(modelString);
+		modelCache = new HOGMCompiledModelCache(1);
+	}
+
+	@Benchmark
+	public Expression exactBPExpressionBasedSolver() {
+		ExactBPExpressionBasedSolver solver = new ExactBPExpressionBasedSolver();
+		solver.setExplanationsEnabled(explanationsEnabled);
+		return solver.solve(query, model);
+	}
+
+	@Benchmark
+	public List<HOGMProblemResult> hogmMultiQueryProblemSolver() {
+		HOGMMultiQueryProblemSolver solver = new HOGMMultiQueryProblemSolver(modelString, list(query.toString()));
+		solver.setModelCache(modelCache);
+		solver.setExplanationsEnabled(explanationsEnabled);
+		return solver.getResults();
+	}
+}
@@ -0,0 +1,95 @@
+package com.sri.ai.test.praise.performance;
+
+import static com.sri.ai.praise.core.representation.interfacebased.factor.core.table.helper.RandomTableFactorMaker.makeRandomTableFactor;
+import static com.sri.ai.util.Util.fill;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sri.ai.grinder.api.Context;
+import com.sri.ai.grinder.api.Theory;
+import com.sri.ai.grinder.theory.differencearithmetic.DifferenceArithmeticTheoryWithNonExhaustiveNonRecursiveRewriters;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.api.ExpressionFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.core.DefaultExpressionFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.helper.SpecsForRandomTableFactorGeneration;
+import com.sri.ai.praise.core.representation.translation.rodrigoframework.FromTableToExpressionFactorConverter;
+
+/**
+ * JMH measurements of {@link ExpressionFactor} multiplication and summation,
+ * on random table factors converted to tree-based or linear if-then-else expressions
+ * (the JMH counterpart of the expression factor measurements in {@link PerformanceTest}).
+ * <p>
+ * As in {@link TableFactorOperationsBenchmark}, the two factors share half of their variables.
+ * Both are placed in a context registering all variables, so that their product can be evaluated.
+ * Normalization is not measured since expression factors do not support it.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmarks.include=ExpressionFactorOperationsBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExpressionFactorOperationsBenchmark {
+
+	@Param({"2", "4"})
+	public int numberOfVariablesPerFactor;
+
+	@Param({"2", "3"})
+	public int cardinality;
+
+	@Param({"true", "false"})
+	public boolean treeBased;
+
+	private ExpressionFactor first;
+	private ExpressionFactor second;
+	private List<? extends Variable> variablesToSumOut;
+
+	@Setup
+	public void makeFactors() {
+		Random random = new Random(0);
+		SpecsForRandomTableFactorGeneration specs =
+				new SpecsForRandomTableFactorGeneration(fill(numberOfVariablesPerFactor, cardinality), 1.0, 10.0, true);
+		int offsetOfSecondFactorVariables = numberOfVariablesPerFactor/2;
+		TableFactor firstTable = makeRandomTableFactor(specs, i -> "X" + i, random);
+		TableFactor secondTable = makeRandomTableFactor(specs, i -> "X" + (i + offsetOfSecondFactorVariables), random);
+
+		Theory theory = new DifferenceArithmeticTheoryWithNonExhaustiveNonRecursiveRewriters(false, true);
+		FromTableToExpressionFactorConverter converter = new FromTableToExpressionFactorConverter();
+		LinkedHashSet<TableVariable> allVariables = new LinkedHashSet<>(firstTable.getVariables());
+		allVariables.addAll(secondTable.getVariables());
+		Context context = converter.convert(new TableFactor(allVariables, 1.0), theory).getContext();
+		first  = new DefaultExpressionFactor(converter.convert(firstTable,  theory, treeBased), context);
+		second = new DefaultExpressionFactor(converter.convert(secondTable, theory, treeBased), context);
+		variablesToSumOut = first.getVariables().subList(0, offsetOfSecondFactorVariables);
+	}
+
+	@Benchmark
+	public Factor multiply() {
+		return first.multiply(second);
+	}
+
+	@Benchmark
+	public Factor sumOut() {
+		return first.sumOut(variablesToSumOut);
+	}
+}
@@ -0,0 +1,158 @@
+package com.sri.ai.test.praise.performance;
+
+import static com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor.getCartesianProduct;
+import static com.sri.ai.praise.core.representation.interfacebased.factor.core.table.helper.RandomTableFactorMaker.makeRandomTableFactor;
+import static com.sri.ai.util.Util.fill;
+import static com.sri.ai.util.Util.in;
+import static com.sri.ai.util.Util.mapIntoArrayList;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.helper.SpecsForRandomTableFactorGeneration;
+import com.sri.ai.util.math.MixedRadixNumber;
+
+/**
+ * JMH comparison of the stride-based {@link TableFactor} multiplication and summation kernels
+ * against the previous approach of filling a variable-to-value map for every cell and
+ * computing both operands' indices with a {@link MixedRadixNumber}.
+ * <p>
+ * The two factors share half of their variables, so that multiplication exercises the general case
+ * (some variables in both operands, some in only one).
+ * Normalization is measured on a copy ({@link TableFactor#normalizedCopy()}) since {@link TableFactor#normalize()} works in place.
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmarks.include=TableFactorOperationsBenchmark</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TableFactorOperationsBenchmark {
+
+	@Param({"4", "8", "12"})
+	public int numberOfVariablesPerFactor;
+
+	@Param({"2", "4"})
+	public int cardinality;
+
+	private TableFactor first;
+	private TableFactor second;
+	private List<TableVariable> variablesToSumOut;
+
+	@Setup
+	public void makeFactors() {
+		Random random = new Random(0);
+		SpecsForRandomTableFactorGeneration specs = 
+				new SpecsForRandomTableFactorGeneration(fill(numberOfVariablesPerFactor, cardinality), 1.0, 10.0, false);
+		int offsetOfSecondFactorVariables = numberOfVariablesPerFactor/2;
+		first = makeRandomTableFactor(specs, i -> "X" + i, random);
+		second = makeRandomTableFactor(specs, i -> "X" + (i + offsetOfSecondFactorVariables), random);
+		variablesToSumOut = first.getVariables().subList(0, offsetOfSecondFactorVariables);
+	}
+
+	@Benchmark
+	public Factor multiplyWithStrides() {
+		return first.multiply(second);
+	}
+
+	@Benchmark
+	public Factor multiplyWithPerCellMaps() {
+		return multiplyWithPerCellMaps(first, second);
+	}
+
+	@Benchmark
+	public Factor sumOutWithStrides() {
+		return first.sumOut(variablesToSumOut);
+	}
+
+	@Benchmark
+	public Factor sumOutWithPerCellMaps() {
+		return sumOutWithPerCellMaps(first, variablesToSumOut);
+	}
+
+	@Benchmark
+	public Factor normalize() {
+		return first.normalizedCopy();
+	}
+	
+	// PREVIOUS, MAP-BASED IMPLEMENTATIONS /////////////////////////////////////////////////////////////
+	
+	private static TableFactor multiplyWithPerCellMaps(TableFactor first, TableFactor second) {
+		LinkedHashSet<TableVariable> variables = new LinkedHashSet<>(first.getVariables());
+		variables.addAll(second.getVariables());
+		TableFactor result = new TableFactor(variables, -1.0);
+		ArrayList<TableVariable> resultVariables = result.getVariables();
+		MixedRadixNumber firstRadix = makeRadix(first);
+		MixedRadixNumber secondRadix = makeRadix(second);
+		MixedRadixNumber resultRadix = makeRadix(result);
+		LinkedHashMap<Variable, Integer> variableValueMap = new LinkedHashMap<>();
+		for (ArrayList<Integer> values : in(getCartesianProduct(resultVariables))) {
+			putValues(resultVariables, values, variableValueMap);
+			double product = 
+					first.getEntry(index(firstRadix, first, variableValueMap)) 
+					* 
+					second.getEntry(index(secondRadix, second, variableValueMap));
+			result.setEntry(index(resultRadix, result, variableValueMap), product);
+		}
+		return result;
+	}
+
+	private static TableFactor sumOutWithPerCellMaps(TableFactor factor, List<TableVariable> variablesToSumOut) {
+		ArrayList<TableVariable> remainingVariables = new ArrayList<>(factor.getVariables());
+		remainingVariables.removeAll(variablesToSumOut);
+		TableFactor result = new TableFactor(remainingVariables, 0.0);
+		ArrayList<TableVariable> factorVariables = factor.getVariables();
+		MixedRadixNumber factorRadix = makeRadix(factor);
+		MixedRadixNumber resultRadix = makeRadix(result);
+		LinkedHashMap<Variable, Integer> variableValueMap = new LinkedHashMap<>();
+		for (ArrayList<Integer> values : in(getCartesianProduct(factorVariables))) {
+			putValues(factorVariables, values, variableValueMap);
+			int resultIndex = index(resultRadix, result, variableValueMap);
+			result.setEntry(resultIndex, result.getEntry(resultIndex) + factor.getEntry(index(factorRadix, factor, variableValueMap)));
+		}
+		return result;
+	}
+
+	private static MixedRadixNumber makeRadix(TableFactor factor) {
+		return new MixedRadixNumber(BigInteger.ZERO, mapIntoArrayList(factor.getVariables(), TableVariable::getCardinality));
+	}
+
+	private static void putValues(List<TableVariable> variables, List<Integer> values, Map<Variable, Integer> variableValueMap) {
+		for (int i = 0; i < variables.size(); i++) {
+			variableValueMap.put(variables.get(i), values.get(i));
+		}
+	}
+
+	private static int index(MixedRadixNumber radix, TableFactor factor, Map<Variable, Integer> variableValueMap) {
+		List<TableVariable> variables = factor.getVariables();
+		int[] values = new int[variables.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = variableValueMap.get(variables.get(i));
+		}
+		return radix.getValueFor(values).intValue();
+	}
+}
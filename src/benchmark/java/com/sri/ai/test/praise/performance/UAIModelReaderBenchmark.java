@@ -0,0 +1,130 @@
+package com.sri.ai.test.praise.performance;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModel;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModelType;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIModelBinaryFormat;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIModelReader;
+
+/**
+ * JMH comparison of parsing every Markov network in a directory of UAI files (<code>UAITests</code> by default)
+ * with the memory-mapped reader used by {@link UAIModelReader#read(File)}
+ * against the line-based reader used by {@link UAIModelReader#read(java.io.Reader)},
+ * and of loading the same models from the {@link UAIModelBinaryFormat} (written to a temporary directory on setup).
+ * <p>
+ * Besides the time to read the whole directory, the parse throughput is reported
+ * in the secondary <code>bytes</code> result (bytes of UAI text parsed, or equivalently loaded, per second).
+ * <p>
+ * Run with <code>mvn -Pbenchmarks test-compile exec:exec -Dbenchmarks.include=UAIModelReaderBenchmark</code>
+ * (from the project's root directory, or with <code>-p directory=&lt;path&gt;</code> passed to JMH).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UAIModelReaderBenchmark {
+
+	@Param({"UAITests"})
+	public String directory;
+
+	private List<File> files;
+	private List<File> binaryFiles;
+	private long numberOfBytes;
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class ParsedBytes {
+		public long bytes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+		}
+	}
+
+	@Setup
+	public void collectFiles() throws IOException {
+		File[] uaiFiles = new File(directory).listFiles((dir, name) -> name.endsWith(".uai"));
+		if (uaiFiles == null) {
+			throw new Error("Directory " + new File(directory).getAbsolutePath() + " does not exist.");
+		}
+		Arrays.sort(uaiFiles);
+		files = new ArrayList<>();
+		binaryFiles = new ArrayList<>();
+		numberOfBytes = 0;
+		for (File file : uaiFiles) {
+			if (isMarkovNetwork(file)) {
+				files.add(file);
+				numberOfBytes += file.length();
+				File binaryFile = File.createTempFile(file.getName(), UAIModelBinaryFormat.FILE_EXTENSION);
+				binaryFile.deleteOnExit();
+				UAIModelBinaryFormat.write(UAIModelReader.read(file), binaryFile);
+				binaryFiles.add(binaryFile);
+			}
+		}
+	}
+
+	@Benchmark
+	public int memoryMapped(ParsedBytes parsedBytes) throws IOException {
+		int result = 0;
+		for (File file : files) {
+			UAIModel model = UAIModelReader.read(file);
+			result += model.numberTables();
+		}
+		parsedBytes.bytes += numberOfBytes;
+		return result;
+	}
+
+	@Benchmark
+	public int lineBased(ParsedBytes parsedBytes) throws IOException {
+		int result = 0;
+		for (File file : files) {
+			UAIModel model = UAIModelReader.read(new FileReader(file));
+			result += model.numberTables();
+		}
+		parsedBytes.bytes += numberOfBytes;
+		return result;
+	}
+
+	@Benchmark
+	public int binary(ParsedBytes parsedBytes) throws IOException {
+		int result = 0;
+		for (File file : binaryFiles) {
+			UAIModel model = UAIModelBinaryFormat.read(file);
+			result += model.numberTables();
+		}
+		parsedBytes.bytes += numberOfBytes;
+		return result;
+	}
+
+	private static boolean isMarkovNetwork(File file) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			String type = reader.readLine();
+			return type != null && type.trim().equals(UAIModelType.MARKOV.name());
+		}
+	}
+}
@@ -73,16 +73,36 @@ public class PRAiSEUtil {
 	 * @return
 	 */
 	public static Expression normalize(Expression variable, Expression expression, Context context) {
+		return normalize(variable, expression, context, true);
+	}
+
+	/**
+	 * Same as {@link #normalize(Expression, Expression, Context)},
+	 * but logging the normalization with an explanation block only if <code>explain</code> is true.
+	 * @param variable
+	 * @param expression
+	 * @param context
+	 * @param explain
+	 * @return
+	 */
+	public static Expression normalize(Expression variable, Expression expression, Context context, boolean explain) {
+		if (!explain) {
+			return normalizeWithoutExplanation(variable, expression, context);
+		}
 		return 
 				explanationBlock("Normalizing ", expression, " with respect to ", variable, ThreadExplanationLogger.code(() -> {
-					Expression set = DefaultIntensionalMultiSet.intensionalMultiSet(variable, expression, TRUE, context);
-					Expression sum = apply(SUM, set);
-					Expression normalizedDefinition = apply(DIVISION, expression, sum);
-					Expression result = context.evaluate(normalizedDefinition);
-					return result;
+					return normalizeWithoutExplanation(variable, expression, context);
 				}), "Normalization is ", RESULT);
 	}
 
+	private static Expression normalizeWithoutExplanation(Expression variable, Expression expression, Context context) {
+		Expression set = DefaultIntensionalMultiSet.intensionalMultiSet(variable, expression, TRUE, context);
+		Expression sum = apply(SUM, set);
+		Expression normalizedDefinition = apply(DIVISION, expression, sum);
+		Expression result = context.evaluate(normalizedDefinition);
+		return result;
+	}
+
 	public static Factor conditionOnlyIfDeterministic(Factor factor) {
 		if (factor instanceof ExpressionFactor) {
 			Expression expression = (Expression) factor;
@@ -1,5 +1,9 @@
 package com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.api;
 
+import static com.sri.ai.util.Util.mapIntoList;
+
+import java.util.List;
+
 import com.sri.ai.expresso.api.Expression;
 import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedModel;
 import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedProblem;
@@ -14,6 +18,13 @@ public interface ExpressionBasedSolver {
 
 	void interrupt();
 
+	/**
+	 * Sets whether the solver builds explanations of its results (and logs its computation with explanation blocks).
+	 * Turning them off removes that overhead from solving; solvers not building explanations ignore it.
+	 */
+	default void setExplanationsEnabled(boolean explanationsEnabled) {
+	}
+
 	Expression solve(ExpressionBasedProblem problem);
 
 	default Expression solve(Expression queryExpression, ExpressionBasedModel expressionBasedModel) {
@@ -21,4 +32,14 @@ public interface ExpressionBasedSolver {
 		Expression result = solve(problem);
 		return result;
 	}
+
+	/**
+	 * Solves a batch of queries on the same model, returning their marginals in the same order.
+	 * Implementations share the normalization constant and other query-independent computations
+	 * among the queries where they can; by default, each query is solved independently.
+	 */
+	default List<Expression> solve(List<Expression> queryExpressions, ExpressionBasedModel expressionBasedModel) {
+		List<Expression> result = mapIntoList(queryExpressions, q -> solve(q, expressionBasedModel));
+		return result;
+	}
 }
\ No newline at end of file
@@ -1,13 +1,28 @@
 package com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.core;
 
+import static com.sri.ai.util.Util.mapIntoList;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import com.sri.ai.expresso.api.Expression;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.api.ExpressionBasedSolver;
+import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedModel;
 import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedProblem;
+import com.sri.ai.praise.core.representation.classbased.expressionbased.core.DefaultExpressionBasedProblem;
 
 public abstract class AbstractExpressionBasedSolver implements ExpressionBasedSolver {
 
 	protected abstract Expression solveForQuerySymbolDefinedByExpressionBasedProblem(ExpressionBasedProblem problem);
 
+	/**
+	 * Solves problems on the same model, by default independently of each other;
+	 * extensions override this to share work among them.
+	 */
+	protected List<Expression> solveForQuerySymbolsDefinedByExpressionBasedProblems(List<? extends ExpressionBasedProblem> problems) {
+		return mapIntoList(problems, p -> solveForQuerySymbolDefinedByExpressionBasedProblem(p));
+	}
+
 	@Override
 	public Expression solve(ExpressionBasedProblem problem) {
 		Expression normalizedMarginal = solveForQuerySymbolDefinedByExpressionBasedProblem(problem);
@@ -15,6 +30,17 @@ public abstract class AbstractExpressionBasedSolver implements ExpressionBasedSo
 		return result;
 	}
 
+	@Override
+	public List<Expression> solve(List<Expression> queryExpressions, ExpressionBasedModel expressionBasedModel) {
+		List<ExpressionBasedProblem> problems = mapIntoList(queryExpressions, q -> new DefaultExpressionBasedProblem(q, expressionBasedModel));
+		List<Expression> normalizedMarginals = solveForQuerySymbolsDefinedByExpressionBasedProblems(problems);
+		List<Expression> result = new ArrayList<>(problems.size());
+		for (int i = 0; i != problems.size(); i++) {
+			result.add(replaceQuerySymbolByQueryExpressionIfNeeded(problems.get(i), normalizedMarginals.get(i)));
+		}
+		return result;
+	}
+
 	protected Expression replaceQuerySymbolByQueryExpressionIfNeeded(ExpressionBasedProblem problem, Expression normalizedMarginal) {
 		Expression result = problem.replaceQuerySymbolByQueryExpressionIfNeeded(normalizedMarginal);
 		return result;
@@ -1,5 +1,7 @@
 package com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.core.byalgorithm.adaptinginterfacebasedsolver;
 
+import java.util.List;
+
 import com.sri.ai.expresso.api.Expression;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.core.AbstractExpressionBasedSolver;
 import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.api.Solver;
@@ -23,6 +25,17 @@ public abstract class SolverToExpressionBasedSolverAdapter extends AbstractExpre
 		return result;
 	}
 
+	/**
+	 * Translates the problems so that those with the same factors share a factor network,
+	 * and solves them as a batch, so the solver can share work among them.
+	 */
+	@Override
+	protected List<Expression> solveForQuerySymbolsDefinedByExpressionBasedProblems(List<? extends ExpressionBasedProblem> expressionBasedProblems) {
+		List<Problem> problems = ExpressionBasedProblemToInterfaceBasedProblemConversion.translate(expressionBasedProblems);
+		List<Expression> result = getSolver().solve(problems);
+		return result;
+	}
+
 	private Solver getSolver() {
 		return solver;
 	}
@@ -97,6 +97,17 @@ public class EvaluationExpressionBasedSolver extends AbstractExpressionBasedSolv
 		multiQuantifierEliminator.interrupt();
 	}
 	
+	/**
+	 * Solves problems on the same model computing their partition function only once,
+	 * since it does not depend on the query (the definition of a compound query sums to one over the query symbol).
+	 */
+	@Override
+	protected List<Expression> solveForQuerySymbolsDefinedByExpressionBasedProblems(List<? extends ExpressionBasedProblem> problems) {
+		partitionFunction = null; // may have been computed for another model
+		List<Expression> result = super.solveForQuerySymbolsDefinedByExpressionBasedProblems(problems);
+		return result;
+	}
+
 	@Override
 	public Expression solveForQuerySymbolDefinedByExpressionBasedProblem(ExpressionBasedProblem problem) {
 		myAssert(problem.getProceduralAttachments().isEmpty(), () -> getClass() + " not prepared to solve problems with procedural attachments.");
@@ -40,21 +40,61 @@ package com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expres
 import com.sri.ai.expresso.api.Expression;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.core.byalgorithm.adaptinginterfacebasedsolver.SolverToExpressionBasedSolverAdapter;
 import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.NormalizedExactBP;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ParallelExactBPNodeEvaluator;
 import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedProblem;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.api.ExpressionFactor;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.core.DefaultExpressionFactor;
 
 public class ExactBPExpressionBasedSolver extends SolverToExpressionBasedSolverAdapter {
 
+	private NormalizedExactBP normalizedExactBP;
+
 	public ExactBPExpressionBasedSolver() {
-		super(new NormalizedExactBP());
+		this(new NormalizedExactBP());
+	}
+
+	/**
+	 * Makes a solver whose exact BP is given the parallel evaluator;
+	 * note that, since expression factors may simplify away variables, messages on them are still computed sequentially
+	 * (see {@link ParallelExactBPNodeEvaluator#canEvaluate}).
+	 */
+	public ExactBPExpressionBasedSolver(ParallelExactBPNodeEvaluator parallelEvaluator) {
+		this(new NormalizedExactBP(parallelEvaluator));
+	}
+
+	private ExactBPExpressionBasedSolver(NormalizedExactBP normalizedExactBP) {
+		super(normalizedExactBP);
+		this.normalizedExactBP = normalizedExactBP;
+	}
+
+	/**
+	 * Sets whether marginals come with explanation trees (the default);
+	 * see {@link NormalizedExactBP#setExplanationsEnabled(boolean)}.
+	 */
+	@Override
+	public void setExplanationsEnabled(boolean explanationsEnabled) {
+		normalizedExactBP.setExplanationsEnabled(explanationsEnabled);
+	}
+
+	public boolean explanationsAreEnabled() {
+		return normalizedExactBP.explanationsAreEnabled();
+	}
+
+	/**
+	 * Returns the number of messages reused across the queries of the last batch;
+	 * see {@link NormalizedExactBP#getNumberOfReusedMessages()}.
+	 */
+	public int getNumberOfReusedMessages() {
+		return normalizedExactBP.getNumberOfReusedMessages();
 	}
 
 	protected Expression replaceQuerySymbolByQueryExpressionIfNeeded(ExpressionBasedProblem problem, Expression normalizedMarginal) {
 		ExpressionFactor expressionFactor = (ExpressionFactor) normalizedMarginal;
 		Expression normalizedMarginalWithQueryExpression = super.replaceQuerySymbolByQueryExpressionIfNeeded(problem, normalizedMarginal);
 		ExpressionFactor result = new DefaultExpressionFactor(normalizedMarginalWithQueryExpression, expressionFactor.getContext());
-		result.setExplanation(expressionFactor.getExplanation());
+		if (explanationsAreEnabled()) {
+			result.setExplanation(expressionFactor.getExplanation());
+		}
 		return result;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.annotations.Beta;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.parsing.HOGMModelParsing;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.parsing.HOGMProblemError;
+import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedModel;
+import com.sri.ai.praise.core.representation.classbased.hogm.HOGModel;
+import com.sri.ai.praise.core.representation.classbased.hogm.components.HOGMExpressionBasedModel;
+
+/**
+ * The result of parsing and validating a HOGM model string and building its expression-based model,
+ * meant to be shared (read-only) by the solvers of many queries, through a {@link HOGMCompiledModelCache}.
+ * <p>
+ * Users must not modify the shared expression-based model, but obtain their own copy with {@link #makeExpressionBasedModel()}.
+ *
+ */
+@Beta
+public class HOGMCompiledModel {
+
+	private String modelString;
+	private HOGModel hogmModel;
+	private ExpressionBasedModel expressionBasedModel;
+	private List<HOGMProblemError> errors;
+
+	public HOGMCompiledModel(String modelString) {
+		List<HOGMProblemError> errors = new ArrayList<>();
+		HOGMModelParsing parsingWithErrorCollecting = new HOGMModelParsing(modelString, errors);
+		this.modelString = modelString;
+		this.hogmModel = parsingWithErrorCollecting.getModel();
+		this.expressionBasedModel = hogmModel == null? null : new HOGMExpressionBasedModel(hogmModel);
+		if (expressionBasedModel != null) {
+			expressionBasedModel.getContext(); // created now, so that copies share it instead of each creating their own
+		}
+		this.errors = Collections.unmodifiableList(errors);
+	}
+
+	public String getModelString() {
+		return modelString;
+	}
+
+	/**
+	 * The parsed model, or null if it could not be parsed.
+	 */
+	public HOGModel getHOGModel() {
+		return hogmModel;
+	}
+
+	/**
+	 * Returns a copy of the expression-based model, with its own clone of the context,
+	 * that can be modified (for example, given procedural attachments) and used concurrently with other copies;
+	 * or null if the model could not be parsed.
+	 */
+	public ExpressionBasedModel makeExpressionBasedModel() {
+		ExpressionBasedModel result = expressionBasedModel == null? null : expressionBasedModel.cloneWithClonedContext();
+		return result;
+	}
+
+	/**
+	 * The errors found parsing and validating the model.
+	 */
+	public List<HOGMProblemError> getErrors() {
+		return errors;
+	}
+}
@@ -0,0 +1,157 @@
+package com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.solver;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A size-bounded, least-recently-used cache of {@link HOGMCompiledModel}s keyed by a SHA-256 hash of their model strings,
+ * so that a model queried repeatedly is parsed, validated and converted to an expression-based model only once.
+ * <p>
+ * A process-wide instance is available through {@link #getDefault()};
+ * {@link HOGMMultiQueryProblemSolver}s use it when given it with {@link HOGMMultiQueryProblemSolver#setModelCache(HOGMCompiledModelCache)}
+ * or through {@link HOGMMultiQueryProblemSolver#defaultModelCache}.
+ * <p>
+ * The cache is thread-safe. Models are compiled outside of its lock,
+ * so a model requested concurrently before being cached may be compiled more than once
+ * (only one of the results is kept).
+ *
+ */
+@Beta
+public class HOGMCompiledModelCache {
+
+	public static final int DEFAULT_MAXIMUM_SIZE = 32;
+
+	private static final HOGMCompiledModelCache DEFAULT = new HOGMCompiledModelCache(DEFAULT_MAXIMUM_SIZE);
+
+	/**
+	 * The process-wide cache.
+	 */
+	public static HOGMCompiledModelCache getDefault() {
+		return DEFAULT;
+	}
+
+	private int maximumSize;
+	private LinkedHashMap<String, HOGMCompiledModel> compiledModels;
+	private long numberOfHits = 0;
+	private long numberOfMisses = 0;
+	private long numberOfEvictions = 0;
+
+	public HOGMCompiledModelCache(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Maximum size of cache must be at least 1 but is " + maximumSize);
+		}
+		this.maximumSize = maximumSize;
+		this.compiledModels = new LinkedHashMap<String, HOGMCompiledModel>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, HOGMCompiledModel> eldest) {
+				boolean result = size() > HOGMCompiledModelCache.this.maximumSize;
+				if (result) {
+					numberOfEvictions++;
+				}
+				return result;
+			}
+		};
+	}
+
+	/**
+	 * Returns the compiled model for a model string, compiling and caching it if it is not already cached.
+	 */
+	public HOGMCompiledModel get(String modelString) {
+		if (modelString == null) {
+			return new HOGMCompiledModel(modelString); // only holds the error
+		}
+		String key = hash(modelString);
+		synchronized (this) {
+			HOGMCompiledModel cached = compiledModels.get(key);
+			if (cached != null && cached.getModelString().equals(modelString)) {
+				numberOfHits++;
+				return cached;
+			}
+			numberOfMisses++;
+		}
+		HOGMCompiledModel result = new HOGMCompiledModel(modelString);
+		synchronized (this) {
+			HOGMCompiledModel cachedMeanwhile = compiledModels.get(key);
+			if (cachedMeanwhile != null && cachedMeanwhile.getModelString().equals(modelString)) {
+				result = cachedMeanwhile;
+			}
+			else {
+				compiledModels.put(key, result);
+			}
+		}
+		return result;
+	}
+
+	public synchronized boolean contains(String modelString) {
+		if (modelString == null) {
+			return false;
+		}
+		HOGMCompiledModel cached = compiledModels.get(hash(modelString));
+		boolean result = cached != null && cached.getModelString().equals(modelString);
+		return result;
+	}
+
+	public synchronized int size() {
+		return compiledModels.size();
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	public synchronized long getNumberOfHits() {
+		return numberOfHits;
+	}
+
+	public synchronized long getNumberOfMisses() {
+		return numberOfMisses;
+	}
+
+	public synchronized long getNumberOfEvictions() {
+		return numberOfEvictions;
+	}
+
+	/**
+	 * The proportion of requests found in the cache (zero if there were no requests).
+	 */
+	public synchronized double getHitRate() {
+		long requests = numberOfHits + numberOfMisses;
+		double result = requests == 0? 0.0 : ((double) numberOfHits)/requests;
+		return result;
+	}
+
+	/**
+	 * Removes all compiled models and resets the metrics.
+	 */
+	public synchronized void clear() {
+		compiledModels.clear();
+		numberOfHits = 0;
+		numberOfMisses = 0;
+		numberOfEvictions = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "HOGM compiled model cache with " + size() + " of at most " + maximumSize + " models, " + numberOfHits + " hits, " + numberOfMisses + " misses and " + numberOfEvictions + " evictions";
+	}
+
+	private static String hash(String modelString) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(modelString.getBytes(StandardCharsets.UTF_8));
+			StringBuilder result = new StringBuilder(2*digest.length);
+			for (byte b : digest) {
+				result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return result.toString();
+		}
+		catch (NoSuchAlgorithmException exception) {
+			throw new Error("SHA-256 is not available", exception);
+		}
+	}
+}
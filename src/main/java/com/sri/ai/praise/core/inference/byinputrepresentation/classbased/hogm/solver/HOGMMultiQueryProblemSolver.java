@@ -46,25 +46,59 @@ import static com.sri.ai.util.explanation.logging.api.ThreadExplanationLogger.ex
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.google.common.annotations.Beta;
 import com.sri.ai.expresso.api.Expression;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.api.ExpressionBasedSolver;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.core.byalgorithm.exactbp.ExactBPExpressionBasedSolver;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.answer.HOGMAnswerSimplifier;
-import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.parsing.HOGMModelParsing;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.parsing.HOGMProblemError;
 import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedModel;
 import com.sri.ai.praise.core.representation.classbased.hogm.HOGModel;
-import com.sri.ai.praise.core.representation.classbased.hogm.components.HOGMExpressionBasedModel;
 import com.sri.ai.praise.other.integration.proceduralattachment.api.ProceduralAttachments;
 import com.sri.ai.praise.other.integration.proceduralattachment.api.Procedure;
 import com.sri.ai.praise.other.integration.proceduralattachment.core.DefaultProceduralAttachments;
 
+/**
+ * Solves a list of queries on a HOGM model, returning their results in the order of the queries.
+ * <p>
+ * By default, queries are solved one after the other on the caller's thread.
+ * With {@link #setNumberOfThreads(int)} greater than one, they are instead solved concurrently on that many threads,
+ * each query with its own {@link ExpressionBasedSolver} and its own clone of the model's context
+ * (the parsed model itself is shared, read-only).
+ * Note that the number of summations recorded in results is not reliable in that case,
+ * since integration recording is global to the JVM.
+ * <p>
+ * A per-query timeout can be set with {@link #setQueryTimeout(long, TimeUnit)}; a query taking longer is interrupted
+ * and yields a result with an error (unless its solver completes regardless). {@link #interrupt()} interrupts all running queries, and no results are produced for
+ * queries that have not completed by then.
+ * <p>
+ * After solving, {@link #getWallClockMillisecondsToCompute()} and {@link #getSummedMillisecondsToCompute()}
+ * indicate how much concurrency paid off.
+ * <p>
+ * If given a {@link HOGMCompiledModelCache} (with {@link #setModelCache(HOGMCompiledModelCache)}, or by default {@link #defaultModelCache}),
+ * the model is parsed, validated and converted to an expression-based model only the first time it is seen.
+ */
 @Beta
 public class HOGMMultiQueryProblemSolver {
 	
 	public static Class<? extends ExpressionBasedSolver> defaultSolverClass = ExactBPExpressionBasedSolver.class;
+	
+	/**
+	 * The model cache used by new solvers (none by default); set it to {@link HOGMCompiledModelCache#getDefault()} to share compiled models process-wide.
+	 */
+	public static HOGMCompiledModelCache defaultModelCache = null;
 
 	private String modelString;
 	private List<String> queries;
@@ -72,10 +106,17 @@ public class HOGMMultiQueryProblemSolver {
 	private HOGModel hogmModel = null;
 	private ExpressionBasedModel expressionBasedModel;
 	private Class<? extends ExpressionBasedSolver> solverClass;
-	private HOGMSingleQueryProblemSolver problemSolver;
+	private volatile AtomicReferenceArray<HOGMSingleQueryProblemSolver> problemSolvers;
 	private List<HOGMProblemError> modelErrors = new ArrayList<>();
 	private List<HOGMProblemResult> results = null;
 	private ProceduralAttachments proceduralAttachments = new DefaultProceduralAttachments();
+	private int numberOfThreads = 1;
+	private long queryTimeoutInMilliseconds = 0;
+	private volatile boolean interrupted = false;
+	private volatile List<Future<List<HOGMProblemResult>>> futures = null;
+	private long wallClockMillisecondsToCompute = 0;
+	private HOGMCompiledModelCache modelCache = defaultModelCache;
+	private boolean explanationsEnabled = true;
 	
 	public HOGMMultiQueryProblemSolver(String model, String query) {
 		this(model, list(query), defaultSolverClass);
@@ -103,6 +144,72 @@ public class HOGMMultiQueryProblemSolver {
 		return this.proceduralAttachments;
 	}
 
+	/**
+	 * Sets the cache from which the compiled model is obtained (null for compiling it anew).
+	 */
+	public void setModelCache(HOGMCompiledModelCache modelCache) {
+		this.modelCache = modelCache;
+	}
+
+	public HOGMCompiledModelCache getModelCache() {
+		return modelCache;
+	}
+
+	/**
+	 * Sets the number of threads on which queries are solved (one, the default, solves them on the caller's thread).
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("Number of threads must be at least 1 but is " + numberOfThreads);
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * Sets the maximum time each query may take (zero, the default, for no limit).
+	 */
+	public void setQueryTimeout(long timeout, TimeUnit unit) {
+		this.queryTimeoutInMilliseconds = unit.toMillis(timeout);
+	}
+
+	public long getQueryTimeoutInMilliseconds() {
+		return queryTimeoutInMilliseconds;
+	}
+
+	/**
+	 * Sets whether results come with explanations and queries are logged with explanation blocks (the default).
+	 * Turning them off keeps explanation construction out of solving entirely, leaving {@link HOGMProblemResult#getExplanation()} as a placeholder.
+	 */
+	public void setExplanationsEnabled(boolean explanationsEnabled) {
+		this.explanationsEnabled = explanationsEnabled;
+	}
+
+	public boolean explanationsAreEnabled() {
+		return explanationsEnabled;
+	}
+
+	/**
+	 * The time elapsed solving all queries.
+	 */
+	public long getWallClockMillisecondsToCompute() {
+		return wallClockMillisecondsToCompute;
+	}
+
+	/**
+	 * The sum of the times taken by each query, which exceeds the wall-clock time when queries are solved concurrently.
+	 */
+	public long getSummedMillisecondsToCompute() {
+		long result = 0;
+		for (HOGMProblemResult queryResult : getResults()) {
+			result += queryResult.getMillisecondsToCompute();
+		}
+		return result;
+	}
+
 	public List<HOGMProblemResult> getResults() {
 		if (results == null) {
 			results = arrayList();
@@ -113,32 +220,182 @@ public class HOGMMultiQueryProblemSolver {
     }
 
 	private void initializeModel(String modelString) {
-		HOGMModelParsing parsingWithErrorCollecting = new HOGMModelParsing(modelString, modelErrors);
-		this.hogmModel = parsingWithErrorCollecting.getModel();
-		this.expressionBasedModel = hogmModel == null? null : new HOGMExpressionBasedModel(hogmModel);
+		HOGMCompiledModel compiledModel = modelCache == null? new HOGMCompiledModel(modelString) : modelCache.get(modelString);
+		this.modelErrors.addAll(compiledModel.getErrors());
+		this.hogmModel = compiledModel.getHOGModel();
+		this.expressionBasedModel = compiledModel.makeExpressionBasedModel();
 		if (this.expressionBasedModel != null) {
 			this.expressionBasedModel.setProceduralAttachments(proceduralAttachments);
 		}
 	}
 
 	private void processAllQueries(List<String> queries) {
-		for (String query : queries) {
-        	solveProblemWithQuery(query);
-        }
+		long start = System.currentTimeMillis();
+		problemSolvers = new AtomicReferenceArray<>(queries.size());
+		ScheduledExecutorService timer = queryTimeoutInMilliseconds > 0? Executors.newSingleThreadScheduledExecutor(daemonThreads("HOGM query timer")) : null;
+		try {
+			if (numberOfThreads == 1 || queries.size() < 2) {
+				for (int i = 0; i != queries.size() && !interrupted; i++) {
+					results.addAll(solveProblemWithQuery(i, queries.get(i), expressionBasedModel, timer));
+				}
+			}
+			else {
+				processAllQueriesConcurrently(queries, timer);
+			}
+		}
+		finally {
+			if (timer != null) {
+				timer.shutdownNow();
+			}
+			wallClockMillisecondsToCompute = System.currentTimeMillis() - start;
+		}
 	}
 
-	private void solveProblemWithQuery(String query) {
-		explanationBlock("Solving query ", query, code(() -> {
-			HOGMSingleQueryProblemSolver problemSolver = new HOGMSingleQueryProblemSolver(query, solverClass, hogmModel, expressionBasedModel, modelErrors);
-			List<HOGMProblemResult> queryResult = problemSolver.getResults();
-			results.addAll(queryResult);
-		return queryResult; }), "Query result is ", RESULT);
+	private void processAllQueriesConcurrently(List<String> queries, ScheduledExecutorService timer) {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(numberOfThreads, queries.size()), daemonThreads("HOGM query solver"));
+		try {
+			List<Future<List<HOGMProblemResult>>> submitted = new ArrayList<>(queries.size());
+			for (int i = 0; i != queries.size(); i++) {
+				int queryIndex = i;
+				String query = queries.get(i);
+				// the context is cloned here, on a single thread, since it is created lazily by the shared model
+				ExpressionBasedModel modelForQuery = expressionBasedModel == null? null : expressionBasedModel.cloneWithClonedContext();
+				submitted.add(executor.submit(() -> solveProblemWithQuery(queryIndex, query, modelForQuery, timer)));
+			}
+			futures = submitted;
+			if (interrupted) {
+				cancelAll();
+			}
+			for (Future<List<HOGMProblemResult>> future : submitted) {
+				try {
+					results.addAll(future.get());
+				}
+				catch (CancellationException cancellation) {
+					// interrupted before completion: no results
+				}
+				catch (InterruptedException interruption) {
+					Thread.currentThread().interrupt();
+					interrupt();
+				}
+				catch (ExecutionException exception) {
+					try {
+						interrupt();
+					}
+					catch (RuntimeException | Error failureToInterrupt) {
+						exception.getCause().addSuppressed(failureToInterrupt);
+					}
+					throwCause(exception);
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
 	}
 
-	public void interrupt() {
-		if (problemSolver != null) {
+	private List<HOGMProblemResult> solveProblemWithQuery(int queryIndex, String query, ExpressionBasedModel expressionBasedModel, ScheduledExecutorService timer) {
+		HOGMSingleQueryProblemSolver problemSolver = new HOGMSingleQueryProblemSolver(query, solverClass, hogmModel, expressionBasedModel, modelErrors);
+		problemSolver.setExplanationsEnabled(explanationsEnabled);
+		problemSolvers.set(queryIndex, problemSolver);
+		if (interrupted) { // interrupt() may have been invoked before the solver was registered
 			problemSolver.interrupt();
 		}
+		
+		AtomicBoolean timedOut = new AtomicBoolean(false);
+		ScheduledFuture<?> timeout = null;
+		if (timer != null) {
+			timeout = timer.schedule(() -> { timedOut.set(true); problemSolver.interrupt(); }, queryTimeoutInMilliseconds, TimeUnit.MILLISECONDS);
+		}
+		
+		long start = System.currentTimeMillis();
+		List<HOGMProblemResult> result;
+		try {
+			if (explanationsEnabled) {
+				result = explanationBlock("Solving query ", query, code(() -> problemSolver.getResults()), "Query result is ", RESULT);
+			}
+			else {
+				result = problemSolver.getResults();
+			}
+		}
+		catch (RuntimeException | Error exception) {
+			if (!problemSolver.isCanceled()) {
+				throw exception;
+			}
+			result = list(); // the interruption surfaced as an exception
+		}
+		finally {
+			if (timeout != null) {
+				timeout.cancel(false);
+			}
+			problemSolvers.set(queryIndex, null);
+		}
+		
+		if (timedOut.get() && result.isEmpty()) {
+			long time = System.currentTimeMillis() - start;
+			HOGMProblemError error = new HOGMProblemError(HOGMProblemError.Scope.QUERY, "Query timed out after " + time + " ms (timeout is " + queryTimeoutInMilliseconds + " ms)");
+			result = list(new HOGMProblemResult(query, hogmModel, list(error), time));
+		}
+		return result;
+	}
+
+	/**
+	 * Interrupts all running queries and cancels the ones not started yet.
+	 * All solvers are interrupted even if some of them fail to; the first such failure is then rethrown.
+	 */
+	public void interrupt() {
+		interrupted = true;
+		cancelAll();
+		Throwable firstFailure = null;
+		AtomicReferenceArray<HOGMSingleQueryProblemSolver> solvers = problemSolvers;
+		if (solvers != null) {
+			for (int i = 0; i != solvers.length(); i++) {
+				HOGMSingleQueryProblemSolver problemSolver = solvers.get(i);
+				if (problemSolver != null) {
+					try {
+						problemSolver.interrupt();
+					}
+					catch (RuntimeException | Error failure) {
+						if (firstFailure == null) {
+							firstFailure = failure;
+						}
+					}
+				}
+			}
+		}
+		if (firstFailure instanceof RuntimeException) {
+			throw (RuntimeException) firstFailure;
+		}
+		else if (firstFailure != null) {
+			throw (Error) firstFailure;
+		}
+	}
+
+	private void cancelAll() {
+		List<Future<List<HOGMProblemResult>>> currentFutures = futures;
+		if (currentFutures != null) {
+			for (Future<List<HOGMProblemResult>> future : currentFutures) {
+				future.cancel(false);
+			}
+		}
+	}
+
+	private static void throwCause(ExecutionException exception) {
+		Throwable cause = exception.getCause();
+		if (cause instanceof RuntimeException) {
+			throw (RuntimeException) cause;
+		}
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		throw new Error(cause);
+	}
+
+	private static ThreadFactory daemonThreads(String name) {
+		return runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		};
 	}
 
 	public Expression simplifyAnswer(Expression answer, Expression forQuery) {
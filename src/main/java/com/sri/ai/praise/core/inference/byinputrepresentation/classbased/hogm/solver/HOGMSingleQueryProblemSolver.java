@@ -53,26 +53,29 @@ import com.sri.ai.praise.core.representation.classbased.hogm.HOGModel;
 import com.sri.ai.util.base.NullaryFunction;
 import com.sri.ai.util.base.Pair;
 
+/**
+ * Solves a single query on a HOGM model.
+ * The query is parsed on construction, and inference runs on the first call to {@link #getResults()},
+ * so that the solver can be handed to another thread for {@link #interrupt()} before inference starts.
+ */
 @Beta
 public class HOGMSingleQueryProblemSolver {
 	
+	private String query;
 	private HOGModel hogmModel = null;
-	private List<HOGMProblemResult> results = new ArrayList<>();
-	private boolean canceled = false;
+	private HOGMQueryParsing queryParsing;
+	private List<HOGMProblemResult> results = null;
+	private volatile boolean canceled = false;
 	private ExpressionBasedModel expressionBasedModel;
 	private Class<? extends ExpressionBasedSolver> solverClass;
+	private boolean explanationsEnabled = true;
 
 	public HOGMSingleQueryProblemSolver(String query, Class<? extends ExpressionBasedSolver> solverClass, HOGModel hogmModel, ExpressionBasedModel expressionBasedModel, List<HOGMProblemError> modelErrors) {
+		this.query = query;
 		this.solverClass = solverClass;
 		this.hogmModel = hogmModel;
 		this.expressionBasedModel = expressionBasedModel;
-		HOGMQueryParsing queryParsing = new HOGMQueryParsing(query, hogmModel, modelErrors);
-		if (queryParsing.succeeded()) {
-			collectInferenceResult(query, queryParsing);
-		}
-		else {
-			collectParsingErrorResult(queryParsing);
-		}
+		this.queryParsing = new HOGMQueryParsing(query, hogmModel, modelErrors);
 	}
 
 	private void collectInferenceResult(String query, HOGMQueryParsing queryParsing) {
@@ -100,25 +103,54 @@ public class HOGMSingleQueryProblemSolver {
 
 	public void interrupt() {
 		canceled = true;
-		expressionBasedSolver.interrupt();
+		ExpressionBasedSolver solver = expressionBasedSolver;
+		if (solver != null) {
+			solver.interrupt();
+		}
+	}
+	
+	public boolean isCanceled() {
+		return canceled;
+	}
+	
+	/**
+	 * Sets whether the solver builds explanations of results (the default; see {@link ExpressionBasedSolver#setExplanationsEnabled(boolean)}).
+	 * Must be invoked before results are requested.
+	 */
+	public void setExplanationsEnabled(boolean explanationsEnabled) {
+		this.explanationsEnabled = explanationsEnabled;
 	}
 	
 	public List<HOGMProblemResult> getResults() {
+		if (results == null) {
+			results = new ArrayList<>();
+			if (queryParsing.succeeded()) {
+				collectInferenceResult(query, queryParsing);
+			}
+			else {
+				collectParsingErrorResult(queryParsing);
+			}
+		}
         return results;
     }
 
-	private ExpressionBasedSolver expressionBasedSolver = null;
+	private volatile ExpressionBasedSolver expressionBasedSolver = null;
 
 	private ExpressionBasedSolver getExpressionBasedSolver() {
 		if (expressionBasedSolver == null) {
 			makeSolver(solverClass);
+			if (canceled) { // interrupt() may have been invoked right before the solver was made
+				expressionBasedSolver.interrupt();
+			}
 		}
 		return expressionBasedSolver;
 	}
 
 	private void makeSolver(Class<? extends ExpressionBasedSolver> solverClass) throws Error {
 		try {
-			this.expressionBasedSolver = solverClass.newInstance();
+			ExpressionBasedSolver solver = solverClass.newInstance();
+			solver.setExplanationsEnabled(explanationsEnabled);
+			this.expressionBasedSolver = solver;
 		}
 		catch (Throwable throwable) {
 			throw new Error("Could not instantiate " + solverClass);
@@ -1,12 +1,25 @@
 package com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.api;
 
+import static com.sri.ai.util.Util.mapIntoList;
+
+import java.util.List;
+
 import com.sri.ai.expresso.api.Expression;
 import com.sri.ai.praise.core.representation.interfacebased.factor.api.Problem;
 
 public interface Solver {
 
 	Expression solve(Problem problem);
-	
+
+	/**
+	 * Solves a batch of problems, returning their solutions in the same order.
+	 * Implementations may share work among problems on the same model;
+	 * by default, each problem is solved independently.
+	 */
+	default List<Expression> solve(List<? extends Problem> problems) {
+		return mapIntoList(problems, p -> solve(p));
+	}
+
 	void interrupt();
 
 }
\ No newline at end of file
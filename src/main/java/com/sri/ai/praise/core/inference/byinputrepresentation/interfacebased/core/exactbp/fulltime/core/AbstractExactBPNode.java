@@ -53,6 +53,8 @@ import static com.sri.ai.util.livesets.core.lazy.memoryless.Union.unionOfAllButT
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 
 import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.api.ExactBPNode;
@@ -79,6 +81,9 @@ import com.sri.ai.util.livesets.core.lazy.memoryless.RedirectingLiveSet;
  * included factor nodes (those already assigned to be in its branch)
  * and excluded factor nodes (those in their siblings or parent),
  * so this is implemented at this level.
+ * <p>
+ * If given an interruption flag (see {@link #setInterruptionFlag(AtomicBoolean)}),
+ * nodes throw a {@link CancellationException} once it is set, before computing their messages and before summing out variables.
  * 
  * @param <RootType> the type ({@link Factor} or {@link Variable}) of the root node of the tree.
  * @param <SubRootType> the type ({@link Factor} or {@link Variable}) of the root node of the subs. Must be the opposite of RootType.
@@ -93,12 +98,23 @@ public abstract class AbstractExactBPNode<RootType,SubRootType> implements Exact
 	@Override
 	public
 	Factor apply() {
+		checkInterruption();
+		if (!explanationsEnabled) {
+			return computeMessage();
+		}
 		return
 				explanationBlock("Computing message to ", getRoot(), code(() -> {
-					return ExactBPNode.super.apply();
+					return computeMessage();
 				}), "Message to ", getRoot(), " is ", RESULT);
 	}
 	
+	private Factor computeMessage() {
+		if (parallelEvaluator != null && !parallelEvaluator.canEvaluate(this)) {
+			parallelEvaluator = null; // evaluated sequentially, and so are subs, which are created from now on
+		}
+		return parallelEvaluator == null? ExactBPNode.super.apply() : parallelEvaluator.evaluate(this);
+	}
+	
 	@Override
 	public abstract List<? extends Factor> getFactorsAtRoot();
 
@@ -137,6 +153,16 @@ public abstract class AbstractExactBPNode<RootType,SubRootType> implements Exact
 	
 	protected Predicate<Variable> isParameterPredicate;
 	
+	protected ParallelExactBPNodeEvaluator parallelEvaluator;
+	
+	protected ExactBPMessageCache messageCache;
+	
+	protected ExactBPVariableIndex variableIndex;
+	
+	protected boolean explanationsEnabled = true;
+	
+	protected AtomicBoolean interruptionFlag;
+	
 	protected AbstractExactBPNode(
 			RootType root, 
 			SubRootType parent, 
@@ -154,6 +180,74 @@ public abstract class AbstractExactBPNode<RootType,SubRootType> implements Exact
 		this.isParameterPredicate = isParameterPredicate;
 	}
 	
+	/**
+	 * Sets an evaluator computing the messages of this node's subs concurrently (null for sequential evaluation);
+	 * subs created from then on inherit it.
+	 */
+	public void setParallelEvaluator(ParallelExactBPNodeEvaluator parallelEvaluator) {
+		this.parallelEvaluator = parallelEvaluator;
+	}
+	
+	public ParallelExactBPNodeEvaluator getParallelEvaluator() {
+		return parallelEvaluator;
+	}
+	
+	/**
+	 * Sets a cache from which messages from factors to variables are taken if already computed
+	 * (null for no caching); subs created from then on inherit it.
+	 * Meant for sequential evaluation only, since cached branches are not expanded.
+	 */
+	public void setMessageCache(ExactBPMessageCache messageCache) {
+		this.messageCache = messageCache;
+	}
+	
+	public ExactBPMessageCache getMessageCache() {
+		return messageCache;
+	}
+	
+	/**
+	 * Sets the index used to check whether excluded factors contain a variable with bit sets
+	 * (null for using {@link Factor#contains(Variable)} instead); subs created from then on inherit it.
+	 */
+	public void setVariableIndex(ExactBPVariableIndex variableIndex) {
+		this.variableIndex = variableIndex;
+	}
+	
+	public ExactBPVariableIndex getVariableIndex() {
+		return variableIndex;
+	}
+	
+	/**
+	 * Sets whether messages carry explanation trees and their computation is logged with explanation blocks (the default);
+	 * if not, none of these are built, leaving explanations as placeholders.
+	 * Subs created from then on inherit it.
+	 */
+	public void setExplanationsEnabled(boolean explanationsEnabled) {
+		this.explanationsEnabled = explanationsEnabled;
+	}
+	
+	public boolean explanationsAreEnabled() {
+		return explanationsEnabled;
+	}
+	
+	/**
+	 * Sets a flag which, once set (by another thread), makes this node and its subs stop computing
+	 * by throwing a {@link CancellationException} (null for uninterruptible computation); subs created from then on inherit it.
+	 */
+	public void setInterruptionFlag(AtomicBoolean interruptionFlag) {
+		this.interruptionFlag = interruptionFlag;
+	}
+	
+	public AtomicBoolean getInterruptionFlag() {
+		return interruptionFlag;
+	}
+	
+	private void checkInterruption() {
+		if (interruptionFlag != null && interruptionFlag.get()) {
+			throw new CancellationException("Exact BP interrupted");
+		}
+	}
+	
 	@Override
 	public ArrayList<ExactBPNode<SubRootType,RootType>> getSubs() {
 		if (subs == null) {
@@ -209,6 +303,13 @@ public abstract class AbstractExactBPNode<RootType,SubRootType> implements Exact
 		RedirectingLiveSet<Factor> subIncludedFactors = subsIncludedFactors.get(subIndex);
 		LiveSet<Factor> subExcludedFactors = excludedFactorsForSubAt(subIndex, subsIncludedFactors);
 		ExactBPNode<SubRootType,RootType> sub = makeSubExactBP(subRoot, subExcludedFactors, subIncludedFactors);
+		if (sub instanceof AbstractExactBPNode) {
+			((AbstractExactBPNode<SubRootType,RootType>) sub).setParallelEvaluator(parallelEvaluator);
+			((AbstractExactBPNode<SubRootType,RootType>) sub).setMessageCache(messageCache);
+			((AbstractExactBPNode<SubRootType,RootType>) sub).setVariableIndex(variableIndex);
+			((AbstractExactBPNode<SubRootType,RootType>) sub).setExplanationsEnabled(explanationsEnabled);
+			((AbstractExactBPNode<SubRootType,RootType>) sub).setInterruptionFlag(interruptionFlag);
+		}
 		return sub;
 	}
 
@@ -252,7 +353,14 @@ public abstract class AbstractExactBPNode<RootType,SubRootType> implements Exact
 	}
 
 	private boolean isInExternalFactors(Variable variable) {
-		boolean result = excludedFactors.thereIsAnElementSatisfying(f -> f.contains(variable));
+		boolean result;
+		if (variableIndex == null) {
+			result = excludedFactors.thereIsAnElementSatisfying(f -> f.contains(variable));
+		}
+		else {
+			int variableId = variableIndex.getId(variable);
+			result = excludedFactors.thereIsAnElementSatisfying(f -> variableIndex.contains(f, variableId));
+		}
 		return result;
 	}
 
@@ -265,8 +373,11 @@ public abstract class AbstractExactBPNode<RootType,SubRootType> implements Exact
 	 */
 	@Override
 	public Factor sumOutWithBookkeeping(List<? extends Variable> variablesToBeSummedOut, Factor factor) {
+		checkInterruption();
 		Factor result = factor.sumOut(variablesToBeSummedOut);
-		printTracingInformation(factor, variablesToBeSummedOut, result);
+		if (debug) {
+			printTracingInformation(factor, variablesToBeSummedOut, result);
+		}
 		return result;
 	}
 
@@ -0,0 +1,81 @@
+package com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.AbstractFactorNetwork;
+
+/**
+ * A solver computing the marginals of all variables of a factor network with exact BP,
+ * sharing messages between the trees of the different queries through an {@link ExactBPMessageCache}
+ * (and variable ids through an {@link ExactBPVariableIndex}).
+ * <p>
+ * The tree of the first query computes every message towards it (the upward pass);
+ * the trees of the following queries find most of their messages in the cache
+ * and only compute the ones going in the opposite direction (the downward pass).
+ * On a tree-structured network this amounts to two messages per edge for all marginals,
+ * instead of one per edge for each of them.
+ *
+ */
+public class AllMarginalsExactBP {
+
+	private AbstractFactorNetwork factorNetwork;
+	private boolean normalize;
+	private ExactBPMessageCache messageCache;
+	private ExactBPVariableIndex variableIndex;
+
+	/**
+	 * Makes a solver returning normalized marginals.
+	 */
+	public AllMarginalsExactBP(AbstractFactorNetwork factorNetwork) {
+		this(factorNetwork, true);
+	}
+
+	/**
+	 * Makes a solver returning marginals normalized with {@link Factor#normalize()} if <code>normalize</code> is true,
+	 * or unnormalized as computed by {@link ExactBP} otherwise (for factors not supporting normalization).
+	 */
+	public AllMarginalsExactBP(AbstractFactorNetwork factorNetwork, boolean normalize) {
+		this.factorNetwork = factorNetwork;
+		this.normalize = normalize;
+		this.messageCache = new ExactBPMessageCache(factorNetwork);
+		this.variableIndex = new ExactBPVariableIndex();
+	}
+
+	/**
+	 * Returns a map from each variable in the network to its marginal.
+	 */
+	public Map<Variable, Factor> solve() {
+		return solve(factorNetwork.getBs());
+	}
+
+	/**
+	 * Returns a map from each of the given variables to its marginal,
+	 * reusing messages computed for previous queries of this solver.
+	 */
+	public Map<Variable, Factor> solve(Collection<? extends Variable> queries) {
+		Map<Variable, Factor> result = new LinkedHashMap<>();
+		for (Variable query : queries) {
+			result.put(query, marginalOf(query));
+		}
+		return result;
+	}
+
+	public ExactBPMessageCache getMessageCache() {
+		return messageCache;
+	}
+
+	private Factor marginalOf(Variable query) {
+		ExactBP exactBP = new ExactBP(query, factorNetwork);
+		exactBP.setMessageCache(messageCache);
+		exactBP.setVariableIndex(variableIndex);
+		Factor result = exactBP.apply();
+		if (normalize) {
+			result = result.normalize();
+		}
+		return result;
+	}
+}
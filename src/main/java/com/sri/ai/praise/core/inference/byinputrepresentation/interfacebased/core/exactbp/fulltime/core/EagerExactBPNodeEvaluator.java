@@ -23,16 +23,30 @@ public class EagerExactBPNodeEvaluator implements EagerTreeComputationEvaluator<
 	private NullaryFunction<List<? extends Factor>> getFactorsAtRoot;
 	private Function<List<? extends Variable>, List<? extends Variable>> determineVariablesToBeSummedOut;
 	private BinaryFunction<List<? extends Variable>, Factor, Factor> sumOutWithBookkeeping;
+	private boolean explanationsEnabled;
 	
 	public EagerExactBPNodeEvaluator(
 			NullaryFunction<List<? extends Factor>> getFactorsAtRoot,
 			Function<List<? extends Variable>, List<? extends Variable>> determineVariablesToBeSummedOut,
 			BinaryFunction<List<? extends Variable>, Factor, Factor> sumOut) {
 		
+		this(getFactorsAtRoot, determineVariablesToBeSummedOut, sumOut, true);
+	}
+	
+	/**
+	 * Makes an evaluator that, if <code>explanationsEnabled</code> is false, does not set explanations on the messages it computes.
+	 */
+	public EagerExactBPNodeEvaluator(
+			NullaryFunction<List<? extends Factor>> getFactorsAtRoot,
+			Function<List<? extends Variable>, List<? extends Variable>> determineVariablesToBeSummedOut,
+			BinaryFunction<List<? extends Variable>, Factor, Factor> sumOut,
+			boolean explanationsEnabled) {
+		
 		super();
 		this.getFactorsAtRoot = getFactorsAtRoot;
 		this.determineVariablesToBeSummedOut = determineVariablesToBeSummedOut;
 		this.sumOutWithBookkeeping = sumOut;
+		this.explanationsEnabled = explanationsEnabled;
 	}
 
 	@Override
@@ -40,7 +54,9 @@ public class EagerExactBPNodeEvaluator implements EagerTreeComputationEvaluator<
 		Factor product = computeProductOfFactorsAtRootAndIncomingMessages(incomingMessages);
 		List<? extends Variable> variablesToBeSummedOut = determineVariablesToBeSummedOut.apply(product.getVariables());
 		Factor result = sumOutWithBookkeeping.apply(variablesToBeSummedOut, product);
-		result.setExplanation(makeExplanation(result, incomingMessages));
+		if (explanationsEnabled) {
+			result.setExplanation(makeExplanation(result, incomingMessages));
+		}
 		return result;
 	}
 
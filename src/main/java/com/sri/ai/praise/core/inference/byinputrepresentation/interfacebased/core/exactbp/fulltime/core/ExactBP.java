@@ -64,6 +64,9 @@ public class ExactBP extends ExactBPNodeFromVariableToFactor {
 	@Override
 	public
 	Factor apply() {
+		if (!explanationsEnabled) {
+			return super.apply();
+		}
 		return
 				explanationBlock("Computing unnormalized marginal of ", getRoot(), code(() -> {
 					return super.apply();
@@ -77,6 +80,22 @@ public class ExactBP extends ExactBPNodeFromVariableToFactor {
 	public ExactBP(Problem problem) {
 		this(problem.getQueryVariable(), problem.getModel(), problem.getIsParameterPredicate());
 	}
+
+	/**
+	 * Makes an exact BP whose sub-messages are computed concurrently by the given evaluator (sequentially if it is null).
+	 */
+	public ExactBP(Variable query, FactorNetwork factorNetwork, ParallelExactBPNodeEvaluator parallelEvaluator) {
+		this(query, factorNetwork);
+		setParallelEvaluator(parallelEvaluator);
+	}
+
+	/**
+	 * Makes an exact BP whose sub-messages are computed concurrently by the given evaluator (sequentially if it is null).
+	 */
+	public ExactBP(Problem problem, ParallelExactBPNodeEvaluator parallelEvaluator) {
+		this(problem);
+		setParallelEvaluator(parallelEvaluator);
+	}
 	
 	private ExactBP(Variable query, FactorNetwork factorNetwork, Predicate<Variable> isParameterPredicate) {
 		super(
@@ -86,6 +105,7 @@ public class ExactBP extends ExactBPNodeFromVariableToFactor {
 				makeIncludedFactors(),
 				factorNetwork,
 				isParameterPredicate);
+		setVariableIndex(new ExactBPVariableIndex());
 	}
 
 	private static Factor makeParent() {
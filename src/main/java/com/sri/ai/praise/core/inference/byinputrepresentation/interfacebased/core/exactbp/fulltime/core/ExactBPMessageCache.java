@@ -0,0 +1,217 @@
+package com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core;
+
+import static com.sri.ai.util.livesets.core.lazy.memoryless.ExtensionalLiveSet.liveSet;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.FactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.util.base.NullaryFunction;
+
+/**
+ * A cache of messages from factors to variables computed by exact BP,
+ * shared by the exact BP trees of several queries on the same factor network.
+ * <p>
+ * The message from a factor to a variable depends on the factors excluded from its branch
+ * (those already claimed by its parent and siblings), since these determine which
+ * factors the branch includes and which variables it must keep instead of summing out.
+ * However, it only depends on the excluded factors the branch can reach,
+ * that is, the ones connected to the factor by paths not going through the edge to the variable.
+ * Messages are therefore keyed by factor, variable, and the set of excluded factors in that <i>region</i>.
+ * On tree-structured networks no excluded factor is in the region, so each of the
+ * messages between a factor and a variable is computed once, in each direction.
+ * <p>
+ * Along with each message, the cache records the factors included in its branch,
+ * so that a node whose message is found in the cache can still exclude them from its siblings
+ * without expanding its sub-tree.
+ *
+ */
+public class ExactBPMessageCache {
+
+	private final FactorNetwork factorNetwork;
+	private final Map<Edge, List<Factor>> regions;
+	private final Map<MessageKey, CachedMessage> messages;
+	private int numberOfHits;
+	private int numberOfMisses;
+
+	public ExactBPMessageCache(FactorNetwork factorNetwork) {
+		this.factorNetwork = factorNetwork;
+		this.regions = new HashMap<>();
+		this.messages = new HashMap<>();
+		this.numberOfHits = 0;
+		this.numberOfMisses = 0;
+	}
+
+	public FactorNetwork getFactorNetwork() {
+		return factorNetwork;
+	}
+
+	/**
+	 * Returns the cached message of the given node, or computes it with the given computation and caches it.
+	 */
+	public Factor messageFrom(ExactBPNodeFromFactorToVariable node, NullaryFunction<Factor> computation) {
+		Edge edge = new Edge(node.getRoot(), node.getParent());
+		List<Factor> region = getRegion(edge);
+		MessageKey key = new MessageKey(edge, elementsIn(region, node.excludedFactors::contains));
+		CachedMessage cached = messages.get(key);
+		if (cached == null) {
+			numberOfMisses++;
+			Factor message = computation.apply();
+			cached = new CachedMessage(message, factorsIn(region, node.includedFactors::contains));
+			messages.put(key, cached);
+		}
+		else {
+			numberOfHits++;
+			node.includedFactors.redirectTo(liveSet(cached.includedFactors));
+		}
+		return cached.message;
+	}
+
+	public int getNumberOfHits() {
+		return numberOfHits;
+	}
+
+	public int getNumberOfMisses() {
+		return numberOfMisses;
+	}
+
+	public int size() {
+		return messages.size();
+	}
+
+	public void clear() {
+		messages.clear();
+		numberOfHits = 0;
+		numberOfMisses = 0;
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	private List<Factor> getRegion(Edge edge) {
+		List<Factor> result = regions.get(edge);
+		if (result == null) {
+			result = makeRegion(edge);
+			regions.put(edge, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the factors reachable from the edge's factor without going through the edge itself, in breadth-first order.
+	 */
+	private List<Factor> makeRegion(Edge edge) {
+		List<Factor> result = new ArrayList<>();
+		Set<Factor> visitedFactors = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<Variable> visitedVariables = new HashSet<>();
+		LinkedList<Factor> queue = new LinkedList<>();
+		visitedFactors.add(edge.factor);
+		queue.add(edge.factor);
+		while (!queue.isEmpty()) {
+			Factor factor = queue.removeFirst();
+			result.add(factor);
+			for (Variable variable : factorNetwork.getNeighbors(factor)) {
+				boolean isTheEdgeItself = factor == edge.factor && variable.equals(edge.variable);
+				if (!isTheEdgeItself && visitedVariables.add(variable)) {
+					for (Factor neighbor : factorNetwork.getNeighbors(variable)) {
+						if (visitedFactors.add(neighbor)) {
+							queue.add(neighbor);
+						}
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private static BitSet elementsIn(List<Factor> region, Predicate<Factor> set) {
+		BitSet result = new BitSet(region.size());
+		for (int i = 0; i < region.size(); i++) {
+			if (set.test(region.get(i))) {
+				result.set(i);
+			}
+		}
+		return result;
+	}
+
+	private static List<Factor> factorsIn(List<Factor> region, Predicate<Factor> set) {
+		List<Factor> result = new ArrayList<>();
+		for (Factor factor : region) {
+			if (set.test(factor)) {
+				result.add(factor);
+			}
+		}
+		return result;
+	}
+
+	private static class Edge {
+
+		private final Factor factor;
+		private final Variable variable;
+
+		public Edge(Factor factor, Variable variable) {
+			this.factor = factor;
+			this.variable = variable;
+		}
+
+		@Override
+		public boolean equals(Object another) {
+			if (!(another instanceof Edge)) {
+				return false;
+			}
+			Edge anotherEdge = (Edge) another;
+			return factor == anotherEdge.factor && variable.equals(anotherEdge.variable);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31*System.identityHashCode(factor) + variable.hashCode();
+		}
+	}
+
+	private static class MessageKey {
+
+		private final Edge edge;
+		private final BitSet excludedFactorsInRegion;
+
+		public MessageKey(Edge edge, BitSet excludedFactorsInRegion) {
+			this.edge = edge;
+			this.excludedFactorsInRegion = excludedFactorsInRegion;
+		}
+
+		@Override
+		public boolean equals(Object another) {
+			if (!(another instanceof MessageKey)) {
+				return false;
+			}
+			MessageKey anotherKey = (MessageKey) another;
+			return edge.equals(anotherKey.edge) && excludedFactorsInRegion.equals(anotherKey.excludedFactorsInRegion);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31*edge.hashCode() + excludedFactorsInRegion.hashCode();
+		}
+	}
+
+	private static class CachedMessage {
+
+		private final Factor message;
+		private final List<Factor> includedFactors;
+
+		public CachedMessage(Factor message, List<Factor> includedFactors) {
+			this.message = message;
+			this.includedFactors = includedFactors;
+		}
+	}
+}
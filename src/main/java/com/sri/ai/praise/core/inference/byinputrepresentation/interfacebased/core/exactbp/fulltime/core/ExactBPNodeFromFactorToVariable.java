@@ -66,6 +66,14 @@ public class ExactBPNodeFromFactorToVariable extends AbstractExactBPNode<Factor,
 		super(root, parent, excludedFactors, includedFactors, model, isParameterPredicate);
 	}
 
+	@Override
+	public Factor apply() {
+		if (messageCache == null) {
+			return super.apply();
+		}
+		return messageCache.messageFrom(this, () -> super.apply());
+	}
+
 	@Override
 	protected ExactBPNode<Variable,Factor> makeSubExactBP(Variable subRoot, LiveSet<Factor> subExcludedFactors, RedirectingLiveSet<Factor> subIncludedFactors) {
 		return new ExactBPNodeFromVariableToFactor(subRoot, getRoot(), subExcludedFactors, subIncludedFactors, factorNetwork, isParameterPredicate);
@@ -96,6 +104,7 @@ public class ExactBPNodeFromFactorToVariable extends AbstractExactBPNode<Factor,
 		return new LazyExactBPNodeFromFactorToVariableEvaluator(
 				this::getFactorsAtRoot, 
 				this::determinedVariablesToBeSummedOut, 
-				(variablesToBeSummedOut, product) -> sumOutWithBookkeeping(variablesToBeSummedOut, product));
+				(variablesToBeSummedOut, product) -> sumOutWithBookkeeping(variablesToBeSummedOut, product),
+				explanationsEnabled);
 	}
 }
\ No newline at end of file
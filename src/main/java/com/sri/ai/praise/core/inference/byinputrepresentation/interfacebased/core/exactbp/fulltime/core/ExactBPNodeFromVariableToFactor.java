@@ -96,6 +96,7 @@ public class ExactBPNodeFromVariableToFactor extends AbstractExactBPNode<Variabl
 		return new EagerExactBPNodeEvaluator(
 				this::getFactorsAtRoot, 
 				this::determinedVariablesToBeSummedOut, 
-				(variablesToBeSummedOut, product) -> sumOutWithBookkeeping(variablesToBeSummedOut, product));
+				(variablesToBeSummedOut, product) -> sumOutWithBookkeeping(variablesToBeSummedOut, product),
+				explanationsEnabled);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+
+/**
+ * Interns the variables met by exact BP on a factor network as consecutive integer ids,
+ * and keeps, for each factor (by identity), the {@link BitSet} of its variables' ids,
+ * so that checking whether a factor contains a variable is a bit lookup instead of a call to {@link Factor#contains(Variable)}.
+ * <p>
+ * Ids and bit sets are computed on demand, the latter when a factor is first checked,
+ * so factors must not change their variables afterwards.
+ * The index can be shared by the exact BP trees of several queries on the same factor network,
+ * as well as by the threads of a {@link ParallelExactBPNodeEvaluator}.
+ *
+ */
+public class ExactBPVariableIndex {
+
+	private final Map<Variable, Integer> ids;
+	private final AtomicInteger numberOfIds;
+	private final Map<Factor, BitSet> variablesOfFactors;
+
+	public ExactBPVariableIndex() {
+		this.ids = new ConcurrentHashMap<>();
+		this.numberOfIds = new AtomicInteger();
+		this.variablesOfFactors = Collections.synchronizedMap(new IdentityHashMap<>());
+	}
+
+	/**
+	 * Returns the id of the given variable, interning it if it has none yet.
+	 */
+	public int getId(Variable variable) {
+		return ids.computeIfAbsent(variable, v -> numberOfIds.getAndIncrement());
+	}
+
+	public int size() {
+		return numberOfIds.get();
+	}
+
+	/**
+	 * Returns the bit set of the ids of the variables of the given factor (not a copy, so it must not be modified).
+	 */
+	public BitSet getVariables(Factor factor) {
+		BitSet result = variablesOfFactors.get(factor);
+		if (result == null) {
+			result = new BitSet();
+			for (Variable variable : factor.getVariables()) {
+				result.set(getId(variable));
+			}
+			variablesOfFactors.put(factor, result);
+		}
+		return result;
+	}
+
+	public boolean contains(Factor factor, int variableId) {
+		return getVariables(factor).get(variableId);
+	}
+}
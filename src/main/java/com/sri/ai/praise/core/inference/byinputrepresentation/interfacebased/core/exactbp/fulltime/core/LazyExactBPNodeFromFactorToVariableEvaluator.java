@@ -29,16 +29,31 @@ public class LazyExactBPNodeFromFactorToVariableEvaluator extends AbstractLazyTr
 	private NullaryFunction<List<? extends Factor>> getFactorsAtRoot;
 	private Function<List<? extends Variable>, List<? extends Variable>> determineVariablesToBeSummedOut;
 	private BinaryFunction<List<? extends Variable>, Factor, Factor> sumOutWithBookkeeping;
+	private boolean explanationsEnabled;
 	
 	public LazyExactBPNodeFromFactorToVariableEvaluator(
 			NullaryFunction<List<? extends Factor>> getFactorsAtRoot,
 			Function<List<? extends Variable>, List<? extends Variable>> determineVariablesToBeSummedOut,
 			BinaryFunction<List<? extends Variable>, Factor, Factor> sumOutWithBookkeeping) {
 		
+		this(getFactorsAtRoot, determineVariablesToBeSummedOut, sumOutWithBookkeeping, true);
+	}
+	
+	/**
+	 * Makes an evaluator that, if <code>explanationsEnabled</code> is false,
+	 * neither logs explanation blocks nor sets explanations on the messages it computes.
+	 */
+	public LazyExactBPNodeFromFactorToVariableEvaluator(
+			NullaryFunction<List<? extends Factor>> getFactorsAtRoot,
+			Function<List<? extends Variable>, List<? extends Variable>> determineVariablesToBeSummedOut,
+			BinaryFunction<List<? extends Variable>, Factor, Factor> sumOutWithBookkeeping,
+			boolean explanationsEnabled) {
+		
 		super();
 		this.getFactorsAtRoot = getFactorsAtRoot;
 		this.determineVariablesToBeSummedOut = determineVariablesToBeSummedOut;
 		this.sumOutWithBookkeeping = sumOutWithBookkeeping;
+		this.explanationsEnabled = explanationsEnabled;
 		this.explanationsOfSubs = list();
 	}
 
@@ -68,12 +83,16 @@ public class LazyExactBPNodeFromFactorToVariableEvaluator extends AbstractLazyTr
 
 	private boolean isRelevantForCurrentResult(ExactBPNodeFromVariableToFactor subFromVariableToFactor) {
 		Variable variable = subFromVariableToFactor.getRoot();
-		boolean result = currentProduct.getVariables().contains(variable);
+		boolean result = currentProduct.contains(variable);
 		return result;
 	}
 
 	@Override
 	protected void simplifyFunctionWithValueForSub(NullaryFunction<Factor> sub, Factor subValue) {
+		if (!explanationsEnabled) {
+			currentProduct = currentProduct.multiply(subValue);
+			return;
+		}
 		explanationBlock("Updating current product of factor and messages ", currentProduct, " with ", subValue, code(() -> { 
 			currentProduct = currentProduct.multiply(subValue);
 			explanationsOfSubs.add(subValue.getExplanation());
@@ -85,6 +104,10 @@ public class LazyExactBPNodeFromFactorToVariableEvaluator extends AbstractLazyTr
 		
 		List<? extends Variable> variablesToBeSummedOut = determineVariablesToBeSummedOut.apply(currentProduct.getVariables());
 		
+		if (!explanationsEnabled) {
+			return sumOutWithBookkeeping.apply(variablesToBeSummedOut, currentProduct);
+		}
+		
 		return explanationBlock("Summing out variables ", variablesToBeSummedOut, " from ", currentProduct, code(() -> { 
 			Factor result = sumOutWithBookkeeping.apply(variablesToBeSummedOut, currentProduct);
 			result.setExplanation(makeExplanation(result));
@@ -40,11 +40,19 @@ package com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.co
 import static com.sri.ai.expresso.helper.Expressions.ONE;
 import static com.sri.ai.praise.core.PRAiSEUtil.normalize;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import com.sri.ai.expresso.api.Expression;
 import com.sri.ai.grinder.api.Context;
 import com.sri.ai.praise.core.PRAiSEUtil;
 import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.api.Solver;
 import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.FactorNetwork;
 import com.sri.ai.praise.core.representation.interfacebased.factor.api.Problem;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.ConstantFactor;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.api.ExpressionFactor;
@@ -61,8 +69,11 @@ public class NormalizedExactBP implements Solver {
 		public Context context;
 		public ExpressionFactor unnormalizedMarginal;
 		
-		public QueryUnnormalizedMarginalAndContext(Problem problem) {
-			ExactBP exactBP = new ExactBP(problem);
+		public QueryUnnormalizedMarginalAndContext(Problem problem, ExactBPMessageCache messageCache) {
+			ExactBP exactBP = new ExactBP(problem, parallelEvaluator);
+			exactBP.setMessageCache(messageCache);
+			exactBP.setExplanationsEnabled(explanationsEnabled);
+			exactBP.setInterruptionFlag(interrupted);
 			queryVariable = (ExpressionVariable) problem.getQueryVariable();
 			factor = exactBP.apply();
 			context = getContext(problem);
@@ -70,11 +81,81 @@ public class NormalizedExactBP implements Solver {
 		}
 	}
 	
+	private ParallelExactBPNodeEvaluator parallelEvaluator;
+	
+	private boolean explanationsEnabled = true;
+	
+	private int numberOfReusedMessages = 0;
+	
+	private final AtomicBoolean interrupted = new AtomicBoolean(false);
+	
+	public NormalizedExactBP() {
+		this(null);
+	}
+	
+	/**
+	 * Makes a solver whose exact BP computes sub-messages concurrently with the given evaluator (sequentially if it is null).
+	 */
+	public NormalizedExactBP(ParallelExactBPNodeEvaluator parallelEvaluator) {
+		this.parallelEvaluator = parallelEvaluator;
+	}
+	
+	/**
+	 * Sets whether marginals come with explanation trees and their computation is logged with explanation blocks (the default);
+	 * disabling it keeps all explanation work (closures, tree nodes and logging calls) out of exact BP.
+	 */
+	public void setExplanationsEnabled(boolean explanationsEnabled) {
+		this.explanationsEnabled = explanationsEnabled;
+	}
+	
+	public boolean explanationsAreEnabled() {
+		return explanationsEnabled;
+	}
+	
+	/**
+	 * Returns the number of messages that the last batch of problems solved by {@link #solve(List)}
+	 * took from a message cache instead of computing them.
+	 */
+	public int getNumberOfReusedMessages() {
+		return numberOfReusedMessages;
+	}
+	
 	@Override
 	public Expression solve(Problem problem) {
-		QueryUnnormalizedMarginalAndContext solution = new QueryUnnormalizedMarginalAndContext(problem);
+		return solve(problem, null);
+	}
+
+	/**
+	 * Solves the problems sharing, among those on the same factor network,
+	 * an {@link ExactBPMessageCache} of the messages from factors to variables,
+	 * so that each of these messages is computed only once for the whole batch when the network is a tree.
+	 * Since the message cache is meant for sequential evaluation only,
+	 * the problems are solved independently if this solver uses a parallel evaluator.
+	 */
+	@Override
+	public List<Expression> solve(List<? extends Problem> problems) {
+		numberOfReusedMessages = 0;
+		if (parallelEvaluator != null) {
+			return Solver.super.solve(problems);
+		}
+		Map<FactorNetwork, ExactBPMessageCache> messageCaches = new IdentityHashMap<>();
+		List<Expression> result = new ArrayList<>(problems.size());
+		for (Problem problem : problems) {
+			ExactBPMessageCache messageCache = messageCaches.computeIfAbsent(problem.getModel(), ExactBPMessageCache::new);
+			result.add(solve(problem, messageCache));
+		}
+		for (ExactBPMessageCache messageCache : messageCaches.values()) {
+			numberOfReusedMessages += messageCache.getNumberOfHits();
+		}
+		return result;
+	}
+
+	private Expression solve(Problem problem, ExactBPMessageCache messageCache) {
+		QueryUnnormalizedMarginalAndContext solution = new QueryUnnormalizedMarginalAndContext(problem, messageCache);
 		ExpressionFactor normalizedMarginal = makeNormalizedMarginalFactor(solution);
-		normalizedMarginal.setExplanation(makeExplanation(normalizedMarginal, solution.factor));
+		if (explanationsEnabled) {
+			normalizedMarginal.setExplanation(makeExplanation(normalizedMarginal, solution.factor));
+		}
 		return normalizedMarginal;
 	}
 
@@ -84,7 +165,7 @@ public class NormalizedExactBP implements Solver {
 	}
 
 	private Expression makeNormalizedMarginalExpression(QueryUnnormalizedMarginalAndContext solution) {
-		Expression result = normalize(solution.queryVariable, solution.unnormalizedMarginal, solution.context);
+		Expression result = normalize(solution.queryVariable, solution.unnormalizedMarginal, solution.context, explanationsEnabled);
 		return result;
 	}
 
@@ -101,8 +182,12 @@ public class NormalizedExactBP implements Solver {
 		return factor instanceof ConstantFactor? new DefaultExpressionFactor(ONE, context) : (ExpressionFactor) factor;
 	}
 
+	/**
+	 * Makes current and future computations of this solver throw a {@link CancellationException}
+	 * at their next message or summation.
+	 */
 	@Override
 	public void interrupt() {
-		throw new Error(this.getClass() + ".interrupt not implemented yet");
+		interrupted.set(true);
 	}
 }
\ No newline at end of file
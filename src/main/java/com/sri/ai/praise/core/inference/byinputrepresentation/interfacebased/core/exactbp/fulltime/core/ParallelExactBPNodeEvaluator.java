@@ -0,0 +1,172 @@
+package com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core;
+
+import static com.sri.ai.praise.core.PRAiSEUtil.conditionOnlyIfDeterministic;
+import static com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor.multiply;
+import static com.sri.ai.util.Util.mapIntoList;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.api.ExactBPNode;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.util.explanation.tree.DefaultExplanationTree;
+import com.sri.ai.util.explanation.tree.ExplanationTree;
+
+/**
+ * Evaluates {@link ExactBPNode}s by computing the messages of sibling subs concurrently
+ * in a {@link ForkJoinPool} and multiplying them at the parent.
+ * <p>
+ * Subs share live sets of included and excluded factors that grow as the tree is expanded,
+ * and which factors a sub includes depends on how much of its siblings has been expanded already.
+ * To keep the exact same tree as sequential evaluation, the whole tree is first expanded sequentially,
+ * in the same depth-first order, recording the size of each subtree, and only then are messages computed in parallel
+ * (at which point the live sets and subtree sizes are only read).
+ * Subtrees with fewer nodes than a given threshold are evaluated sequentially,
+ * since forking them costs more than it saves.
+ * <p>
+ * Expanding the tree ahead of evaluation is only exact if every sub is taken into account,
+ * whereas sequential evaluation skips (without expanding it) a sub of a node rooted in a factor
+ * whose variable has left the product of the factor and the messages of the preceding subs,
+ * which happens with factors simplifying under determinism or evidence.
+ * This evaluator therefore only evaluates nodes on {@link TableFactorNetwork}s, whose products keep all the variables of their factors
+ * (see {@link #canEvaluate(AbstractExactBPNode)}); nodes on other networks are evaluated sequentially.
+ * <p>
+ * Messages of inner nodes are computed directly by this evaluator, without explanation blocks,
+ * although they still carry explanations if these are enabled.
+ *
+ */
+public class ParallelExactBPNodeEvaluator {
+
+	public static final int DEFAULT_SEQUENTIAL_THRESHOLD = 16;
+
+	private final ForkJoinPool pool;
+	private final int sequentialThreshold;
+
+	public ParallelExactBPNodeEvaluator() {
+		this(ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_THRESHOLD);
+	}
+
+	/**
+	 * @param pool the pool in which messages are computed
+	 * @param sequentialThreshold the number of nodes below which a subtree is evaluated sequentially
+	 */
+	public ParallelExactBPNodeEvaluator(ForkJoinPool pool, int sequentialThreshold) {
+		this.pool = pool;
+		this.sequentialThreshold = sequentialThreshold;
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	public int getSequentialThreshold() {
+		return sequentialThreshold;
+	}
+
+	/**
+	 * Whether this evaluator computes the same message as sequential evaluation for the given node,
+	 * that is, whether the node is on a {@link TableFactorNetwork}.
+	 */
+	public boolean canEvaluate(AbstractExactBPNode<?,?> node) {
+		return node.getFactorNetwork() instanceof TableFactorNetwork;
+	}
+
+	/**
+	 * Computes the message of the given node, the root of the evaluation, which must satisfy {@link #canEvaluate(AbstractExactBPNode)}; called by the node itself when it is set to be evaluated in parallel.
+	 * The tree is expanded and its evaluation submitted to the pool.
+	 */
+	public Factor evaluate(AbstractExactBPNode<?,?> node) {
+		Map<ExactBPNode<?,?>, Integer> subtreeSizes = new IdentityHashMap<>();
+		expand(node, subtreeSizes);
+		Evaluation evaluation = new Evaluation(subtreeSizes);
+		return pool.invoke(ForkJoinTask.adapt(() -> evaluation.multiplySubsMessagesAndSumOut(node)));
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	private static int expand(ExactBPNode<?,?> node, Map<ExactBPNode<?,?>, Integer> subtreeSizes) {
+		int size = 1;
+		for (ExactBPNode<?,?> sub : node.getSubs()) {
+			size += expand(sub, subtreeSizes);
+		}
+		subtreeSizes.put(node, size);
+		return size;
+	}
+
+	private static ExplanationTree makeExplanation(Factor factor, List<? extends Factor> incomingMessages) {
+		List<? extends ExplanationTree> explanationsOfSubs = mapIntoList(incomingMessages, Factor::getExplanation);
+		ExplanationTree result = new DefaultExplanationTree("<" + conditionOnlyIfDeterministic(factor) + ">, from multiplying:", explanationsOfSubs);
+		return result;
+	}
+
+	/**
+	 * The evaluation of a tree, holding the sizes of its subtrees, which are only read once the evaluation starts.
+	 */
+	private class Evaluation {
+
+		private final Map<ExactBPNode<?,?>, Integer> subtreeSizes;
+
+		public Evaluation(Map<ExactBPNode<?,?>, Integer> subtreeSizes) {
+			this.subtreeSizes = subtreeSizes;
+		}
+
+		private Factor message(ExactBPNode<?,?> node) {
+			return node instanceof AbstractExactBPNode? multiplySubsMessagesAndSumOut((AbstractExactBPNode<?,?>) node) : node.apply();
+		}
+
+		private Factor multiplySubsMessagesAndSumOut(AbstractExactBPNode<?,?> node) {
+			ArrayList<? extends ExactBPNode<?,?>> subs = node.getSubs();
+			Factor product = multiply(node.getFactorsAtRoot());
+			MessageTask[] forked = forkSubsWorthForking(subs);
+			List<Factor> messages = new ArrayList<>(subs.size());
+			for (int i = 0; i < subs.size(); i++) {
+				Factor message = forked[i] != null? forked[i].join() : message(subs.get(i));
+				product = product.multiply(message);
+				messages.add(message);
+			}
+			List<? extends Variable> variablesToBeSummedOut = node.determinedVariablesToBeSummedOut(product.getVariables());
+			Factor result = node.sumOutWithBookkeeping(variablesToBeSummedOut, product);
+			if (node.explanationsAreEnabled()) {
+				result.setExplanation(makeExplanation(result, messages));
+			}
+			return result;
+		}
+
+		/**
+		 * Forks the subs large enough to be worth it, returning their tasks at their positions (null for the subs not forked).
+		 */
+		private MessageTask[] forkSubsWorthForking(ArrayList<? extends ExactBPNode<?,?>> subs) {
+			MessageTask[] forked = new MessageTask[subs.size()];
+			for (int i = 0; i < subs.size(); i++) {
+				ExactBPNode<?,?> sub = subs.get(i);
+				if (subtreeSizes.get(sub) >= sequentialThreshold) {
+					forked[i] = new MessageTask(sub);
+					forked[i].fork();
+				}
+			}
+			return forked;
+		}
+
+		@SuppressWarnings("serial")
+		private class MessageTask extends RecursiveTask<Factor> {
+
+			private final ExactBPNode<?,?> node;
+
+			public MessageTask(ExactBPNode<?,?> node) {
+				this.node = node;
+			}
+
+			@Override
+			protected Factor compute() {
+				return message(node);
+			}
+		}
+	}
+}
@@ -0,0 +1,584 @@
+package com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.junctiontree.core;
+
+import static com.sri.ai.util.Util.arrayList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.api.EliminationOrderingHeuristic;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.core.EliminationOrdering;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.core.EliminationOrderingHeuristics;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.ConstantFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.LogTableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.SparseTableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+import com.sri.ai.util.base.IdentityWrapper;
+
+/**
+ * A junction tree (clique tree) compiled from a {@link TableFactorNetwork},
+ * meant to answer many marginal queries under changing evidence without re-running inference from scratch.
+ * <p>
+ * Cliques are the tables created by eliminating all variables in an {@link EliminationOrdering}
+ * (dropping those contained in an adjacent clique), each clique being connected to the one
+ * of the first variable eliminated after its own; every factor of the network is multiplied into
+ * the potential of a clique containing its variables.
+ * <p>
+ * The tree is calibrated with Shafer-Shenoy message passing (an upward and a downward pass),
+ * after which the marginal of a variable is obtained from the belief of the smallest clique containing it.
+ * Evidence is entered as an indicator factor in that clique; entering or retracting it only invalidates
+ * the messages directed away from the clique (and the beliefs receiving them), so that recalibration
+ * recomputes those messages only.
+ * Calibration happens automatically on queries, but can also be requested in advance with {@link #calibrate()}.
+ * <p>
+ * A compiled tree can be saved with {@link #save(OutputStream)} and loaded with {@link #load(InputStream)},
+ * which stores the cliques, their potentials and the current evidence (messages are recomputed on the first query).
+ * <p>
+ * Computations are carried out with regular {@link TableFactor}s; log-space and sparse factors of the network are converted when compiling.
+ * Compilation and calibration check for interruption of the current thread between table operations,
+ * throwing a {@link CancellationException} if it has been interrupted.
+ * Junction trees are not thread-safe.
+ *
+ */
+public class JunctionTree {
+
+	private static final int MAGIC_NUMBER = 0x4A545245; // "JTRE"
+	private static final int FORMAT_VERSION = 1;
+
+	private List<Clique> cliques;
+	private List<Clique> traversal;
+	private Map<TableVariable, Clique> homeCliques;
+	private Map<TableVariable, Integer> evidence;
+
+	private JunctionTree(List<Clique> cliques) {
+		this.cliques = cliques;
+		this.traversal = makeTraversal(cliques);
+		this.homeCliques = makeHomeCliques(cliques);
+		this.evidence = new LinkedHashMap<>();
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// COMPILATION //////////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	public static JunctionTree compile(TableFactorNetwork network) {
+		return compile(network, EliminationOrderingHeuristics.MIN_FILL);
+	}
+
+	public static JunctionTree compile(TableFactorNetwork network, EliminationOrderingHeuristic heuristic) {
+
+		EliminationOrdering ordering = EliminationOrdering.make(network, network.getBs(), heuristic);
+		List<Variable> order = ordering.getVariables();
+		List<List<Variable>> eliminationCliques = ordering.getEliminationCliques();
+		int numberOfEliminations = order.size();
+
+		Map<Variable, Integer> positions = new HashMap<>();
+		for (int i = 0; i < numberOfEliminations; i++) {
+			positions.put(order.get(i), i);
+		}
+
+		// each elimination clique is connected to the one of the first of its other variables to be eliminated
+		int[] parents = new int[numberOfEliminations];
+		for (int i = 0; i < numberOfEliminations; i++) {
+			parents[i] = firstPositionOf(eliminationCliques.get(i).subList(1, eliminationCliques.get(i).size()), positions);
+		}
+
+		// a parent contained in its child is absorbed by it (a child is never contained in its parent, as it has the child's eliminated variable)
+		int[] absorbedInto = new int[numberOfEliminations];
+		for (int i = 0; i < numberOfEliminations; i++) {
+			absorbedInto[i] = i;
+		}
+		for (int i = 0; i < numberOfEliminations; i++) {
+			if (absorbedInto[i] != i) {
+				continue;
+			}
+			while (parents[i] != -1 && eliminationCliques.get(i).containsAll(eliminationCliques.get(parents[i]))) {
+				int absorbed = parents[i];
+				absorbedInto[absorbed] = i;
+				parents[i] = parents[absorbed];
+				for (int j = 0; j < numberOfEliminations; j++) {
+					if (j != i && parents[j] == absorbed) {
+						parents[j] = i;
+					}
+				}
+			}
+		}
+
+		Map<Integer, Clique> cliquesByPosition = new LinkedHashMap<>();
+		for (int i = 0; i < numberOfEliminations; i++) {
+			if (absorbedInto[i] == i) {
+				checkInterruption();
+				ArrayList<TableVariable> variables = new ArrayList<>();
+				for (Variable variable : eliminationCliques.get(i)) {
+					variables.add((TableVariable) variable);
+				}
+				cliquesByPosition.put(i, new Clique(cliquesByPosition.size(), new TableFactor(variables, 1.0)));
+			}
+		}
+
+		if (cliquesByPosition.isEmpty()) {
+			// a network without variables (for example, with constant factors only) gets a single clique without variables
+			cliquesByPosition.put(-1, new Clique(0, new TableFactor(new ArrayList<>(), 1.0)));
+		}
+
+		for (IdentityWrapper<Factor> factor : network.getAs()) {
+			checkInterruption();
+			int position = firstPositionOf(factor.getObject().getVariables(), positions);
+			Clique clique = position == -1? cliquesByPosition.values().iterator().next() : cliquesByPosition.get(representativeOf(position, absorbedInto));
+			clique.potential = clique.potential.multiply(asRegularTableFactor(factor.getObject()));
+		}
+
+		for (Map.Entry<Integer, Clique> entry : cliquesByPosition.entrySet()) {
+			int parent = entry.getKey() == -1? -1 : parents[entry.getKey()];
+			if (parent != -1) {
+				connect(entry.getValue(), cliquesByPosition.get(parent));
+			}
+		}
+
+		return new JunctionTree(new ArrayList<>(cliquesByPosition.values()));
+	}
+
+	private static int firstPositionOf(List<? extends Variable> variables, Map<Variable, Integer> positions) {
+		int result = -1;
+		for (Variable variable : variables) {
+			Integer position = positions.get(variable);
+			if (position == null) {
+				throw new Error("Variable " + variable + " is not in the elimination ordering of the network");
+			}
+			if (result == -1 || position < result) {
+				result = position;
+			}
+		}
+		return result;
+	}
+
+	private static int representativeOf(int position, int[] absorbedInto) {
+		while (absorbedInto[position] != position) {
+			position = absorbedInto[position];
+		}
+		return position;
+	}
+
+	private static TableFactor asRegularTableFactor(Factor factor) {
+		TableFactor result;
+		if (factor instanceof LogTableFactor) {
+			result = ((LogTableFactor) factor).toTableFactor();
+		}
+		else if (factor instanceof SparseTableFactor) {
+			result = ((SparseTableFactor) factor).toTableFactor();
+		}
+		else if (factor instanceof TableFactor) {
+			result = (TableFactor) factor;
+		}
+		else {
+			throw new Error("Junction trees can only be compiled from table factors, but got " + factor.getClass());
+		}
+		return result;
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// EVIDENCE AND QUERIES /////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Sets the value of a variable, replacing any previous evidence on it.
+	 */
+	public void setEvidence(TableVariable variable, int value) {
+		if (value < 0 || value >= variable.getCardinality()) {
+			throw new Error("Value " + value + " is out of the range of " + variable);
+		}
+		Clique home = getHomeClique(variable);
+		evidence.put(variable, value);
+		TableFactor indicator = new TableFactor(arrayList(variable), 0.0);
+		indicator.setEntry(value, 1.0);
+		home.evidence.put(variable, indicator);
+		invalidateMessagesFrom(home);
+	}
+
+	public void retractEvidence(TableVariable variable) {
+		if (evidence.remove(variable) != null) {
+			Clique home = getHomeClique(variable);
+			home.evidence.remove(variable);
+			invalidateMessagesFrom(home);
+		}
+	}
+
+	public void retractAllEvidence() {
+		for (TableVariable variable : new ArrayList<>(evidence.keySet())) {
+			retractEvidence(variable);
+		}
+	}
+
+	public Map<TableVariable, Integer> getEvidence() {
+		return Collections.unmodifiableMap(evidence);
+	}
+
+	/**
+	 * Computes the messages invalidated since the last calibration (all of them, the first time).
+	 */
+	public void calibrate() {
+		// upward pass: from leaves to roots, in reverse traversal order
+		for (int i = traversal.size() - 1; i >= 0; i--) {
+			Clique clique = traversal.get(i);
+			if (clique.parentInTraversal != null) {
+				computeMessageIfNeeded(clique, clique.parentInTraversal);
+			}
+		}
+		// downward pass: from roots to leaves
+		for (Clique clique : traversal) {
+			for (Clique neighbor : clique.neighbors) {
+				if (neighbor != clique.parentInTraversal) {
+					computeMessageIfNeeded(clique, neighbor);
+				}
+			}
+		}
+	}
+
+	public boolean isCalibrated() {
+		for (Clique clique : cliques) {
+			for (Factor message : clique.incomingMessages) {
+				if (message == null) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the normalized marginal of a variable given the current evidence, recalibrating the tree if needed.
+	 */
+	public TableFactor marginal(TableVariable variable) {
+		Clique home = getHomeClique(variable);
+		calibrate();
+		Factor belief = getBelief(home);
+		List<TableVariable> others = new ArrayList<>(home.getVariables());
+		others.remove(variable);
+		TableFactor result = (TableFactor) belief.sumOut(others);
+		return result.normalize();
+	}
+
+	/**
+	 * Returns the normalized marginals of all variables given the current evidence.
+	 */
+	public Map<TableVariable, TableFactor> marginals() {
+		Map<TableVariable, TableFactor> result = new LinkedHashMap<>();
+		for (TableVariable variable : homeCliques.keySet()) {
+			result.put(variable, marginal(variable));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the sum over all assignments consistent with the evidence of the product of the network's factors
+	 * (the probability of the evidence if the network is a Bayesian network).
+	 */
+	public double probabilityOfEvidence() {
+		calibrate();
+		double result = 1.0;
+		for (Clique clique : traversal) {
+			if (clique.parentInTraversal == null) {
+				Factor belief = getBelief(clique);
+				result *= ((ConstantFactor) belief.sumOut(clique.getVariables())).getConstant();
+			}
+		}
+		return result;
+	}
+
+	public int numberOfCliques() {
+		return cliques.size();
+	}
+
+	/**
+	 * The number of entries of the largest clique potential.
+	 */
+	public int getMaximumCliqueSize() {
+		int result = 0;
+		for (Clique clique : cliques) {
+			result = Math.max(result, clique.potential.numberOfEntries());
+		}
+		return result;
+	}
+
+	public List<List<TableVariable>> getCliques() {
+		List<List<TableVariable>> result = new ArrayList<>(cliques.size());
+		for (Clique clique : cliques) {
+			result.add(Collections.unmodifiableList(clique.getVariables()));
+		}
+		return result;
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// PERSISTENCE //////////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	public void save(File file) throws IOException {
+		try (OutputStream outputStream = new FileOutputStream(file)) {
+			save(outputStream);
+		}
+	}
+
+	/**
+	 * Writes the variables, cliques (with their potentials and tree edges) and evidence of this junction tree to a stream.
+	 */
+	public void save(OutputStream outputStream) throws IOException {
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+		output.writeInt(MAGIC_NUMBER);
+		output.writeInt(FORMAT_VERSION);
+
+		List<TableVariable> variables = new ArrayList<>(homeCliques.keySet());
+		Map<TableVariable, Integer> variableIndices = new HashMap<>();
+		output.writeInt(variables.size());
+		for (TableVariable variable : variables) {
+			variableIndices.put(variable, variableIndices.size());
+			output.writeUTF(variable.getName());
+			output.writeInt(variable.getCardinality());
+		}
+
+		output.writeInt(cliques.size());
+		for (Clique clique : cliques) {
+			List<TableVariable> cliqueVariables = clique.getVariables();
+			output.writeInt(cliqueVariables.size());
+			for (TableVariable variable : cliqueVariables) {
+				output.writeInt(variableIndices.get(variable));
+			}
+			double[] entries = clique.potential.getEntriesArray();
+			output.writeInt(entries.length);
+			for (double entry : entries) {
+				output.writeDouble(entry);
+			}
+		}
+
+		// edges, as the index of each clique's parent in the traversal (-1 for roots)
+		for (Clique clique : cliques) {
+			output.writeInt(clique.parentInTraversal == null? -1 : clique.parentInTraversal.index);
+		}
+
+		output.writeInt(evidence.size());
+		for (Map.Entry<TableVariable, Integer> entry : evidence.entrySet()) {
+			output.writeInt(variableIndices.get(entry.getKey()));
+			output.writeInt(entry.getValue());
+		}
+		output.flush();
+	}
+
+	public static JunctionTree load(File file) throws IOException {
+		try (InputStream inputStream = new FileInputStream(file)) {
+			return load(inputStream);
+		}
+	}
+
+	public static JunctionTree load(InputStream inputStream) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+		if (input.readInt() != MAGIC_NUMBER) {
+			throw new IOException("Not a junction tree file.");
+		}
+		int version = input.readInt();
+		if (version != FORMAT_VERSION) {
+			throw new IOException("Unsupported junction tree format version " + version);
+		}
+
+		int numberOfVariables = input.readInt();
+		List<TableVariable> variables = new ArrayList<>(numberOfVariables);
+		for (int i = 0; i < numberOfVariables; i++) {
+			String name = input.readUTF();
+			variables.add(new TableVariable(name, input.readInt()));
+		}
+
+		int numberOfCliques = input.readInt();
+		List<Clique> cliques = new ArrayList<>(numberOfCliques);
+		for (int i = 0; i < numberOfCliques; i++) {
+			int numberOfCliqueVariables = input.readInt();
+			ArrayList<TableVariable> cliqueVariables = new ArrayList<>(numberOfCliqueVariables);
+			for (int j = 0; j < numberOfCliqueVariables; j++) {
+				cliqueVariables.add(variables.get(input.readInt()));
+			}
+			double[] entries = new double[input.readInt()];
+			for (int j = 0; j < entries.length; j++) {
+				entries[j] = input.readDouble();
+			}
+			cliques.add(new Clique(i, new TableFactor(cliqueVariables, entries)));
+		}
+
+		for (Clique clique : cliques) {
+			int parent = input.readInt();
+			if (parent != -1) {
+				connect(clique, cliques.get(parent));
+			}
+		}
+
+		JunctionTree result = new JunctionTree(cliques);
+		int numberOfEvidenceEntries = input.readInt();
+		for (int i = 0; i < numberOfEvidenceEntries; i++) {
+			TableVariable variable = variables.get(input.readInt());
+			result.setEvidence(variable, input.readInt());
+		}
+		return result;
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// PRIVATE METHODS //////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	private static void checkInterruption() {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new CancellationException("Junction tree computation interrupted");
+		}
+	}
+
+	private Clique getHomeClique(TableVariable variable) {
+		Clique result = homeCliques.get(variable);
+		if (result == null) {
+			throw new Error("Variable " + variable + " does not occur in the junction tree.");
+		}
+		return result;
+	}
+
+	/**
+	 * Message from a clique to a neighbor: the product of its potential, evidence and messages from its other neighbors,
+	 * summed over the variables not shared with the neighbor.
+	 */
+	private void computeMessageIfNeeded(Clique from, Clique to) {
+		int indexAtDestination = to.neighbors.indexOf(from);
+		if (to.incomingMessages.get(indexAtDestination) == null) {
+			checkInterruption();
+			List<Factor> factors = new ArrayList<>();
+			factors.add(from.potential);
+			factors.addAll(from.evidence.values());
+			for (int i = 0; i < from.neighbors.size(); i++) {
+				if (from.neighbors.get(i) != to) {
+					factors.add(from.incomingMessages.get(i));
+				}
+			}
+			List<TableVariable> notShared = new ArrayList<>(from.getVariables());
+			notShared.removeAll(to.getVariables());
+			Factor message = Factor.multiply(factors).sumOut(notShared);
+			to.incomingMessages.set(indexAtDestination, message);
+		}
+	}
+
+	private Factor getBelief(Clique clique) {
+		if (clique.belief == null) {
+			checkInterruption();
+			List<Factor> factors = new ArrayList<>();
+			factors.add(clique.potential);
+			factors.addAll(clique.evidence.values());
+			factors.addAll(clique.incomingMessages);
+			clique.belief = Factor.multiply(factors);
+		}
+		return clique.belief;
+	}
+
+	/**
+	 * Invalidates the messages directed away from the given clique, and the beliefs of the cliques receiving them.
+	 */
+	private void invalidateMessagesFrom(Clique source) {
+		source.belief = null;
+		Set<Clique> visited = new HashSet<>();
+		LinkedList<Clique> queue = new LinkedList<>();
+		visited.add(source);
+		queue.add(source);
+		while (!queue.isEmpty()) {
+			Clique clique = queue.removeFirst();
+			for (Clique neighbor : clique.neighbors) {
+				if (visited.add(neighbor)) {
+					neighbor.incomingMessages.set(neighbor.neighbors.indexOf(clique), null);
+					neighbor.belief = null;
+					queue.add(neighbor);
+				}
+			}
+		}
+	}
+
+	private static void connect(Clique clique, Clique another) {
+		clique.neighbors.add(another);
+		clique.incomingMessages.add(null);
+		another.neighbors.add(clique);
+		another.incomingMessages.add(null);
+	}
+
+	/**
+	 * Breadth-first order of the cliques, one tree after the other, setting each clique's parent in it.
+	 */
+	private static List<Clique> makeTraversal(List<Clique> cliques) {
+		List<Clique> result = new ArrayList<>(cliques.size());
+		Set<Clique> visited = new HashSet<>();
+		for (Clique root : cliques) {
+			if (visited.add(root)) {
+				root.parentInTraversal = null;
+				int next = result.size();
+				result.add(root);
+				while (next < result.size()) {
+					Clique clique = result.get(next++);
+					for (Clique neighbor : clique.neighbors) {
+						if (visited.add(neighbor)) {
+							neighbor.parentInTraversal = clique;
+							result.add(neighbor);
+						}
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Maps each variable to the smallest clique containing it.
+	 */
+	private static Map<TableVariable, Clique> makeHomeCliques(List<Clique> cliques) {
+		Map<TableVariable, Clique> result = new LinkedHashMap<>();
+		for (Clique clique : cliques) {
+			for (TableVariable variable : clique.getVariables()) {
+				Clique current = result.get(variable);
+				if (current == null || clique.potential.numberOfEntries() < current.potential.numberOfEntries()) {
+					result.put(variable, clique);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static class Clique {
+
+		private final int index;
+		private TableFactor potential;
+		private final Map<TableVariable, TableFactor> evidence;
+		private final List<Clique> neighbors;
+		private final List<Factor> incomingMessages; // aligned with neighbors
+		private Factor belief;
+		private Clique parentInTraversal;
+
+		public Clique(int index, TableFactor potential) {
+			this.index = index;
+			this.potential = potential;
+			this.evidence = new LinkedHashMap<>();
+			this.neighbors = new ArrayList<>();
+			this.incomingMessages = new ArrayList<>();
+		}
+
+		public List<TableVariable> getVariables() {
+			return potential.getVariables();
+		}
+	}
+}
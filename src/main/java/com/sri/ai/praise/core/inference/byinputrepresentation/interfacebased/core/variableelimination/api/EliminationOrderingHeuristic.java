@@ -0,0 +1,24 @@
+package com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.api;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+
+/**
+ * A greedy heuristic for choosing the next variable to eliminate in variable elimination.
+ * The variable with the lowest cost is eliminated first (ties going to the earliest variable in the network).
+ *
+ */
+@FunctionalInterface
+public interface EliminationOrderingHeuristic {
+
+	/**
+	 * Returns the cost of eliminating the given variable next.
+	 * @param variable the candidate variable
+	 * @param interactionGraph maps each variable not yet eliminated to the variables it shares a factor with
+	 * (including those created by previous eliminations)
+	 */
+	double cost(Variable variable, Map<Variable, ? extends Set<Variable>> interactionGraph);
+
+}
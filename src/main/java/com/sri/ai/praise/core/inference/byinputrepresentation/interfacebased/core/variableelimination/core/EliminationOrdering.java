@@ -0,0 +1,192 @@
+package com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.api.EliminationOrderingHeuristic;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.AbstractFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+import com.sri.ai.util.base.IdentityWrapper;
+
+/**
+ * An order in which to eliminate variables from a factor network,
+ * along with the size of the largest table that eliminating them in this order creates.
+ * <p>
+ * The order is computed greedily on the network's interaction graph (in which variables are adjacent if they share a factor):
+ * the variable with the lowest cost according to a {@link EliminationOrderingHeuristic} is eliminated,
+ * its neighbors are connected to each other (as they will share the factor resulting from the elimination),
+ * and the process is repeated.
+ * Since eliminating a variable multiplies the factors on it and its neighbors,
+ * the size of the largest table can be predicted before running variable elimination.
+ *
+ */
+public class EliminationOrdering {
+
+	private List<Variable> variables;
+	private List<List<Variable>> eliminationCliques;
+	private long maximumTableSize;
+	private int inducedWidth;
+
+	private EliminationOrdering(List<Variable> variables, List<List<Variable>> eliminationCliques, long maximumTableSize, int inducedWidth) {
+		this.variables = variables;
+		this.eliminationCliques = eliminationCliques;
+		this.maximumTableSize = maximumTableSize;
+		this.inducedWidth = inducedWidth;
+	}
+
+	/**
+	 * Computes an order in which to eliminate the given variables of a factor network.
+	 */
+	public static EliminationOrdering make(AbstractFactorNetwork network, Collection<? extends Variable> variablesToEliminate, EliminationOrderingHeuristic heuristic) {
+
+		Map<Variable, LinkedHashSet<Variable>> interactionGraph = new LinkedHashMap<>();
+		for (Variable variable : network.getBs()) {
+			interactionGraph.put(variable, new LinkedHashSet<>());
+		}
+
+		long maximumTableSize = 1;
+		for (IdentityWrapper<Factor> factor : network.getAs()) {
+			List<Variable> variablesInFactor = new ArrayList<>(network.getBsOfA(factor));
+			for (Variable variable : variablesInFactor) {
+				interactionGraph.get(variable).addAll(variablesInFactor);
+				interactionGraph.get(variable).remove(variable);
+			}
+			maximumTableSize = Math.max(maximumTableSize, tableSize(variablesInFactor));
+		}
+
+		LinkedHashSet<Variable> remaining = new LinkedHashSet<>();
+		for (Variable variable : variablesToEliminate) {
+			if (!interactionGraph.containsKey(variable)) {
+				throw new Error("Variable " + variable + " to be eliminated does not occur in the factor network.");
+			}
+			remaining.add(variable);
+		}
+
+		Map<Variable, Double> costs = new LinkedHashMap<>();
+		for (Variable variable : remaining) {
+			costs.put(variable, heuristic.cost(variable, interactionGraph));
+		}
+
+		List<Variable> order = new ArrayList<>(remaining.size());
+		List<List<Variable>> eliminationCliques = new ArrayList<>(remaining.size());
+		int inducedWidth = 0;
+		while (!remaining.isEmpty()) {
+			Variable next = cheapest(remaining, costs);
+			Set<Variable> neighbors = interactionGraph.get(next);
+
+			ArrayList<Variable> clique = new ArrayList<>(neighbors.size() + 1);
+			clique.add(next);
+			clique.addAll(neighbors);
+			maximumTableSize = Math.max(maximumTableSize, tableSize(clique));
+			inducedWidth = Math.max(inducedWidth, neighbors.size());
+
+			eliminate(next, interactionGraph);
+			remaining.remove(next);
+			costs.remove(next);
+			order.add(next);
+			eliminationCliques.add(Collections.unmodifiableList(clique));
+
+			// eliminating changes the neighborhoods of the neighbors, and the adjacency among the neighbors of the neighbors
+			Set<Variable> affected = new LinkedHashSet<>(neighbors);
+			for (Variable neighbor : neighbors) {
+				affected.addAll(interactionGraph.get(neighbor));
+			}
+			for (Variable variable : affected) {
+				if (remaining.contains(variable)) {
+					costs.put(variable, heuristic.cost(variable, interactionGraph));
+				}
+			}
+		}
+
+		return new EliminationOrdering(Collections.unmodifiableList(order), Collections.unmodifiableList(eliminationCliques), maximumTableSize, inducedWidth);
+	}
+
+	/**
+	 * The variables in the order in which they are to be eliminated.
+	 */
+	public List<Variable> getVariables() {
+		return variables;
+	}
+
+	/**
+	 * For each variable in the order, the variable followed by its neighbors at the time it is eliminated,
+	 * which are the variables of the table created by its elimination.
+	 */
+	public List<List<Variable>> getEliminationCliques() {
+		return eliminationCliques;
+	}
+
+	/**
+	 * The number of entries of the largest table created by eliminating variables in this order
+	 * (or of the largest factor in the network, if larger), or {@link Long#MAX_VALUE} if it does not fit in a long.
+	 */
+	public long getMaximumTableSize() {
+		return maximumTableSize;
+	}
+
+	/**
+	 * The largest number of neighbors a variable has when eliminated.
+	 */
+	public int getInducedWidth() {
+		return inducedWidth;
+	}
+
+	public static int cardinalityOf(Variable variable) {
+		if (variable instanceof TableVariable) {
+			return ((TableVariable) variable).getCardinality();
+		}
+		return variable.getValues().size();
+	}
+
+	@Override
+	public String toString() {
+		return "Elimination ordering " + variables + " with induced width " + inducedWidth + " and maximum table size " + maximumTableSize;
+	}
+
+	private static Variable cheapest(Collection<Variable> variables, Map<Variable, Double> costs) {
+		Variable result = null;
+		double resultCost = Double.POSITIVE_INFINITY;
+		for (Variable variable : variables) {
+			double cost = costs.get(variable);
+			if (result == null || cost < resultCost) {
+				result = variable;
+				resultCost = cost;
+			}
+		}
+		return result;
+	}
+
+	private static void eliminate(Variable variable, Map<Variable, LinkedHashSet<Variable>> interactionGraph) {
+		Set<Variable> neighbors = interactionGraph.remove(variable);
+		for (Variable neighbor : neighbors) {
+			Set<Variable> neighborsOfNeighbor = interactionGraph.get(neighbor);
+			neighborsOfNeighbor.remove(variable);
+			for (Variable anotherNeighbor : neighbors) {
+				if (!anotherNeighbor.equals(neighbor)) {
+					neighborsOfNeighbor.add(anotherNeighbor);
+				}
+			}
+		}
+	}
+
+	private static long tableSize(Collection<Variable> variables) {
+		long result = 1;
+		for (Variable variable : variables) {
+			try {
+				result = Math.multiplyExact(result, cardinalityOf(variable));
+			}
+			catch (ArithmeticException overflow) {
+				return Long.MAX_VALUE;
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,69 @@
+package com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.core;
+
+import static com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.core.EliminationOrdering.cardinalityOf;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.api.EliminationOrderingHeuristic;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+
+/**
+ * The standard greedy elimination ordering heuristics.
+ *
+ */
+public enum EliminationOrderingHeuristics implements EliminationOrderingHeuristic {
+
+	/**
+	 * Eliminates first the variable with the fewest neighbors.
+	 */
+	MIN_DEGREE {
+		@Override
+		public double cost(Variable variable, Map<Variable, ? extends Set<Variable>> interactionGraph) {
+			return interactionGraph.get(variable).size();
+		}
+	},
+
+	/**
+	 * Eliminates first the variable whose elimination adds the fewest edges between its neighbors.
+	 */
+	MIN_FILL {
+		@Override
+		public double cost(Variable variable, Map<Variable, ? extends Set<Variable>> interactionGraph) {
+			double result = 0;
+			ArrayList<Variable> neighbors = new ArrayList<>(interactionGraph.get(variable));
+			for (int i = 0; i < neighbors.size(); i++) {
+				Set<Variable> neighborsOfNeighbor = interactionGraph.get(neighbors.get(i));
+				for (int j = i + 1; j < neighbors.size(); j++) {
+					if (!neighborsOfNeighbor.contains(neighbors.get(j))) {
+						result++;
+					}
+				}
+			}
+			return result;
+		}
+	},
+
+	/**
+	 * Like {@link #MIN_FILL}, but weighing each added edge by the product of the cardinalities of its variables,
+	 * which favors fill-ins between variables with small domains.
+	 */
+	WEIGHTED_MIN_FILL {
+		@Override
+		public double cost(Variable variable, Map<Variable, ? extends Set<Variable>> interactionGraph) {
+			double result = 0;
+			ArrayList<Variable> neighbors = new ArrayList<>(interactionGraph.get(variable));
+			for (int i = 0; i < neighbors.size(); i++) {
+				Set<Variable> neighborsOfNeighbor = interactionGraph.get(neighbors.get(i));
+				for (int j = i + 1; j < neighbors.size(); j++) {
+					if (!neighborsOfNeighbor.contains(neighbors.get(j))) {
+						result += ((double) cardinalityOf(neighbors.get(i)))*cardinalityOf(neighbors.get(j));
+					}
+				}
+			}
+			return result;
+		}
+	};
+
+}
@@ -0,0 +1,109 @@
+package com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.core;
+
+import static com.sri.ai.util.Util.list;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.api.EliminationOrderingHeuristic;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.AbstractFactorNetwork;
+import com.sri.ai.util.base.IdentityWrapper;
+
+/**
+ * A solver that returns the unnormalized marginal of a query given a factor network, using variable elimination.
+ * <p>
+ * Unlike exact BP, whose elimination order follows the expansion of its tree from the query,
+ * variables are eliminated in an {@link EliminationOrdering} chosen by a greedy heuristic
+ * ({@link EliminationOrderingHeuristics#MIN_FILL} by default), which keeps intermediate tables small on loopy networks.
+ * The ordering is computed on construction, so that the size of the largest table can be inspected
+ * (with {@link #getEliminationOrdering()}) before deciding to run the elimination.
+ * <p>
+ * The elimination itself is bucket elimination: each factor is placed in the bucket of its first variable in the order;
+ * each bucket in turn is multiplied, its variable summed out, and the result placed in the bucket of its next variable.
+ *
+ */
+public class VariableElimination {
+
+	private Variable query;
+	private AbstractFactorNetwork factorNetwork;
+	private EliminationOrdering eliminationOrdering;
+
+	public VariableElimination(Variable query, AbstractFactorNetwork factorNetwork) {
+		this(query, factorNetwork, EliminationOrderingHeuristics.MIN_FILL);
+	}
+
+	public VariableElimination(Variable query, AbstractFactorNetwork factorNetwork, EliminationOrderingHeuristic heuristic) {
+		this.query = query;
+		this.factorNetwork = factorNetwork;
+		this.eliminationOrdering = EliminationOrdering.make(factorNetwork, variablesOtherThan(query, factorNetwork), heuristic);
+	}
+
+	public Variable getQuery() {
+		return query;
+	}
+
+	public EliminationOrdering getEliminationOrdering() {
+		return eliminationOrdering;
+	}
+
+	public Factor apply() {
+		List<Variable> order = eliminationOrdering.getVariables();
+		Map<Variable, Integer> positions = new HashMap<>();
+		for (int i = 0; i < order.size(); i++) {
+			positions.put(order.get(i), i);
+		}
+
+		List<List<Factor>> buckets = new ArrayList<>(order.size());
+		for (int i = 0; i < order.size(); i++) {
+			buckets.add(new ArrayList<>());
+		}
+		List<Factor> remainingFactors = new ArrayList<>();
+
+		for (IdentityWrapper<Factor> factor : factorNetwork.getAs()) {
+			placeInBucket(factor.getObject(), positions, buckets, remainingFactors);
+		}
+
+		for (int i = 0; i < order.size(); i++) {
+			List<Factor> bucket = buckets.get(i);
+			if (!bucket.isEmpty()) {
+				Factor product = Factor.multiply(bucket);
+				Factor summedOut = product.sumOut(list(order.get(i)));
+				placeInBucket(summedOut, positions, buckets, remainingFactors);
+				buckets.set(i, null); // frees the memory of the bucket's factors
+			}
+		}
+
+		Factor result = Factor.multiply(remainingFactors);
+		return result;
+	}
+
+	private static void placeInBucket(Factor factor, Map<Variable, Integer> positions, List<List<Factor>> buckets, List<Factor> remainingFactors) {
+		int firstPosition = Integer.MAX_VALUE;
+		for (Variable variable : factor.getVariables()) {
+			Integer position = positions.get(variable);
+			if (position != null && position < firstPosition) {
+				firstPosition = position;
+			}
+		}
+		if (firstPosition == Integer.MAX_VALUE) {
+			remainingFactors.add(factor);
+		}
+		else {
+			buckets.get(firstPosition).add(factor);
+		}
+	}
+
+	private static LinkedHashSet<Variable> variablesOtherThan(Variable query, AbstractFactorNetwork factorNetwork) {
+		if (!factorNetwork.getBs().contains(query)) {
+			throw new Error("Query " + query + " does not occur in the factor network.");
+		}
+		LinkedHashSet<Variable> result = new LinkedHashSet<>(factorNetwork.getBs());
+		result.remove(query);
+		return result;
+	}
+}
@@ -52,4 +52,10 @@ public interface ExternalProcessSolver {
 		throws Exception {
 		throw new UnsupportedOperationException(getClass().getName() + " does not support solve probability evidence evaluations");
 	}
+	
+	/**
+	 * Releases resources kept between solve requests, such as worker processes.
+	 */
+	default void close() {
+	}
 }
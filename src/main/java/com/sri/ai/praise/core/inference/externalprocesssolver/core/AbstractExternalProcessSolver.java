@@ -37,6 +37,10 @@
  */
 package com.sri.ai.praise.core.inference.externalprocesssolver.core;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
 import com.sri.ai.praise.core.inference.externalprocesssolver.api.ExternalProcessSolver;
 
 public abstract class AbstractExternalProcessSolver implements ExternalProcessSolver {
@@ -51,4 +55,26 @@ public abstract class AbstractExternalProcessSolver implements ExternalProcessSo
 	public void setConfiguration(ExternalProcessSolverConfiguration configuration) {
 		this.configuration = configuration;
 	}
+	
+	private static final File TASKSET = new File("/usr/bin/taskset");
+	
+	/**
+	 * Returns a command launching a solver process prefixed so that the process runs only on
+	 * the configuration's {@link ExternalProcessSolverConfiguration#getProcessorAffinity()}, if any.
+	 * This relies on <code>taskset</code>, so the command is returned unchanged where it is not available.
+	 */
+	public static List<String> withProcessorAffinity(List<String> command, ExternalProcessSolverConfiguration configuration) {
+		List<String> result;
+		if (configuration.getProcessorAffinity() >= 0 && TASKSET.canExecute()) {
+			result = new ArrayList<>(command.size() + 3);
+			result.add(TASKSET.getPath());
+			result.add("-c");
+			result.add(Integer.toString(configuration.getProcessorAffinity()));
+			result.addAll(command);
+		}
+		else {
+			result = command;
+		}
+		return result;
+	}
 }
@@ -48,11 +48,16 @@ import com.sri.ai.praise.core.representation.translation.ciaranframework.api.Tra
  */
 public class ExternalProcessSolverConfiguration {
 	
+	public static final int DEFAULT_MAXIMUM_NUMBER_OF_SOLVES_PER_WORKER = 100;
+	
 	private String implementationClassName;
 	private int totalCPURuntimeLimitSecondsPerSolveAttempt;
 	private int totalMemoryLimitInMegabytesPerSolveAttempt;
 	private boolean cacheTranslations;
 	private File workingDirectory;
+	private int numberOfWorkers;
+	private int maximumNumberOfSolvesPerWorker;
+	private int processorAffinity = -1;
 	
 	public ExternalProcessSolverConfiguration(
 			String implementationClassName, 
@@ -61,12 +66,30 @@ public class ExternalProcessSolverConfiguration {
 			boolean cacheTranslations, 
 			File workingDirectory) {
 		
+		this(implementationClassName, totalCPURuntimeLimitSecondsPerSolveAttempt, totalMemoryLimitInMegabytesPerSolveAttempt, cacheTranslations, workingDirectory, 0, DEFAULT_MAXIMUM_NUMBER_OF_SOLVES_PER_WORKER);
+	}
+	
+	/**
+	 * Makes a configuration for solvers that may keep up to <code>numberOfWorkers</code> long-lived worker processes
+	 * (none, for a new process per solve attempt), each replaced by a new one after <code>maximumNumberOfSolvesPerWorker</code> solve attempts.
+	 */
+	public ExternalProcessSolverConfiguration(
+			String implementationClassName, 
+			int totalCPURuntimeLimitSecondsPerSolveAttempt, 
+			int totalMemoryLimitInMegabytesPerSolveAttempt, 
+			boolean cacheTranslations, 
+			File workingDirectory,
+			int numberOfWorkers,
+			int maximumNumberOfSolvesPerWorker) {
+		
 		super();
 		this.implementationClassName = implementationClassName;
 		this.totalCPURuntimeLimitSecondsPerSolveAttempt = totalCPURuntimeLimitSecondsPerSolveAttempt;
 		this.totalMemoryLimitInMegabytesPerSolveAttempt = totalMemoryLimitInMegabytesPerSolveAttempt;
 		this.cacheTranslations = cacheTranslations;
 		this.workingDirectory = workingDirectory;
+		this.numberOfWorkers = numberOfWorkers;
+		this.maximumNumberOfSolvesPerWorker = maximumNumberOfSolvesPerWorker;
 	}
 
 	public String getImplementationClassName() {
@@ -89,6 +112,29 @@ public class ExternalProcessSolverConfiguration {
 		return workingDirectory;
 	}
 	
+	/**
+	 * The number of long-lived worker processes solvers supporting them may keep between solve attempts
+	 * (0 for a new process per solve attempt).
+	 */
+	public int getNumberOfWorkers() {
+		return numberOfWorkers;
+	}
+	
+	public int getMaximumNumberOfSolvesPerWorker() {
+		return maximumNumberOfSolvesPerWorker;
+	}
+	
+	/**
+	 * The processor solver processes are restricted to, or -1 if they can run on any processor.
+	 */
+	public int getProcessorAffinity() {
+		return processorAffinity;
+	}
+	
+	public void setProcessorAffinity(int processorAffinity) {
+		this.processorAffinity = processorAffinity;
+	}
+	
 	public TranslatorOptions getTranslatorOptions() {
 		return new TranslatorOptions(isCacheTranslations(), getWorkingDirectory());
 	}
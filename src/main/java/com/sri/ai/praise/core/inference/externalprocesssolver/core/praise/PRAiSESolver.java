@@ -51,14 +51,23 @@ import com.sri.ai.expresso.helper.Expressions;
 import com.sri.ai.grinder.library.boole.Not;
 import com.sri.ai.grinder.library.controlflow.IfThenElse;
 import com.sri.ai.praise.core.inference.externalprocesssolver.core.AbstractExternalProcessSolver;
+import com.sri.ai.praise.core.inference.externalprocesssolver.core.ExternalProcessSolverConfiguration;
 import com.sri.ai.praise.core.inference.externalprocesssolver.core.ExternalProcessSolverResult;
 import com.sri.ai.praise.core.representation.classbased.modelscontainer.PagedModelContainer;
 import com.sri.ai.praise.core.representation.interfacebased.factor.api.ModelLanguage;
 import com.sri.ai.praise.other.application.praise.commandline.PRAiSE;
 import com.sri.ai.util.base.Pair;
 
+/**
+ * Solves HOGM queries in a new {@link PRAiSE} process per solve request or,
+ * if the configuration has a positive {@link ExternalProcessSolverConfiguration#getNumberOfWorkers()},
+ * with a {@link PRAiSESolverWorkerPool} of long-lived processes.
+ *
+ */
 public class PRAiSESolver extends AbstractExternalProcessSolver {
 
+	private PRAiSESolverWorkerPool workerPool;
+
 	@Override
 	public String getName() {
 		return "PRAiSESolver";
@@ -78,7 +87,13 @@ public class PRAiSESolver extends AbstractExternalProcessSolver {
 					modelLanguage.name() + " is currently not supported by this solver.");
 		}
 
-		SGSolverCallResult prResult = prCallSGSolverCLI(model, evidenceQuery);
+		SGSolverCallResult prResult;
+		if (getConfiguration().getNumberOfWorkers() > 0) {
+			prResult = prCallSGSolverWorker(model, evidenceQuery);
+		}
+		else {
+			prResult = prCallSGSolverCLI(model, evidenceQuery);
+		}
 
 		Expression probabilityEvidence = null;	
 		if (prResult.resultExpression != null) {
@@ -110,8 +125,42 @@ public class PRAiSESolver extends AbstractExternalProcessSolver {
 		return result;
 	}
 
+	@Override
+	public synchronized void setConfiguration(ExternalProcessSolverConfiguration configuration) {
+		close(); // workers were launched with the previous configuration
+		super.setConfiguration(configuration);
+	}
+
+	@Override
+	public synchronized void close() {
+		if (workerPool != null) {
+			workerPool.close();
+			workerPool = null;
+		}
+	}
+
 	//
 	// PRIVATE
+	private SGSolverCallResult prCallSGSolverWorker(String model, String evidenceQuery) throws Exception {
+
+		PRAiSESolverWorkerPool.Response response = getWorkerPool().solve(model, evidenceQuery);
+		if (!response.isResult) {
+			throw new Error("Error solving with PRAiSE solver worker:\n" + response.text);
+		}
+
+		SGSolverCallResult result = new SGSolverCallResult();
+		result.sgSolverProcessTookMS = response.roundTripMilliseconds;
+		result.resultExpression = response.text;
+		return result;
+	}
+
+	private synchronized PRAiSESolverWorkerPool getWorkerPool() {
+		if (workerPool == null) {
+			workerPool = new PRAiSESolverWorkerPool(getConfiguration());
+		}
+		return workerPool;
+	}
+
 	private SGSolverCallResult prCallSGSolverCLI(String model, String evidenceQuery) throws Exception {
 
 		String tempPagedModelContainer = PagedModelContainer.toInternalContainerRepresentation(ModelLanguage.HOGMv1,
@@ -128,10 +177,10 @@ public class PRAiSESolver extends AbstractExternalProcessSolver {
 		processBuilder.directory(getConfiguration().getWorkingDirectory());
 		// TODO - add option to PRAiSE to indicate a timeout.
 		String javaClassPath = System.getProperty("java.class.path");
-		processBuilder.command("java", "-classpath", javaClassPath,
+		processBuilder.command(withProcessorAffinity(Arrays.asList("java", "-classpath", javaClassPath,
 				"-Xms" + getConfiguration().getTotalMemoryLimitInMegabytesPerSolveAttempt() + "M",
 				"-Xmx" + getConfiguration().getTotalMemoryLimitInMegabytesPerSolveAttempt() + "M",
-				PRAiSE.class.getName(), tempInput.getAbsolutePath());
+				PRAiSE.class.getName(), tempInput.getAbsolutePath()), getConfiguration()));
 		processBuilder.redirectError(ProcessBuilder.Redirect.to(tempSTDERR));
 		processBuilder.redirectOutput(ProcessBuilder.Redirect.to(tempSTDOUT));
 
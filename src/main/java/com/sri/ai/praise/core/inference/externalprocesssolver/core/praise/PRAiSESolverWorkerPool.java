@@ -0,0 +1,264 @@
+package com.sri.ai.praise.core.inference.externalprocesssolver.core.praise;
+
+import static com.sri.ai.praise.core.inference.externalprocesssolver.core.AbstractExternalProcessSolver.withProcessorAffinity;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.annotations.Beta;
+import com.sri.ai.praise.core.inference.externalprocesssolver.core.ExternalProcessSolverConfiguration;
+import com.sri.ai.praise.other.application.praise.commandline.PRAiSEWorker;
+
+/**
+ * A pool of up to {@link ExternalProcessSolverConfiguration#getNumberOfWorkers()} long-lived {@link PRAiSEWorker} processes
+ * solving HOGM queries for {@link PRAiSESolver}, so that each solve request does not pay for starting and warming up a new JVM.
+ * <p>
+ * Workers are started on demand, and limits of the configuration are enforced as for a process per solve request:
+ * each worker runs with a heap of {@link ExternalProcessSolverConfiguration#getTotalMemoryLimitInMegabytesPerSolveAttempt()} megabytes,
+ * and a worker not responding within {@link ExternalProcessSolverConfiguration#getTotalCPURuntimeLimitSecondsPerSolveAttempt()}
+ * seconds (plus 5 seconds of grace as for processes) is killed.
+ * Workers are recycled (replaced by new ones) after being killed, after dying (for example, after running out of memory),
+ * and after {@link ExternalProcessSolverConfiguration#getMaximumNumberOfSolvesPerWorker()} solve requests,
+ * so that leaks and fragmentation do not build up across requests.
+ *
+ */
+@Beta
+public class PRAiSESolverWorkerPool implements AutoCloseable {
+
+	/**
+	 * The response of a worker to a solve request.
+	 */
+	public static class Response {
+		public boolean isResult;
+		public String text;
+		public long workerMilliseconds;
+		public long roundTripMilliseconds;
+	}
+
+	private ExternalProcessSolverConfiguration configuration;
+	private String workerClassName;
+	private LinkedList<Worker> idleWorkers;
+	private int numberOfLiveWorkers;
+	private int numberOfStartedWorkers;
+	private ScheduledExecutorService timer;
+	private boolean closed;
+
+	public PRAiSESolverWorkerPool(ExternalProcessSolverConfiguration configuration) {
+		this(configuration, PRAiSEWorker.class.getName());
+	}
+
+	/**
+	 * Makes a pool of worker processes running the main method of the given class,
+	 * which must follow the protocol of {@link PRAiSEWorker} (tests use it to run workers with known behavior).
+	 */
+	public PRAiSESolverWorkerPool(ExternalProcessSolverConfiguration configuration, String workerClassName) {
+		if (configuration.getNumberOfWorkers() < 1) {
+			throw new IllegalArgumentException("Number of workers must be at least 1 but is " + configuration.getNumberOfWorkers());
+		}
+		this.configuration = configuration;
+		this.workerClassName = workerClassName;
+		this.idleWorkers = new LinkedList<>();
+		this.numberOfLiveWorkers = 0;
+		this.numberOfStartedWorkers = 0;
+		this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "PRAiSE solver worker timer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.closed = false;
+	}
+
+	public ExternalProcessSolverConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 * The number of worker processes started so far, including the ones replacing recycled workers.
+	 */
+	public synchronized int getNumberOfStartedWorkers() {
+		return numberOfStartedWorkers;
+	}
+
+	/**
+	 * Solves a query on a HOGM model with an idle worker, waiting for one if all are busy.
+	 * @throws Error if the worker timed out or died, including its standard error in the message
+	 */
+	public Response solve(String model, String query) throws IOException, InterruptedException {
+		Worker worker = acquireWorker();
+		long timeLimit = configuration.getTotalCPURuntimeLimitSecondsPerSolveAttempt() + 5;
+		AtomicBoolean timedOut = new AtomicBoolean(false);
+		ScheduledFuture<?> killing = timer.schedule(() -> {
+			timedOut.set(true);
+			worker.process.destroyForcibly();
+		}, timeLimit, TimeUnit.SECONDS);
+		Response response = new Response();
+		long start = System.currentTimeMillis();
+		try {
+			worker.out.writeInt(PRAiSEWorker.SOLVE_REQUEST);
+			PRAiSEWorker.writeString(model, worker.out);
+			PRAiSEWorker.writeString(query, worker.out);
+			worker.out.flush();
+			response.isResult = worker.in.readInt() == PRAiSEWorker.RESULT_RESPONSE;
+			response.text = PRAiSEWorker.readString(worker.in);
+			response.workerMilliseconds = worker.in.readLong();
+		}
+		catch (IOException exception) {
+			killing.cancel(false);
+			String reason = timedOut.get()? "did not respond within " + timeLimit + " seconds" : "died";
+			String errors = worker.readErrors();
+			discard(worker);
+			throw new Error("PRAiSE solver worker " + reason + ":\n" + errors);
+		}
+		killing.cancel(false);
+		response.roundTripMilliseconds = System.currentTimeMillis() - start;
+		worker.numberOfSolves++;
+		boolean workerExits = !response.isResult && response.text.contains(OutOfMemoryError.class.getName());
+		if (workerExits || worker.numberOfSolves >= configuration.getMaximumNumberOfSolvesPerWorker() || !worker.process.isAlive()) {
+			discard(worker);
+		}
+		else {
+			release(worker);
+		}
+		return response;
+	}
+
+	/**
+	 * Shuts down all workers; workers currently solving are killed when released.
+	 */
+	@Override
+	public void close() {
+		List<Worker> workersToShutDown;
+		synchronized (this) {
+			closed = true;
+			workersToShutDown = new ArrayList<>(idleWorkers);
+			idleWorkers.clear();
+			notifyAll();
+		}
+		for (Worker worker : workersToShutDown) {
+			worker.shutDown();
+		}
+		timer.shutdownNow();
+	}
+
+	private Worker acquireWorker() throws IOException, InterruptedException {
+		synchronized (this) {
+			while (idleWorkers.isEmpty() && numberOfLiveWorkers == configuration.getNumberOfWorkers() && !closed) {
+				wait();
+			}
+			if (closed) {
+				throw new IllegalStateException(getClass().getSimpleName() + " is closed");
+			}
+			if (!idleWorkers.isEmpty()) {
+				return idleWorkers.removeFirst();
+			}
+			numberOfLiveWorkers++;
+			numberOfStartedWorkers++;
+		}
+		try {
+			return new Worker(); // started outside the lock since it waits for the new JVM to be ready
+		}
+		catch (IOException | Error exception) {
+			synchronized (this) {
+				numberOfLiveWorkers--;
+				notifyAll();
+			}
+			throw exception;
+		}
+	}
+
+	private void release(Worker worker) {
+		boolean shutDown;
+		synchronized (this) {
+			shutDown = closed;
+			if (!shutDown) {
+				idleWorkers.addLast(worker);
+				notifyAll();
+			}
+		}
+		if (shutDown) {
+			worker.shutDown();
+		}
+	}
+
+	private void discard(Worker worker) {
+		worker.shutDown();
+		synchronized (this) {
+			numberOfLiveWorkers--;
+			notifyAll();
+		}
+	}
+
+	private class Worker {
+
+		private Process process;
+		private DataOutputStream out;
+		private DataInputStream in;
+		private File errors;
+		private int numberOfSolves;
+
+		public Worker() throws IOException {
+			errors = File.createTempFile("praiseworker", ".stderr", configuration.getWorkingDirectory());
+			ProcessBuilder processBuilder = new ProcessBuilder();
+			processBuilder.directory(configuration.getWorkingDirectory());
+			processBuilder.command(withProcessorAffinity(Arrays.asList("java", "-classpath", System.getProperty("java.class.path"),
+					"-Xms" + configuration.getTotalMemoryLimitInMegabytesPerSolveAttempt() + "M",
+					"-Xmx" + configuration.getTotalMemoryLimitInMegabytesPerSolveAttempt() + "M",
+					workerClassName), configuration));
+			processBuilder.redirectError(ProcessBuilder.Redirect.to(errors));
+			process = processBuilder.start();
+			out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+			in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+			numberOfSolves = 0;
+			int ready;
+			try {
+				ready = in.readInt();
+			}
+			catch (IOException exception) {
+				ready = 0;
+			}
+			if (ready != PRAiSEWorker.READY) {
+				String errorsSoFar = readErrors();
+				shutDown();
+				throw new Error("Error launching PRAiSE solver worker:\n" + errorsSoFar + "\nJava class path used was " + System.getProperty("java.class.path") + "\n");
+			}
+		}
+
+		public String readErrors() {
+			try {
+				process.waitFor(1, TimeUnit.SECONDS);
+				return new String(Files.readAllBytes(errors.toPath()), StandardCharsets.UTF_8);
+			}
+			catch (IOException | InterruptedException exception) {
+				return "";
+			}
+		}
+
+		public void shutDown() {
+			try {
+				out.writeInt(PRAiSEWorker.SHUTDOWN_REQUEST);
+				out.flush();
+				process.waitFor(1, TimeUnit.SECONDS);
+			}
+			catch (IOException | InterruptedException exception) {
+				// worker is killed below
+			}
+			process.destroyForcibly();
+			errors.delete();
+		}
+	}
+}
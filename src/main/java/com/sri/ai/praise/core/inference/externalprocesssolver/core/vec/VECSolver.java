@@ -43,6 +43,7 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -139,7 +140,7 @@ public class VECSolver extends AbstractExternalProcessSolver {
 		// Note: VEC's memory limit is specified in GB
 		processBuilder.environment().put("INF_MEMORY", ""+(getConfiguration().getTotalMemoryLimitInMegabytesPerSolveAttempt() / 1024.0));
 		processBuilder.directory(getConfiguration().getWorkingDirectory());
-		processBuilder.command(_vecProgramName, tempUAI.getName(), tempEvid.getName(), "dummy", _probabilityEvidenceQuery);
+		processBuilder.command(withProcessorAffinity(Arrays.asList(_vecProgramName, tempUAI.getName(), tempEvid.getName(), "dummy", _probabilityEvidenceQuery), getConfiguration()));
 		processBuilder.redirectError(ProcessBuilder.Redirect.to(tempSTDERR));
 		processBuilder.redirectOutput(ProcessBuilder.Redirect.to(tempSTDOUT));
 			
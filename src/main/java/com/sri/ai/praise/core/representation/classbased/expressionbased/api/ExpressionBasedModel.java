@@ -45,4 +45,10 @@ public interface ExpressionBasedModel extends Cloneable, Model {
 
 	ExpressionBasedModel clone();
 
+	/**
+	 * Returns a clone of this model with its own clone of the context,
+	 * so that the clone can be solved concurrently with this model.
+	 */
+	ExpressionBasedModel cloneWithClonedContext();
+
 }
\ No newline at end of file
@@ -273,4 +273,11 @@ public class DefaultExpressionBasedModel implements ExpressionBasedModel {
 		}
 		return result;
 	}
+	
+	@Override
+	public DefaultExpressionBasedModel cloneWithClonedContext() {
+		DefaultExpressionBasedModel result = clone();
+		result.context = getContext().clone();
+		return result;
+	}
 }
\ No newline at end of file
@@ -47,6 +47,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import com.google.common.annotations.Beta;
+import com.google.common.primitives.Doubles;
 import com.sri.ai.util.collect.CartesianProductEnumeration;
 import com.sri.ai.util.math.MixedRadixNumber;
 
@@ -59,17 +60,24 @@ import com.sri.ai.util.math.MixedRadixNumber;
 @Beta
 public class FunctionTable {
 	private List<Integer> varCardinalities = new ArrayList<>();
-	private List<Double> entries;
+	private double[] entries;
 	private MixedRadixNumber entryIndex;
 	
 	public FunctionTable(List<Integer> varCardinalities, List<Double> entries) {
+		this(varCardinalities, Doubles.toArray(entries));
+	}
+	
+	/**
+	 * Constructs a table directly on the given array of entries (which is not copied).
+	 */
+	public FunctionTable(List<Integer> varCardinalities, double[] entries) {
 		this.varCardinalities.addAll(varCardinalities);	
 		this.varCardinalities = Collections.unmodifiableList(this.varCardinalities);
-		this.entries = new ArrayList<>(entries);
+		this.entries = entries;
 				
 		int numEntriesExpected = numEntriesFor(varCardinalities);
-		if (numEntriesExpected != this.entries.size()) {
-			throw new IllegalArgumentException("#entries "+this.entries.size()+" does not match the expected # of "+numEntriesExpected);
+		if (numEntriesExpected != this.entries.length) {
+			throw new IllegalArgumentException("#entries "+this.entries.length+" does not match the expected # of "+numEntriesExpected);
 		}
 
 		this.entryIndex = new MixedRadixNumber(BigInteger.ZERO, this.varCardinalities);
@@ -88,10 +96,17 @@ public class FunctionTable {
 	}
 	
 	public int numberEntries() {
-		return entries.size();
+		return entries.length;
 	}
 	
 	public List<Double> getEntries() {
+		return Doubles.asList(entries);
+	}
+	
+	/**
+	 * Returns the array holding the entries of this table (not a copy).
+	 */
+	public double[] getEntriesArray() {
 		return entries;
 	}
 	
@@ -108,7 +123,7 @@ public class FunctionTable {
 
 	public Double entryFor(int[] varValues) {
 		Double result;
-		result = entries.get(this.entryIndex.getValueFor(varValues).intValue());
+		result = entries[this.entryIndex.getValueFor(varValues).intValue()];
 		return result;
 	}
 	
@@ -163,13 +178,13 @@ public class FunctionTable {
 	public boolean equals(Object obj) {
 		if (obj != null && obj instanceof FunctionTable) {
 			FunctionTable other = (FunctionTable) obj;
-			return this.varCardinalities.equals(other.varCardinalities) && this.entries.equals(other.entries);
+			return this.varCardinalities.equals(other.varCardinalities) && Arrays.equals(this.entries, other.entries);
 		}
 		return false;
 	}
 	
 	@Override
 	public int hashCode() {
-		return this.varCardinalities.hashCode() + this.entries.hashCode();
+		return this.varCardinalities.hashCode() + Arrays.hashCode(this.entries);
 	}
 }
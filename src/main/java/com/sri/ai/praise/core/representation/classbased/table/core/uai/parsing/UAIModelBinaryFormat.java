@@ -0,0 +1,251 @@
+package com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.annotations.Beta;
+import com.sri.ai.praise.core.representation.classbased.table.core.data.FunctionTable;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModel;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModelType;
+
+/**
+ * A compact binary format for {@link UAIModel}s, much faster to load than the UAI text format
+ * since table entries are stored as raw doubles that need no parsing.
+ * <p>
+ * All values are little-endian. A file consists of:
+ * <ul>
+ * <li> a preamble: the magic number {@link #MAGIC}, the format {@link #VERSION} and the (long) offset of the table entries;
+ * <li> the number of variables followed by their cardinalities;
+ * <li> the number of tables, each given by the index of its unique function table,
+ *      the number of variables in its scope and their indexes;
+ * <li> the number of unique function tables, each given by its (long) offset in the file and its number of entries
+ *      (their cardinalities follow from the scopes of the tables using them);
+ * <li> the number of evidence assignments, each given by a variable index and a value index;
+ * <li> starting at an 8-byte aligned offset, the entries of the unique function tables, contiguously.
+ * </ul>
+ * Function tables shared by several tables of a model (as in grids) are stored only once,
+ * and tables read back share the same {@link FunctionTable} instance.
+ * <p>
+ * Files are read through memory mappings, with the entries of each function table bulk-copied
+ * from the mapping into the array backing its {@link FunctionTable}.
+ *
+ */
+@Beta
+public class UAIModelBinaryFormat {
+
+	public static final int MAGIC = 0x55414942; // "UAIB"
+	public static final int VERSION = 1;
+	public static final String FILE_EXTENSION = ".uaib";
+
+	/** The largest region mapped at once when reading table entries. */
+	private static final long WINDOW_SIZE = 1L << 30;
+
+	public static void write(UAIModel model, File file) throws IOException {
+		Map<FunctionTable, Integer> uniqueTableIndexes = new LinkedHashMap<>();
+		List<FunctionTable> uniqueTables = new ArrayList<>();
+		int[] uniqueTableIndexOfTable = new int[model.numberTables()];
+		for (int t = 0; t < model.numberTables(); t++) {
+			FunctionTable table = model.getTable(t);
+			Integer uniqueTableIndex = uniqueTableIndexes.get(table);
+			if (uniqueTableIndex == null) {
+				uniqueTableIndex = uniqueTables.size();
+				uniqueTableIndexes.put(table, uniqueTableIndex);
+				uniqueTables.add(table);
+			}
+			uniqueTableIndexOfTable[t] = uniqueTableIndex;
+		}
+
+		long headerSize = 4 + 4 + 8 + 4 + 4L*model.numberVariables() + 4;
+		for (int t = 0; t < model.numberTables(); t++) {
+			headerSize += 4 + 4 + 4L*model.getVariableIndexesForTable(t).size();
+		}
+		headerSize += 4 + (8 + 4)*(long)uniqueTables.size() + 4 + 8L*model.getEvidence().size();
+		long entriesOffset = (headerSize + 7) & ~7L;
+		if (entriesOffset > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Model " + model + " has too many tables to be written in binary format");
+		}
+
+		ByteBuffer header = ByteBuffer.allocate((int) entriesOffset).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putLong(entriesOffset);
+		header.putInt(model.numberVariables());
+		for (int i = 0; i < model.numberVariables(); i++) {
+			header.putInt(model.cardinality(i));
+		}
+		header.putInt(model.numberTables());
+		for (int t = 0; t < model.numberTables(); t++) {
+			List<Integer> variableIndexes = model.getVariableIndexesForTable(t);
+			header.putInt(uniqueTableIndexOfTable[t]);
+			header.putInt(variableIndexes.size());
+			for (Integer variableIndex : variableIndexes) {
+				header.putInt(variableIndex);
+			}
+		}
+		header.putInt(uniqueTables.size());
+		long offset = entriesOffset;
+		for (FunctionTable table : uniqueTables) {
+			header.putLong(offset);
+			header.putInt(table.numberEntries());
+			offset += 8L*table.numberEntries();
+		}
+		header.putInt(model.getEvidence().size());
+		for (Map.Entry<Integer, Integer> assignment : model.getEvidence().entrySet()) {
+			header.putInt(assignment.getKey());
+			header.putInt(assignment.getValue());
+		}
+		header.rewind();
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			writeFully(channel, header);
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			DoubleBuffer doubles = buffer.asDoubleBuffer();
+			for (FunctionTable table : uniqueTables) {
+				double[] entries = table.getEntriesArray();
+				for (int i = 0; i < entries.length; ) {
+					int length = Math.min(doubles.capacity(), entries.length - i);
+					doubles.clear();
+					doubles.put(entries, i, length);
+					buffer.clear().limit(8*length);
+					writeFully(channel, buffer);
+					i += length;
+				}
+			}
+		}
+	}
+
+	public static UAIModel read(File file) throws IOException {
+		UAIModel result;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			ByteBuffer preamble = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(16, fileSize)).order(ByteOrder.LITTLE_ENDIAN);
+			if (preamble.remaining() < 16 || preamble.getInt() != MAGIC) {
+				throw new IllegalArgumentException(file + " is not a binary UAI model file");
+			}
+			int version = preamble.getInt();
+			if (version != VERSION) {
+				throw new IllegalArgumentException("Unsupported version " + version + " of binary UAI model file " + file);
+			}
+			long entriesOffset = preamble.getLong();
+
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 16, entriesOffset - 16).order(ByteOrder.LITTLE_ENDIAN);
+
+			Map<Integer, Integer> variableToCardinality = new LinkedHashMap<>();
+			int numberVariables = header.getInt();
+			for (int i = 0; i < numberVariables; i++) {
+				variableToCardinality.put(i, header.getInt());
+			}
+
+			int numberTables = header.getInt();
+			int[] uniqueTableIndexOfTable = new int[numberTables];
+			List<List<Integer>> tableVariableIdxs = new ArrayList<>(numberTables);
+			for (int t = 0; t < numberTables; t++) {
+				uniqueTableIndexOfTable[t] = header.getInt();
+				int scopeSize = header.getInt();
+				List<Integer> variableIndexes = new ArrayList<>(scopeSize);
+				for (int i = 0; i < scopeSize; i++) {
+					variableIndexes.add(header.getInt());
+				}
+				tableVariableIdxs.add(variableIndexes);
+			}
+
+			int numberUniqueTables = header.getInt();
+			long[] offsets = new long[numberUniqueTables];
+			double[][] entries = new double[numberUniqueTables][];
+			for (int u = 0; u < numberUniqueTables; u++) {
+				offsets[u] = header.getLong();
+				entries[u] = new double[header.getInt()];
+			}
+
+			Map<Integer, Integer> evidence = new LinkedHashMap<>();
+			int numberEvidenceAssignments = header.getInt();
+			for (int i = 0; i < numberEvidenceAssignments; i++) {
+				evidence.put(header.getInt(), header.getInt());
+			}
+
+			readEntries(channel, fileSize, offsets, entries);
+
+			FunctionTable[] uniqueTables = new FunctionTable[numberUniqueTables];
+			Map<Integer, FunctionTable> tableIdxToTable = new LinkedHashMap<>();
+			for (int t = 0; t < numberTables; t++) {
+				int u = uniqueTableIndexOfTable[t];
+				if (uniqueTables[u] == null) {
+					List<Integer> cardinalities = new ArrayList<>();
+					for (Integer variableIndex : tableVariableIdxs.get(t)) {
+						cardinalities.add(variableToCardinality.get(variableIndex));
+					}
+					uniqueTables[u] = new FunctionTable(cardinalities, entries[u]);
+				}
+				tableIdxToTable.put(t, uniqueTables[u]);
+			}
+
+			result = new UAIModel(UAIModelType.MARKOV, variableToCardinality, tableVariableIdxs, tableIdxToTable);
+			for (Map.Entry<Integer, Integer> assignment : evidence.entrySet()) {
+				result.addEvidence(assignment.getKey(), assignment.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Indicates whether a file starts with the magic number of the binary format.
+	 */
+	public static boolean isBinaryModelFile(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+			while (magic.hasRemaining() && channel.read(magic) >= 0) {
+			}
+			boolean result = !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+			return result;
+		}
+	}
+
+	//
+	// PRIVATE
+	//
+
+	/**
+	 * Copies the entries of all tables, mapping the file in windows of up to {@link #WINDOW_SIZE} bytes.
+	 */
+	private static void readEntries(FileChannel channel, long fileSize, long[] offsets, double[][] entries) throws IOException {
+		MappedByteBuffer window = null;
+		long windowStart = 0;
+		for (int u = 0; u < offsets.length; u++) {
+			long position = offsets[u];
+			int copied = 0;
+			while (copied < entries[u].length) {
+				if (window == null || position < windowStart || position + 8 > windowStart + window.capacity()) {
+					windowStart = position;
+					long windowSize = Math.min(WINDOW_SIZE, fileSize - windowStart);
+					if (windowSize < 8) {
+						throw new IOException("Binary UAI model file is truncated");
+					}
+					window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+					window.order(ByteOrder.LITTLE_ENDIAN);
+				}
+				window.position((int) (position - windowStart));
+				DoubleBuffer doubles = window.asDoubleBuffer();
+				int length = Math.min(doubles.remaining(), entries[u].length - copied);
+				doubles.get(entries[u], copied, length);
+				copied += length;
+				position += 8L*length;
+			}
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
@@ -42,7 +42,6 @@ import static com.sri.ai.praise.core.representation.classbased.table.core.uai.UA
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
@@ -58,6 +57,10 @@ import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModelT
 /**
  * Utility file for reading in Uncertainty in Artificial Intelligence (UAI) 
  * <a href="http://www.hlt.utdallas.edu/~vgogate/uai14-competition/modelformat.html">Inference Competition FactorNetwork Format files</a>.
+ * <p>
+ * Files are read through a memory-mapped {@link UAITokenizer} that parses table entries
+ * straight into the primitive arrays of {@link FunctionTable}s;
+ * readers are parsed line by line.
  * 
  * @author oreilly
  */
@@ -65,7 +68,16 @@ import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModelT
 public class UAIModelReader {
 	
 	public static UAIModel read(File modelFile) throws IOException {
-		return read(new FileReader(modelFile));
+		UAIModel result = null;
+		
+		try (UAITokenizer tokenizer = new UAITokenizer(modelFile)) {
+			Preamble     preamble                       = readPreamble(tokenizer);
+			Map<Integer, FunctionTable> tableIdxToTable = readFunctionTables(preamble, tokenizer);
+			
+			result = new UAIModel(preamble.type, preamble.variableToCardinality, preamble.tableVariableIdxs, tableIdxToTable);
+		}
+		
+		return result;
 	}
 	
 	public static UAIModel read(Reader modelReader) throws IOException {
@@ -157,18 +169,17 @@ public class UAIModelReader {
 		String[] entryLineEntries = split(readLine(br));
 		int numberEntries = Integer.parseInt(entryLineEntries[0]); 
 		
-		List<Double> entries = new ArrayList<Double>();
+		double[] entries = new double[numberEntries];
+		int numberRead = 0;
 		// Handle table entries on the same line as the #entries information.
-		if (entryLineEntries.length > 1) {
-			for (int i = 1; i < entryLineEntries.length; i++) {
-				entries.add(Double.parseDouble(entryLineEntries[i]));
-			}
+		for (int i = 1; i < entryLineEntries.length; i++) {
+			numberRead = addEntry(entries, numberRead, entryLineEntries[i]);
 		}
 
-		while (entries.size() < numberEntries) { 
+		while (numberRead < numberEntries) { 
 			String[] entryValues = split(readLine(br));
 			for (String entry : entryValues) {
-				entries.add(Double.parseDouble(entry));
+				numberRead = addEntry(entries, numberRead, entry);
 			}
 		}
 		
@@ -177,6 +188,66 @@ public class UAIModelReader {
 		return result;
 	}
 	
+	private static int addEntry(double[] entries, int numberRead, String entry) {
+		if (numberRead == entries.length) {
+			throw new IllegalArgumentException("More than the declared #entries "+entries.length+" given for table");
+		}
+		entries[numberRead] = Double.parseDouble(entry);
+		return numberRead + 1;
+	}
+	
+	private static Preamble readPreamble(UAITokenizer tokenizer) throws IOException {
+		Preamble result = new Preamble();
+		
+		String typeOfNetwork = tokenizer.nextToken();
+		if (!UAIModelType.MARKOV.name().equals(typeOfNetwork)) {
+			throw new IllegalArgumentException("Type of network ["+typeOfNetwork+"] is not supported");
+		}
+		result.type = UAIModelType.MARKOV;
+		
+		// number of variables (redundant with the cardinalities)
+		tokenizer.nextInt();
+		
+		// cardinalities, all on the same line
+		int variableIdx = 0;
+		do {
+			result.variableToCardinality.put(variableIdx++, tokenizer.nextInt());
+		} while (!tokenizer.atEndOfLine());
+		
+		int numberTables = tokenizer.nextInt();
+		
+		// one table scope per line, starting with its number of variables
+		for (int i = 0; i < numberTables; i++) {
+			int numberVariables = tokenizer.nextInt();
+			int line = tokenizer.getLine();
+			List<Integer> tableVarIdxs = new ArrayList<>(numberVariables);
+			while (!tokenizer.atEndOfLine()) {
+				tableVarIdxs.add(tokenizer.nextInt());
+			}
+			if (numberVariables != tableVarIdxs.size()) {
+				throw new IllegalArgumentException("Badly defined table at line "+line+": "+numberVariables+" variables declared but "+tableVarIdxs.size()+" given");
+			}
+			result.tableVariableIdxs.add(tableVarIdxs);
+		}
+		
+		return result;
+	}
+	
+	private static Map<Integer, FunctionTable> readFunctionTables(Preamble preamble, UAITokenizer tokenizer) throws IOException {
+		Map<Integer, FunctionTable> tableIdxToTable = new LinkedHashMap<>();
+		
+		for (int t = 0; t < preamble.numTables(); t++) {
+			int numberEntries = tokenizer.nextInt();
+			double[] entries = new double[numberEntries];
+			for (int i = 0; i < numberEntries; i++) {
+				entries[i] = tokenizer.nextDouble();
+			}
+			tableIdxToTable.put(t, new FunctionTable(preamble.cardinalitiesForTable(t), entries));
+		}
+		
+		return tableIdxToTable;
+	}
+	
 	static class Preamble {
 		UAIModelType          type;
 		Map<Integer, Integer> variableToCardinality = new LinkedHashMap<>();
@@ -0,0 +1,237 @@
+package com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A whitespace-separated tokenizer over a memory-mapped UAI file,
+ * parsing integers and doubles directly from the mapped bytes, without creating intermediate Strings.
+ * <p>
+ * The file is mapped in windows of at most {@link #WINDOW_SIZE} bytes,
+ * so files larger than 2GB (the limit of a single mapping) can be read as well.
+ * The tokenizer also keeps track of line numbers, since the UAI format uses line breaks
+ * to delimit the scopes of tables.
+ * <p>
+ * Doubles with at most 15 significant digits and a small decimal exponent
+ * (which covers virtually all UAI files) are computed with a single, correctly rounded, floating-point operation;
+ * all others are handed to {@link Double#parseDouble(String)}, so results are identical to parsing the token as a String.
+ *
+ */
+final class UAITokenizer implements Closeable {
+
+	static final int WINDOW_SIZE = 64 << 20;
+
+	/** The longest token supported; windows are remapped whenever fewer bytes than this remain in them. */
+	private static final int MAXIMUM_TOKEN_LENGTH = 1024;
+
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private FileChannel channel;
+	private long fileSize;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private byte[] token = new byte[MAXIMUM_TOKEN_LENGTH];
+	private int tokenLength;
+	private int line = 1;
+	private int lineOfLastToken = 0;
+
+	UAITokenizer(File file) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		this.fileSize = channel.size();
+		map(0);
+	}
+
+	/**
+	 * Indicates whether there are no more tokens in the line of the last token read (or in the file).
+	 */
+	boolean atEndOfLine() throws IOException {
+		boolean result = !skipWhitespace() || line > lineOfLastToken;
+		return result;
+	}
+
+	/**
+	 * The line of the last token read.
+	 */
+	int getLine() {
+		return lineOfLastToken;
+	}
+
+	String nextToken() throws IOException {
+		readToken();
+		String result = new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+		return result;
+	}
+
+	int nextInt() throws IOException {
+		readToken();
+		int i = 0;
+		boolean negative = token[0] == '-';
+		if (negative || token[0] == '+') {
+			i++;
+		}
+		if (i == tokenLength) {
+			throw notA("integer");
+		}
+		long result = 0;
+		for ( ; i < tokenLength; i++) {
+			int digit = token[i] - '0';
+			if (digit < 0 || digit > 9) {
+				throw notA("integer");
+			}
+			result = result*10 + digit;
+			if (result > Integer.MAX_VALUE + 1L) {
+				throw notA("integer");
+			}
+		}
+		if (negative) {
+			result = -result;
+		}
+		if (result > Integer.MAX_VALUE) {
+			throw notA("integer");
+		}
+		return (int) result;
+	}
+
+	double nextDouble() throws IOException {
+		readToken();
+		int i = 0;
+		boolean negative = token[0] == '-';
+		if (negative || token[0] == '+') {
+			i++;
+		}
+
+		long mantissa = 0;
+		int significantDigits = 0;
+		int digits = 0;
+		int exponent = 0;
+
+		for ( ; i < tokenLength && isDigit(token[i]); i++, digits++) {
+			if (mantissa != 0 || token[i] != '0') {
+				if (significantDigits < 18) { // beyond that, the mantissa could overflow, and Double.parseDouble is used anyway
+					mantissa = mantissa*10 + (token[i] - '0');
+				}
+				significantDigits++;
+			}
+		}
+		if (i < tokenLength && token[i] == '.') {
+			for (i++; i < tokenLength && isDigit(token[i]); i++, digits++) {
+				if (mantissa != 0 || token[i] != '0') {
+					if (significantDigits < 18) {
+						mantissa = mantissa*10 + (token[i] - '0');
+					}
+					significantDigits++;
+				}
+				exponent--;
+			}
+		}
+		boolean exponentIsWellFormed = true;
+		if (digits > 0 && i < tokenLength && (token[i] == 'e' || token[i] == 'E')) {
+			i++;
+			boolean negativeExponent = i < tokenLength && token[i] == '-';
+			if (i < tokenLength && (token[i] == '-' || token[i] == '+')) {
+				i++;
+			}
+			int explicitExponent = 0;
+			int exponentDigits = 0;
+			for ( ; i < tokenLength && isDigit(token[i]) && exponentDigits < 4; i++, exponentDigits++) {
+				explicitExponent = explicitExponent*10 + (token[i] - '0');
+			}
+			exponentIsWellFormed = exponentDigits > 0;
+			exponent += negativeExponent? -explicitExponent : explicitExponent;
+		}
+
+		if (digits > 0 && i == tokenLength && exponentIsWellFormed && significantDigits <= 15 && exponent >= -22 && exponent <= 22) {
+			double result = exponent >= 0? mantissa*POWERS_OF_TEN[exponent] : mantissa/POWERS_OF_TEN[-exponent];
+			return negative? -result : result;
+		}
+
+		// rare formats (too many digits, large exponents, NaN, Infinity, hexadecimal...)
+		try {
+			return Double.parseDouble(new String(token, 0, tokenLength, StandardCharsets.US_ASCII));
+		}
+		catch (NumberFormatException exception) {
+			throw notA("double");
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+	//
+	// PRIVATE
+	//
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	private void readToken() throws IOException {
+		if (!skipWhitespace()) {
+			throw new EOFException("Unexpected end of UAI file at line " + line);
+		}
+		lineOfLastToken = line;
+		tokenLength = 0;
+		while (window.hasRemaining()) {
+			byte b = window.get(window.position());
+			if (isWhitespace(b)) {
+				break;
+			}
+			if (tokenLength == MAXIMUM_TOKEN_LENGTH) {
+				throw new IOException("Token longer than " + MAXIMUM_TOKEN_LENGTH + " characters at line " + line);
+			}
+			token[tokenLength++] = b;
+			window.position(window.position() + 1);
+		}
+	}
+
+	/**
+	 * Skips whitespace, counting line breaks, and returns whether there is a token left to read.
+	 * Also remaps the window if the next token could straddle its end.
+	 */
+	private boolean skipWhitespace() throws IOException {
+		while (true) {
+			while (window.hasRemaining()) {
+				byte b = window.get(window.position());
+				if (!isWhitespace(b)) {
+					if (window.remaining() < MAXIMUM_TOKEN_LENGTH && windowStart + window.limit() < fileSize) {
+						map(windowStart + window.position());
+					}
+					return true;
+				}
+				if (b == '\n') {
+					line++;
+				}
+				window.position(window.position() + 1);
+			}
+			long next = windowStart + window.limit();
+			if (next >= fileSize) {
+				return false;
+			}
+			map(next);
+		}
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\n' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+	}
+
+	private void map(long start) throws IOException {
+		windowStart = start;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, fileSize - start));
+	}
+
+	private NumberFormatException notA(String kind) {
+		return new NumberFormatException("Expected " + kind + " but found '" + new String(token, 0, tokenLength, StandardCharsets.US_ASCII) + "' at line " + lineOfLastToken);
+	}
+}
@@ -6,7 +6,6 @@ import static com.sri.ai.praise.core.representation.interfacebased.factor.core.Z
 import static com.sri.ai.util.Util.list;
 import static java.util.Collections.unmodifiableList;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +18,8 @@ import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
 import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.api.ExpressionFactor;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.core.DefaultExpressionFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.LogTableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.SparseTableFactor;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
 import com.sri.ai.util.explanation.tree.DefaultExplanationTree;
 import com.sri.ai.util.explanation.tree.ExplanationTree;
@@ -65,6 +66,14 @@ public class ConstantFactor implements Factor {
 			result = evaluateAsFactor(Times.make(makeSymbol(getConstant()), (Expression) another),anotherExpression.getContext());
 		}
 		
+		else if (another instanceof LogTableFactor) {
+			result = another.multiply(this);
+		}
+		
+		else if (another instanceof SparseTableFactor) {
+			result = another.multiply(this);
+		}
+		
 		else if (another instanceof TableFactor) {
 			TableFactor anotherTable = (TableFactor) another;
 			result = multiplyWithTableFactor(anotherTable);
@@ -126,9 +135,10 @@ public class ConstantFactor implements Factor {
 	
 	private TableFactor multiplyWithTableFactor(TableFactor table) {
 		TableFactor result;
-		ArrayList<Double> newEntries = new ArrayList<>(table.getEntries().size());
-		for (Double entry : table.getEntries()) {
-			newEntries.add(getConstant()*entry);
+		double[] entries = table.getEntriesArray();
+		double[] newEntries = new double[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			newEntries[i] = getConstant()*entries[i];
 		}
 		result = new TableFactor(table.getVariables(), newEntries);
 		return result;
@@ -175,6 +185,14 @@ public class ConstantFactor implements Factor {
 			result = evaluateAsFactor(Plus.make(makeSymbol(getConstant()), (Expression) another),anotherExpression.getContext());
 		}
 		
+		else if (another instanceof LogTableFactor) {
+			result = another.add(this);
+		}
+		
+		else if (another instanceof SparseTableFactor) {
+			result = another.add(this);
+		}
+		
 		else if (another instanceof TableFactor) {
 			TableFactor anotherTable = (TableFactor) another;
 			result = addATableFactor(anotherTable);
@@ -204,9 +222,10 @@ public class ConstantFactor implements Factor {
 	
 	private TableFactor addATableFactor(TableFactor table) {
 		TableFactor result;
-		ArrayList<Double> newEntries = new ArrayList<>(table.getEntries().size());
-		for (Double entry : table.getEntries()) {
-			newEntries.add(getConstant() + entry);
+		double[] entries = table.getEntriesArray();
+		double[] newEntries = new double[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			newEntries[i] = getConstant() + entries[i];
 		}
 		result = new TableFactor(table.getVariables(), newEntries);
 		return result;
@@ -48,6 +48,8 @@ import static com.sri.ai.util.collect.PredicateIterator.predicateIterator;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -82,6 +84,10 @@ import com.sri.ai.util.explanation.tree.ExplanationTree;
  * Note that even though {@link Expression#equals(Object)} considers two different instances representing the same expression equal,
  * here <code>equals</code> is reverted to instance comparison because one may have multiple factors in a factor network with
  * the same potential expression, and they should still be considered distinct.
+ * <p>
+ * The variables of the factor (its free variables other than type names) are computed once per inner expression
+ * and kept, along with a hash set of them so that {@link #contains(Variable)} takes constant time,
+ * until the inner expression changes.
  * 
  * @author braz
  *
@@ -91,6 +97,8 @@ public abstract class AbstractExpressionFactor extends AbstractExpressionWrapper
 	private static final long serialVersionUID = 1L;
 
 	private Context context;
+	
+	private transient volatile VariablesOfInnerExpression variablesOfInnerExpression;
 
 	public AbstractExpressionFactor(Context context) {
 		this.context = context;
@@ -102,15 +110,22 @@ public abstract class AbstractExpressionFactor extends AbstractExpressionWrapper
 
 	@Override
 	public boolean contains(Variable variable) {
-		boolean result = Expressions.contains(this, (Expression) variable);
+		boolean result = getVariablesOfInnerExpression().expressions.contains(unwrap((Expression) variable));
 		return result;
 	}
 
 	@Override
 	public List<? extends Variable> getVariables() {
-		Set<Expression> freeVariableExpressions = Expressions.freeVariables(getInnerExpression(), context);
-		PredicateIterator<Expression> freeVariablesMinusTypeNames = predicateIterator(freeVariableExpressions, isNotType());
-		List<? extends Variable> result = mapIntoList(freeVariablesMinusTypeNames, e -> new DefaultExpressionVariable(e));
+		return getVariablesOfInnerExpression().variables;
+	}
+
+	private VariablesOfInnerExpression getVariablesOfInnerExpression() {
+		Expression innerExpression = getInnerExpression();
+		VariablesOfInnerExpression result = variablesOfInnerExpression;
+		if (result == null || result.innerExpression != innerExpression) {
+			result = new VariablesOfInnerExpression(innerExpression);
+			variablesOfInnerExpression = result;
+		}
 		return result;
 	}
 
@@ -118,6 +133,38 @@ public abstract class AbstractExpressionFactor extends AbstractExpressionWrapper
 		return e -> context.getTypeFromTypeExpression(e) == null;
 	}
 
+	private static Expression unwrap(Expression expression) {
+		while (expression instanceof AbstractExpressionWrapper) {
+			expression = ((AbstractExpressionWrapper) expression).getInnerExpression();
+		}
+		return expression;
+	}
+
+	/**
+	 * The variables of an inner expression, as a list of {@link DefaultExpressionVariable}s and as a set of their (unwrapped) expressions.
+	 */
+	private class VariablesOfInnerExpression {
+
+		private final Expression innerExpression;
+		private final List<? extends Variable> variables;
+		private final Set<Expression> expressions;
+
+		public VariablesOfInnerExpression(Expression innerExpression) {
+			this.innerExpression = innerExpression;
+			Set<Expression> freeVariableExpressions = Expressions.freeVariables(innerExpression, context);
+			PredicateIterator<Expression> freeVariablesMinusTypeNames = predicateIterator(freeVariableExpressions, isNotType());
+			List<Variable> variables = new ArrayList<>();
+			Set<Expression> expressions = new HashSet<>();
+			while (freeVariablesMinusTypeNames.hasNext()) {
+				Expression variableExpression = freeVariablesMinusTypeNames.next();
+				variables.add(new DefaultExpressionVariable(variableExpression));
+				expressions.add(unwrap(variableExpression));
+			}
+			this.variables = Collections.unmodifiableList(variables);
+			this.expressions = expressions;
+		}
+	}
+
 	@Override
 	public Factor multiply(Factor another) {
 		
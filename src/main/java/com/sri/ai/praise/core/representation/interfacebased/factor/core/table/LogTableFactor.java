@@ -0,0 +1,358 @@
+package com.sri.ai.praise.core.representation.interfacebased.factor.core.table;
+
+import static com.sri.ai.util.Util.setDifference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.ConstantFactor;
+
+/**
+ * A {@link TableFactor} whose entries are the natural logarithms of its potentials.
+ * <p>
+ * Products of many small potentials quickly underflow in a regular table.
+ * Here multiplication adds entries, summing out uses log-sum-exp and normalization subtracts
+ * the log of the partition function, so results stay in log space and remain {@link LogTableFactor}s.
+ * Because factors are defined up to a multiplicative constant, summing out all variables
+ * yields a {@link LogTableFactor} with no variables rather than a {@link ConstantFactor}
+ * (whose value could over- or underflow).
+ * <p>
+ * Note that the entry accessors inherited from {@link TableFactor} read and write log-potentials;
+ * {@link #toTableFactor()} converts back to a regular table.
+ *
+ */
+public class LogTableFactor extends TableFactor {
+
+	private static final DoubleBinaryOperator LOG_MULTIPLICATION = (a,b) -> a + b;
+	private static final DoubleBinaryOperator LOG_ADDITION = (a,b) -> logAdd(a, b);
+
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// CONSTRUCTORS /////////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	public LogTableFactor(String factorName, Collection<? extends TableVariable> variables, double[] logParameters) {
+		super(factorName, variables, logParameters);
+	}
+
+	public LogTableFactor(Collection<? extends TableVariable> variables, double[] logParameters) {
+		super(variables, logParameters);
+	}
+
+	public static LogTableFactor fromTableFactor(TableFactor factor) {
+		if (factor instanceof LogTableFactor) {
+			return (LogTableFactor) factor;
+		}
+		double[] entries = factor.getEntriesArray();
+		double[] logEntries = new double[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			logEntries[i] = Math.log(entries[i]);
+		}
+		return new LogTableFactor(factor.getVariables(), logEntries);
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// PUBLIC METHODS ///////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns an equivalent regular {@link TableFactor}.
+	 * Entries are scaled so that the largest one is 1.0 (which is fine since factors are defined up to a multiplicative constant),
+	 * so that exponentiating them does not overflow and underflows only for entries negligible compared to the largest one.
+	 */
+	public TableFactor toTableFactor() {
+		double[] logEntries = getEntriesArray();
+		double max = maximumOf(logEntries);
+		double shift = max == Double.NEGATIVE_INFINITY? 0.0 : max;
+		double[] entries = new double[logEntries.length];
+		for (int i = 0; i < logEntries.length; i++) {
+			entries[i] = Math.exp(logEntries[i] - shift);
+		}
+		return new TableFactor(getVariables(), entries);
+	}
+
+
+	@Override
+	public Factor multiply(Factor another) {
+
+		Factor result;
+
+		if(another instanceof ConstantFactor) {
+			result = multiply((ConstantFactor) another);
+		}
+		else if(another instanceof TableFactor) {
+			result = multiply((TableFactor) another);
+		}
+		else {
+			throw new Error("Trying to multiply different types of factors: this is a " +
+							this.getClass() + "and another is a " + another.getClass());
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Multiplies this factor by another table factor, which is converted to log space first if it is a regular {@link TableFactor}.
+	 */
+	@Override
+	public LogTableFactor multiply(TableFactor another) {
+		return (LogTableFactor) operateOnUnionedParameters(fromTableFactor(another), LOG_MULTIPLICATION);
+	}
+
+
+	public Factor multiply(ConstantFactor constant) {
+		if (constant.isIdentity()) {
+			return this;
+		}
+		return shiftedBy(Math.log(constant.getConstant()));
+	}
+
+
+	@Override
+	public Factor add(Factor another) {
+
+		Factor result;
+
+		if(another instanceof ConstantFactor) {
+			result = add((ConstantFactor) another);
+		}
+		else if(another instanceof TableFactor) {
+			result = add((TableFactor) another);
+		}
+		else {
+			throw new Error("Trying to add different types of factors: this is a " +
+							this.getClass() + "and another is a " + another.getClass());
+		}
+
+		return result;
+	}
+
+
+	@Override
+	public LogTableFactor add(TableFactor another) {
+		return (LogTableFactor) operateOnUnionedParameters(fromTableFactor(another), LOG_ADDITION);
+	}
+
+
+	public Factor add(ConstantFactor constant) {
+		if (constant.isZero()) {
+			return this;
+		}
+		double logConstant = Math.log(constant.getConstant());
+		double[] logEntries = getEntriesArray();
+		double[] newLogEntries = new double[logEntries.length];
+		for (int i = 0; i < logEntries.length; i++) {
+			newLogEntries[i] = logAdd(logEntries[i], logConstant);
+		}
+		return new LogTableFactor(getVariables(), newLogEntries);
+	}
+
+
+	/**
+	 * Sums out given variables with a single pass of log-sum-exp over this factor's entries,
+	 * keeping for each entry of the result the largest log-potential seen so far and the sum of the
+	 * exponentials of the log-potentials relative to it.
+	 */
+	@Override
+	public Factor sumOut(List<? extends Variable> variablesToSumOutList) {
+
+		LinkedHashSet<TableVariable> variablesToSumOut = new LinkedHashSet<>((List<TableVariable>) variablesToSumOutList);
+		LinkedHashSet<TableVariable> variablesNotToSumOut = new LinkedHashSet<>();
+		variablesNotToSumOut = (LinkedHashSet<TableVariable>) setDifference(new LinkedHashSet<>(getVariables()), variablesToSumOut, variablesNotToSumOut);
+
+		LogTableFactor result = new LogTableFactor(variablesNotToSumOut, new double[numEntries(variablesNotToSumOut)]);
+
+		ArrayList<TableVariable> variables = getVariables();
+		int numVariables = variables.size();
+		int[] cardinalities = cardinalitiesOf(variables);
+		int[] resultStrides = result.stridesInThisFactorFor(variables);
+		int[] values = new int[numVariables];
+
+		double[] logEntries = getEntriesArray();
+		double[] resultLogEntries = result.getEntriesArray();
+		double[] maxima = new double[resultLogEntries.length];
+		double[] sumsOfExponentials = new double[resultLogEntries.length];
+		Arrays.fill(maxima, Double.NEGATIVE_INFINITY);
+
+		int resultIndex = 0;
+		for(int index = 0; index < logEntries.length; ++index) {
+			double logEntry = logEntries[index];
+			if (logEntry > maxima[resultIndex]) {
+				sumsOfExponentials[resultIndex] = sumsOfExponentials[resultIndex]*Math.exp(maxima[resultIndex] - logEntry) + 1.0;
+				maxima[resultIndex] = logEntry;
+			}
+			else if (logEntry != Double.NEGATIVE_INFINITY) {
+				sumsOfExponentials[resultIndex] += Math.exp(logEntry - maxima[resultIndex]);
+			}
+			for(int i = numVariables - 1; i >= 0; --i) {
+				resultIndex += resultStrides[i];
+				if(++values[i] < cardinalities[i]) {
+					break;
+				}
+				values[i] = 0;
+				resultIndex -= resultStrides[i]*cardinalities[i];
+			}
+		}
+
+		for(int i = 0; i < resultLogEntries.length; ++i) {
+			resultLogEntries[i] = sumsOfExponentials[i] == 0.0? Double.NEGATIVE_INFINITY : maxima[i] + Math.log(sumsOfExponentials[i]);
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Normalizes factor so that the overall sum of all potentials together = 1.0,
+	 * that is, so that the log-sum-exp of its entries is 0.0.
+	 *
+	 * @return reference to normalized self
+	 */
+	@Override
+	public LogTableFactor normalize() {
+		double logNormalizationConstant = logSumExp(getEntriesArray());
+		if (!Double.isInfinite(logNormalizationConstant) && logNormalizationConstant != 0.0) {
+			double[] logEntries = getEntriesArray();
+			for (int i = 0; i < logEntries.length; i++) {
+				logEntries[i] -= logNormalizationConstant;
+			}
+		}
+		return this;
+	}
+
+
+	@Override
+	public LogTableFactor normalizedCopy() {
+		double logNormalizationConstant = logSumExp(getEntriesArray());
+		if (Double.isInfinite(logNormalizationConstant) || logNormalizationConstant == 0.0) {
+			return this;
+		}
+		return shiftedBy(-logNormalizationConstant);
+	}
+
+
+	@Override
+	public Factor invert() {
+		double[] logEntries = getEntriesArray();
+		double[] newLogEntries = new double[logEntries.length];
+		for (int i = 0; i < logEntries.length; i++) {
+			if(logEntries[i] == Double.NEGATIVE_INFINITY) {
+				throw new Error("Can't invert : 0 value in the table factor.");
+			}
+			newLogEntries[i] = -logEntries[i];
+		}
+		return new LogTableFactor(getVariables(), newLogEntries);
+	}
+
+
+	/**
+	 * Returns true if all potentials are equal and non-zero (that is, all log-potentials are equal and finite),
+	 * since factors are defined up to a multiplicative constant.
+	 */
+	@Override
+	public boolean isIdentity() {
+		double[] logEntries = getEntriesArray();
+		double valueAtZero = logEntries[0];
+		if(Double.isInfinite(valueAtZero) || Double.isNaN(valueAtZero)) {
+			return false;
+		}
+		for(double v : logEntries) {
+			if (v != valueAtZero) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	@Override
+	public boolean isZero() {
+		for(double v : getEntriesArray()) {
+			if (v != Double.NEGATIVE_INFINITY) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Computes log(sum_i exp(logValues[i])) without over- or underflowing,
+	 * by factoring out the largest of the values.
+	 */
+	public static double logSumExp(double[] logValues) {
+		double max = maximumOf(logValues);
+		if (Double.isInfinite(max)) {
+			return max;
+		}
+		double sum = 0.0;
+		for (double logValue : logValues) {
+			sum += Math.exp(logValue - max);
+		}
+		return max + Math.log(sum);
+	}
+
+
+	/**
+	 * Computes log(exp(a) + exp(b)) without over- or underflowing.
+	 */
+	public static double logAdd(double a, double b) {
+		if (a < b) {
+			double temp = a;
+			a = b;
+			b = temp;
+		}
+		if (a == Double.NEGATIVE_INFINITY) {
+			return a;
+		}
+		return a + Math.log1p(Math.exp(b - a));
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// PROTECTED AND PRIVATE METHODS ////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	@Override
+	protected LogTableFactor makeFactor(Collection<? extends TableVariable> variables, double[] parameters) {
+		return new LogTableFactor(variables, parameters);
+	}
+
+
+	private LogTableFactor shiftedBy(double logConstant) {
+		double[] logEntries = getEntriesArray();
+		double[] newLogEntries = new double[logEntries.length];
+		for (int i = 0; i < logEntries.length; i++) {
+			newLogEntries[i] = logEntries[i] + logConstant;
+		}
+		return new LogTableFactor(getVariables(), newLogEntries);
+	}
+
+
+	private static double maximumOf(double[] values) {
+		double max = Double.NEGATIVE_INFINITY;
+		for (double value : values) {
+			if (value > max) {
+				max = value;
+			}
+		}
+		return max;
+	}
+
+}
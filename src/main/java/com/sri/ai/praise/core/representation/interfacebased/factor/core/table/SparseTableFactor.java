@@ -0,0 +1,607 @@
+package com.sri.ai.praise.core.representation.interfacebased.factor.core.table;
+
+import static com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor.cardinalitiesOf;
+import static com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor.computeStrides;
+import static com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor.numEntries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.ConstantFactor;
+import com.sri.ai.util.explanation.tree.DefaultExplanationTree;
+import com.sri.ai.util.explanation.tree.ExplanationTree;
+
+/**
+ * A table factor storing only its non-zero entries, as parallel arrays of sorted parameter indices and values.
+ * <p>
+ * Parameter indices follow the same layout as {@link TableFactor} (the last variable varies fastest),
+ * so entries can be converted back and forth with {@link #fromTableFactor(TableFactor)} and {@link #toTableFactor()}.
+ * Multiplication only combines pairs of non-zero entries agreeing on the shared variables,
+ * and summing out only visits non-zero entries, so both skip the zero regions of tables
+ * such as deterministic conditional probability tables.
+ *
+ */
+public class SparseTableFactor implements Factor {
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// DATA MEMBERS /////////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	private String name;
+	private final ArrayList<TableVariable> variableList;
+	private final LinkedHashSet<TableVariable> variableSet;
+	private final int[] strides;
+	private final int numberOfEntries;
+	private final int[] indices;
+	private final double[] values;
+	private ExplanationTree explanation = DefaultExplanationTree.PLACEHOLDER;	// use currently not supported
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// CONSTRUCTORS /////////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a sparse factor from the parameter indices (strictly increasing) of its non-zero entries and their values;
+	 * the arrays are used without copying.
+	 */
+	public SparseTableFactor(String factorName, Collection<? extends TableVariable> variables, int[] sortedIndices, double[] values) {
+		if (sortedIndices.length != values.length) {
+			throw new Error("SparseTableFactor requires as many indices as values, but got " + sortedIndices.length + " indices and " + values.length + " values.");
+		}
+		this.name = factorName;
+		this.variableList = new ArrayList<>(variables);
+		this.variableSet = new LinkedHashSet<>(variables);
+		this.strides = computeStrides(variableList);
+		this.numberOfEntries = numEntries(variableList);
+		this.indices = sortedIndices;
+		this.values = values;
+	}
+
+	public SparseTableFactor(Collection<? extends TableVariable> variables, int[] sortedIndices, double[] values) {
+		this("phi", variables, sortedIndices, values);
+	}
+
+	public static SparseTableFactor fromTableFactor(TableFactor factor) {
+		double[] entries = factor.getEntriesArray();
+		int numberOfNonZeroEntries = 0;
+		for (double entry : entries) {
+			if (entry != 0.0) {
+				numberOfNonZeroEntries++;
+			}
+		}
+		int[] indices = new int[numberOfNonZeroEntries];
+		double[] values = new double[numberOfNonZeroEntries];
+		int j = 0;
+		for (int i = 0; i < entries.length; i++) {
+			if (entries[i] != 0.0) {
+				indices[j] = i;
+				values[j] = entries[i];
+				j++;
+			}
+		}
+		return new SparseTableFactor(factor.getVariables(), indices, values);
+	}
+
+	/**
+	 * Returns the fraction of the entries of a table factor that are zero.
+	 */
+	public static double sparsityOf(TableFactor factor) {
+		double[] entries = factor.getEntriesArray();
+		int numberOfZeros = 0;
+		for (double entry : entries) {
+			if (entry == 0.0) {
+				numberOfZeros++;
+			}
+		}
+		return ((double) numberOfZeros)/entries.length;
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// PUBLIC METHODS ///////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	// METHODS BASED ON IMPLEMENTING FACTOR /////////////////////////////////////////////////////////////
+
+	@Override
+	public boolean contains(Variable variable) {
+		return variableSet.contains(variable);
+	}
+
+
+	@Override
+	public ArrayList<TableVariable> getVariables() {
+		return variableList;
+	}
+
+
+	@Override
+	public boolean isIdentity() {
+		if(indices.length != numberOfEntries) {
+			return false;
+		}
+		double valueAtZero = values[0];
+		for(double v : values) {
+			if (v != valueAtZero) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	@Override
+	public boolean isZero() {
+		return indices.length == 0;
+	}
+
+
+	/**
+	 * Normalizes factor so that the overall sum of all parameters together = 1.0
+	 *
+	 * @return reference to normalized self
+	 */
+	@Override
+	public SparseTableFactor normalize() {
+		double normalizationConstant = sumOfValues();
+		if(normalizationConstant != 0.0 && normalizationConstant != 1.0) {
+			for (int i = 0; i < values.length; i++) {
+				values[i] /= normalizationConstant;
+			}
+		}
+		return this;
+	}
+
+
+	@Override
+	public Double getEntryFor(Map<? extends Variable, ? extends Object> variablesAndTheirValues) {
+		int numVariables = variableList.size();
+		int[] variableValues = new int[numVariables];
+		for(int i = 0; i < numVariables; ++i) {
+			variableValues[i] = (Integer) variablesAndTheirValues.get(variableList.get(i));
+		}
+		return getEntryFor(variableValues);
+	}
+
+
+	/**
+	 * Returns parameter corresponding to given variable values, provided in the same order as {@link #getVariables()}.
+	 */
+	public double getEntryFor(int[] variableValuesInTheRightOrder) {
+		int parameterIndex = 0;
+		for(int i = 0; i < variableValuesInTheRightOrder.length; ++i) {
+			parameterIndex += strides[i]*variableValuesInTheRightOrder[i];
+		}
+		return getEntry(parameterIndex);
+	}
+
+
+	/**
+	 * Returns the parameter at the given index of the dense layout (0.0 if it is not stored).
+	 */
+	public double getEntry(int parameterIndex) {
+		int position = Arrays.binarySearch(indices, parameterIndex);
+		return position < 0? 0.0 : values[position];
+	}
+
+
+	@Override
+	public Factor sumOut(List<? extends Variable> variablesToSumOutList) {
+
+		LinkedHashSet<TableVariable> variablesNotToSumOut = new LinkedHashSet<>(variableList);
+		variablesNotToSumOut.removeAll(variablesToSumOutList);
+
+		Factor result;
+		// if every variable is summed out, return the sum of all the parameters in a constant factor
+		if(variablesNotToSumOut.isEmpty()) {
+			result = new ConstantFactor(sumOfValues());
+		}
+		else {
+			ArrayList<TableVariable> resultVariables = new ArrayList<>(variablesNotToSumOut);
+			int[] resultIndices = projectIndices(stridesOfMyVariablesIn(resultVariables, computeStrides(resultVariables)));
+			result = fromUnsortedEntries(resultVariables, resultIndices, values, resultIndices.length);
+		}
+
+		return result;
+	}
+
+
+	@Override
+	public Factor multiply(Factor another) {
+
+		Factor result;
+
+		if(another instanceof ConstantFactor) {
+			result = multiply((ConstantFactor) another);
+		}
+		else if(another instanceof SparseTableFactor) {
+			result = multiply((SparseTableFactor) another);
+		}
+		else if(another instanceof TableFactor && !(another instanceof LogTableFactor)) {
+			result = multiply(fromTableFactor((TableFactor) another));
+		}
+		else {
+			throw new Error("Trying to multiply different types of factors: this is a " +
+							this.getClass() + "and another is a " + another.getClass());
+		}
+
+		return result;
+	}
+
+
+	@Override
+	public Factor add(Factor another) {
+
+		Factor result;
+
+		if(another instanceof ConstantFactor) {
+			result = add(new SparseTableFactor(new ArrayList<TableVariable>(), new int[] {0}, new double[] {((ConstantFactor) another).getConstant()}));
+		}
+		else if(another instanceof SparseTableFactor) {
+			result = add((SparseTableFactor) another);
+		}
+		else if(another instanceof TableFactor && !(another instanceof LogTableFactor)) {
+			result = add(fromTableFactor((TableFactor) another));
+		}
+		else {
+			throw new Error("Trying to add different types of factors: this is a " +
+							this.getClass() + "and another is a " + another.getClass());
+		}
+
+		return result;
+	}
+
+
+	@Override
+	public Factor invert() {
+		if(indices.length != numberOfEntries) {
+			throw new Error("Can't invert : 0 value in the table factor.");
+		}
+		double[] newValues = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			newValues[i] = 1/values[i];
+		}
+		return new SparseTableFactor(variableList, indices.clone(), newValues);
+	}
+
+
+	@Override
+	public Factor max(Collection<? extends Variable> variablesToMaximize) {
+		throw new UnsupportedOperationException("max is not supported by " + getClass().getSimpleName());
+	}
+
+
+	@Override
+	public Factor argmax(Collection<? extends Variable> variablesToMaximize) {
+		throw new UnsupportedOperationException("argmax is not supported by " + getClass().getSimpleName());
+	}
+
+
+	@Override
+	public Factor min(Collection<? extends Variable> variablesToMinimize) {
+		throw new UnsupportedOperationException("min is not supported by " + getClass().getSimpleName());
+	}
+
+
+	@Override
+	public Factor argmin(Collection<? extends Variable> variablesToMinimize) {
+		throw new UnsupportedOperationException("argmin is not supported by " + getClass().getSimpleName());
+	}
+
+
+	@Override
+	public ExplanationTree getExplanation() {
+		return explanation;
+	}
+
+
+	@Override
+	public void setExplanation(ExplanationTree explanation) {
+		this.explanation = explanation;
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+
+	// SPARSETABLEFACTOR-SPECIFIC METHODS ///////////////////////////////////////////////////////////////
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder(name + variableSet.toString() + ": sparse {");
+		for (int i = 0; i < indices.length; i++) {
+			if (i != 0) {
+				result.append(", ");
+			}
+			result.append(indices[i]).append("=").append(values[i]);
+		}
+		result.append("}");
+		return result.toString();
+	}
+
+
+	public void setName(String newName) {
+		this.name = newName;
+	}
+
+
+	public int numberOfEntries() {
+		return numberOfEntries;
+	}
+
+
+	public int numberOfNonZeroEntries() {
+		return indices.length;
+	}
+
+
+	public TableFactor toTableFactor() {
+		double[] entries = new double[numberOfEntries];
+		for (int i = 0; i < indices.length; i++) {
+			entries[indices[i]] = values[i];
+		}
+		return new TableFactor(variableList, entries);
+	}
+
+
+	public Factor multiply(ConstantFactor constant) {
+		if (constant.isIdentity()) {
+			return this;
+		}
+		double c = constant.getConstant();
+		if (c == 0.0) {
+			return new SparseTableFactor(variableList, new int[0], new double[0]);
+		}
+		double[] newValues = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			newValues[i] = c*values[i];
+		}
+		return new SparseTableFactor(variableList, indices.clone(), newValues);
+	}
+
+
+	/**
+	 * Multiplies this factor by another sparse factor by grouping the entries of the latter by their values on the shared variables
+	 * and combining each entry of this factor only with the entries of the matching group.
+	 */
+	public SparseTableFactor multiply(SparseTableFactor another) {
+
+		ArrayList<TableVariable> resultVariables = unionOfVariables(another);
+		int[] resultStrides = computeStrides(resultVariables);
+
+		ArrayList<TableVariable> sharedVariables = new ArrayList<>(variableList);
+		sharedVariables.retainAll(another.variableSet);
+		int[] sharedStrides = computeStrides(sharedVariables);
+
+		int[] thisKeys = this.projectIndices(this.stridesOfMyVariablesIn(sharedVariables, sharedStrides));
+		int[] anotherKeys = another.projectIndices(another.stridesOfMyVariablesIn(sharedVariables, sharedStrides));
+		int[] thisPartialIndices = this.projectIndices(this.stridesOfMyVariablesIn(resultVariables, resultStrides));
+		int[] anotherPartialIndices = another.projectIndices(another.stridesOfMyVariablesIn(resultVariables, resultStrides, this.variableSet));
+
+		// sort another's entries by key so that each group is a contiguous range
+		long[] anotherKeysAndPositions = sortedKeysAndPositions(anotherKeys, anotherKeys.length);
+		int[] sortedAnotherKeys = new int[anotherKeys.length];
+		for (int j = 0; j < anotherKeys.length; j++) {
+			sortedAnotherKeys[j] = (int) (anotherKeysAndPositions[j] >>> 32);
+		}
+
+		EntryBuffer buffer = new EntryBuffer(Math.max(indices.length, another.indices.length));
+		for (int i = 0; i < indices.length; i++) {
+			int start = firstPositionOf(thisKeys[i], sortedAnotherKeys);
+			for (int j = start; j < sortedAnotherKeys.length && sortedAnotherKeys[j] == thisKeys[i]; j++) {
+				int anotherPosition = (int) anotherKeysAndPositions[j];
+				buffer.add(thisPartialIndices[i] + anotherPartialIndices[anotherPosition], values[i]*another.values[anotherPosition]);
+			}
+		}
+
+		return fromUnsortedEntries(resultVariables, buffer.indices, buffer.values, buffer.size);
+	}
+
+
+	/**
+	 * Adds another sparse factor to this one; each non-zero entry of an operand
+	 * contributes to all the assignments of the variables of the other operand that it does not contain.
+	 */
+	public SparseTableFactor add(SparseTableFactor another) {
+		ArrayList<TableVariable> resultVariables = unionOfVariables(another);
+		int[] resultStrides = computeStrides(resultVariables);
+		EntryBuffer buffer = new EntryBuffer(indices.length + another.indices.length);
+		this.expandInto(buffer, resultVariables, resultStrides);
+		another.expandInto(buffer, resultVariables, resultStrides);
+		return fromUnsortedEntries(resultVariables, buffer.indices, buffer.values, buffer.size);
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// PRIVATE METHODS //////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	private double sumOfValues() {
+		double result = 0.0;
+		for (double value : values) {
+			result += value;
+		}
+		return result;
+	}
+
+
+	private ArrayList<TableVariable> unionOfVariables(SparseTableFactor another) {
+		LinkedHashSet<TableVariable> union = new LinkedHashSet<>(variableSet);
+		union.addAll(another.variableSet);
+		return new ArrayList<>(union);
+	}
+
+
+	private int[] stridesOfMyVariablesIn(List<TableVariable> targetVariables, int[] targetStrides) {
+		return stridesOfMyVariablesIn(targetVariables, targetStrides, null);
+	}
+
+
+	/**
+	 * Returns, for each variable of this factor, its stride in a table on the target variables,
+	 * or 0 if it is not a target variable or if it belongs to the given set of variables to ignore.
+	 */
+	private int[] stridesOfMyVariablesIn(List<TableVariable> targetVariables, int[] targetStrides, Collection<TableVariable> variablesToIgnore) {
+		int numVariables = variableList.size();
+		int[] result = new int[numVariables];
+		for (int i = 0; i < numVariables; i++) {
+			TableVariable variable = variableList.get(i);
+			int positionInTarget = targetVariables.indexOf(variable);
+			boolean ignored = variablesToIgnore != null && variablesToIgnore.contains(variable);
+			result[i] = positionInTarget == -1 || ignored? 0 : targetStrides[positionInTarget];
+		}
+		return result;
+	}
+
+
+	/**
+	 * Returns, for each non-zero entry, the index of the same assignment in another table,
+	 * given the stride of each of this factor's variables in that table.
+	 */
+	private int[] projectIndices(int[] targetStridesOfMyVariables) {
+		int numVariables = variableList.size();
+		int[] cardinalities = cardinalitiesOf(variableList);
+		int[] result = new int[indices.length];
+		for (int j = 0; j < indices.length; j++) {
+			int index = indices[j];
+			int projected = 0;
+			for (int i = 0; i < numVariables; i++) {
+				int value = (index / strides[i]) % cardinalities[i];
+				projected += value*targetStridesOfMyVariables[i];
+			}
+			result[j] = projected;
+		}
+		return result;
+	}
+
+
+	private void expandInto(EntryBuffer buffer, ArrayList<TableVariable> resultVariables, int[] resultStrides) {
+		ArrayList<TableVariable> missingVariables = new ArrayList<>(resultVariables);
+		missingVariables.removeAll(variableSet);
+		int numMissing = missingVariables.size();
+		int[] missingCardinalities = cardinalitiesOf(missingVariables);
+		int[] missingStrides = new int[numMissing];
+		for (int k = 0; k < numMissing; k++) {
+			missingStrides[k] = resultStrides[resultVariables.indexOf(missingVariables.get(k))];
+		}
+		int numberOfMissingAssignments = numEntries(missingVariables);
+
+		int[] partialIndices = projectIndices(stridesOfMyVariablesIn(resultVariables, resultStrides));
+		for (int i = 0; i < indices.length; i++) {
+			int[] missingValues = new int[numMissing];
+			int index = partialIndices[i];
+			for (int a = 0; a < numberOfMissingAssignments; a++) {
+				buffer.add(index, values[i]);
+				for (int k = numMissing - 1; k >= 0; --k) {
+					index += missingStrides[k];
+					if (++missingValues[k] < missingCardinalities[k]) {
+						break;
+					}
+					missingValues[k] = 0;
+					index -= missingStrides[k]*missingCardinalities[k];
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Builds a sparse factor from entries given in any order, summing entries with the same index and dropping zeros.
+	 */
+	private static SparseTableFactor fromUnsortedEntries(List<TableVariable> variables, int[] unsortedIndices, double[] unsortedValues, int size) {
+		long[] keysAndPositions = sortedKeysAndPositions(unsortedIndices, size);
+		int[] resultIndices = new int[size];
+		double[] resultValues = new double[size];
+		int resultSize = 0;
+		int i = 0;
+		while (i < size) {
+			int index = (int) (keysAndPositions[i] >>> 32);
+			double sum = 0.0;
+			for (; i < size && (int) (keysAndPositions[i] >>> 32) == index; i++) {
+				sum += unsortedValues[(int) keysAndPositions[i]];
+			}
+			if (sum != 0.0) {
+				resultIndices[resultSize] = index;
+				resultValues[resultSize] = sum;
+				resultSize++;
+			}
+		}
+		return new SparseTableFactor(variables, Arrays.copyOf(resultIndices, resultSize), Arrays.copyOf(resultValues, resultSize));
+	}
+
+
+	/**
+	 * Sorts positions by key by packing each non-negative key in the upper half and its position in the lower half of a long.
+	 */
+	private static long[] sortedKeysAndPositions(int[] keys, int size) {
+		long[] result = new long[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = (((long) keys[i]) << 32) | i;
+		}
+		Arrays.sort(result);
+		return result;
+	}
+
+
+	private static int firstPositionOf(int key, int[] sortedKeys) {
+		int low = 0;
+		int high = sortedKeys.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedKeys[middle] < key) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * A growable pair of index and value arrays.
+	 */
+	private static class EntryBuffer {
+		int[] indices;
+		double[] values;
+		int size;
+
+		EntryBuffer(int initialCapacity) {
+			indices = new int[Math.max(initialCapacity, 1)];
+			values = new double[indices.length];
+		}
+
+		void add(int index, double value) {
+			if (size == indices.length) {
+				indices = Arrays.copyOf(indices, 2*size);
+				values = Arrays.copyOf(values, 2*size);
+			}
+			indices[size] = index;
+			values[size] = value;
+			size++;
+		}
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+}
@@ -1,20 +1,19 @@
 package com.sri.ai.praise.core.representation.interfacebased.factor.core.table;
 
-import static com.sri.ai.util.Util.arrayListFilledWith;
-import static com.sri.ai.util.Util.in;
 import static com.sri.ai.util.Util.mapFromListOfKeysAndListOfValues;
 import static com.sri.ai.util.Util.mapIntoArrayList;
 import static com.sri.ai.util.Util.setDifference;
 
-import java.math.BigInteger;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.BiFunction;
+import java.util.RandomAccess;
+import java.util.function.DoubleBinaryOperator;
 
 import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
 import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
@@ -23,7 +22,6 @@ import com.sri.ai.util.base.NullaryFunction;
 import com.sri.ai.util.collect.CartesianProductIterator;
 import com.sri.ai.util.explanation.tree.DefaultExplanationTree;
 import com.sri.ai.util.explanation.tree.ExplanationTree;
-import com.sri.ai.util.math.MixedRadixNumber;
 
 /**
  * Data type representing a graph factor.
@@ -42,8 +40,8 @@ public class TableFactor implements Factor {
 	private String name;
 	private final ArrayList<TableVariable> variableList;
 	private final LinkedHashSet<TableVariable> variableSet;
-	private ArrayList<Double> parameters;
-	private final MixedRadixNumber parameterIndexRadix;
+	private double[] parameters;
+	private final int[] strides;
 	private ExplanationTree explanation = DefaultExplanationTree.PLACEHOLDER;	// use currently not supported
 	
 	/*  NOTE:  Understanding the Parameter Order
@@ -57,7 +55,12 @@ public class TableFactor implements Factor {
 	 * 
 	 * Note that the order would change if the order the variables are stored as is changed.
 	 * 
-	 * parameterIndexRadix is responsible for mapping the variable assignments to the correct parameter index.
+	 * strides[i] is the distance, in parameters, between two assignments differing only by one unit in the value of the i-th variable
+	 * (in the example above, strides = [4, 2, 1]), so the parameter index of an assignment is the sum of strides[i]*value[i].
+	 * The operations below walk their tables with such strides, updating indices incrementally rather than recomputing them per cell.
+	 * 
+	 * Parameters are kept in a flat double[] (rather than a List<Double>) so that large factors
+	 * do not pay for boxing on every access; getEntries() offers a List<Double> view over that array.
 	 */
 	
 	/////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -70,6 +73,13 @@ public class TableFactor implements Factor {
 	/////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	public TableFactor(String factorName, Collection<? extends TableVariable> variables, ArrayList<Double> parameters) {
+		this(factorName, variables, toDoubleArray(parameters));
+	}
+	
+	/**
+	 * Constructs a factor directly on top of the given array of parameters, which is used as the factor's storage (no copy is made).
+	 */
+	public TableFactor(String factorName, Collection<? extends TableVariable> variables, double[] parameters) {
 
 		this.name = factorName;
 		
@@ -92,7 +102,7 @@ public class TableFactor implements Factor {
 		}
 
 		this.parameters = parameters;
-		this.parameterIndexRadix = createMixedRadixNumberForIndexingFactorParameters();
+		this.strides = computeStrides(variableList);
 	}
 	
 	public TableFactor(Collection<? extends TableVariable> variables, ArrayList<Double> parameters) {
@@ -100,8 +110,13 @@ public class TableFactor implements Factor {
 		this("phi",variables,parameters);
 	}
 	
+	public TableFactor(Collection<? extends TableVariable> variables, double[] parameters) {
+
+		this("phi",variables,parameters);
+	}
+	
 	public TableFactor(Collection<? extends TableVariable> variables, Double defaultValue) {
-		this(variables, arrayListFilledWith(defaultValue, numEntries(variables)));
+		this(variables, arrayFilledWith(defaultValue, numEntries(variables)));
 	}
 	
 	public TableFactor(Collection<? extends TableVariable> variables) {
@@ -173,8 +188,7 @@ public class TableFactor implements Factor {
 	public static TableFactor copyToSubTableFactor(TableFactor factor,
 			Map<TableVariable, Integer> mapOfvaluesPredetermined) {
 
-		Map<TableVariable, Integer> map2= new LinkedHashMap<>(mapOfvaluesPredetermined);
-		TableFactor result = copyToSubTableFactorWithoutRecreatingANewMap(factor, map2);
+		TableFactor result = copyToSubTableFactorWithoutRecreatingANewMap(factor, mapOfvaluesPredetermined);
 		
 		return result;
 	}
@@ -201,11 +215,11 @@ public class TableFactor implements Factor {
 	//TODO:  Check correctness of isIdentity() function
 	@Override
 	public boolean isIdentity() {
-		if(parameters.size() == 0 || parameters.get(0) == 0) {
+		if(parameters.length == 0 || parameters[0] == 0) {
 			return false;	
 		}
-		double valueAtZero = parameters.get(0);
-		for(Double v : parameters) {
+		double valueAtZero = parameters[0];
+		for(double v : parameters) {
 			if (v != valueAtZero) {
 				return false;
 			}
@@ -222,7 +236,7 @@ public class TableFactor implements Factor {
 	@Override
 	public TableFactor normalize() {
 		
-		Double normalizationConstant = sumOfParameters();
+		double normalizationConstant = sumOfParameters();
 		if(normalizationConstant != 0.0 && normalizationConstant != 1.0) {
 			this.normalizeBy(normalizationConstant);
 		}
@@ -250,7 +264,19 @@ public class TableFactor implements Factor {
 	
 	public Double getEntryFor(List<? extends Object> variableValuesInTheRightOrder) {
 		int parameterIndex = getParameterIndex(variableValuesInTheRightOrder);
-		return parameters.get(parameterIndex);
+		return parameters[parameterIndex];
+	}
+	
+	/**
+	 * Returns parameter corresponding to given variable values, provided in the same order as {@link #getVariables()}
+	 * (unlike the other overloads, this one does not box the values nor the result).
+	 * 
+	 * @param variableValuesInTheRightOrder
+	 * @return parameter corresponding to the given variable values
+	 */
+	public double getEntryFor(int[] variableValuesInTheRightOrder) {
+		int parameterIndex = getParameterIndex(variableValuesInTheRightOrder);
+		return parameters[parameterIndex];
 	}
 	
 	
@@ -299,6 +325,12 @@ public class TableFactor implements Factor {
 		if(another instanceof ConstantFactor) {
 			result = another.multiply(this);
 		}
+		else if(another instanceof SparseTableFactor) {
+			result = another.multiply(this);
+		}
+		else if(another instanceof LogTableFactor) { // the product or sum stays in log space
+			result = another.multiply(this);
+		}
 		else if(another.getClass() != this.getClass()) {
 			throw new Error("Trying to multiply different types of factors: this is a " +
 							this.getClass() + "and another is a " + another.getClass());
@@ -319,6 +351,12 @@ public class TableFactor implements Factor {
 		
 		if(another instanceof ConstantFactor) {
 			result = another.add(this);
+		}
+		else if(another instanceof SparseTableFactor) {
+			result = another.add(this);
+		}
+		else if(another instanceof LogTableFactor) { // the product or sum stays in log space
+			result = another.add(this);
 		}		
 		else if(another.getClass() != this.getClass()) {
 			throw new Error("Trying to multiply different types of factors: this is a " +
@@ -341,12 +379,12 @@ public class TableFactor implements Factor {
 	@Override
 	public Factor invert() {
 		TableFactor result;
-		ArrayList<Double> newEntries = new ArrayList<>(getEntries().size());
-		for (Double entry : getEntries()) {
-			if(Math.abs(entry) < 0.00000001) {
+		double[] newEntries = new double[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			if(Math.abs(parameters[i]) < 0.00000001) {
 				throw new Error("Can't invert : 0 value in the table factor.");
 			}
-			newEntries.add(1/entry);
+			newEntries[i] = 1/parameters[i];
 		}
 		result = new TableFactor(getVariables(), newEntries);
 		return result;
@@ -400,25 +438,25 @@ public class TableFactor implements Factor {
 	@Override
 	public String toString() {
 		
-		String factorAsString = name + variableSet.toString() + ": " + parameters.toString();
+		String factorAsString = name + variableSet.toString() + ": " + Arrays.toString(parameters);
 		
 		return factorAsString;
 	}
 	
 	
 	public void reinitializeEntries(Double defaultValue) {
-		this.parameters = arrayListFilledWith(defaultValue, parameters.size());
+		Arrays.fill(parameters, defaultValue);
 	}
 	
 	
 	public TableFactor normalizedCopy() {
 		
-		Double normalizationConstant = sumOfParameters();
+		double normalizationConstant = sumOfParameters();
 		TableFactor normalizedTableFactor = this;
 		if(normalizationConstant != 0.0 && normalizationConstant != 1.0) {
-			ArrayList<Double> newParameters = new ArrayList<>(parameters.size());
-			for (Double unnormalizedParameter : parameters) {
-				newParameters.add(unnormalizedParameter/normalizationConstant);
+			double[] newParameters = new double[parameters.length];
+			for (int i = 0; i < parameters.length; i++) {
+				newParameters[i] = parameters[i]/normalizationConstant;
 			}
 			normalizedTableFactor = new TableFactor(variableSet, newParameters);
 		}
@@ -428,8 +466,7 @@ public class TableFactor implements Factor {
 	
 	public TableFactor multiply(TableFactor another) {
 		
-		TableFactor result = initializeNewFactorUnioningVariables(another);
-		result = operateOnUnionedParameters(another, result, (a,b) -> a * b);
+		TableFactor result = operateOnUnionedParameters(another, MULTIPLICATION);
 		
 		return result;
 	}
@@ -437,8 +474,7 @@ public class TableFactor implements Factor {
 	
 	public TableFactor add(TableFactor another) {
 		
-		TableFactor result = initializeNewFactorUnioningVariables(another);
-		result = operateOnUnionedParameters(another, result, (a,b) -> a + b);
+		TableFactor result = operateOnUnionedParameters(another, ADDITION);
 		
 		return result;
 	}
@@ -446,18 +482,23 @@ public class TableFactor implements Factor {
 	
 	public void setEntryFor(Map<? extends Variable, ? extends Object> variablesAndTheirValues, Double newParameterValue) {
 		int parameterIndex = getParameterIndex(variablesAndTheirValues);
-		parameters.set(parameterIndex, newParameterValue);
+		parameters[parameterIndex] = newParameterValue;
 	}
 	
 	public <T extends Variable, U extends Object> void setEntryFor(List<T> variableList, List<U> variableValues, Double newParameterValue) {
 		Map<T, U> variablesAndTheirValues = mapFromListOfKeysAndListOfValues(variableList, variableValues);
 		int parameterIndex = getParameterIndex(variablesAndTheirValues);
-		parameters.set(parameterIndex, newParameterValue);
+		parameters[parameterIndex] = newParameterValue;
 	}
 	
 	public void setEntryFor(List<? extends Integer> variableValuesInTheRightOrder, Double newParameterValue) {
 		int parameterIndex = getParameterIndex(variableValuesInTheRightOrder);
-		parameters.set(parameterIndex, newParameterValue);
+		parameters[parameterIndex] = newParameterValue;
+	}
+	
+	public void setEntryFor(int[] variableValuesInTheRightOrder, double newParameterValue) {
+		int parameterIndex = getParameterIndex(variableValuesInTheRightOrder);
+		parameters[parameterIndex] = newParameterValue;
 	}
 	
 	
@@ -466,10 +507,35 @@ public class TableFactor implements Factor {
 	}
 	
 	
-	public ArrayList<Double> getEntries() {
+	/**
+	 * Returns a live, fixed-size view of the parameters of this factor;
+	 * {@link List#set(int, Object)} on the view writes through to the factor.
+	 * Code iterating over large factors should prefer {@link #getEntry(int)} or {@link #getEntriesArray()}
+	 * to avoid boxing.
+	 */
+	public List<Double> getEntries() {
+		return new ParametersView();
+	}
+	
+	/**
+	 * Returns the array backing this factor's parameters (no copy is made, so changes to it are reflected in the factor).
+	 */
+	public double[] getEntriesArray() {
 		return this.parameters;
 	}
 	
+	public int numberOfEntries() {
+		return parameters.length;
+	}
+	
+	public double getEntry(int parameterIndex) {
+		return parameters[parameterIndex];
+	}
+	
+	public void setEntry(int parameterIndex, double newParameterValue) {
+		parameters[parameterIndex] = newParameterValue;
+	}
+	
 	/////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	/////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -477,51 +543,157 @@ public class TableFactor implements Factor {
 	
 	
 	
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// PROTECTED METHODS ////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	/**
+	 * Creates the factors resulting from operations on this factor;
+	 * extensions storing their parameters differently override it so that results keep their representation.
+	 */
+	protected TableFactor makeFactor(Collection<? extends TableVariable> variables, double[] parameters) {
+		return new TableFactor(variables, parameters);
+	}
+	
+	
+	/**
+	 * Fills the parameters of a new factor on the union of the variables of this and another factor in order,
+	 * keeping the indices of the corresponding parameters of this and another factor up to date with an odometer
+	 * over the result's variables (variables absent from an operand have stride 0 in it).
+	 */
+	protected TableFactor operateOnUnionedParameters(TableFactor another, DoubleBinaryOperator operator)
+	{
+		TableFactor result = initializeNewFactorUnioningVariables(another);
+		ArrayList<TableVariable> resultVariables = result.variableList;
+		int numVariables = resultVariables.size();
+		int[] cardinalities = cardinalitiesOf(resultVariables);
+		int[] thisStrides = this.stridesInThisFactorFor(resultVariables);
+		int[] anotherStrides = another.stridesInThisFactorFor(resultVariables);
+		int[] values = new int[numVariables];
+		double[] resultParameters = result.parameters;
+		int thisIndex = 0;
+		int anotherIndex = 0;
+		for(int resultIndex = 0; resultIndex < resultParameters.length; ++resultIndex) {
+			resultParameters[resultIndex] = operator.applyAsDouble(this.parameters[thisIndex], another.parameters[anotherIndex]);
+			for(int i = numVariables - 1; i >= 0; --i) {
+				thisIndex += thisStrides[i];
+				anotherIndex += anotherStrides[i];
+				if(++values[i] < cardinalities[i]) {
+					break;
+				}
+				values[i] = 0;
+				thisIndex -= thisStrides[i]*cardinalities[i];
+				anotherIndex -= anotherStrides[i]*cardinalities[i];
+			}
+		}
+		
+		return result;
+	}
+	
+	
+	/**
+	 * Returns, for each of the given variables, its stride in this factor's parameters, or 0 if the variable is not in this factor.
+	 * Walking another table in the order of the given variables while adding these strides yields the matching indices in this factor.
+	 */
+	protected int[] stridesInThisFactorFor(List<? extends TableVariable> variables)
+	{
+		int numVariables = variables.size();
+		int[] result = new int[numVariables];
+		for(int i = 0; i < numVariables; ++i)
+		{
+			int positionInThisFactor = variableList.indexOf(variables.get(i));
+			result[i] = positionInThisFactor == -1? 0 : strides[positionInThisFactor];
+		}
+		return result;
+	}
+	
+	
+	protected static int[] cardinalitiesOf(List<? extends TableVariable> variables)
+	{
+		int numVariables = variables.size();
+		int[] result = new int[numVariables];
+		for(int i = 0; i < numVariables; ++i)
+		{
+			result[i] = variables.get(i).getCardinality();
+		}
+		return result;
+	}
+	
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	
+	
+	
 	/////////////////////////////////////////////////////////////////////////////////////////////////////
 	// PRIVATE METHODS //////////////////////////////////////////////////////////////////////////////////
 	/////////////////////////////////////////////////////////////////////////////////////////////////////
 	
 	// HELPER METHODS ///////////////////////////////////////////////////////////////////////////////////
 	
-	private MixedRadixNumber createMixedRadixNumberForIndexingFactorParameters()
+	private static final DoubleBinaryOperator MULTIPLICATION = (a,b) -> a * b;
+	private static final DoubleBinaryOperator ADDITION = (a,b) -> a + b;
+	
+	
+	static int[] computeStrides(List<? extends TableVariable> variables)
 	{
-		ArrayList<Integer> listOfVariableCardinalities = mapIntoArrayList(variableList, v->v.getCardinality());
-		
-		return new MixedRadixNumber(BigInteger.ZERO, listOfVariableCardinalities);
+		int numVariables = variables.size();
+		int[] result = new int[numVariables];
+		int stride = 1;
+		for(int i = numVariables - 1; i >= 0; --i)
+		{
+			result[i] = stride;
+			stride *= variables.get(i).getCardinality();
+		}
+		return result;
 	}
 	
 	
-	private Double sumOfParameters()
+	
+	
+	private double sumOfParameters()
 	{
-		Double sumOfParameters = 0.;
-		for(Double p : this.parameters) {
+		double sumOfParameters = 0.;
+		for(double p : this.parameters) {
 			sumOfParameters = sumOfParameters + p;
 		}
 		return sumOfParameters;
 	}
 	
 	
-	private void normalizeBy(Double normalizationConstant)
+	private void normalizeBy(double normalizationConstant)
 	{
-		int numParameters = parameters.size();
+		int numParameters = parameters.length;
 		for(int i = 0; i < numParameters; ++i)
 		{
-			parameters.set(i, parameters.get(i)/normalizationConstant);
+			parameters[i] = parameters[i]/normalizationConstant;
 		}
 	}
 	
 	
+	/**
+	 * Walks this factor's parameters in order, keeping the index of the corresponding result parameter up to date
+	 * with an odometer over this factor's variables (summed-out variables have stride 0 in the result).
+	 */
 	private TableFactor sumOutEverythingExcept(LinkedHashSet<TableVariable> variablesNotToSumOut) {
 
-		TableFactor result = new TableFactor(variablesNotToSumOut, 0.0);
+		TableFactor result = makeFactor(variablesNotToSumOut, new double[numEntries(variablesNotToSumOut)]);
 		
-		Iterator<ArrayList<Integer>> cartesianProduct = getCartesianProduct(this.variableList);
-		LinkedHashMap<Variable, Integer> variableValueMap = new LinkedHashMap<>();
-		for(ArrayList<Integer> values: in(cartesianProduct)) {
-			variableValueMap = addtoVariableValueMap(variableValueMap, values);
-			Double currentValue = result.getEntryFor(variableValueMap);
-			Double addedValue = this.getEntryFor(variableValueMap);
-			result.setEntryFor(variableValueMap, currentValue + addedValue);
+		int numVariables = variableList.size();
+		int[] cardinalities = cardinalitiesOf(variableList);
+		int[] resultStrides = result.stridesInThisFactorFor(variableList);
+		int[] values = new int[numVariables];
+		double[] resultParameters = result.parameters;
+		int resultIndex = 0;
+		for(int index = 0; index < parameters.length; ++index) {
+			resultParameters[resultIndex] += parameters[index];
+			for(int i = numVariables - 1; i >= 0; --i) {
+				resultIndex += resultStrides[i];
+				if(++values[i] < cardinalities[i]) {
+					break;
+				}
+				values[i] = 0;
+				resultIndex -= resultStrides[i]*cardinalities[i];
+			}
 		}
 		return result;
 	}
@@ -531,26 +703,14 @@ public class TableFactor implements Factor {
 	{
 		LinkedHashSet<TableVariable> newListOfVariables = new LinkedHashSet<>(this.variableSet);
 		newListOfVariables.addAll(another.variableSet);
-		Integer numberOfParametersForNewListOfVariables = numEntries(newListOfVariables);
-		ArrayList<Double> newParameters = arrayListFilledWith(-1.0,numberOfParametersForNewListOfVariables);	
-		TableFactor newFactor = new TableFactor(newListOfVariables, newParameters);
+		int numberOfParametersForNewListOfVariables = numEntries(newListOfVariables);
+		double[] newParameters = arrayFilledWith(-1.0,numberOfParametersForNewListOfVariables);	
+		TableFactor newFactor = makeFactor(newListOfVariables, newParameters);
 		
 		return newFactor;
 	}
 	
 	
-	private LinkedHashMap<Variable,Integer> addtoVariableValueMap(LinkedHashMap<Variable,Integer> variableValueMap, ArrayList<Integer> values)
-	{
-		int numVars = variableList.size();
-		for(int i = 0; i < numVars; ++i)
-		{
-			variableValueMap.put(variableList.get(i), values.get(i));
-		}
-
-		return variableValueMap;
-	}
-
-
 	/**
 	 * Returns the indices in this.parameters holding the parameter corresponding to the input variables assignments
 	 * <p>
@@ -569,19 +729,6 @@ public class TableFactor implements Factor {
 	}
 	
 	
-	/**
-	 * Returns the stored parameter corresponding to the input variable assignments
-	 * 
-	 * @param varValues (array with indices corresponding to variables, and entries
-	 * 					 corresponding to the variable assignments)
-	 * @return parameter corresponding to the input variable assignments
-	 */
-	private Double getEntryFor(int[] varValues) {
-		int parameterIndex = getParameterIndex(varValues);
-		return parameters.get(parameterIndex);
-	}
-	
-	
 	private int[] variableValuesInFactorVariableOrder(Map<? extends Variable, ? extends Object> mapFromVariableToVariableValue) {
 		//TODO: error checking
 		//TODO: there is no mechanism for handling partial variable assignments
@@ -628,11 +775,31 @@ public class TableFactor implements Factor {
 	 * @return index position in this.entries of the parameter corresponding to the variable assignments provided
 	 */
 	private int getParameterIndex(int[] variableValues) {
-		int parameterIndex = this.parameterIndexRadix.getValueFor(variableValues).intValue();
+		int parameterIndex = 0;
+		for(int i = 0; i < variableValues.length; ++i) {
+			parameterIndex += strides[i]*variableValues[i];
+		}
 		return parameterIndex;
 	}
 	
 
+	private static double[] toDoubleArray(List<Double> values) {
+		double[] result = new double[values.size()];
+		int i = 0;
+		for (Double value : values) {
+			result[i++] = value;
+		}
+		return result;
+	}
+	
+	
+	private static double[] arrayFilledWith(double value, int length) {
+		double[] result = new double[length];
+		Arrays.fill(result, value);
+		return result;
+	}
+	
+
 	private static ArrayList<Integer> makeArrayWithValuesFromZeroToCardinalityMinusOne(int cardinality) {
 		ArrayList<Integer> result = new ArrayList<>(cardinality);
 		for (int i = 0; i < cardinality; i++) {
@@ -642,6 +809,11 @@ public class TableFactor implements Factor {
 	}
 	
 	
+	/**
+	 * The sliced factor's parameters are found in the original factor starting at the offset given by the predetermined values,
+	 * and then by walking the remaining variables with their original strides.
+	 * Predetermined variables not in the factor are ignored.
+	 */
 	private static TableFactor copyToSubTableFactorWithoutRecreatingANewMap(TableFactor factor,
 			Map<TableVariable, Integer> mapOfvaluesPredetermined) {
 		ArrayList<TableVariable> newVariables = new ArrayList<>(factor.getVariables());
@@ -650,32 +822,65 @@ public class TableFactor implements Factor {
 		if(newVariables.size() == 0) {
 			return null;
 		}
-		Iterator<ArrayList<Integer>> cartesianProduct = getCartesianProduct(newVariables);
 		
-		TableFactor result = new TableFactor(newVariables);
-		for(ArrayList<Integer> instantiations: in(cartesianProduct)) {
-			for (int i = 0; i < newVariables.size(); i++) {
-				mapOfvaluesPredetermined.put(newVariables.get(i), instantiations.get(i));
+		int offset = 0;
+		int numFactorVariables = factor.variableList.size();
+		for(int i = 0; i < numFactorVariables; ++i) {
+			Integer predeterminedValue = mapOfvaluesPredetermined.get(factor.variableList.get(i));
+			if(predeterminedValue != null) {
+				offset += factor.strides[i]*predeterminedValue;
+			}
+		}
+		
+		int numVariables = newVariables.size();
+		int[] cardinalities = cardinalitiesOf(newVariables);
+		int[] factorStrides = factor.stridesInThisFactorFor(newVariables);
+		int[] values = new int[numVariables];
+		double[] newParameters = new double[numEntries(newVariables)];
+		int factorIndex = offset;
+		for(int index = 0; index < newParameters.length; ++index) {
+			newParameters[index] = factor.parameters[factorIndex];
+			for(int i = numVariables - 1; i >= 0; --i) {
+				factorIndex += factorStrides[i];
+				if(++values[i] < cardinalities[i]) {
+					break;
+				}
+				values[i] = 0;
+				factorIndex -= factorStrides[i]*cardinalities[i];
 			}
-			Double newEntryValue =  factor.getEntryFor(mapOfvaluesPredetermined);
-			result.setEntryFor(mapOfvaluesPredetermined, newEntryValue);
 		}
+		
+		TableFactor result = factor.makeFactor(newVariables, newParameters);
 		return result;
 	}
 	
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
 	
-	private TableFactor operateOnUnionedParameters(TableFactor another, TableFactor result, BiFunction<Double, Double, Double> operator)
-	{
-		Iterator<ArrayList<Integer>> cartesianProduct = getCartesianProduct(result.variableSet);
-		
-		LinkedHashMap<Variable, Integer> variableValueMap = new LinkedHashMap<>();
-		for(ArrayList<Integer> values: in(cartesianProduct)) {
-			variableValueMap = result.addtoVariableValueMap(variableValueMap, values);
-			Double product = operator.apply(this.getEntryFor(variableValueMap), another.getEntryFor(variableValueMap));
-			result.setEntryFor(variableValueMap, product);
+	
+	
+	
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// PARAMETERS VIEW //////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	
+	private class ParametersView extends AbstractList<Double> implements RandomAccess {
+
+		@Override
+		public Double get(int index) {
+			return parameters[index];
+		}
+
+		@Override
+		public Double set(int index, Double newValue) {
+			Double previousValue = parameters[index];
+			parameters[index] = newValue;
+			return previousValue;
+		}
+
+		@Override
+		public int size() {
+			return parameters.length;
 		}
-		
-		return result;
 	}
 	
 	/////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -12,6 +12,7 @@ import java.util.Map.Entry;
 import com.sri.ai.praise.core.representation.classbased.table.core.data.markov.FactorTable;
 import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModel;
 import com.sri.ai.praise.core.representation.interfacebased.factor.api.EditableFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.DefaultFactorNetwork;
 import com.sri.ai.util.Util;
 /**
@@ -22,12 +23,77 @@ import com.sri.ai.util.Util;
  */
 public class TableFactorNetwork extends DefaultFactorNetwork {
 	
+	/**
+	 * A sparsity threshold that no factor reaches, so that all factors are kept dense.
+	 */
+	public static final double DENSE_ONLY = Double.POSITIVE_INFINITY;
+	
+	/**
+	 * Tables smaller than this are kept dense regardless of their sparsity,
+	 * since the bookkeeping of sparse factors does not pay off for them.
+	 */
+	public static final int MINIMUM_NUMBER_OF_ENTRIES_OF_SPARSE_FACTORS = 64;
+	
+	private final boolean logSpace;
+	private final double sparsityThreshold;
+	
 	public TableFactorNetwork(List<? extends TableFactor> factors) {
-		super(factors);
+		this(factors, false);
+	}
+	
+	/**
+	 * Builds a network on the given factors; if <code>logSpace</code> is true,
+	 * they are converted to {@link LogTableFactor}s so that inference on the network
+	 * (including messages computed by exact BP) is carried out in log space.
+	 */
+	public TableFactorNetwork(List<? extends TableFactor> factors, boolean logSpace) {
+		this(factors, logSpace, DENSE_ONLY);
+	}
+	
+	/**
+	 * Builds a network on the given factors in which factors with at least {@link #MINIMUM_NUMBER_OF_ENTRIES_OF_SPARSE_FACTORS} entries
+	 * and a fraction of zero entries greater than or equal to <code>sparsityThreshold</code>
+	 * are converted to {@link SparseTableFactor}s (use {@link #DENSE_ONLY} to keep all factors dense).
+	 * Sparse factors are only used in linear space, since log-space factors have no zero entries to skip.
+	 */
+	public TableFactorNetwork(List<? extends TableFactor> factors, boolean logSpace, double sparsityThreshold) {
+		super(Util.mapIntoList(factors, f -> representationOf(f, logSpace, sparsityThreshold)));
+		this.logSpace = logSpace;
+		this.sparsityThreshold = sparsityThreshold;
 	}
 	
 	public TableFactorNetwork(UAIModel model) {
-		this(UAIModelToListOfFactors(model));
+		this(model, false);
+	}
+	
+	public TableFactorNetwork(UAIModel model, boolean logSpace) {
+		this(model, logSpace, DENSE_ONLY);
+	}
+	
+	public TableFactorNetwork(UAIModel model, boolean logSpace, double sparsityThreshold) {
+		this(UAIModelToListOfFactors(model), logSpace, sparsityThreshold);
+	}
+	
+	public boolean isInLogSpace() {
+		return logSpace;
+	}
+	
+	public double getSparsityThreshold() {
+		return sparsityThreshold;
+	}
+	
+	private static Factor representationOf(TableFactor factor, boolean logSpace, double sparsityThreshold) {
+		Factor result;
+		if(logSpace) {
+			result = LogTableFactor.fromTableFactor(factor);
+		}
+		else if(factor.numberOfEntries() >= MINIMUM_NUMBER_OF_ENTRIES_OF_SPARSE_FACTORS && SparseTableFactor.sparsityOf(factor) >= sparsityThreshold) {
+			result = SparseTableFactor.fromTableFactor(factor);
+		}
+		else {
+			result = factor;
+		}
+		return result;
 	}
 
 	private static List<TableFactor> UAIModelToListOfFactors(UAIModel model) {
@@ -123,13 +189,13 @@ public class TableFactorNetwork extends DefaultFactorNetwork {
 			listOfVariables.add(mapFromVariableIndexToVariable.get(variableIndex));
 		}
 		
-		TableFactor res = new TableFactor(listOfVariables, new ArrayList<>(factor.getTable().getEntries()));
+		TableFactor res = new TableFactor(listOfVariables, factor.getTable().getEntriesArray().clone());
 		return res;
 	}
-
+	
 	@Override
 	public EditableFactorNetwork makeEmptyNetwork() {
-		return new TableFactorNetwork(new ArrayList<>());
+		return new TableFactorNetwork(new ArrayList<>(), logSpace, sparsityThreshold);
 	}
 	
 	
@@ -8,6 +8,7 @@ import static com.sri.ai.util.Util.mapIntoArrayList;
 import static com.sri.ai.util.Util.mapIntoList;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -36,8 +37,7 @@ public class Box extends IntensionalConvexHullOfFactors{
 	private static TableFactor makeTableFactorBox(TableFactor phiMin, TableFactor phiMax) {
 		ArrayList<TableVariable> variables = Util.arrayList(TABLE_BOX_VARIABLE);
 		variables.addAll(phiMax.getVariables());
-		ArrayList<Double> entries = new ArrayList<>(phiMin.getEntries());
-		entries.addAll(phiMax.getEntries());
+		double[] entries = concatenate(phiMin.getEntriesArray(), phiMax.getEntriesArray());
 		TableFactor result = new TableFactor(variables,entries);
 		return result;
 	}
@@ -107,7 +107,7 @@ public class Box extends IntensionalConvexHullOfFactors{
 	}
 
 	private static boolean isNullProbability(TableFactor subFactor) {
-		for(Double entry :  subFactor.getEntries()) {
+		for(double entry :  subFactor.getEntriesArray()) {
 			if(entry!=0.) {
 				return false;
 			}
@@ -131,7 +131,7 @@ public class Box extends IntensionalConvexHullOfFactors{
 		
 		List<TableFactor> result = new LinkedList<>();
 		
-		Iterator<ArrayList<Integer>> cartesianProduct = getCartesianProductWitZerosAndOnes(phiMax.getEntries().size());
+		Iterator<ArrayList<Integer>> cartesianProduct = getCartesianProductWitZerosAndOnes(phiMax.numberOfEntries());
 		for(ArrayList<Integer> binaryNumber : in(cartesianProduct)) {
 			TableFactor newFactor = makeFactorWithAPermutationOfTheEntriesOnPhiMaxAndPhiMin(phiMin,phiMax,binaryNumber);
 			result.add(newFactor);
@@ -141,23 +141,28 @@ public class Box extends IntensionalConvexHullOfFactors{
 
 	private static TableFactor makeFactorWithAPermutationOfTheEntriesOnPhiMaxAndPhiMin(TableFactor phiMin, TableFactor phiMax,
 			ArrayList<Integer> binaryNumber) {
-		ArrayList<Double> phiMinEntries = phiMin.getEntries();
-		ArrayList<Double> phiMaxEntries = phiMax.getEntries();
+		double[] phiMinEntries = phiMin.getEntriesArray();
+		double[] phiMaxEntries = phiMax.getEntriesArray();
 		
-		ArrayList<Double> newEntries = new ArrayList<>(phiMin.getEntries().size()); 
+		double[] newEntries = new double[phiMinEntries.length]; 
 		for (int i = 0; i < binaryNumber.size(); i++) {
-			newEntries.add(
+			newEntries[i] =
 					binaryNumber.get(i) == 0?
-							phiMinEntries.get(i)
+							phiMinEntries[i]
 							:
-							phiMaxEntries.get(i)
-					);
+							phiMaxEntries[i];
 		}
 		ArrayList<TableVariable> variables = (ArrayList<TableVariable>) phiMax.getVariables();
 		TableFactor result = new TableFactor(variables,newEntries);
 		return result;
 	}
 
+	static double[] concatenate(double[] first, double[] second) {
+		double[] result = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+
 	private static Iterator<ArrayList<Integer>> getCartesianProductWitZerosAndOnes(int n) {
 		ArrayList<NullaryFunction<Iterator<Integer>>> l = new ArrayList<>();
 		 
@@ -3,14 +3,13 @@ package com.sri.ai.praise.core.representation.interfacebased.polytope.core.byexp
 
 import static com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor.copyToSubTableFactor;
 import static com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor.getCartesianProduct;
-import static com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor.numEntries;
 import static com.sri.ai.praise.core.representation.interfacebased.polytope.core.byexpressiveness.box.TableBoxVariable.TABLE_BOX_VARIABLE;
 import static com.sri.ai.util.Util.arrayList;
-import static com.sri.ai.util.Util.arrayListFilledWith;
 import static com.sri.ai.util.Util.in;
 import static com.sri.ai.util.Util.println;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -140,10 +139,10 @@ public class TableFactorBoxBuilder {
 		if(varaibles.get(0).equals(TABLE_BOX_VARIABLE)) {
 			println(varaibles.subList(1, varaibles.size()).getClass());
 			ArrayList<TableVariable> variablesWithoutBoxVariable = new ArrayList<>(varaibles.subList(1, varaibles.size()));
-			ArrayList<Double> entries = factor.getEntries();
-			int len = entries.size();
-			ArrayList<Double> lowHalfEntries  = new ArrayList<>(entries.subList(0, len/2 ));
-			ArrayList<Double> highHalfEntries = new ArrayList<>(entries.subList(len/2, len));
+			double[] entries = factor.getEntriesArray();
+			int len = entries.length;
+			double[] lowHalfEntries  = Arrays.copyOfRange(entries, 0, len/2);
+			double[] highHalfEntries = Arrays.copyOfRange(entries, len/2, len);
 			minValueHalfFactor = new TableFactor(variablesWithoutBoxVariable, lowHalfEntries);
 			maxValueHalfFactor = new TableFactor(variablesWithoutBoxVariable, highHalfEntries);	
 		}
@@ -195,7 +194,7 @@ public class TableFactorBoxBuilder {
 
 	public static TableFactor maxOrMinOut(TableFactor nonBoxfactor, ArrayList<TableVariable> freeVariables,ArrayList<TableVariable> notFreeVariables, 
 			BiFunction<Double,Double,Boolean> comparisson) {
-		TableFactor result = new TableFactor(freeVariables,arrayListFilledWith(-1.0, numEntries(freeVariables)));
+		TableFactor result = new TableFactor(freeVariables, -1.0);
 
 		for(ArrayList<Integer> notFreeVariablesInstantiation : in(getCartesianProduct(notFreeVariables))) {
 			LinkedHashMap<TableVariable, Integer> mapOfInstantiations = new LinkedHashMap<>();
@@ -221,9 +220,7 @@ public class TableFactorBoxBuilder {
 	private static TableFactor makeABoxFactorHavingTheBoxesExtremes(TableFactor first, TableFactor second) {
 		ArrayList<TableVariable> variables = Util.arrayList(TABLE_BOX_VARIABLE);
 		variables.addAll(first.getVariables());
-		ArrayList<Double> entries = new ArrayList<>(first.getVariables().size()*2);
-		entries.addAll(first.getEntries());
-		entries.addAll(second.getEntries());
+		double[] entries = Box.concatenate(first.getEntriesArray(), second.getEntriesArray());
 		
 		TableFactor result = new TableFactor(variables,entries);
 		return result;
@@ -282,7 +279,7 @@ public class TableFactorBoxBuilder {
 
 	private static TableFactor copyFactorInDifferentOrder(ArrayList<TableVariable> arrayList, TableFactor factor) {
 		
-		TableFactor result = new TableFactor(arrayList,arrayListFilledWith(-1.0, numEntries(arrayList)));
+		TableFactor result = new TableFactor(arrayList, -1.0);
 
 		ArrayList<TableVariable> var = new ArrayList<>(factor.getVariables());
 		for(ArrayList<Integer> notFreeVariablesInstantiation : in(getCartesianProduct(var ))) {
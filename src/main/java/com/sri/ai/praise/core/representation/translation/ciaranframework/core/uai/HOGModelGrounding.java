@@ -42,12 +42,26 @@ import static com.sri.ai.expresso.helper.Expressions.makeSymbol;
 import static com.sri.ai.util.Util.list;
 import static com.sri.ai.util.Util.myAssert;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
@@ -63,11 +77,25 @@ import com.sri.ai.praise.core.representation.classbased.expressionbased.api.Expr
 import com.sri.ai.praise.core.representation.classbased.hogm.components.HOGMExpressionBasedModel;
 import com.sri.ai.praise.core.representation.classbased.hogm.components.HOGMSortDeclaration;
 import com.sri.ai.util.base.BinaryFunction;
-import com.sri.ai.util.base.TernaryProcedure;
 import com.sri.ai.util.base.Triple;
 import com.sri.ai.util.math.MixedRadixNumber;
 import com.sri.ai.util.math.Rational;
 
+/**
+ * Grounds the factors of an {@link ExpressionBasedModel} into function tables, notifying a {@link Listener} of
+ * ground variables, factor tables and evidence.
+ * <p>
+ * With context-sensitive grounding (the default), a factor is simplified after each of its variables is assigned,
+ * so that whole sub-tables are written at once when the factor simplifies to a constant,
+ * and simplifications of the factor under repeated partial assignments are memoized.
+ * <p>
+ * Factors can be grounded concurrently with {@link #ground(ExpressionBasedModel, List, Listener, int)},
+ * each with its own clone of the context.
+ * The listener is still notified on the caller's thread, in the order of the factors; tables grounded ahead of their turn
+ * are held as runs of repeated values, and spilled to temporary files in chunks of {@link #MAXIMUM_NUMBER_OF_RUNS_IN_MEMORY} runs.
+ * At most {@link #MAXIMUM_NUMBER_OF_FACTORS_IN_FLIGHT_PER_THREAD} factors per thread are grounded ahead of the one being notified,
+ * so that a slow factor does not let the tables of all the following ones pile up.
+ */
 @Beta
 public class HOGModelGrounding {
 
@@ -75,6 +103,21 @@ public class HOGModelGrounding {
 	
 	public static boolean useContextSensitiveGrounding = true;
 	
+	/**
+	 * The number of runs of repeated values of a factor table grounded ahead of its turn kept in memory before being spilled to disk.
+	 */
+	public static final int MAXIMUM_NUMBER_OF_RUNS_IN_MEMORY = 1 << 16;
+	
+	/**
+	 * The number of factors per thread submitted for concurrent grounding but not yet notified to the listener.
+	 */
+	public static final int MAXIMUM_NUMBER_OF_FACTORS_IN_FLIGHT_PER_THREAD = 2;
+	
+	/**
+	 * The maximum number of memoized simplifications per factor in context-sensitive grounding.
+	 */
+	public static final int MAXIMUM_NUMBER_OF_MEMOIZED_SIMPLIFICATIONS = 1 << 16;
+	
 	public interface Listener {
 		//
 		// Preamble information
@@ -85,6 +128,16 @@ public class HOGModelGrounding {
 		//
 		// Function tables
 		void factorValue(int numberFactorValues, boolean isFirstValue, boolean isLastValue, Rational value);
+		/**
+		 * Notifies of <code>numberOfTimes</code> consecutive values of a function table that are all equal to <code>value</code>,
+		 * <code>isFirstValue</code> and <code>isLastValue</code> indicating whether they include the first and last values of the table.
+		 * By default, notifies of each of them with {@link #factorValue(int, boolean, boolean, Rational)}.
+		 */
+		default void factorValues(int numberFactorValues, boolean isFirstValue, boolean isLastValue, Rational value, int numberOfTimes) {
+			for (int i = 0; i != numberOfTimes; i++) {
+				factorValue(numberFactorValues, isFirstValue && i == 0, isLastValue && i == numberOfTimes - 1, value);
+			}
+		}
 		//
 		// Evidence
 		void evidence(int variableIndex, int valueIndex);
@@ -94,6 +147,23 @@ public class HOGModelGrounding {
 	}
 	
 	public static void ground(ExpressionBasedModel factorsAndTypes, List<Expression> evidence, Listener listener) {
+		ground(factorsAndTypes, evidence, listener, 1);
+	}
+	
+	/**
+	 * Grounds factors concurrently on the given number of threads (one grounds them on the caller's thread).
+	 */
+	public static void ground(ExpressionBasedModel factorsAndTypes, List<Expression> evidence, Listener listener, int numberOfThreads) {
+		ground(factorsAndTypes, evidence, listener, numberOfThreads, MAXIMUM_NUMBER_OF_RUNS_IN_MEMORY);
+	}
+	
+	/**
+	 * Grounds factors concurrently, spilling tables grounded ahead of their turn in chunks of the given number of runs.
+	 */
+	static void ground(ExpressionBasedModel factorsAndTypes, List<Expression> evidence, Listener listener, int numberOfThreads, int maximumNumberOfRunsInMemory) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("Number of threads must be at least 1 but is " + numberOfThreads);
+		}
 		if (factorsAndTypes.getMapFromNonUniquelyNamedConstantNameToTypeName().size() > 0) {
 			throw new IllegalArgumentException("Constants cannot be grounded");
 		}
@@ -111,41 +181,41 @@ public class HOGModelGrounding {
 		ExpressionBasedModel groundedExpressionBasedModel = makeGroundedExpressionBasedModel(factorsAndTypes, newUniqueConstantToTypeMap);
 		Context context = groundedExpressionBasedModel.getContext();
 		
-		listener.numberFactors(factorsAndTypes.getFactors().size());
-		int factorIndex = 0;
-		for (Expression factor : factorsAndTypes.getFactors()) {
+		List<Expression> factors = factorsAndTypes.getFactors();
+		List<ArrayList<Expression>> randomVariablesInFactors = new ArrayList<>(factors.size());
+		for (Expression factor : factors) {
 	    	ArrayList<Expression> randomVariablesInFactor = new ArrayList<>(Expressions.getSubExpressionsSatisfying(factor, randomVariableNameToTypeSizeAndUniqueConstants::containsKey));
 	    	if (randomVariablesInFactor.size() == 0) {
 	    		throw new IllegalArgumentException("ExpressionFactorNode contains no random variables: "+factor);
 	    	}
-	    	
-	    	int[] participantVariableIndexes = new int[randomVariablesInFactor.size()];
-	    	for (int i = 0; i < randomVariablesInFactor.size(); i++) {
-	    		Expression randomVariable = randomVariablesInFactor.get(i);
-	    		participantVariableIndexes[i] = randomVariableIndexes.get(randomVariable);
-	    	}
-	    	listener.factorParticipants(factorIndex, participantVariableIndexes);
-
-	    	if (!useContextSensitiveGrounding) {
-	    		fullGrounding(
-	    				factor,
-	    				randomVariablesInFactor,
-	    				listener,
-	    				randomVariableNameToTypeSizeAndUniqueConstants,
-	    				typeToValues,
-	    				context);
-	    	}
-	    	else {
-	    		contextSensitiveGrounding(
-	    				factor,
-	    				randomVariablesInFactor,
-	    				listener,
-	    				randomVariableNameToTypeSizeAndUniqueConstants,
-	    				typeToValues,
-	    				context);
-	    	}
-
-	    	factorIndex++;
+	    	randomVariablesInFactors.add(randomVariablesInFactor);
+		}
+		
+		listener.numberFactors(factors.size());
+		if (numberOfThreads == 1 || factors.size() < 2) {
+			for (int factorIndex = 0; factorIndex != factors.size(); factorIndex++) {
+				ArrayList<Expression> randomVariablesInFactor = randomVariablesInFactors.get(factorIndex);
+				listener.factorParticipants(factorIndex, participantVariableIndexes(randomVariablesInFactor, randomVariableIndexes));
+				groundFactor(
+						factors.get(factorIndex),
+						randomVariablesInFactor,
+						new ListenerFactorValues(listener, numberOfFactorValues(randomVariablesInFactor, randomVariableNameToTypeSizeAndUniqueConstants)),
+						randomVariableNameToTypeSizeAndUniqueConstants,
+						typeToValues,
+						context);
+			}
+		}
+		else {
+			groundFactorsConcurrently(
+					factors,
+					randomVariablesInFactors,
+					randomVariableIndexes,
+					listener,
+					randomVariableNameToTypeSizeAndUniqueConstants,
+					typeToValues,
+					groundedExpressionBasedModel,
+					numberOfThreads,
+					maximumNumberOfRunsInMemory);
 		}
 		
 		// Handle the evidence
@@ -164,6 +234,124 @@ public class HOGModelGrounding {
 		listener.groundingComplete();
 	}
 
+	private static void groundFactorsConcurrently(
+			List<Expression> factors,
+			List<ArrayList<Expression>> randomVariablesInFactors,
+			Map<Expression, Integer> randomVariableIndexes,
+			Listener listener,
+			Map<Expression, Triple<Expression, Integer, List<Expression>>> randomVariableNameToTypeSizeAndUniqueConstants,
+			Map<Expression, List<Expression>> typeToValues,
+			ExpressionBasedModel groundedExpressionBasedModel,
+			int numberOfThreads,
+			int maximumNumberOfRunsInMemory) {
+		
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(numberOfThreads, factors.size()), daemonThreads("HOGM factor grounding"));
+		int maximumNumberOfFactorsInFlight = MAXIMUM_NUMBER_OF_FACTORS_IN_FLIGHT_PER_THREAD*numberOfThreads;
+		List<Future<GroundedFactorTable>> groundedFactorTables = new ArrayList<>(factors.size());
+		try {
+			for (int factorIndex = 0; factorIndex != factors.size(); factorIndex++) {
+				// factors are submitted as earlier ones are notified, so that only a bounded number of tables are held at once
+				while (groundedFactorTables.size() != factors.size() && groundedFactorTables.size() < factorIndex + maximumNumberOfFactorsInFlight) {
+					int submittedFactorIndex = groundedFactorTables.size();
+					Expression factor = factors.get(submittedFactorIndex);
+					ArrayList<Expression> randomVariablesInFactor = randomVariablesInFactors.get(submittedFactorIndex);
+					// the context is cloned here, on a single thread, since it is created lazily by the shared model
+					Context contextForFactor = groundedExpressionBasedModel.cloneWithClonedContext().getContext();
+					groundedFactorTables.add(executor.submit(() -> {
+						GroundedFactorTable table = new GroundedFactorTable(numberOfFactorValues(randomVariablesInFactor, randomVariableNameToTypeSizeAndUniqueConstants), maximumNumberOfRunsInMemory);
+						try {
+							groundFactor(factor, randomVariablesInFactor, table, randomVariableNameToTypeSizeAndUniqueConstants, typeToValues, contextForFactor);
+						}
+						catch (RuntimeException | Error exception) {
+							table.delete();
+							throw exception;
+						}
+						return table;
+					}));
+				}
+				
+				listener.factorParticipants(factorIndex, participantVariableIndexes(randomVariablesInFactors.get(factorIndex), randomVariableIndexes));
+				GroundedFactorTable table = getGroundedFactorTable(groundedFactorTables.get(factorIndex));
+				groundedFactorTables.set(factorIndex, null); // no longer needed
+				try {
+					table.sendTo(listener);
+				}
+				finally {
+					table.delete();
+				}
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private static GroundedFactorTable getGroundedFactorTable(Future<GroundedFactorTable> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException interruption) {
+			Thread.currentThread().interrupt();
+			throw new Error("Interrupted while grounding factors", interruption);
+		}
+		catch (ExecutionException exception) {
+			Throwable cause = exception.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new Error(cause);
+		}
+	}
+
+	private static void groundFactor(
+			Expression factor,
+			ArrayList<Expression> randomVariablesInFactor,
+			FactorValues factorValues,
+			Map<Expression, Triple<Expression, Integer, List<Expression>>> randomVariableNameToTypeSizeAndUniqueConstants,
+			Map<Expression, List<Expression>> typeToValues,
+			Context context) {
+		
+		if (!useContextSensitiveGrounding) {
+			fullGrounding(
+					factor,
+					randomVariablesInFactor,
+					factorValues,
+					randomVariableNameToTypeSizeAndUniqueConstants,
+					typeToValues,
+					context);
+		}
+		else {
+			contextSensitiveGrounding(
+					factor,
+					randomVariablesInFactor,
+					factorValues,
+					randomVariableNameToTypeSizeAndUniqueConstants,
+					typeToValues,
+					context);
+		}
+	}
+
+	private static int[] participantVariableIndexes(List<Expression> randomVariablesInFactor, Map<Expression, Integer> randomVariableIndexes) {
+		int[] result = new int[randomVariablesInFactor.size()];
+		for (int i = 0; i < randomVariablesInFactor.size(); i++) {
+			result[i] = randomVariableIndexes.get(randomVariablesInFactor.get(i));
+		}
+		return result;
+	}
+
+	private static int numberOfFactorValues(
+			ArrayList<Expression> randomVariablesInFactor,
+			Map<Expression, Triple<Expression, Integer, List<Expression>>> randomVariableNameToTypeSizeAndUniqueConstants) {
+		
+		return numberOfAssignmentsForVariablesStartingAt(
+				0,
+				randomVariablesInFactor.size(),
+				makeFunctionFromVariableIndexToDomainSize(randomVariableNameToTypeSizeAndUniqueConstants, randomVariablesInFactor));
+	}
+
 	private static ExpressionBasedModel makeGroundedExpressionBasedModel(ExpressionBasedModel factorsAndTypes,
 			Map<String, String> newUniqueConstantToTypeMap) {
 		boolean isBayesianNetwork = false;
@@ -219,12 +407,12 @@ public class HOGModelGrounding {
 	/**
 	 * @param factor
 	 * @param randomVariablesInFactor
-	 * @param listener
+	 * @param factorValues
 	 * @param randomVariableNameToTypeSizeAndUniqueConstants
 	 * @param typeToValues
 	 * @param context
 	 */
-	private static void fullGrounding(Expression factor, List<Expression> randomVariablesInFactor, Listener listener, Map<Expression, Triple<Expression, Integer, List<Expression>>> randomVariableNameToTypeSizeAndUniqueConstants, Map<Expression, List<Expression>> typeToValues, Context context) {
+	private static void fullGrounding(Expression factor, List<Expression> randomVariablesInFactor, FactorValues factorValues, Map<Expression, Triple<Expression, Integer, List<Expression>>> randomVariableNameToTypeSizeAndUniqueConstants, Map<Expression, List<Expression>> typeToValues, Context context) {
 		int[] radices                    = new int[randomVariablesInFactor.size()];
 		List<List<Expression>> factorRandomVariableTypeValues = new ArrayList<>();
 		for (int i = 0; i < randomVariablesInFactor.size(); i++) {
@@ -236,7 +424,6 @@ public class HOGModelGrounding {
 		
 		boolean didIncrement     = true;
 		MixedRadixNumber mrn     = new MixedRadixNumber(BigInteger.ZERO, radices);
-		int numberFactorValues   = mrn.getMaxAllowedValue().intValue()+1;
 		do {
 			Expression groundedFactor = factor;
 			for (int i = 0; i < randomVariablesInFactor.size(); i++) {
@@ -248,9 +435,7 @@ public class HOGModelGrounding {
 				throw new IllegalStateException("Unable to compute a number for the grounded factor ["+groundedFactor+"], instead got:"+value);
 			}
 
-			boolean isFirstValue = mrn.getValue().intValue() == 0;
-			boolean isLastValue = mrn.getValue().intValue() == numberFactorValues - 1;
-			listener.factorValue(numberFactorValues, isFirstValue, isLastValue, value.rationalValue());
+			factorValues.add(value.rationalValue(), 1);
 
 			if (didIncrement = mrn.canIncrement()) {
 				mrn.increment();
@@ -357,16 +542,14 @@ public class HOGModelGrounding {
 	/**
 	 * @param factor
 	 * @param randomVariablesInFactor
-	 * @param listener
+	 * @param factorValues
 	 * @param randomVariableNameToTypeSizeAndUniqueConstants
 	 * @param typeToValues TODO
 	 * @param context
 	 */
-	private static void contextSensitiveGrounding(Expression factor, ArrayList<Expression> randomVariablesInFactor, Listener listener, Map<Expression, Triple<Expression, Integer, List<Expression>>> randomVariableNameToTypeSizeAndUniqueConstants, Map<Expression, List<Expression>> typeToValues, Context context) {
+	private static void contextSensitiveGrounding(Expression factor, ArrayList<Expression> randomVariablesInFactor, FactorValues factorValues, Map<Expression, Triple<Expression, Integer, List<Expression>>> randomVariableNameToTypeSizeAndUniqueConstants, Map<Expression, List<Expression>> typeToValues, Context context) {
 		Function<Integer, Integer> fromVariableIndexToDomainSize = 
 				makeFunctionFromVariableIndexToDomainSize(randomVariableNameToTypeSizeAndUniqueConstants, randomVariablesInFactor);
-		int numberFactorValues = 
-				numberOfAssignmentsForVariablesStartingAt(0, randomVariablesInFactor.size(), fromVariableIndexToDomainSize);
 		
 		contextSensitiveGroundingFrom(
 				0,
@@ -375,10 +558,8 @@ public class HOGModelGrounding {
 				makeFunctionFromVariableIndexValueIndexToValue(randomVariableNameToTypeSizeAndUniqueConstants, randomVariablesInFactor, typeToValues),
 				fromVariableIndexToDomainSize,
 				context.getTheory(),
-				true, // first time this variable is being iterated (it happens only once)
-				true, // last time this variable is being iterated (it happens only once)
-				(isFirstValue, isLastValue, value)
-				-> listener.factorValue(numberFactorValues, isFirstValue, isLastValue, value.rationalValue()),
+				new HashMap<>(), // memoized simplifications, shared by all partial assignments of this factor
+				factorValues,
 				context);
 	}
 
@@ -389,9 +570,8 @@ public class HOGModelGrounding {
 			BinaryFunction<Integer, Integer, Expression> fromVariableIndexAndValueIndexToValue,
 			Function<Integer, Integer> fromVariableIndexToDomainSize,
 			Theory theory,
-			boolean firstIterationForVariable,
-			boolean lastIterationForVariable,
-			TernaryProcedure<Boolean, Boolean, Expression> recordValue,
+			Map<Expression, Expression> simplifications,
+			FactorValues factorValues,
 			Context context) {
 		
 		Expression variable = variables.get(variableIndex);
@@ -399,11 +579,9 @@ public class HOGModelGrounding {
 		int numberOfVariableValues = fromVariableIndexToDomainSize.apply(variableIndex);
 		
 		for (int variableValueIndex = 0; variableValueIndex != numberOfVariableValues; variableValueIndex++) {
-			boolean thisVariableIsAtItsFirstValue = variableValueIndex == 0;
-			boolean thisVariableIsAtItsLastValue = variableValueIndex == numberOfVariableValues - 1;
 			Expression value = fromVariableIndexAndValueIndexToValue.apply(variableIndex, variableValueIndex);
 			Expression expressionWithReplacedValue = expression.replaceAllOccurrences(variable, value, context);
-			Expression simplifiedExpression = theory.simplify(expressionWithReplacedValue, context);
+			Expression simplifiedExpression = simplify(expressionWithReplacedValue, theory, simplifications, context);
 			
 			boolean expressionIsSimplifiedToConstant =
 					isLastVariable || simplifiedExpression.getSyntacticFormType().equals(Symbol.SYNTACTIC_FORM_TYPE);
@@ -414,27 +592,9 @@ public class HOGModelGrounding {
 				int numberOfTimesThisValueMustBeWritten
 				= numberOfAssignmentsForVariablesStartingAt(variableIndex + 1, variables.size(), fromVariableIndexToDomainSize);
 				
-				for (int i = 0; i != numberOfTimesThisValueMustBeWritten; i++) {
-					boolean isFirstOverallValue = 
-							firstIterationForVariable && 
-							thisVariableIsAtItsFirstValue &&
-							i == 0;
-					
-					boolean isLastOverallValue =
-							lastIterationForVariable &&
-							thisVariableIsAtItsLastValue &&
-							i == numberOfTimesThisValueMustBeWritten - 1;
-					
-					recordValue.apply(isFirstOverallValue, isLastOverallValue, simplifiedExpression);
-				}
+				factorValues.add(simplifiedExpression.rationalValue(), numberOfTimesThisValueMustBeWritten);
 			}
 			else {
-				boolean firstIterationForNextVariable
-				= firstIterationForVariable && thisVariableIsAtItsFirstValue;
-				
-				boolean lastIterationForNextVariable
-				= lastIterationForVariable && thisVariableIsAtItsLastValue;
-				
 				contextSensitiveGroundingFrom(
 						variableIndex + 1,
 						simplifiedExpression,
@@ -442,9 +602,8 @@ public class HOGModelGrounding {
 						fromVariableIndexAndValueIndexToValue,
 						fromVariableIndexToDomainSize,
 						theory,
-						firstIterationForNextVariable,
-						lastIterationForNextVariable,
-						recordValue,
+						simplifications,
+						factorValues,
 						context);
 			}
 		}
@@ -464,4 +623,133 @@ public class HOGModelGrounding {
 			return result;
 		}
 	}
+
+	/**
+	 * Simplifies an expression, memoizing the result, since different partial assignments of a factor
+	 * often simplify it to the same expression, which is then assigned the same values of the remaining variables.
+	 */
+	private static Expression simplify(Expression expression, Theory theory, Map<Expression, Expression> simplifications, Context context) {
+		Expression result = simplifications.get(expression);
+		if (result == null) {
+			result = theory.simplify(expression, context);
+			if (simplifications.size() < MAXIMUM_NUMBER_OF_MEMOIZED_SIMPLIFICATIONS) {
+				simplifications.put(expression, result);
+			}
+		}
+		return result;
+	}
+
+	private static ThreadFactory daemonThreads(String name) {
+		return runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+	
+	/**
+	 * Receives the values of a factor table, in order, as runs of repeated values.
+	 */
+	private interface FactorValues {
+		void add(Rational value, int numberOfTimes);
+	}
+	
+	private static class ListenerFactorValues implements FactorValues {
+		
+		private Listener listener;
+		private int numberFactorValues;
+		private int numberOfValuesSoFar = 0;
+		
+		public ListenerFactorValues(Listener listener, int numberFactorValues) {
+			this.listener = listener;
+			this.numberFactorValues = numberFactorValues;
+		}
+
+		@Override
+		public void add(Rational value, int numberOfTimes) {
+			boolean isFirstValue = numberOfValuesSoFar == 0;
+			numberOfValuesSoFar += numberOfTimes;
+			boolean isLastValue = numberOfValuesSoFar == numberFactorValues;
+			listener.factorValues(numberFactorValues, isFirstValue, isLastValue, value, numberOfTimes);
+		}
+	}
+	
+	/**
+	 * A factor table grounded ahead of its turn to be notified to the listener, held as runs of repeated values;
+	 * once a given number of runs are held, they are appended to a temporary file, which is only kept open while being appended to.
+	 */
+	private static class GroundedFactorTable implements FactorValues {
+		
+		private int numberFactorValues;
+		private int maximumNumberOfRunsInMemory;
+		private List<Rational> runValues = new ArrayList<>();
+		private List<Integer> runLengths = new ArrayList<>();
+		private File spillFile = null;
+		private int numberOfSpilledRuns = 0;
+		
+		public GroundedFactorTable(int numberFactorValues, int maximumNumberOfRunsInMemory) {
+			this.numberFactorValues = numberFactorValues;
+			this.maximumNumberOfRunsInMemory = maximumNumberOfRunsInMemory;
+		}
+
+		@Override
+		public void add(Rational value, int numberOfTimes) {
+			int last = runValues.size() - 1;
+			if (last != -1 && runValues.get(last).equals(value)) {
+				runLengths.set(last, runLengths.get(last) + numberOfTimes);
+			}
+			else {
+				if (runValues.size() == maximumNumberOfRunsInMemory) {
+					spill();
+				}
+				runValues.add(value);
+				runLengths.add(numberOfTimes);
+			}
+		}
+		
+		private void spill() {
+			try {
+				if (spillFile == null) {
+					spillFile = File.createTempFile("groundedFactor", ".runs");
+					spillFile.deleteOnExit();
+				}
+				try (DataOutputStream spillOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile, true)))) {
+					for (int i = 0; i != runValues.size(); i++) {
+						spillOutput.writeUTF(runValues.get(i).toString());
+						spillOutput.writeInt(runLengths.get(i));
+					}
+				}
+				numberOfSpilledRuns += runValues.size();
+				runValues.clear();
+				runLengths.clear();
+			}
+			catch (IOException ioe) {
+				throw new RuntimeException(ioe);
+			}
+		}
+		
+		public void sendTo(Listener listener) {
+			ListenerFactorValues listenerFactorValues = new ListenerFactorValues(listener, numberFactorValues);
+			if (spillFile != null) {
+				try (DataInputStream spillInput = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile)))) {
+					for (int i = 0; i != numberOfSpilledRuns; i++) {
+						Rational value = new Rational(spillInput.readUTF());
+						listenerFactorValues.add(value, spillInput.readInt());
+					}
+				}
+				catch (IOException ioe) {
+					throw new RuntimeException(ioe);
+				}
+			}
+			for (int i = 0; i != runValues.size(); i++) {
+				listenerFactorValues.add(runValues.get(i), runLengths.get(i));
+			}
+		}
+		
+		public void delete() {
+			if (spillFile != null) {
+				spillFile.delete();
+			}
+		}
+	}
 }
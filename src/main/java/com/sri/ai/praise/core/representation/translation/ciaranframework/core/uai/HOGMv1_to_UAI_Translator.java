@@ -55,6 +55,24 @@ import com.sri.ai.praise.core.representation.translation.ciaranframework.core.co
 @Beta
 public class HOGMv1_to_UAI_Translator extends AbstractHOGMv1_to_Target_Translator {
 	private static final String[] _outputFileExtensions = AbstractUAI_to_Target_Translator.INPUT_FILE_EXTENSIONS;
+	
+	private int numberOfGroundingThreads = Integer.getInteger("hogm.to.uai.grounding.threads", 1);
+	
+	/**
+	 * Sets the number of threads on which factors are grounded
+	 * (by default, the value of system property <code>hogm.to.uai.grounding.threads</code>, or one).
+	 */
+	public void setNumberOfGroundingThreads(int numberOfGroundingThreads) {
+		if (numberOfGroundingThreads < 1) {
+			throw new IllegalArgumentException("Number of grounding threads must be at least 1 but is " + numberOfGroundingThreads);
+		}
+		this.numberOfGroundingThreads = numberOfGroundingThreads;
+	}
+	
+	public int getNumberOfGroundingThreads() {
+		return numberOfGroundingThreads;
+	}
+	
 	//
 	// START-Translator	
 	@Override 
@@ -78,6 +96,6 @@ public class HOGMv1_to_UAI_Translator extends AbstractHOGMv1_to_Target_Translato
 	protected void translate(String identifier, ExpressionBasedModel hogmv1FactorsAndTypes, List<Expression> evidence, PrintWriter[] translatedOutputs) throws Exception {			
 		//
 		// Ground out the HOGM FactorNetwork and translate it to the UAI model format
-		HOGModelGrounding.ground(hogmv1FactorsAndTypes, evidence, new UAIHOGModelGroundingListener(translatedOutputs[0], translatedOutputs[1]));
+		HOGModelGrounding.ground(hogmv1FactorsAndTypes, evidence, new UAIHOGModelGroundingListener(translatedOutputs[0], translatedOutputs[1]), numberOfGroundingThreads);
 	}
 }
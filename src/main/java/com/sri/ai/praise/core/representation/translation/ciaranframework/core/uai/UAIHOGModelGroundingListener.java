@@ -37,6 +37,7 @@
  */
 package com.sri.ai.praise.core.representation.translation.ciaranframework.core.uai;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.FileReader;
@@ -61,6 +62,8 @@ public class UAIHOGModelGroundingListener implements HOGModelGrounding.Listener
 	private File tempFunctionTablesFile   = null;
 	private List<Pair<Integer, Integer>> evidence = new ArrayList<>();
 	
+	private static final int FUNCTION_TABLES_BUFFER_SIZE = 1 << 16;
+	
 	private int    numberVariables;
 	private Writer preamble       = null;
 	private Writer functionTables = null;
@@ -72,8 +75,8 @@ public class UAIHOGModelGroundingListener implements HOGModelGrounding.Listener
 			tempPreambleFile       = File.createTempFile("preamble", "uai");
 			tempFunctionTablesFile = File.createTempFile("factorTables", "uai");
 			
-			preamble       = new OutputStreamWriter(new FileOutputStream(tempPreambleFile));
-			functionTables = new OutputStreamWriter(new FileOutputStream(tempFunctionTablesFile));
+			preamble       = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempPreambleFile)));
+			functionTables = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFunctionTablesFile)), FUNCTION_TABLES_BUFFER_SIZE);
 		}
 		catch (IOException ioe) {
 			throw new RuntimeException(ioe);
@@ -116,19 +119,26 @@ public class UAIHOGModelGroundingListener implements HOGModelGrounding.Listener
 	
 	@Override
 	public void factorValue(int numberFactorValues, boolean isFirstValue, boolean isLastValue, Rational value) {
-		if (isFirstValue) {
-			writeFunctionTables("\n" + numberFactorValues + "\n");
-		}
-		else {
-			writeFunctionTables(" ");
+		factorValues(numberFactorValues, isFirstValue, isLastValue, value, 1);
+	}
+	
+	@Override
+	public void factorValues(int numberFactorValues, boolean isFirstValue, boolean isLastValue, Rational value, int numberOfTimes) {
+		String valueString = "" + value.doubleValue();
+		for (int i = 0; i != numberOfTimes; i++) {
+			if (isFirstValue && i == 0) {
+				writeFunctionTables("\n" + numberFactorValues + "\n");
+			}
+			else {
+				writeFunctionTables(" ");
+			}
+			writeFunctionTables(valueString);
 		}
 		
-		writeFunctionTables("" + value.doubleValue());
-	
 		if (isLastValue) {
 			writeFunctionTables("\n");
 		}
-	}	
+	}
 	
 	@Override
 	public void evidence(int variableIndex, int valueIndex) {
@@ -39,6 +39,8 @@ package com.sri.ai.praise.core.representation.translation.rodrigoframework;
 
 import static com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.core.ExpressionFactorNetwork.expressionFactorNetwork;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Predicate;
 
 import com.sri.ai.expresso.api.Expression;
@@ -61,6 +63,42 @@ public class ExpressionBasedProblemToInterfaceBasedProblemConversion {
 		return problem;
 	}
 
+	/**
+	 * Translates several problems, making those with the same factors, context and procedural attachments
+	 * (typically, queries on random variables of the same model) share the same factor network,
+	 * so that solvers can reuse computations on it across problems.
+	 */
+	public static List<Problem> translate(List<? extends ExpressionBasedProblem> expressionBasedProblems) {
+		List<Problem> result = new ArrayList<>(expressionBasedProblems.size());
+		List<ExpressionBasedProblem> representatives = new ArrayList<>();
+		List<ExpressionFactorNetwork> factorNetworks = new ArrayList<>();
+		for (ExpressionBasedProblem expressionBasedProblem : expressionBasedProblems) {
+			ExpressionFactorNetwork factorNetwork = null;
+			for (int i = 0; factorNetwork == null && i != representatives.size(); i++) {
+				if (haveSameFactorNetwork(representatives.get(i), expressionBasedProblem)) {
+					factorNetwork = factorNetworks.get(i);
+				}
+			}
+			if (factorNetwork == null) {
+				factorNetwork = makeFactorNetwork(expressionBasedProblem);
+				representatives.add(expressionBasedProblem);
+				factorNetworks.add(factorNetwork);
+			}
+			ExpressionVariable queryVariable = new DefaultExpressionVariable(expressionBasedProblem.getQuerySymbol());
+			Predicate<Variable> isParameterPredicate = makeIsParameterPredicate(expressionBasedProblem.getIsParameterPredicate());
+			result.add(new DefaultVariableMarginalQuery(queryVariable, factorNetwork, isParameterPredicate));
+		}
+		return result;
+	}
+
+	private static boolean haveSameFactorNetwork(ExpressionBasedProblem problem, ExpressionBasedProblem another) {
+		boolean result =
+				problem.getContext() == another.getContext()
+				&& problem.getProceduralAttachments() == another.getProceduralAttachments()
+				&& problem.getFactorExpressionsIncludingQueryDefinitionIfAny().equals(another.getFactorExpressionsIncludingQueryDefinitionIfAny());
+		return result;
+	}
+
 	private static ExpressionFactorNetwork makeFactorNetwork(ExpressionBasedProblem expressionBasedProblem) {
 		ExpressionFactorNetwork result = 
 				expressionFactorNetwork(
@@ -1,6 +1,11 @@
 package com.sri.ai.praise.learning.parameterlearning;
 
+import static com.sri.ai.praise.learning.parameterlearning.ParallelParameterLearner.invokeAll;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import com.sri.ai.praise.core.representation.interfacebased.factor.api.FactorNetwork;
 
@@ -18,6 +23,36 @@ public interface BayesianModel extends FactorNetwork {
 		return learnedModel;
 	}
 	
+	/**
+	 * Same as {@link #learnModelParametersFromCompleteData(Dataset)}, but with the work divided in tasks run by the given executor.
+	 * By default, each node is learned by a separate task (since nodes do not share counts);
+	 * implementations may instead count the dataset in <code>numberOfShards</code> shards and merge the counts.
+	 */
+	default public BayesianModel learnModelParametersFromCompleteData(Dataset dataset, ExecutorService executor, int numberOfShards) {
+		BayesianModel learnedModel = this.copy();
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for(BayesianNode node : learnedModel.getNodes()) {
+			tasks.add(() -> { node.setParametersGivenCompleteData(dataset); return null; });
+		}
+		invokeAll(executor, tasks);
+		
+		return learnedModel;
+	}
+	
+	/**
+	 * Updates, in place, the parameters of all nodes with a mini-batch of new datapoints
+	 * (see {@link BayesianNode#updateParametersGivenNewData(Dataset, double)}).
+	 */
+	default public void updateModelParametersGivenNewData(Dataset newData, double decay) {
+		for(BayesianNode node : this.getNodes()) {
+			node.updateParametersGivenNewData(newData, decay);
+		}
+	}
+	
+	default public void updateModelParametersGivenNewData(Dataset newData) {
+		updateModelParametersGivenNewData(newData, 1.0);
+	}
+	
 	public BayesianModel copy();
 
 }
@@ -34,6 +34,21 @@ public interface BayesianNode extends Factor {
 	
 	public void normalizeParameters();
 	
+	// Online learning: the raw counts are kept alongside the normalized parameters, so that new data can be added to them without going over older data again
+	
+	/**
+	 * Adds the counts of a mini-batch of new datapoints to the counts of this node (starting from the initial counts if it has none yet)
+	 * and updates the parameters affected by them.
+	 * Before adding the new counts, all counts (including the initial ones) are multiplied by <code>decay</code>, in (0, 1],
+	 * so that older data weighs exponentially less; since this preserves the proportions between the counts of each parents assignment,
+	 * it is done lazily by weighing new datapoints by the inverse of the accumulated decay instead, and only affected parameters are updated.
+	 */
+	public void updateParametersGivenNewData(Dataset newData, double decay);
+	
+	default public void updateParametersGivenNewData(Dataset newData) {
+		updateParametersGivenNewData(newData, 1.0);
+	}
+	
 	public BayesianNode copy();
 	
 }
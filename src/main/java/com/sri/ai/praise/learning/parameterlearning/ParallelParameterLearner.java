@@ -0,0 +1,138 @@
+package com.sri.ai.praise.learning.parameterlearning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Learns the parameters of {@link BayesianModel}s from complete data with several threads,
+ * through {@link BayesianModel#learnModelParametersFromCompleteData(Dataset, ExecutorService, int)}
+ * with one shard of the dataset per thread, and keeps the throughput of its last learning in rows per second.
+ * <p>
+ * It also offers the helpers used by models to shard datasets and run tasks.
+ *
+ */
+
+public class ParallelParameterLearner {
+
+	private int numberOfThreads;
+	private int numberOfRowsOfLastLearning;
+	private long nanosecondsOfLastLearning;
+
+	public ParallelParameterLearner() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public ParallelParameterLearner(int numberOfThreads) {
+		if(numberOfThreads < 1) {
+			throw new IllegalArgumentException("The number of threads must be at least 1, but is " + numberOfThreads);
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * Returns a copy of the given model with parameters learned from the given dataset
+	 * (the same as {@link BayesianModel#learnModelParametersFromCompleteData(Dataset)}).
+	 */
+	public BayesianModel learn(BayesianModel model, Dataset dataset) {
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, daemonThreads("Parameter learner"));
+		try {
+			long start = System.nanoTime();
+			BayesianModel learnedModel = model.learnModelParametersFromCompleteData(dataset, executor, numberOfThreads);
+			nanosecondsOfLastLearning = System.nanoTime() - start;
+			numberOfRowsOfLastLearning = dataset.getDatapoints().size();
+			return learnedModel;
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	public int getNumberOfRowsOfLastLearning() {
+		return numberOfRowsOfLastLearning;
+	}
+
+	public double getTimeInMillisecondsOfLastLearning() {
+		return nanosecondsOfLastLearning/1e6;
+	}
+
+	/**
+	 * The number of dataset rows processed per second by the last learning (0 if there has been none).
+	 */
+	public double getRowsPerSecondOfLastLearning() {
+		return nanosecondsOfLastLearning == 0? 0 : numberOfRowsOfLastLearning/(nanosecondsOfLastLearning/1e9);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d rows in %.3f ms with %d threads (%.0f rows/sec)", numberOfRowsOfLastLearning, getTimeInMillisecondsOfLastLearning(), numberOfThreads, getRowsPerSecondOfLastLearning());
+	}
+
+	/**
+	 * Splits <code>numberOfRows</code> rows in at most <code>numberOfShards</code> contiguous, non-empty shards of about the same size,
+	 * returning their boundaries: shard <code>i</code> goes from row <code>boundaries[i]</code> (inclusive) to <code>boundaries[i + 1]</code> (exclusive).
+	 */
+	public static int[] shardBoundaries(int numberOfRows, int numberOfShards) {
+		int actualNumberOfShards = Math.max(1, Math.min(numberOfShards, numberOfRows));
+		int[] boundaries = new int[actualNumberOfShards + 1];
+		for(int i = 0; i <= actualNumberOfShards; i++) {
+			boundaries[i] = (int) ((long) numberOfRows*i/actualNumberOfShards);
+		}
+		return boundaries;
+	}
+
+	/**
+	 * Runs the given tasks in the executor and returns their results in the same order,
+	 * rethrowing the first failure as an unchecked exception.
+	 */
+	public static <T> List<T> invokeAll(ExecutorService executor, List<? extends Callable<T>> tasks) {
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		for(Callable<T> task : tasks) {
+			futures.add(executor.submit(task));
+		}
+		List<T> results = new ArrayList<>(tasks.size());
+		try {
+			for(Future<T> future : futures) {
+				results.add(future.get());
+			}
+		}
+		catch(InterruptedException interruption) {
+			Thread.currentThread().interrupt();
+			throw new Error("Interrupted while learning parameters", interruption);
+		}
+		catch(ExecutionException exception) {
+			Throwable cause = exception.getCause();
+			if(cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if(cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new Error(cause);
+		}
+		finally {
+			for(Future<T> future : futures) {
+				future.cancel(true);
+			}
+		}
+		return results;
+	}
+
+	private static ThreadFactory daemonThreads(String name) {
+		return runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.sri.ai.praise.learning.parameterlearning.representation.dataset;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+import com.sri.ai.praise.learning.parameterlearning.Datapoint;
+import com.sri.ai.praise.learning.parameterlearning.Dataset;
+
+/**
+ * A dataset of integer values stored as one <code>int[]</code> column per variable,
+ * so that learning can count assignments with primitive index arithmetic instead of going through
+ * a {@link Datapoint} and a list of boxed values per row.
+ * <p>
+ * {@link #getDatapoints()} still offers the rows as {@link Datapoint}s (views on the columns) for code not aware of columns.
+ *
+ */
+
+public class ColumnarDataset implements Dataset {
+
+	private ArrayList<Variable> variables;
+	private int[][] columns;
+	private int numberOfRows;
+	private Map<Variable, Integer> indexOfVariable;
+
+	/**
+	 * Makes a dataset from one column of values per variable (not copied);
+	 * values of {@link TableVariable}s must be between 0 and their cardinality.
+	 */
+	public ColumnarDataset(List<? extends Variable> variables, int[][] columns) {
+		if(variables.size() != columns.length) {
+			throw new Error("There must be exactly one column per variable, but there are " + variables.size() + " variables and " + columns.length + " columns.");
+		}
+		this.variables = new ArrayList<>(variables);
+		this.columns = columns;
+		this.numberOfRows = columns.length == 0? 0 : columns[0].length;
+		this.indexOfVariable = new HashMap<>();
+		for(int i = 0; i < columns.length; i++) {
+			if(columns[i].length != numberOfRows) {
+				throw new Error("All columns must have the same number of rows, but column for " + variables.get(i) + " has " + columns[i].length + " instead of " + numberOfRows + ".");
+			}
+			verifyIfValuesAreInRange(variables.get(i), columns[i]);
+			indexOfVariable.put(variables.get(i), i);
+		}
+	}
+
+	/**
+	 * Makes a columnar copy of the values of the given variables in another dataset, which must be integers.
+	 */
+	public ColumnarDataset(List<? extends Variable> variables, Dataset dataset) {
+		this(variables, toColumns(variables, dataset));
+	}
+
+	private static int[][] toColumns(List<? extends Variable> variables, Dataset dataset) {
+		List<? extends Datapoint> datapoints = dataset.getDatapoints();
+		int[][] columns = new int[variables.size()][datapoints.size()];
+		int row = 0;
+		for(Datapoint datapoint : datapoints) {
+			for(int i = 0; i < columns.length; i++) {
+				Object value = datapoint.getValueOfVariable(variables.get(i));
+				if(!(value instanceof Integer)) {
+					throw new Error("Values for columnar datasets must be Integers, but " + variables.get(i) + " has value " + value + ".");
+				}
+				columns[i][row] = (Integer) value;
+			}
+			row++;
+		}
+		return columns;
+	}
+
+	private static void verifyIfValuesAreInRange(Variable variable, int[] column) {
+		if(variable instanceof TableVariable) {
+			int cardinality = ((TableVariable) variable).getCardinality();
+			for(int value : column) {
+				if(value < 0 || value >= cardinality) {
+					throw new Error("Value " + value + " of " + variable + " is out of its range [0, " + cardinality + ").");
+				}
+			}
+		}
+	}
+
+	public List<Variable> getVariables() {
+		return variables;
+	}
+
+	public int getNumberOfRows() {
+		return numberOfRows;
+	}
+
+	public boolean contains(Variable variable) {
+		return indexOfVariable.containsKey(variable);
+	}
+
+	/**
+	 * Returns the column of values of the given variable (not a copy, so it must not be modified).
+	 */
+	public int[] getColumn(Variable variable) {
+		Integer index = indexOfVariable.get(variable);
+		if(index == null) {
+			throw new Error("Variable " + variable + " is not present on the dataset.");
+		}
+		return columns[index];
+	}
+
+	@Override
+	public List<? extends Datapoint> getDatapoints() {
+		return new AbstractList<Datapoint>() {
+			@Override
+			public Datapoint get(int row) {
+				if(row < 0 || row >= numberOfRows) {
+					throw new IndexOutOfBoundsException("Row " + row + " of a dataset with " + numberOfRows + " rows.");
+				}
+				return new ColumnarDatapoint(row);
+			}
+
+			@Override
+			public int size() {
+				return numberOfRows;
+			}
+		};
+	}
+
+	private class ColumnarDatapoint implements Datapoint {
+
+		private int row;
+
+		public ColumnarDatapoint(int row) {
+			this.row = row;
+		}
+
+		@Override
+		public Object getValueOfVariable(Variable variable) {
+			return getColumn(variable)[row];
+		}
+
+		@Override
+		public List<? extends Object> getValuesOfVariables(List<? extends Variable> variables) {
+			ArrayList<Object> valueOfVariables = new ArrayList<Object>(variables.size());
+			for(Variable variable : variables) {
+				valueOfVariables.add(getValueOfVariable(variable));
+			}
+			return valueOfVariables;
+		}
+	}
+
+}
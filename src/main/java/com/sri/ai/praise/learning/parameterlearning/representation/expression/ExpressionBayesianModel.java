@@ -1,11 +1,17 @@
 package com.sri.ai.praise.learning.parameterlearning.representation.expression;
 
+import static com.sri.ai.praise.learning.parameterlearning.ParallelParameterLearner.invokeAll;
+import static com.sri.ai.praise.learning.parameterlearning.ParallelParameterLearner.shardBoundaries;
 import static com.sri.ai.util.Util.list;
 import static com.sri.ai.util.Util.map;
+import static com.sri.ai.util.Util.mapIntoList;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import com.sri.ai.expresso.api.Expression;
 import com.sri.ai.expresso.api.Type;
@@ -15,7 +21,9 @@ import com.sri.ai.praise.core.representation.classbased.expressionbased.core.Def
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.api.ExpressionVariable;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.core.ExpressionFactorNetwork;
 import com.sri.ai.praise.learning.parameterlearning.BayesianModel;
+import com.sri.ai.praise.learning.parameterlearning.Datapoint;
 import com.sri.ai.praise.learning.parameterlearning.Dataset;
+import com.sri.ai.util.base.Pair;
 
 public class ExpressionBayesianModel extends ExpressionFactorNetwork implements BayesianModel {
 
@@ -41,6 +49,35 @@ public class ExpressionBayesianModel extends ExpressionFactorNetwork implements
 		return copy;
 	}
 	
+	/**
+	 * Splits the datapoints in shards, each counted by a task for all nodes (see {@link ExpressionBayesianNode#countChildAndParentsAssignments(List)}),
+	 * then adds the counts of all shards to the nodes and normalizes them.
+	 * Since counts of a shard are plain integers, each pair (family, parameter) gets a single symbolic increment per shard.
+	 */
+	@Override
+	public ExpressionBayesianModel learnModelParametersFromCompleteData(Dataset dataset, ExecutorService executor, int numberOfShards) {
+		ExpressionBayesianModel learnedModel = this.copy();
+		List<ExpressionBayesianNode> learnedNodes = learnedModel.getNodes();
+		List<? extends Datapoint> datapoints = dataset.getDatapoints();
+		int[] boundaries = shardBoundaries(datapoints.size(), numberOfShards);
+		List<Callable<List<Map<Pair<Family, Expression>, Integer>>>> tasks = new ArrayList<>(boundaries.length - 1);
+		for(int shard = 0; shard < boundaries.length - 1; shard++) {
+			List<? extends Datapoint> datapointsOfShard = datapoints.subList(boundaries[shard], boundaries[shard + 1]);
+			tasks.add(() -> mapIntoList(learnedNodes, node -> node.countChildAndParentsAssignments(datapointsOfShard)));
+		}
+		List<List<Map<Pair<Family, Expression>, Integer>>> countsOfEachShard = invokeAll(executor, tasks);
+		
+		for(int n = 0; n < learnedNodes.size(); n++) {
+			ExpressionBayesianNode node = learnedNodes.get(n);
+			node.setInitialCountsForAllPossibleChildAndParentsAssignments();
+			for(List<Map<Pair<Family, Expression>, Integer>> countsOfShard : countsOfEachShard) {
+				node.addCounts(countsOfShard.get(n));
+			}
+			node.normalizeParameters();
+		}
+		return learnedModel;
+	}
+	
 	/**
 	 * Learn the parameters of the model and convert the learned ExpressionBayesianModel into an ExpressionBasedModel, ready for inferences.
 	 * 
@@ -14,6 +14,7 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.google.common.base.Predicate;
@@ -34,10 +35,13 @@ import com.sri.ai.grinder.library.boole.Not;
 import com.sri.ai.grinder.library.controlflow.IfThenElse;
 import com.sri.ai.grinder.library.number.Division;
 import com.sri.ai.grinder.library.number.Plus;
+import com.sri.ai.grinder.library.number.Times;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.api.ExpressionVariable;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.core.DefaultExpressionFactor;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.core.DefaultExpressionVariable;
 import com.sri.ai.praise.learning.parameterlearning.BayesianNode;
+import com.sri.ai.praise.learning.parameterlearning.Datapoint;
+import com.sri.ai.praise.learning.parameterlearning.Dataset;
 import com.sri.ai.util.Util;
 import com.sri.ai.util.base.Pair;
 
@@ -55,6 +59,9 @@ public class ExpressionBayesianNode extends DefaultExpressionFactor implements B
 
 	private static final long serialVersionUID = 1L;
 	
+	// kept much lower than in TableBayesianNode since the weight is an exact rational whose size grows with every decayed update
+	private static final double MAXIMUM_WEIGHT_OF_NEW_DATAPOINTS = 1e6;
+	
 	private Expression expression;
 	private Context context;
 	private ExpressionVariable child;
@@ -66,6 +73,7 @@ public class ExpressionBayesianNode extends DefaultExpressionFactor implements B
 	private LinkedHashMap<Family, Expression> familyCountFromDataset;
 	private LinkedHashMap<Pair<Family, Expression>, Expression> parameterCountFromDataset; // a count for every pair (family, parameter)
 	private LinkedHashMap<Pair<Family, Expression>, Expression> finalParameterValues;
+	private Expression weightOfNewDatapoints; // the inverse of the decay accumulated by online updates since the counts were last brought back to their actual values, see updateParametersGivenNewData
 	
 	// Useful variables used frequently:
 	private IndexExpressionsSet childIndexExpressionsSet;
@@ -83,6 +91,7 @@ public class ExpressionBayesianNode extends DefaultExpressionFactor implements B
 		this.familyCountFromDataset = new LinkedHashMap<Family, Expression>();
 		this.parameterCountFromDataset = new LinkedHashMap<Pair<Family, Expression>, Expression>();
 		this.finalParameterValues = new LinkedHashMap<Pair<Family, Expression>, Expression>();
+		this.weightOfNewDatapoints = Expressions.ONE;
 		
 		this.childIndexExpressionsSet = getIndexExpressionsForIndicesInListAndTypesInRegistry(list(child), context);
 		
@@ -106,6 +115,7 @@ public class ExpressionBayesianNode extends DefaultExpressionFactor implements B
 
 	@Override
 	public void setInitialCountsForAllPossibleChildAndParentsAssignments() {
+		weightOfNewDatapoints = Expressions.ONE;
 		for(Family family : families) {
 			familyCountFromDataset.put(family, Expressions.ZERO);
 			setInitialCountForEveryParameterInThatFamilyAndIncrementCorrespondinglyTheCountForThatFamily(family);
@@ -121,15 +131,42 @@ public class ExpressionBayesianNode extends DefaultExpressionFactor implements B
 			return;
 		}
 		
-		verifyIfInputHasExpectedTypeAndSize(childAndParentsValues);
-		LinkedList<Expression> parentsValues = extractParentsValuesFrom((List<Expression>) childAndParentsValues);
-		
-		Expression expressionEvaluation = replaceVariablesByTheirValuesInAnExpression(expression, allVariables, (List<Expression>) childAndParentsValues);		
-		expressionEvaluation = context.evaluate(expressionEvaluation);
+		Pair<Family, Expression> familyAndParameter = findFamilyAndParameterFor(childAndParentsValues, context);
+		incrementFamilyCount(familyAndParameter.first, Expressions.ONE);
+		incrementParameterCountByOne(familyAndParameter.second, familyAndParameter.first);
+	}
+	
+	/**
+	 * Counts how many of the given datapoints fall on each pair (family, parameter), without changing the counts of this node,
+	 * so that disjoint shards of a dataset can be counted concurrently and their counts added with {@link #addCounts(Map)}.
+	 * Evaluations are done on a clone of the node's context, since contexts are not meant to be shared among threads.
+	 */
+	public Map<Pair<Family, Expression>, Integer> countChildAndParentsAssignments(List<? extends Datapoint> datapoints) {
+		Map<Pair<Family, Expression>, Integer> counts = new LinkedHashMap<Pair<Family, Expression>, Integer>();
+		if(thereAreNoParametersToLearn()) {
+			return counts;
+		}
 		
-		Family family = findCorrespondentFamilyFor(parentsValues);
-		incrementFamilyCount(family, Expressions.ONE);
-		incrementParameterCountByOne(expressionEvaluation, family);
+		Context contextForCounting = context.clone();
+		for(Datapoint datapoint : datapoints) {
+			Pair<Family, Expression> familyAndParameter = findFamilyAndParameterFor(datapoint.getValuesOfVariables(allVariables), contextForCounting);
+			counts.merge(familyAndParameter, 1, Integer::sum);
+		}
+		return counts;
+	}
+	
+	/**
+	 * Adds counts obtained with {@link #countChildAndParentsAssignments(List)} to the counts of this node
+	 * (which must have been initialized with {@link #setInitialCountsForAllPossibleChildAndParentsAssignments()}).
+	 */
+	public void addCounts(Map<Pair<Family, Expression>, Integer> counts) {
+		for(Map.Entry<Pair<Family, Expression>, Integer> entry : counts.entrySet()) {
+			Family family = entry.getKey().first;
+			Expression parameter = entry.getKey().second;
+			Expression increment = Expressions.makeSymbol(entry.getValue());
+			incrementFamilyCount(family, increment);
+			incrementParameterCount(parameter, family, increment);
+		}
 	}
 
 	@Override
@@ -138,6 +175,68 @@ public class ExpressionBayesianNode extends DefaultExpressionFactor implements B
 		updateInnerExpressionWithTheLearnedParameters();
 	}
 	
+	/**
+	 * Adds the counts of the new datapoints, times the weight of new datapoints, to the counts of their families
+	 * (which are evaluated so that they do not grow as sums of increments), then recomputes the parameters of those families only
+	 * and rebuilds the inner expression.
+	 * Once the weight of new datapoints becomes too large, the counts are brought back to their actual values (rounded to double precision)
+	 * and the weight back to one, so that the cost of updates does not keep growing with the number of decayed updates.
+	 */
+	@Override
+	public void updateParametersGivenNewData(Dataset newData, double decay) {
+		if(decay <= 0.0 || decay > 1.0) {
+			throw new Error("Decay must be in (0, 1], but is " + decay);
+		}
+		if(thereAreNoParametersToLearn()) {
+			return;
+		}
+		boolean parametersWereNeverComputed = finalParameterValues.isEmpty();
+		if(familyCountFromDataset.isEmpty()) {
+			setInitialCountsForAllPossibleChildAndParentsAssignments();
+		}
+		if(decay != 1.0) {
+			weightOfNewDatapoints = context.evaluate(Division.make(weightOfNewDatapoints, Expressions.makeSymbol(decay)));
+			if(weightOfNewDatapoints.doubleValue() > MAXIMUM_WEIGHT_OF_NEW_DATAPOINTS) {
+				bringCountsBackToTheirActualValues();
+			}
+		}
+		
+		LinkedHashSet<Family> affectedFamilies = Util.set();
+		for(Map.Entry<Pair<Family, Expression>, Integer> entry : countChildAndParentsAssignments(newData.getDatapoints()).entrySet()) {
+			Family family = entry.getKey().first;
+			Expression parameter = entry.getKey().second;
+			Expression increment = context.evaluate(Times.make(Expressions.makeSymbol(entry.getValue()), weightOfNewDatapoints));
+			incrementFamilyCount(family, increment);
+			incrementParameterCount(parameter, family, increment);
+			affectedFamilies.add(family);
+		}
+		
+		for(Family family : parametersWereNeverComputed? families : affectedFamilies) {
+			familyCountFromDataset.put(family, context.evaluate(familyCountFromDataset.get(family)));
+			for(Expression parameter : family.parametersThatCanBeGenerated) {
+				Pair<Family, Expression> familyAndParameter = new Pair<Family, Expression>(family, parameter);
+				parameterCountFromDataset.put(familyAndParameter, context.evaluate(parameterCountFromDataset.get(familyAndParameter)));
+			}
+			computeTheFinalValuesOfTheParametersInThatFamily(family);
+		}
+		updateInnerExpressionWithTheLearnedParameters();
+	}
+	
+	private void bringCountsBackToTheirActualValues() {
+		for(Map.Entry<Family, Expression> entry : familyCountFromDataset.entrySet()) {
+			entry.setValue(actualValueOfCount(entry.getValue()));
+		}
+		for(Map.Entry<Pair<Family, Expression>, Expression> entry : parameterCountFromDataset.entrySet()) {
+			entry.setValue(actualValueOfCount(entry.getValue()));
+		}
+		weightOfNewDatapoints = Expressions.ONE;
+	}
+	
+	private Expression actualValueOfCount(Expression count) {
+		double actualValue = context.evaluate(Division.make(count, weightOfNewDatapoints)).doubleValue();
+		return Expressions.makeSymbol(actualValue);
+	}
+	
 	public LinkedHashSet<Family> getFamilies() {
 		return this.families;
 	}
@@ -332,13 +431,35 @@ public class ExpressionBayesianNode extends DefaultExpressionFactor implements B
 	}
 
 	private void incrementParameterCountByOne(Expression parameter, Family family) {
+		incrementParameterCount(parameter, family, Expressions.ONE);
+	}
+	
+	private void incrementParameterCount(Expression parameter, Family family, Expression increment) {
 		Pair<Family, Expression> familyAndParameter = new Pair<Family, Expression>(family, parameter);
 		Expression oldParameterCount = parameterCountFromDataset.get(familyAndParameter);
-		Expression newParameterCount = Plus.make(oldParameterCount, Expressions.ONE);
+		Expression newParameterCount = Plus.make(oldParameterCount, increment);
 		parameterCountFromDataset.put(familyAndParameter, newParameterCount);
 	}
 	
-	private Expression replaceVariablesByTheirValuesInAnExpression(Expression originalExpression, List<ExpressionVariable> variables, List<Expression> variableValues) {
+	/**
+	 * Finds the family of the parents values of a datapoint and the parameter its child and parents values make the expression equal to
+	 * 
+	 * @param childAndParentsValues
+	 * @param context the context in which evaluations are done
+	 * @return the pair (family, parameter)
+	 */
+	private Pair<Family, Expression> findFamilyAndParameterFor(List<? extends Object> childAndParentsValues, Context context) {
+		verifyIfInputHasExpectedTypeAndSize(childAndParentsValues);
+		LinkedList<Expression> parentsValues = extractParentsValuesFrom((List<Expression>) childAndParentsValues);
+		
+		Expression expressionEvaluation = replaceVariablesByTheirValuesInAnExpression(expression, allVariables, (List<Expression>) childAndParentsValues, context);		
+		expressionEvaluation = context.evaluate(expressionEvaluation);
+		
+		Family family = findCorrespondentFamilyFor(parentsValues, context);
+		return new Pair<Family, Expression>(family, expressionEvaluation);
+	}
+	
+	private Expression replaceVariablesByTheirValuesInAnExpression(Expression originalExpression, List<ExpressionVariable> variables, List<Expression> variableValues, Context context) {
 		if(variables.size() != variableValues.size()) {
 			throw new Error("The list for variables and the one for their values must have the same size");
 		}
@@ -356,9 +477,9 @@ public class ExpressionBayesianNode extends DefaultExpressionFactor implements B
 		return newExpression;
 	}
 
-	private Family findCorrespondentFamilyFor(LinkedList<Expression> parentsValues) {
+	private Family findCorrespondentFamilyFor(LinkedList<Expression> parentsValues, Context context) {
 		for(Family family : families) {
-			Expression familyConditionEvaluated = replaceVariablesByTheirValuesInAnExpression(family.condition, parents, parentsValues);
+			Expression familyConditionEvaluated = replaceVariablesByTheirValuesInAnExpression(family.condition, parents, parentsValues, context);
 			familyConditionEvaluated = context.evaluate(familyConditionEvaluated);
 			if(familyConditionEvaluated.equals(Expressions.TRUE)) {
 				return family;
@@ -376,12 +497,12 @@ public class ExpressionBayesianNode extends DefaultExpressionFactor implements B
 	 * The new Expression is a conjunction of successive IfThenElses to create a "switch-case" structure,
 	 * in which every case is the condition of a family and the result for that case is the original Expression with 
 	 * the parameters that can be generated by that family substituted by their learned values 
+	 * (this.expression itself keeps the original Expression, since it is needed to count new data)
 	 */
 	private void updateInnerExpressionWithTheLearnedParameters() {
 		Expression newExpression = generateSwitchCaseStructureFromFamiliesConditionsForFinalExpression();
 		
 		newExpression = context.evaluate(newExpression);
-		this.expression = newExpression;
 		this.setInnerExpression(newExpression);
 	}
 	
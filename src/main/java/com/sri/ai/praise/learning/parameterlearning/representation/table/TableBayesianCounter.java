@@ -0,0 +1,91 @@
+package com.sri.ai.praise.learning.parameterlearning.representation.table;
+
+import java.util.List;
+
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+import com.sri.ai.praise.learning.parameterlearning.representation.dataset.ColumnarDataset;
+
+/**
+ * Counts the child and parents assignments of several {@link TableBayesianNode}s in a {@link ColumnarDataset}
+ * in a single pass over its rows.
+ * <p>
+ * The columns and strides of each node's variables are resolved once, so that the entry index of a row's assignment
+ * is just the sum of its values times the strides (the same layout as the node's entries, child first).
+ *
+ */
+
+public class TableBayesianCounter {
+
+	private int numberOfNodes;
+	private int[][][] columnsForEachNode;
+	private int[][] stridesForEachNode;
+	private int[] numberOfEntriesForEachNode;
+
+	public TableBayesianCounter(List<? extends TableBayesianNode> nodes, ColumnarDataset dataset) {
+		this.numberOfNodes = nodes.size();
+		this.columnsForEachNode = new int[numberOfNodes][][];
+		this.stridesForEachNode = new int[numberOfNodes][];
+		this.numberOfEntriesForEachNode = new int[numberOfNodes];
+		for(int n = 0; n < numberOfNodes; n++) {
+			List<TableVariable> variables = nodes.get(n).getAllVariables();
+			int[][] columns = new int[variables.size()][];
+			int[] strides = new int[variables.size()];
+			int stride = 1;
+			for(int i = variables.size() - 1; i >= 0; i--) {
+				columns[i] = dataset.getColumn(variables.get(i));
+				strides[i] = stride;
+				stride *= variables.get(i).getCardinality();
+			}
+			columnsForEachNode[n] = columns;
+			stridesForEachNode[n] = strides;
+			numberOfEntriesForEachNode[n] = stride;
+		}
+	}
+
+	public int getNumberOfNodes() {
+		return numberOfNodes;
+	}
+
+	/**
+	 * Makes an array of zero counts for each node, with the size of its entries.
+	 */
+	public double[][] makeZeroCounts() {
+		double[][] counts = new double[numberOfNodes][];
+		for(int n = 0; n < numberOfNodes; n++) {
+			counts[n] = new double[numberOfEntriesForEachNode[n]];
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns the index, in the entries of the <code>n</code>-th node, of the assignment of its child and parents in the given row.
+	 */
+	public int getIndex(int n, int row) {
+		int[][] columns = columnsForEachNode[n];
+		int[] strides = stridesForEachNode[n];
+		int index = 0;
+		for(int i = 0; i < columns.length; i++) {
+			index += columns[i][row]*strides[i];
+		}
+		return index;
+	}
+
+	/**
+	 * Adds, to the counts of each node, one for the assignment of its child and parents in each row from <code>fromRow</code> (inclusive)
+	 * to <code>toRow</code> (exclusive).
+	 */
+	public void addCounts(int fromRow, int toRow, double[][] countsForEachNode) {
+		for(int row = fromRow; row < toRow; row++) {
+			for(int n = 0; n < numberOfNodes; n++) {
+				int[][] columns = columnsForEachNode[n];
+				int[] strides = stridesForEachNode[n];
+				int index = 0;
+				for(int i = 0; i < columns.length; i++) {
+					index += columns[i][row]*strides[i];
+				}
+				countsForEachNode[n][index]++;
+			}
+		}
+	}
+
+}
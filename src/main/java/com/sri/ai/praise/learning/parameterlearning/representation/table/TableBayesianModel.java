@@ -1,11 +1,20 @@
 package com.sri.ai.praise.learning.parameterlearning.representation.table;
 
+import static com.sri.ai.praise.learning.parameterlearning.ParallelParameterLearner.invokeAll;
+import static com.sri.ai.praise.learning.parameterlearning.ParallelParameterLearner.shardBoundaries;
 import static com.sri.ai.util.Util.list;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
 import com.sri.ai.praise.learning.parameterlearning.BayesianModel;
+import com.sri.ai.praise.learning.parameterlearning.Dataset;
+import com.sri.ai.praise.learning.parameterlearning.representation.dataset.ColumnarDataset;
 import com.sri.ai.praise.learning.parameterlearning.representation.expression.ExpressionBayesianModel;
 import com.sri.ai.praise.learning.parameterlearning.representation.expression.ExpressionBayesianNode;
 
@@ -22,6 +31,95 @@ public class TableBayesianModel extends TableFactorNetwork implements BayesianMo
 		return nodes;
 	}
 	
+	/**
+	 * For {@link ColumnarDataset}s, counts the assignments of all nodes in a single pass over the data
+	 * with a {@link TableBayesianCounter}; otherwise, learns each node separately as in {@link BayesianModel}.
+	 */
+	@Override
+	public TableBayesianModel learnModelParametersFromCompleteData(Dataset dataset) {
+		if(!(dataset instanceof ColumnarDataset)) {
+			return (TableBayesianModel) BayesianModel.super.learnModelParametersFromCompleteData(dataset);
+		}
+		ColumnarDataset columnarDataset = (ColumnarDataset) dataset;
+		TableBayesianModel learnedModel = this.copy();
+		double[][] countsForEachNode = learnedModel.setInitialCountsAndGetEntriesOfAllNodes();
+		TableBayesianCounter counter = new TableBayesianCounter(learnedModel.getNodes(), columnarDataset);
+		counter.addCounts(0, columnarDataset.getNumberOfRows(), countsForEachNode);
+		learnedModel.normalizeParametersOfAllNodes();
+		return learnedModel;
+	}
+	
+	/**
+	 * Splits the rows of the dataset in shards, each counted by a task with its own count arrays (for all nodes),
+	 * then adds the counts of all shards to the nodes' entries and normalizes them.
+	 * Datasets that are not {@link ColumnarDataset}s are first copied into one (which requires their values to be Integers).
+	 */
+	@Override
+	public TableBayesianModel learnModelParametersFromCompleteData(Dataset dataset, ExecutorService executor, int numberOfShards) {
+		ColumnarDataset columnarDataset = dataset instanceof ColumnarDataset? (ColumnarDataset) dataset : new ColumnarDataset(new ArrayList<>(getAllVariablesOfNodes()), dataset);
+		TableBayesianModel learnedModel = this.copy();
+		TableBayesianCounter counter = new TableBayesianCounter(learnedModel.getNodes(), columnarDataset);
+		int[] boundaries = shardBoundaries(columnarDataset.getNumberOfRows(), numberOfShards);
+		List<Callable<double[][]>> tasks = new ArrayList<>(boundaries.length - 1);
+		for(int shard = 0; shard < boundaries.length - 1; shard++) {
+			int fromRow = boundaries[shard];
+			int toRow = boundaries[shard + 1];
+			tasks.add(() -> {
+				double[][] countsOfShard = counter.makeZeroCounts();
+				counter.addCounts(fromRow, toRow, countsOfShard);
+				return countsOfShard;
+			});
+		}
+		List<double[][]> countsOfEachShard = invokeAll(executor, tasks);
+		
+		double[][] countsForEachNode = learnedModel.setInitialCountsAndGetEntriesOfAllNodes();
+		for(double[][] countsOfShard : countsOfEachShard) {
+			for(int n = 0; n < countsForEachNode.length; n++) {
+				double[] counts = countsForEachNode[n];
+				double[] countsOfNodeInShard = countsOfShard[n];
+				for(int i = 0; i < counts.length; i++) {
+					counts[i] += countsOfNodeInShard[i];
+				}
+			}
+		}
+		learnedModel.normalizeParametersOfAllNodes();
+		return learnedModel;
+	}
+	
+	/**
+	 * Copies the new data into a {@link ColumnarDataset} once, if it is not one already, before updating each node with it.
+	 */
+	@Override
+	public void updateModelParametersGivenNewData(Dataset newData, double decay) {
+		ColumnarDataset columnarData = newData instanceof ColumnarDataset? (ColumnarDataset) newData : new ColumnarDataset(new ArrayList<>(getAllVariablesOfNodes()), newData);
+		for(TableBayesianNode node : nodes) {
+			node.updateParametersGivenNewData(columnarData, decay);
+		}
+	}
+	
+	private double[][] setInitialCountsAndGetEntriesOfAllNodes() {
+		double[][] entriesForEachNode = new double[nodes.size()][];
+		for(int n = 0; n < nodes.size(); n++) {
+			nodes.get(n).setInitialCountsForAllPossibleChildAndParentsAssignments();
+			entriesForEachNode[n] = nodes.get(n).getEntriesArray();
+		}
+		return entriesForEachNode;
+	}
+	
+	private void normalizeParametersOfAllNodes() {
+		for(TableBayesianNode node : nodes) {
+			node.normalizeParameters();
+		}
+	}
+	
+	private LinkedHashSet<TableVariable> getAllVariablesOfNodes() {
+		LinkedHashSet<TableVariable> variables = new LinkedHashSet<>();
+		for(TableBayesianNode node : nodes) {
+			variables.addAll(node.getAllVariables());
+		}
+		return variables;
+	}
+	
 	@Override
 	public TableBayesianModel copy() {
 		List<TableBayesianNode> copiedNodes = list();
@@ -1,19 +1,20 @@
 package com.sri.ai.praise.learning.parameterlearning.representation.table;
 
+import static com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor.numEntries;
 import static com.sri.ai.util.Util.arrayList;
-import static com.sri.ai.util.Util.list;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
 import com.sri.ai.praise.learning.parameterlearning.BayesianNode;
+import com.sri.ai.praise.learning.parameterlearning.Dataset;
+import com.sri.ai.praise.learning.parameterlearning.representation.dataset.ColumnarDataset;
 
 /**
  * Implementation of Bayesian nodes based on Tables
@@ -28,6 +29,15 @@ public class TableBayesianNode extends TableFactor implements BayesianNode {
 	private ArrayList<TableVariable> parents;
 	private ArrayList<TableVariable> allVariables;
 	
+	/**
+	 * Above this weight for new datapoints, counts are brought back to their actual values,
+	 * so that repeated decay does not overflow them.
+	 */
+	private static final double MAXIMUM_WEIGHT_OF_NEW_DATAPOINTS = 1e100;
+	
+	private double[] counts; // the counts from which the parameters were normalized, times weightOfNewDatapoints (null if parameters were never learned)
+	private double weightOfNewDatapoints;
+	
 	public TableBayesianNode(TableVariable child) {
 		super(arrayList(child));
 		this.child = child;
@@ -57,6 +67,24 @@ public class TableBayesianNode extends TableFactor implements BayesianNode {
 		return allVariables;
 	}
 
+	/**
+	 * For {@link ColumnarDataset}s, counts directly into the entries with a {@link TableBayesianCounter};
+	 * otherwise, counts each datapoint as in {@link BayesianNode#setParametersGivenCompleteData(Dataset)}.
+	 */
+	@Override
+	public void setParametersGivenCompleteData(Dataset dataset) {
+		if(dataset instanceof ColumnarDataset) {
+			ColumnarDataset columnarDataset = (ColumnarDataset) dataset;
+			this.setInitialCountsForAllPossibleChildAndParentsAssignments();
+			TableBayesianCounter counter = new TableBayesianCounter(arrayList(this), columnarDataset);
+			counter.addCounts(0, columnarDataset.getNumberOfRows(), new double[][] { this.getEntriesArray() });
+			this.normalizeParameters();
+		}
+		else {
+			BayesianNode.super.setParametersGivenCompleteData(dataset);
+		}
+	}
+
 	@Override
 	public void setInitialCountsForAllPossibleChildAndParentsAssignments() {
 		this.reinitializeEntries(1.0); // the initial count is 1 for all possible childAndParentsAssignments
@@ -65,45 +93,112 @@ public class TableBayesianNode extends TableFactor implements BayesianNode {
 	@Override
 	public void incrementCountForChildAndParentsAssignment(List<? extends Object> childAndParentsValues) {
 		verifyIfInputHasExpectedTypeAndSize(childAndParentsValues);
-		incrementCountForThatParameter((List<Integer>) childAndParentsValues);
+		incrementCountForThatParameter(toIntArray(childAndParentsValues));
 	}
 	
+	/**
+	 * Since the child is the first variable of the factor, the entries for a given parents assignment
+	 * are found at a fixed stride (the number of parents assignments) from each other, starting at the
+	 * index of that parents assignment; this allows normalization to be done directly on the entries array.
+	 * The counts are kept for later {@link #updateParametersGivenNewData(Dataset, double)}.
+	 */
 	@Override
 	public void normalizeParameters() {
-		List<ArrayList<Integer>> allPossibleParentsAssignments = getAllPossibleVariablesAssignments(parents);
-		for(ArrayList<Integer> parentsAssignment : allPossibleParentsAssignments) {
-			double countForThatParentsAssignment = getCountForThatParentsAssignment(parentsAssignment);
-			
-			List<Integer> childAndParentsAssignment = mergeElementsIntoOneList(0, parentsAssignment);
-			for(int childAssignment : (List<Integer>) child.getValues()) {
-				childAndParentsAssignment.set(0, childAssignment);
-				double currentParamenterValue = this.getEntryFor(childAndParentsAssignment);
-				double newParameterValue = currentParamenterValue / countForThatParentsAssignment;
-				this.setEntryFor(childAndParentsAssignment, newParameterValue);
-			}
+		double[] entries = this.getEntriesArray();
+		this.counts = entries.clone();
+		this.weightOfNewDatapoints = 1.0;
+		int numberOfParentsAssignments = numEntries(parents);
+		for(int parentsAssignmentIndex = 0; parentsAssignmentIndex < numberOfParentsAssignments; parentsAssignmentIndex++) {
+			normalizeParentsAssignment(parentsAssignmentIndex, numberOfParentsAssignments, counts, entries);
+		}
+	}
+	
+	/**
+	 * Adds the new datapoints to the counts and normalizes again only the parents assignments they fall on.
+	 */
+	@Override
+	public void updateParametersGivenNewData(Dataset newData, double decay) {
+		if(decay <= 0.0 || decay > 1.0) {
+			throw new Error("Decay must be in (0, 1], but is " + decay);
+		}
+		if(counts == null) {
+			this.setInitialCountsForAllPossibleChildAndParentsAssignments();
+			this.normalizeParameters();
+		}
+		weightOfNewDatapoints /= decay;
+		if(weightOfNewDatapoints > MAXIMUM_WEIGHT_OF_NEW_DATAPOINTS) {
+			bringCountsBackToTheirActualValues();
+		}
+		
+		ColumnarDataset columnarData = newData instanceof ColumnarDataset? (ColumnarDataset) newData : new ColumnarDataset(allVariables, newData);
+		TableBayesianCounter counter = new TableBayesianCounter(arrayList(this), columnarData);
+		int numberOfParentsAssignments = numEntries(parents);
+		BitSet affectedParentsAssignments = new BitSet();
+		for(int row = 0; row < columnarData.getNumberOfRows(); row++) {
+			int index = counter.getIndex(0, row);
+			counts[index] += weightOfNewDatapoints;
+			affectedParentsAssignments.set(index % numberOfParentsAssignments);
+		}
+		
+		double[] entries = this.getEntriesArray();
+		for(int parentsAssignmentIndex = affectedParentsAssignments.nextSetBit(0); parentsAssignmentIndex >= 0; parentsAssignmentIndex = affectedParentsAssignments.nextSetBit(parentsAssignmentIndex + 1)) {
+			normalizeParentsAssignment(parentsAssignmentIndex, numberOfParentsAssignments, counts, entries);
 		}
 	}
 	
+	/**
+	 * Returns a copy of the (decayed) counts from which the parameters were computed, in the same order as the entries,
+	 * or null if the parameters were never learned.
+	 */
+	public double[] getCounts() {
+		if(counts == null) {
+			return null;
+		}
+		double[] actualCounts = new double[counts.length];
+		for(int i = 0; i < counts.length; i++) {
+			actualCounts[i] = counts[i]/weightOfNewDatapoints;
+		}
+		return actualCounts;
+	}
+	
 	@Override
 	public TableBayesianNode copy() {
 		TableBayesianNode copy = new TableBayesianNode(this.child, this.parents);
 		return copy;
 	}
 	
-	private List<ArrayList<Integer>> getAllPossibleVariablesAssignments(ArrayList<TableVariable> variables) {
-		List<ArrayList<Integer>> allPossibleVariablesAssignments = list();
-		Iterator<ArrayList<Integer>> iteratorForParentsAssignments = TableFactor.getCartesianProduct(variables);
-		while(iteratorForParentsAssignments.hasNext()) {
-			allPossibleVariablesAssignments.add(iteratorForParentsAssignments.next());
+	private void normalizeParentsAssignment(int parentsAssignmentIndex, int numberOfParentsAssignments, double[] counts, double[] entries) {
+		int childCardinality = child.getCardinality();
+		double countForThatParentsAssignment = 0.0;
+		for(int childAssignment = 0; childAssignment < childCardinality; childAssignment++) {
+			countForThatParentsAssignment += counts[childAssignment*numberOfParentsAssignments + parentsAssignmentIndex];
+		}
+		for(int childAssignment = 0; childAssignment < childCardinality; childAssignment++) {
+			int index = childAssignment*numberOfParentsAssignments + parentsAssignmentIndex;
+			entries[index] = counts[index]/countForThatParentsAssignment;
 		}
-		
-		return allPossibleVariablesAssignments;
 	}
 	
-	private void incrementCountForThatParameter(List<Integer> childAndParentsAssignment) {
+	private void bringCountsBackToTheirActualValues() {
+		for(int i = 0; i < counts.length; i++) {
+			counts[i] /= weightOfNewDatapoints;
+		}
+		weightOfNewDatapoints = 1.0;
+	}
+	
+	private void incrementCountForThatParameter(int[] childAndParentsAssignment) {
 		double newParameterValue = this.getEntryFor(childAndParentsAssignment) + 1;
 		this.setEntryFor(childAndParentsAssignment, newParameterValue);
 	}
+	
+	private static int[] toIntArray(List<? extends Object> values) {
+		int[] result = new int[values.size()];
+		int i = 0;
+		for(Object value : values) {
+			result[i++] = (Integer) value;
+		}
+		return result;
+	}
 
 	private void verifyIfInputHasExpectedTypeAndSize(List<? extends Object> childAndParentsValues) throws Error {
 		boolean valuesAreIntegers = childAndParentsValues.isEmpty() || childAndParentsValues.get(0) instanceof Integer;
@@ -115,17 +210,6 @@ public class TableBayesianNode extends TableFactor implements BayesianNode {
 		}
 	}
 	
-	private double getCountForThatParentsAssignment(ArrayList<Integer> parentsAssignment) {
-		double countForThatParentsAssignment = 0.0;
-		List<Integer> childAndParentsAssignment = mergeElementsIntoOneList(0, parentsAssignment);
-		for(int childAssignment : (List<Integer>) child.getValues()) {
-			childAndParentsAssignment.set(0, childAssignment);
-			double countForThatChildAndParentsAssignment = this.getEntryFor(childAndParentsAssignment);
-			countForThatParentsAssignment += countForThatChildAndParentsAssignment;
-		}
-		return countForThatParentsAssignment;
-	}
-	
 	private static <T> ArrayList<T> mergeElementsIntoOneList(T firstElement, Collection<T> otherElements) {
 		ArrayList<T> allElements = new ArrayList<>(otherElements.size() + 1);
 		allElements.add(firstElement);
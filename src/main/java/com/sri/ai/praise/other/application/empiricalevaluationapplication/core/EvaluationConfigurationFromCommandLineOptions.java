@@ -34,6 +34,12 @@ public class EvaluationConfigurationFromCommandLineOptions extends EvaluationCon
 	public OptionSpec<Integer> totalCPURuntimeLimitSecondsPerSolveAttempt;
 	public OptionSpec<Integer> totalMemoryLimitInMegabytesPerSolveAttempt;
 	public OptionSpec<Integer> numberRunsToAverageOver;
+	public OptionSpec<Integer> numberOfSolverWorkers;
+	public OptionSpec<Integer> numberOfWarmUpRunsPerProblem;
+	public OptionSpec<File> baselineFile;
+	public OptionSpec<Integer> regressionTolerancePercentage;
+	public OptionSpec<Integer> numberOfParallelSolveAttempts;
+	public OptionSpec<File> checkpointFile;
 	public OptionSpec<File> workingDirectory;
 
 	public EvaluationConfigurationFromCommandLineOptions(String args[]) throws FileNotFoundException, IOException {
@@ -74,6 +80,36 @@ public class EvaluationConfigurationFromCommandLineOptions extends EvaluationCon
 						"Number of runs to average each result over (defaults to "
 								+ getNumberOfRunsToAverageOver() + ").")
 				.withRequiredArg().ofType(Integer.class);
+		numberOfWarmUpRunsPerProblem = parser
+				.accepts("u",
+						"Number of warm-up runs of each solver on each problem, whose times are discarded (defaults to "
+								+ getNumberOfWarmUpRunsPerProblem() + ").")
+				.withRequiredArg().ofType(Integer.class);
+		parser.accepts("d",
+				"Report the inference time of every run and their median, 90th percentile, standard deviation and 95% confidence interval");
+		baselineFile = parser
+				.accepts("b", "CSV file output by a previous evaluation, against which inference time regressions are flagged.")
+				.withRequiredArg().ofType(File.class);
+		regressionTolerancePercentage = parser
+				.accepts("p",
+						"Percentage by which the mean inference time must exceed the baseline's to be flagged as a regression (defaults to "
+								+ Math.round(getRegressionTolerance()*100) + ").")
+				.withRequiredArg().ofType(Integer.class);
+		numberOfSolverWorkers = parser
+				.accepts("k",
+						"Number of long-lived worker processes kept by each solver supporting them, instead of a new process per solve attempt (defaults to "
+								+ getNumberOfSolverWorkers() + ", i.e., a new process per solve attempt).")
+				.withRequiredArg().ofType(Integer.class);
+		numberOfParallelSolveAttempts = parser
+				.accepts("j",
+						"Number of (problem, solver) pairs to evaluate concurrently (defaults to "
+								+ getNumberOfParallelSolveAttempts() + ").")
+				.withRequiredArg().ofType(Integer.class);
+		parser.accepts("i",
+				"Isolate concurrent solve attempts by running each on its own processor (at most one per available processor)");
+		checkpointFile = parser
+				.accepts("o", "Checkpoint file recording evaluated problems, from which an interrupted evaluation is resumed.")
+				.withRequiredArg().ofType(File.class);
 		parser.accepts("t",
 				"Translate models always, instead of caching them between runs (default behavior is caching)");
 
@@ -121,6 +157,38 @@ public class EvaluationConfigurationFromCommandLineOptions extends EvaluationCon
 			setNumberOfRunsToAverageOver(optionSet.valueOf(numberRunsToAverageOver));
 		}
 		
+		if (optionSet.has(numberOfWarmUpRunsPerProblem)) {
+			setNumberOfWarmUpRunsPerProblem(optionSet.valueOf(numberOfWarmUpRunsPerProblem));
+		}
+		
+		if (optionSet.has("d")) {
+			setReportsTimeStatistics(true);
+		}
+		
+		if (optionSet.has(baselineFile)) {
+			setBaselineFile(optionSet.valueOf(baselineFile));
+		}
+		
+		if (optionSet.has(regressionTolerancePercentage)) {
+			setRegressionTolerance(optionSet.valueOf(regressionTolerancePercentage)/100.0);
+		}
+		
+		if (optionSet.has(numberOfSolverWorkers)) {
+			setNumberOfSolverWorkers(optionSet.valueOf(numberOfSolverWorkers));
+		}
+		
+		if (optionSet.has(numberOfParallelSolveAttempts)) {
+			setNumberOfParallelSolveAttempts(optionSet.valueOf(numberOfParallelSolveAttempts));
+		}
+		
+		if (optionSet.has("i")) {
+			setPinsSolveAttemptsToProcessors(true);
+		}
+		
+		if (optionSet.has(checkpointFile)) {
+			setCheckpointFile(optionSet.valueOf(checkpointFile));
+		}
+		
 		if (optionSet.has("t")) {
 			setDoesNotCacheTranslations(true);
 		}
@@ -0,0 +1,133 @@
+package com.sri.ai.praise.other.application.praise.commandline;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.google.common.annotations.Beta;
+import com.sri.ai.expresso.ExpressoConfiguration;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.parsing.HOGMProblemError;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.solver.HOGMMultiQueryProblemSolver;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.solver.HOGMProblemResult;
+import com.sri.ai.praise.core.inference.externalprocesssolver.core.praise.PRAiSESolverWorkerPool;
+
+/**
+ * A long-lived process solving HOGM queries received on its standard input,
+ * so that {@link PRAiSESolverWorkerPool} pays for JVM startup, class loading and JIT warm-up only once per worker
+ * rather than once per query as {@link PRAiSE} does.
+ * <p>
+ * Requests and responses are framed with {@link DataOutputStream} primitives, strings being written as
+ * their number of UTF-8 bytes followed by the bytes:
+ * <ul>
+ * <li> once started, the worker writes {@link #READY};
+ * <li> a request is {@link #SOLVE_REQUEST} followed by the model and query strings,
+ * or {@link #SHUTDOWN_REQUEST} (the end of the input also shuts the worker down);
+ * <li> a response is {@link #RESULT_RESPONSE} followed by the (simplified) answer as printed by {@link PRAiSE},
+ * or {@link #ERROR_RESPONSE} followed by the error messages, in both cases followed by the milliseconds taken.
+ * </ul>
+ * Anything written to the standard output by the solver itself is redirected to the standard error,
+ * which is left to the launching process.
+ * After an {@link OutOfMemoryError} the worker responds with an error and exits, so that it gets replaced.
+ *
+ */
+@Beta
+public class PRAiSEWorker {
+
+	public static final int READY            = 0x50524149;
+	public static final int SOLVE_REQUEST    = 1;
+	public static final int SHUTDOWN_REQUEST = 2;
+	public static final int RESULT_RESPONSE  = 3;
+	public static final int ERROR_RESPONSE   = 4;
+
+	public static void main(String[] args) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+		System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.err), true));
+		ExpressoConfiguration.setDisplayNumericsExactlyForSymbols(false);
+		ExpressoConfiguration.setDisplayNumericsMostDecimalPlacesInApproximateRepresentationOfNumericalSymbols(3);
+		out.writeInt(READY);
+		out.flush();
+		serve(in, out);
+	}
+
+	private static void serve(DataInputStream in, DataOutputStream out) throws IOException {
+		while (true) {
+			int request;
+			try {
+				request = in.readInt();
+			}
+			catch (EOFException endOfInput) {
+				return;
+			}
+			if (request == SHUTDOWN_REQUEST) {
+				return;
+			}
+			else if (request != SOLVE_REQUEST) {
+				throw new IOException("Unknown request " + request);
+			}
+			String model = readString(in);
+			String query = readString(in);
+			boolean outOfMemory = false;
+			long start = System.currentTimeMillis();
+			int response;
+			String text;
+			try {
+				HOGMMultiQueryProblemSolver solver = new HOGMMultiQueryProblemSolver(model, query);
+				HOGMProblemResult result = solver.getResults().get(0);
+				if (result.getResult() != null) {
+					response = RESULT_RESPONSE;
+					text = solver.simplifyAnswer(result.getResult(), result.getQueryExpression()).toString();
+				}
+				else {
+					response = ERROR_RESPONSE;
+					text = errorMessages(result.getErrors());
+				}
+			}
+			catch (OutOfMemoryError error) {
+				outOfMemory = true;
+				response = ERROR_RESPONSE;
+				text = error.toString();
+			}
+			catch (Throwable throwable) {
+				response = ERROR_RESPONSE;
+				text = throwable.toString();
+			}
+			out.writeInt(response);
+			writeString(text, out);
+			out.writeLong(System.currentTimeMillis() - start);
+			out.flush();
+			if (outOfMemory) {
+				return;
+			}
+		}
+	}
+
+	private static String errorMessages(List<HOGMProblemError> errors) {
+		StringBuilder result = new StringBuilder();
+		for (HOGMProblemError error : errors) {
+			result.append("ERROR = ").append(error.getErrorMessage()).append("\n");
+		}
+		return result.toString();
+	}
+
+	public static void writeString(String string, DataOutputStream out) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	public static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -38,11 +38,15 @@
 package com.sri.ai.praise.other.application.translation;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Stopwatch;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModel;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIModelBinaryFormat;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIModelReader;
 import com.sri.ai.praise.core.representation.interfacebased.factor.api.ModelLanguage;
 import com.sri.ai.praise.core.representation.translation.ciaranframework.api.Translator;
 import com.sri.ai.praise.core.representation.translation.ciaranframework.api.TranslatorOptions;
@@ -50,6 +54,10 @@ import com.sri.ai.praise.core.representation.translation.ciaranframework.core.Tr
 
 /**
  * Command Line Interface (CLI) for performing a set of translations.
+ * <p>
+ * When the first argument is {@value #UAI_TO_BINARY}, the <code>.uai</code> files of the directory
+ * (or the single file) given as second argument are instead converted to the {@link UAIModelBinaryFormat},
+ * in the directory given as third argument (by default, the source directory).
  * 
  * @author oreilly
  *
@@ -57,6 +65,8 @@ import com.sri.ai.praise.core.representation.translation.ciaranframework.core.Tr
 @Beta
 public class Translate {
 	
+	public static final String UAI_TO_BINARY = "--uai-to-binary";
+	
 	static class TranslationArgs {
 		File             rootModelOutputDirectory;
 		List<Translator> translators = new ArrayList<>();
@@ -69,6 +79,11 @@ public class Translate {
 	 *        pass '--help' to see description of expected program arguments.
 	 */
 	public static void main(String[] args) {
+		if (args.length > 0 && UAI_TO_BINARY.equals(args[0])) {
+			translateUAIToBinary(args);
+			return;
+		}
+		
 		TranslationArgs translationArgs = getArgs(args);
 
 		for (Translator translator : translationArgs.translators) {
@@ -107,6 +122,46 @@ public class Translate {
 		}
 	}
 	
+	/**
+	 * Converts a <code>.uai</code> file to the {@link UAIModelBinaryFormat}, returning the converted file.
+	 */
+	public static File translateUAIToBinary(File uaiFile, File targetDirectory) throws IOException {
+		String name = uaiFile.getName();
+		if (name.endsWith(".uai")) {
+			name = name.substring(0, name.length() - ".uai".length());
+		}
+		File result = new File(targetDirectory, name + UAIModelBinaryFormat.FILE_EXTENSION);
+		UAIModel model = UAIModelReader.read(uaiFile);
+		UAIModelBinaryFormat.write(model, result);
+		return result;
+	}
+	
+	private static void translateUAIToBinary(String[] args) {
+		if (args.length < 2) {
+			throw new IllegalArgumentException("Usage: "+UAI_TO_BINARY+" <.uai file or directory> [<target directory>]");
+		}
+		File source = new File(args[1]);
+		File[] uaiFiles = source.isDirectory()? source.listFiles((dir, name) -> name.endsWith(".uai")) : new File[] { source };
+		File targetDirectory = args.length > 2? new File(args[2]) : (source.isDirectory()? source : source.getAbsoluteFile().getParentFile());
+		if (!targetDirectory.isDirectory()) {
+			targetDirectory.mkdirs();
+		}
+		
+		for (File uaiFile : uaiFiles) {
+			System.out.println("Translating "+uaiFile.getName()+" to binary format");
+			Stopwatch sw = Stopwatch.createStarted();
+			try {
+				File binaryFile = translateUAIToBinary(uaiFile, targetDirectory);
+				sw.stop();
+				System.out.println("Took "+sw.toString()+", "+uaiFile.length()+" bytes to "+binaryFile.length()+" bytes");
+			}
+			catch (Exception ex) {
+				System.err.println("Error during translation of "+uaiFile);
+				ex.printStackTrace();
+			}
+		}
+	}
+	
 	private static TranslationArgs getArgs(String[] args) {
 		TranslationArgs result = new TranslationArgs();
 // TODO - get values from the command line arguments, e.g:
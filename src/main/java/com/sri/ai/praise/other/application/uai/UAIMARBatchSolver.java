@@ -0,0 +1,442 @@
+package com.sri.ai.praise.other.application.uai;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.Beta;
+import com.sri.ai.grinder.api.Theory;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModel;
+
+/**
+ * Solves the MAR task on many UAI models concurrently (see {@link UAIMARSolver}),
+ * with a budget of threads and of memory, and collects the outcome and solving time of each model.
+ * <p>
+ * Models are admitted in the given order as soon as there is a free thread
+ * and their estimated memory (proportional to {@link UAIModel#totalNumberEntriesForAllFunctionTables()}) fits in what is left of the budget;
+ * a model that does not fit is passed over by smaller ones after it, and runs alone if it exceeds the whole budget.
+ * <p>
+ * A model taking longer than the timeout is interrupted (both its solver and its thread, which stops
+ * {@link com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.junctiontree.core.JunctionTree} computations
+ * between table operations), and its thread and memory are given back to the budget as soon as it stops or,
+ * if it does not respond to the interruption, after a grace period (its thread, a daemon, being then abandoned).
+ * <p>
+ * The outcomes can be written as a JSON or CSV summary with {@link #writeSummary(File, List)}.
+ */
+@Beta
+public class UAIMARBatchSolver {
+
+	/**
+	 * The default estimate of the bytes used per table entry while solving, accounting for the tables themselves
+	 * (8 bytes per entry) and the conditioned copies and products made from them.
+	 */
+	public static final long DEFAULT_BYTES_PER_TABLE_ENTRY = 32;
+
+	public static final long DEFAULT_GRACE_PERIOD_IN_MILLISECONDS = 5000;
+
+	public static enum Status {
+		/** the computed marginals match the solution (or were computed, if there is no solution) */
+		SOLVED,
+		/** the computed marginals do not match the solution, or solving was skipped or interrupted */
+		UNSOLVED,
+		TIMED_OUT,
+		/** solving threw an exception */
+		FAILED
+	}
+
+	/**
+	 * The outcome of solving one model.
+	 */
+	public static class Result {
+		private String name;
+		private Status status;
+		private long millisecondsToCompute;
+		private int numberOfVariables;
+		private long totalNumberOfTableEntries;
+		private long estimatedMemoryInBytes;
+		private String message;
+
+		public Result(String name, Status status, long millisecondsToCompute, int numberOfVariables, long totalNumberOfTableEntries, long estimatedMemoryInBytes, String message) {
+			this.name = name;
+			this.status = status;
+			this.millisecondsToCompute = millisecondsToCompute;
+			this.numberOfVariables = numberOfVariables;
+			this.totalNumberOfTableEntries = totalNumberOfTableEntries;
+			this.estimatedMemoryInBytes = estimatedMemoryInBytes;
+			this.message = message;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		public long getMillisecondsToCompute() {
+			return millisecondsToCompute;
+		}
+
+		public int getNumberOfVariables() {
+			return numberOfVariables;
+		}
+
+		public long getTotalNumberOfTableEntries() {
+			return totalNumberOfTableEntries;
+		}
+
+		public long getEstimatedMemoryInBytes() {
+			return estimatedMemoryInBytes;
+		}
+
+		/**
+		 * The reason of a failure or abandoned timeout, or null.
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-25s %-9s %12sms.", name, status, millisecondsToCompute);
+		}
+	}
+
+	private int numberOfThreads;
+	private int maxSolverTimeInSeconds;
+	private Theory theory;
+	private long memoryBudgetInBytes = Runtime.getRuntime().maxMemory()/4*3;
+	private long bytesPerTableEntry = DEFAULT_BYTES_PER_TABLE_ENTRY;
+	private long gracePeriodInMilliseconds = DEFAULT_GRACE_PERIOD_IN_MILLISECONDS;
+	private File marOutputDirectory = null;
+
+	private int numberOfRunningJobs;
+	private long memoryInUse;
+
+	/**
+	 * Makes a batch solver using up to <code>numberOfThreads</code> threads, giving each model up to <code>maxSolverTimeInSeconds</code> seconds
+	 * (no limit if not positive), and solving symbolically with the given theory or, if it is null, numerically with tables.
+	 */
+	public UAIMARBatchSolver(int numberOfThreads, int maxSolverTimeInSeconds, Theory theory) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("Number of threads must be at least 1 but is " + numberOfThreads);
+		}
+		this.numberOfThreads = numberOfThreads;
+		this.maxSolverTimeInSeconds = maxSolverTimeInSeconds;
+		this.theory = theory;
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * Sets the memory that models solved at the same time may use together, according to their estimates
+	 * (three quarters of the maximum heap by default).
+	 */
+	public void setMemoryBudgetInBytes(long memoryBudgetInBytes) {
+		this.memoryBudgetInBytes = memoryBudgetInBytes;
+	}
+
+	public long getMemoryBudgetInBytes() {
+		return memoryBudgetInBytes;
+	}
+
+	/**
+	 * Sets the bytes estimated per table entry of a model (by default {@link #DEFAULT_BYTES_PER_TABLE_ENTRY}).
+	 */
+	public void setBytesPerTableEntry(long bytesPerTableEntry) {
+		this.bytesPerTableEntry = bytesPerTableEntry;
+	}
+
+	/**
+	 * Sets how long a timed-out model has to respond to its interruption before its thread is abandoned.
+	 */
+	public void setGracePeriodInMilliseconds(long gracePeriodInMilliseconds) {
+		this.gracePeriodInMilliseconds = gracePeriodInMilliseconds;
+	}
+
+	/**
+	 * Sets a directory where the computed marginals of each model are written, as <code>&lt;name&gt;.MAR</code>
+	 * (null, the default, for not writing them).
+	 */
+	public void setMARResultDirectory(File marOutputDirectory) {
+		this.marOutputDirectory = marOutputDirectory;
+	}
+
+	public long estimateMemoryInBytes(UAIModel model) {
+		return (long) model.totalNumberEntriesForAllFunctionTables()*bytesPerTableEntry;
+	}
+
+	/**
+	 * Makes the task solving a model, which returns whether the model was solved.
+	 * Timed-out tasks have their thread interrupted (and, for the tasks made here, their solver as well).
+	 */
+	protected Callable<Boolean> makeTask(String name, UAIModel model, File marOutputFile) {
+		return new UAIMARSolver.SolverTask(model, model.getEvidence(), model.getMARSolution(), theory, marOutputFile);
+	}
+
+	/**
+	 * Solves the given models (with their own evidence, compared to their own MAR solution),
+	 * returning their outcomes in the same order.
+	 */
+	public List<Result> solve(Map<String, UAIModel> namedModels) {
+		List<Job> jobs = new ArrayList<>();
+		for (Map.Entry<String, UAIModel> entry : namedModels.entrySet()) {
+			jobs.add(new Job(entry.getKey(), entry.getValue()));
+		}
+
+		ExecutorService threads = Executors.newCachedThreadPool(daemonThreads("UAI MAR solver"));
+		ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("UAI MAR solver timer"));
+		try {
+			List<Job> pending = new ArrayList<>(jobs);
+			int count = 1;
+			while (!pending.isEmpty()) {
+				Job job = admitNext(pending);
+				System.out.println("Starting to Solve: "+job.name+" ("+(count++)+" of "+jobs.size()+")");
+				job.start(threads, timer);
+			}
+			waitForRunningJobs();
+		}
+		catch (InterruptedException interruption) {
+			Thread.currentThread().interrupt();
+			for (Job job : jobs) {
+				job.interrupt();
+			}
+		}
+		finally {
+			timer.shutdownNow();
+			threads.shutdownNow();
+		}
+
+		List<Result> result = new ArrayList<>(jobs.size());
+		for (Job job : jobs) {
+			result.add(job.getResult());
+		}
+		return result;
+	}
+
+	/**
+	 * Waits for a free thread and removes from the pending jobs, and returns, the first one whose memory estimate fits in the budget
+	 * (or the first one, if there are no running jobs).
+	 */
+	private synchronized Job admitNext(List<Job> pending) throws InterruptedException {
+		while (true) {
+			if (numberOfRunningJobs < numberOfThreads) {
+				for (Iterator<Job> iterator = pending.iterator(); iterator.hasNext(); ) {
+					Job job = iterator.next();
+					if (numberOfRunningJobs == 0 || memoryInUse + job.estimatedMemoryInBytes <= memoryBudgetInBytes) {
+						iterator.remove();
+						numberOfRunningJobs++;
+						memoryInUse += job.estimatedMemoryInBytes;
+						return job;
+					}
+				}
+			}
+			wait();
+		}
+	}
+
+	private synchronized void release(Job job) {
+		numberOfRunningJobs--;
+		memoryInUse -= job.estimatedMemoryInBytes;
+		notifyAll();
+	}
+
+	private synchronized void waitForRunningJobs() throws InterruptedException {
+		while (numberOfRunningJobs > 0) {
+			wait();
+		}
+	}
+
+	private class Job {
+		private String name;
+		private UAIModel model;
+		private long estimatedMemoryInBytes;
+		private Callable<Boolean> task;
+		private Future<?> future;
+		private ScheduledFuture<?> timeout;
+		private long start;
+		private volatile boolean timedOut = false;
+		private Result result = null;
+
+		public Job(String name, UAIModel model) {
+			this.name = name;
+			this.model = model;
+			this.estimatedMemoryInBytes = estimateMemoryInBytes(model);
+		}
+
+		public void start(ExecutorService threads, ScheduledExecutorService timer) {
+			File marOutputFile = marOutputDirectory == null ? null : new File(marOutputDirectory, name+".MAR");
+			task = makeTask(name, model, marOutputFile);
+			start = System.currentTimeMillis();
+			synchronized (this) {
+				future = threads.submit(this::run);
+				if (maxSolverTimeInSeconds > 0) {
+					timeout = timer.schedule(() -> timeOut(timer), maxSolverTimeInSeconds, TimeUnit.SECONDS);
+				}
+			}
+		}
+
+		private void run() {
+			Status status;
+			String message = null;
+			try {
+				status = task.call() ? Status.SOLVED : Status.UNSOLVED;
+			}
+			catch (Throwable throwable) {
+				status = Status.FAILED;
+				message = throwable.getMessage() == null ? throwable.getClass().getName() : throwable.getMessage();
+			}
+			finish(timedOut ? Status.TIMED_OUT : status, timedOut ? null : message);
+		}
+
+		private void timeOut(ScheduledExecutorService timer) {
+			System.out.println("Timeout occurred on "+name+", interrupting solver.");
+			timedOut = true;
+			interrupt();
+			timer.schedule(() -> finish(Status.TIMED_OUT, "Did not stop within " + gracePeriodInMilliseconds + " ms of being interrupted"), gracePeriodInMilliseconds, TimeUnit.MILLISECONDS);
+		}
+
+		public synchronized void interrupt() {
+			if (future != null && result == null) {
+				if (task instanceof UAIMARSolver.SolverTask) {
+					((UAIMARSolver.SolverTask) task).interrupt();
+				}
+				future.cancel(true);
+			}
+		}
+
+		/**
+		 * Records the outcome and gives the job's thread and memory back to the budget, unless already done.
+		 */
+		private void finish(Status status, String message) {
+			synchronized (this) {
+				if (result != null) {
+					return;
+				}
+				result = new Result(name, status, System.currentTimeMillis() - start, model.numberVariables(), model.totalNumberEntriesForAllFunctionTables(), estimatedMemoryInBytes, message);
+				if (timeout != null) {
+					timeout.cancel(false);
+				}
+			}
+			System.out.println("---- "+name+" took "+result.getMillisecondsToCompute()+"ms. status="+status);
+			release(this);
+		}
+
+		public synchronized Result getResult() {
+			if (result == null) { // interrupted before finishing
+				return new Result(name, Status.UNSOLVED, task == null ? 0 : System.currentTimeMillis() - start, model.numberVariables(), model.totalNumberEntriesForAllFunctionTables(), estimatedMemoryInBytes, "Batch interrupted");
+			}
+			return result;
+		}
+	}
+
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+	// SUMMARY //////////////////////////////////////////////////////////////////////////////////////////
+	/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Writes the results as JSON if the file name ends with <code>.json</code>, or as CSV otherwise.
+	 */
+	public static void writeSummary(File file, List<Result> results) throws IOException {
+		try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+			if (file.getName().toLowerCase().endsWith(".json")) {
+				writeJSON(writer, results);
+			}
+			else {
+				writeCSV(writer, results);
+			}
+		}
+	}
+
+	/**
+	 * Writes the results as a JSON array with an object per model.
+	 */
+	public static void writeJSON(Writer writer, List<Result> results) throws IOException {
+		writer.write("[\n");
+		for (int i = 0; i != results.size(); i++) {
+			Result result = results.get(i);
+			writer.write("  {");
+			writer.write("\"name\": " + jsonString(result.getName()));
+			writer.write(", \"status\": " + jsonString(result.getStatus().name()));
+			writer.write(", \"milliseconds\": " + result.getMillisecondsToCompute());
+			writer.write(", \"variables\": " + result.getNumberOfVariables());
+			writer.write(", \"tableEntries\": " + result.getTotalNumberOfTableEntries());
+			writer.write(", \"estimatedMemoryInBytes\": " + result.getEstimatedMemoryInBytes());
+			writer.write(", \"message\": " + (result.getMessage() == null ? "null" : jsonString(result.getMessage())));
+			writer.write(i == results.size() - 1 ? "}\n" : "},\n");
+		}
+		writer.write("]\n");
+		writer.flush();
+	}
+
+	/**
+	 * Writes the results as CSV with a header line and a line per model.
+	 */
+	public static void writeCSV(Writer writer, List<Result> results) throws IOException {
+		writer.write("name,status,milliseconds,variables,tableEntries,estimatedMemoryInBytes,message\n");
+		for (Result result : results) {
+			writer.write(csvField(result.getName()));
+			writer.write("," + result.getStatus());
+			writer.write("," + result.getMillisecondsToCompute());
+			writer.write("," + result.getNumberOfVariables());
+			writer.write("," + result.getTotalNumberOfTableEntries());
+			writer.write("," + result.getEstimatedMemoryInBytes());
+			writer.write("," + (result.getMessage() == null ? "" : csvField(result.getMessage())));
+			writer.write("\n");
+		}
+		writer.flush();
+	}
+
+	private static String jsonString(String string) {
+		StringBuilder result = new StringBuilder("\"");
+		for (char c : string.toCharArray()) {
+			switch (c) {
+			case '"':  result.append("\\\""); break;
+			case '\\': result.append("\\\\"); break;
+			case '\n': result.append("\\n"); break;
+			case '\r': result.append("\\r"); break;
+			case '\t': result.append("\\t"); break;
+			default:
+				if (c < 0x20) {
+					result.append(String.format("\\u%04x", (int) c));
+				}
+				else {
+					result.append(c);
+				}
+			}
+		}
+		return result.append('"').toString();
+	}
+
+	private static String csvField(String string) {
+		if (string.contains(",") || string.contains("\"") || string.contains("\n") || string.contains("\r")) {
+			return "\"" + string.replace("\"", "\"\"") + "\"";
+		}
+		return string;
+	}
+
+	private static ThreadFactory daemonThreads(String name) {
+		return runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+}
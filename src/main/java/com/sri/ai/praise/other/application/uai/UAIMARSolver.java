@@ -46,16 +46,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -77,6 +78,7 @@ import com.sri.ai.grinder.theory.equality.EqualityTheory;
 import com.sri.ai.grinder.theory.propositional.PropositionalTheory;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.api.ExpressionBasedSolver;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.core.byalgorithm.evaluation.EvaluationExpressionBasedSolver;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.junctiontree.core.JunctionTree;
 import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedModel;
 import com.sri.ai.praise.core.representation.classbased.table.api.GraphicalNetwork;
 import com.sri.ai.praise.core.representation.classbased.table.core.data.FunctionTable;
@@ -84,9 +86,23 @@ import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModel;
 import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIUtil;
 import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIEvidenceReading;
 import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIModelReader;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
 import com.sri.ai.praise.core.representation.translation.ciaranframework.core.uai.UAI_to_ExpressionBased_Translator;
 
 /**
+ * Solves the MAR (marginals) task on UAI models, comparing the computed marginals to the expected ones
+ * and optionally writing them in the UAI result format.
+ * <p>
+ * Models are solved either symbolically, translating their function tables into expressions
+ * solved with a given {@link Theory}, or numerically, with a {@link JunctionTree} on a {@link TableFactorNetwork}
+ * built directly from the model (see {@link #solveWithTables(UAIModel, Map)}), which is much faster on purely tabular models.
+ * <p>
+ * The models of a directory are solved concurrently by a {@link UAIMARBatchSolver},
+ * configured with the system properties <code>uai.mar.solver.threads</code> (the number of available processors by default),
+ * <code>uai.mar.solver.memory.budget.mb</code> and <code>uai.mar.solver.summary</code>
+ * (a file where the outcome of each model is written, as JSON if its name ends with <code>.json</code> or CSV otherwise).
  * 
  * @author oreilly
  *
@@ -95,11 +111,14 @@ import com.sri.ai.praise.core.representation.translation.ciaranframework.core.ua
 public class UAIMARSolver {
 	
 	private static final boolean DO_NOT_SOLVE = Boolean.getBoolean("uai.mar.solver.do.not.solve");
+	private static final int NUMBER_OF_THREADS = Integer.getInteger("uai.mar.solver.threads", Runtime.getRuntime().availableProcessors());
+	private static final long MEMORY_BUDGET_IN_MB = Long.getLong("uai.mar.solver.memory.budget.mb", 0); // 0 for the batch solver's default
+	private static final String SUMMARY_FILE = System.getProperty("uai.mar.solver.summary"); // .json for JSON, CSV otherwise
 	
 	public static void main(String[] args) throws IOException {
 		
-		if (args.length != 4) {
-			throw new IllegalArgumentException("Usage: UAIMARSolver <file or directory with UAI-format files> <solution directory> <timeout in ms> equalities|difference_arithmetic");
+		if (args.length != 4 && args.length != 5) {
+			throw new IllegalArgumentException("Usage: UAIMARSolver <file or directory with UAI-format files> <solution directory> <timeout in ms> equalities|difference_arithmetic|tables [<directory for computed MAR files>]");
 		}
 		
 		File uaiInput = new File(args[0]);
@@ -111,6 +130,13 @@ public class UAIMARSolver {
 			throw new IllegalArgumentException("Solution directory is invalid: "+solutionDir.getAbsolutePath());
 		}
 		int maxSolverTimeInSeconds = Integer.parseInt(args[2]);
+		File outputDir = null;
+		if (args.length == 5) {
+			outputDir = new File(args[4]);
+			if (!outputDir.exists() || !outputDir.isDirectory()) {
+				throw new IllegalArgumentException("Output directory is invalid: "+outputDir.getAbsolutePath());
+			}
+		}
 		
 		Theory theory;
 		if (args[3].equals("equalities")) {
@@ -125,8 +151,11 @@ public class UAIMARSolver {
 							new PropositionalTheory(),
 							new DifferenceArithmeticTheory(true, true));
 		}
+		else if (args[3].equals("tables")) {
+			theory = null; // numeric solving
+		}
 		else {
-			throw new IllegalArgumentException("4-th argument must be either 'equalities' or 'difference_arithmetic'");
+			throw new IllegalArgumentException("4-th argument must be either 'equalities', 'difference_arithmetic' or 'tables'");
 		}
 		
 		List<UAIModel> models           = new ArrayList<>();
@@ -151,34 +180,48 @@ public class UAIMARSolver {
 		Collections.sort(models, (model1, model2) -> Integer.compare(model1.totalNumberEntriesForAllFunctionTables(), model2.totalNumberEntriesForAllFunctionTables()));
 		// Collections.sort(models, (model1, model2) -> Integer.compare(model1.numberTables(), model2.numberTables()));
 		
-		Map<String, Boolean> modelSolvedStatus = new LinkedHashMap<>();
-		Map<String, Long>    modelSolvedTime   = new LinkedHashMap<>();
+		Map<String, UAIModel> namedModels = new LinkedHashMap<>();
+		for (UAIModel model : models) {
+			namedModels.put(modelToFile.get(model).getName(), model);
+		}
 		
-		System.out.println("#models read="+models.size());
-		final AtomicInteger cnt = new AtomicInteger(1);
-		models.stream().forEach(model -> {
-			System.out.println("Starting to Solve: "+modelToFile.get(model).getName()+" ("+cnt.getAndAdd(1)+" of "+models.size()+")");
-			long start = System.currentTimeMillis();
-			boolean solved = solve(model, model.getEvidence(), model.getMARSolution(), maxSolverTimeInSeconds, theory);
-			long took = (System.currentTimeMillis() - start);
-			System.out.println("---- Took "+took+"ms. solved="+solved);
-			
-			modelSolvedStatus.put(modelToFile.get(model).getName(), solved);
-			modelSolvedTime.put(modelToFile.get(model).getName(), took);
-		});
+		UAIMARBatchSolver batchSolver = new UAIMARBatchSolver(NUMBER_OF_THREADS, maxSolverTimeInSeconds, theory);
+		if (MEMORY_BUDGET_IN_MB > 0) {
+			batchSolver.setMemoryBudgetInBytes(MEMORY_BUDGET_IN_MB*1024L*1024L);
+		}
+		batchSolver.setMARResultDirectory(outputDir);
+		
+		System.out.println("#models read="+models.size()+", solving with "+NUMBER_OF_THREADS+" threads");
+		List<UAIMARBatchSolver.Result> results = batchSolver.solve(namedModels);
 		
 		System.out.println("MODELS SOLVE STATUS");
-		modelSolvedStatus.entrySet().stream().forEach(e -> System.out.printf("%-25s %-5b %12sms.\n", e.getKey(), e.getValue(), modelSolvedTime.get(e.getKey())));	
+		results.forEach(System.out::println);
 		System.out.println("SUMMARY");
-		System.out.println("#models   solved="+modelSolvedStatus.values().stream().filter(status -> status == true).count());
-		System.out.println("#models unsolved="+modelSolvedStatus.values().stream().filter(status -> status == false).count());
+		for (UAIMARBatchSolver.Status status : UAIMARBatchSolver.Status.values()) {
+			System.out.println("#models "+status+"="+results.stream().filter(r -> r.getStatus() == status).count());
+		}
+		
+		if (SUMMARY_FILE != null) {
+			UAIMARBatchSolver.writeSummary(new File(SUMMARY_FILE), results);
+			System.out.println("Summary written to "+SUMMARY_FILE);
+		}
 	}
 	
 	public static boolean solve(GraphicalNetwork model, Map<Integer, Integer> evidence,  Map<Integer, List<Double>> solution, int maxSolverTimeInSeconds, Theory theory) {
+		return solve(model, evidence, solution, maxSolverTimeInSeconds, theory, null);
+	}
+	
+	/**
+	 * Solves the MAR task on a model, symbolically with the given theory or, if it is null, numerically with tables
+	 * (which requires a {@link UAIModel}), returning whether the computed marginals match the given solution
+	 * (or whether they were computed, if the solution is empty).
+	 * If <code>marOutputFile</code> is not null, the computed marginals are written to it in the UAI MAR format.
+	 */
+	public static boolean solve(GraphicalNetwork model, Map<Integer, Integer> evidence,  Map<Integer, List<Double>> solution, int maxSolverTimeInSeconds, Theory theory, File marOutputFile) {
 		boolean result = false;
 		
 		ExecutorService executor = Executors.newSingleThreadExecutor();
-		SolverTask      solver   = new SolverTask(model, evidence, solution, theory);
+		SolverTask      solver   = new SolverTask(model, evidence, solution, theory, marOutputFile);
 		Future<Boolean> future   = executor.submit(solver);  
 		
 		try {
@@ -218,17 +261,19 @@ public class UAIMARSolver {
 		private Map<Integer, Integer>      evidence;
 		private Map<Integer, List<Double>> solution;
 		private Theory           theory;
+		private File             marOutputFile;
 		//
 		private ExpressionBasedSolver solver;
 		
-		boolean interrupted = false;
+		volatile boolean interrupted = false;
 		private MultiQuantifierEliminator genericTableSolver = null;
 		
-		SolverTask(GraphicalNetwork model, Map<Integer, Integer> evidence,  Map<Integer, List<Double>> solution, Theory theory) {
+		SolverTask(GraphicalNetwork model, Map<Integer, Integer> evidence,  Map<Integer, List<Double>> solution, Theory theory, File marOutputFile) {
 			this.model    = model;
 			this.evidence = evidence;
 			this.solution = solution;
 			this.theory = theory;
+			this.marOutputFile = marOutputFile;
 		}
 		
 		public MultiQuantifierEliminator checkInterruption(MultiQuantifierEliminator solver) {
@@ -272,6 +317,54 @@ public class UAIMARSolver {
 			System.out.println("Largest # entries="+model.largestNumberOfFunctionTableEntries());
 			System.out.println("Total #entries across all function tables="+model.totalNumberEntriesForAllFunctionTables());
 
+			Map<Integer, List<Double>> computed;
+			if (theory == null) {
+				computed = solveWithTables();
+			}
+			else {
+				computed = solveSymbolically();
+			}
+			if (computed == null) {
+				return false; // interrupted or not solving
+			}
+			
+			if (marOutputFile != null) {
+				UAIResultWriting.writeMAR(marOutputFile, computed);
+				System.out.println("Computed values written to "+marOutputFile.getAbsolutePath());
+			}
+			
+			if (solution.isEmpty()) {
+				System.out.println("No solution to compare computed values with: "+computed);
+				return true;
+			}
+			
+			List<Integer> diffs = UAICompareResults.compareMAR(solution, computed);
+			System.out.println("----");
+			boolean result = true;
+			if (diffs.size() == 0) {
+				System.out.println("Computed values match solution: "+computed);
+			}
+			else {
+				result = false; // Failed to solve correctly
+				System.err.println("These variables "+diffs+" did not match the solution.");
+				System.err.println("solution="+solution);
+				System.err.println("computed="+computed);
+			}
+			
+			return result;
+		}
+		
+		private Map<Integer, List<Double>> solveWithTables() {
+			if (!(model instanceof UAIModel)) {
+				throw new IllegalArgumentException("Solving with tables requires a UAIModel, but got a "+model.getClass().getSimpleName());
+			}
+			if (DO_NOT_SOLVE || interrupted) {
+				return null;
+			}
+			return UAIMARSolver.solveWithTables((UAIModel) model, evidence);
+		}
+		
+		private Map<Integer, List<Double>> solveSymbolically() throws Exception {
 			double totalNumberUniqueEntries        = 0;
 			double totalCompressedEntries          = 0;
 			double bestIndividualCompressionRatio  = 100; // i.e. none at all
@@ -284,7 +377,7 @@ public class UAIMARSolver {
 				
 				if (interrupted) {
 					System.out.println("ExternalProcessSolver Interrupted (t).");
-					return false;
+					return null;
 				}
 				
 				Expression genericTableExpression;
@@ -315,7 +408,7 @@ public class UAIMARSolver {
 			// If Solving not to actually be performed (i.e. just getting a summary of the models) then 
 			// indicate failed to solve
 			if (DO_NOT_SOLVE) {
-				return false;
+				return null;
 			}
 			
 			ExpressionBasedModel expressionBasedModel = new UAI_to_ExpressionBased_Translator(tables, model);
@@ -348,7 +441,7 @@ public class UAIMARSolver {
 			
 			if (interrupted) {
 				System.out.println("ExternalProcessSolver Interrupted (b).");
-				return false;
+				return null;
 			}
 			
 			expressionBasedModel = expressionBasedModel.getConditionedModel(evidenceExpr);
@@ -367,7 +460,7 @@ public class UAIMARSolver {
 					Expression marginal;
 					if (interrupted) {
 						System.out.println("ExternalProcessSolver Interrupted (l).");
-						return false;
+						return null;
 					}
 					marginal = solver.solve(queryExpression, expressionBasedModel);
 					
@@ -391,20 +484,7 @@ public class UAIMARSolver {
 				computed.put(i, Arrays.stream(values).boxed().collect(Collectors.toList()));
 			}
 			
-			List<Integer> diffs = UAICompareResults.compareMAR(solution, computed);
-			System.out.println("----");
-			boolean result = true;
-			if (diffs.size() == 0) {
-				System.out.println("Computed values match solution: "+computed);
-			}
-			else {
-				result = false; // Failed to solve correctly
-				System.err.println("These variables "+diffs+" did not match the solution.");
-				System.err.println("solution="+solution);
-				System.err.println("computed="+computed);
-			}
-			
-			return result;
+			return computed;
 		}
 	}
 	
@@ -417,7 +497,7 @@ public class UAIMARSolver {
 		// file but with an added .MAR suffix. For instance, problem.uai will have a MAR result file problem.uai.MAR. 
 		File marResultFile = new File(solutionDir, uaiFile.getName()+".MAR");
 		Map<Integer, List<Double>> marResult = UAIResultReading.readMAR(marResultFile);
-		if (marResult.size() != model.numberVariables()) {
+		if (marResult.size() != model.numberVariables() && !marResult.isEmpty()) { // empty if there is no result file, in which case there is no comparison
 			throw new IllegalArgumentException("Number of variables in result file, "+marResult.size()+", does not match # in model, which is "+model.numberVariables());
 		}
 		for (Map.Entry<Integer, List<Double>> entry : marResult.entrySet()) {
@@ -427,6 +507,55 @@ public class UAIMARSolver {
 		return model;
 	}
 	
+	/**
+	 * Computes the marginals of all variables of a model given its evidence and, additionally, the given one,
+	 * with a {@link JunctionTree} compiled from a {@link TableFactorNetwork} built directly from the model's tables,
+	 * without translating them to expressions.
+	 * Observed variables get a marginal concentrated on their value,
+	 * and variables in no table (after conditioning on the model's evidence) a uniform one.
+	 * 
+	 * @param model
+	 * @param evidence a map from variable indices to their observed value indices.
+	 * @return a map from each variable index to the probabilities of its values.
+	 */
+	public static Map<Integer, List<Double>> solveWithTables(UAIModel model, Map<Integer, Integer> evidence) {
+		TableFactorNetwork network = new TableFactorNetwork(model); // conditioned on the model's evidence
+		Set<Variable> variablesInNetwork = new HashSet<>(network.getBs());
+		JunctionTree junctionTree = variablesInNetwork.isEmpty() ? null : JunctionTree.compile(network);
+		
+		Map<Integer, Integer> allEvidence = new LinkedHashMap<>(model.getEvidence());
+		for (Map.Entry<Integer, Integer> entry : evidence.entrySet()) {
+			TableVariable variable = tableVariable(model, entry.getKey());
+			if (variablesInNetwork.contains(variable)) {
+				junctionTree.setEvidence(variable, entry.getValue());
+			}
+			allEvidence.putIfAbsent(entry.getKey(), entry.getValue());
+		}
+		
+		Map<Integer, List<Double>> result = new LinkedHashMap<>();
+		for (int i = 0; i < model.numberVariables(); i++) {
+			int varCardinality = model.cardinality(i);
+			TableVariable variable = tableVariable(model, i);
+			List<Double> values;
+			if (allEvidence.containsKey(i)) {
+				values = new ArrayList<>(Collections.nCopies(varCardinality, 0.0));
+				values.set(allEvidence.get(i), 1.0);
+			}
+			else if (variablesInNetwork.contains(variable)) {
+				values = new ArrayList<>(junctionTree.marginal(variable).getEntries());
+			}
+			else {
+				values = new ArrayList<>(Collections.nCopies(varCardinality, 1.0/varCardinality));
+			}
+			result.put(i, values);
+		}
+		return result;
+	}
+	
+	private static TableVariable tableVariable(UAIModel model, int varIdx) {
+		return new TableVariable(UAIUtil.genericVariableName(varIdx), model.cardinality(varIdx));
+	}
+	
 	private static double calculateCompressedEntries(Expression compressedTableExpression) {
 		AtomicDouble count = new AtomicDouble(0);
 		
@@ -0,0 +1,54 @@
+package com.sri.ai.praise.other.application.uai;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Utility file for writing Uncertainty in Artificial Intelligence (UAI)
+ * <a href="http://www.hlt.utdallas.edu/~vgogate/uai14-competition/resformat.html">Inference Competition Result Format files</a>,
+ * as read by {@link UAIResultReading}.
+ */
+@Beta
+public class UAIResultWriting {
+
+	/**
+	 * Writes marginals in the MAR format: a line with the task, MAR, followed by a space separated line with
+	 * the number of variables and, for each variable in order, its cardinality and the probability of each of its values.
+	 *
+	 * @param solutionFile
+	 * @param marginals a map from each variable index, from 0 to the number of variables minus one, to its marginal.
+	 * @throws IOException
+	 */
+	public static void writeMAR(File solutionFile, Map<Integer, List<Double>> marginals) throws IOException {
+		try (Writer writer = new BufferedWriter(new FileWriter(solutionFile))) {
+			writeMAR(writer, marginals);
+		}
+	}
+
+	public static void writeMAR(Writer writer, Map<Integer, List<Double>> marginals) throws IOException {
+		StringBuilder line = new StringBuilder();
+		line.append(marginals.size());
+		for (int varIdx = 0; varIdx < marginals.size(); varIdx++) {
+			List<Double> values = marginals.get(varIdx);
+			if (values == null) {
+				throw new IllegalArgumentException("Missing marginal for variable "+varIdx+" of "+marginals.size());
+			}
+			line.append(' ').append(values.size());
+			for (Double value : values) {
+				line.append(' ').append(value);
+			}
+		}
+		writer.write(UAIProblemType.MAR.name());
+		writer.write('\n');
+		writer.write(line.toString());
+		writer.write('\n');
+		writer.flush();
+	}
+}
@@ -40,20 +40,38 @@ package com.sri.ai.praise.other.empiricalevaluation;
 import static com.sri.ai.util.Util.mapIntoList;
 import static com.sri.ai.util.Util.myAssert;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.sri.ai.expresso.api.Type;
 import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedModel;
 import com.sri.ai.praise.core.representation.classbased.hogm.components.HOGMExpressionBasedModel;
 import com.sri.ai.praise.core.representation.classbased.modelscontainer.ModelPage;
 import com.sri.ai.praise.other.empiricalevaluation.output.CSVWriter;
+import com.sri.ai.praise.other.empiricalevaluation.output.EvaluationCheckpoint;
 import com.sri.ai.praise.other.empiricalevaluation.output.Notifier;
 import com.sri.ai.praise.other.empiricalevaluation.solverevaluation.SolverEvaluation;
+import com.sri.ai.praise.other.empiricalevaluation.solverevaluation.SolverEvaluationResult;
 import com.sri.ai.util.Util;
 
 /**
  * Evaluation of one or more solvers on a given problem set.
+ * <p>
+ * (Problem, solver) pairs are evaluated by up to {@link EvaluationConfiguration#getNumberOfParallelSolveAttempts()} threads,
+ * each using its own instances of the solvers
+ * (restricted to their own processors if {@link EvaluationConfiguration#pinsSolveAttemptsToProcessors()}).
+ * The CSV lines are output in the order of the problems regardless of the order in which they complete,
+ * and, if there is a {@link EvaluationConfiguration#getCheckpointFile()},
+ * recorded in it as soon as they are complete, so that problems recorded by an interrupted evaluation are not evaluated again.
  * 
  * @author oreilly
  * @author braz
@@ -62,31 +80,57 @@ import com.sri.ai.util.Util;
 public class Evaluation {	
 	
 	private EvaluationConfiguration evaluationConfiguration;
-	private List<SolverEvaluation> solverEvaluations;
+	private List<List<SolverEvaluation>> solverEvaluationsForEachSlot;
 
 	private Notifier notifier;
 	private CSVWriter csvWriter;
-	private String domainSizesOfCurrentModel;
+	private EvaluationCheckpoint checkpoint;
+
+	private List<ProblemLine> problemLines;
+	private int numberOfOutputProblemLines;
 
 	public Evaluation(EvaluationConfiguration evaluationConfiguration) {
 		this.evaluationConfiguration = evaluationConfiguration;
 		this.notifier = new Notifier(evaluationConfiguration.getNotificationOut());
 		this.csvWriter = new CSVWriter(evaluationConfiguration);
-		this.solverEvaluations = mapIntoList(evaluationConfiguration.getSolverImplementationClassNames(), n -> makeSolverEvaluation(n));
+		this.solverEvaluationsForEachSlot = new ArrayList<>();
+		for (int slot = 0; slot != getNumberOfSlots(); slot++) {
+			int processorAffinity = evaluationConfiguration.pinsSolveAttemptsToProcessors()? slot : -1;
+			solverEvaluationsForEachSlot.add(mapIntoList(evaluationConfiguration.getSolverImplementationClassNames(), n -> makeSolverEvaluation(n, processorAffinity)));
+		}
 	}
 	
-	private SolverEvaluation makeSolverEvaluation(String solverImplementationClassName) {
-		SolverEvaluation solverEvaluation = new SolverEvaluation(solverImplementationClassName, notifier, csvWriter, evaluationConfiguration);
+	private SolverEvaluation makeSolverEvaluation(String solverImplementationClassName, int processorAffinity) {
+		SolverEvaluation solverEvaluation = new SolverEvaluation(solverImplementationClassName, notifier, evaluationConfiguration, processorAffinity);
 		return solverEvaluation;
 	}
 
+	/**
+	 * The number of concurrent solve attempts, each of which uses its own solver instances.
+	 */
+	private int getNumberOfSlots() {
+		int result = Math.max(1, evaluationConfiguration.getNumberOfParallelSolveAttempts());
+		if (evaluationConfiguration.pinsSolveAttemptsToProcessors()) {
+			result = Math.min(result, Runtime.getRuntime().availableProcessors());
+		}
+		return result;
+	}
+
 	public void evaluate() {
 	
 		checkType(evaluationConfiguration.getProblemType());
 		
 		long evaluationStart = System.currentTimeMillis();	
-		initialize();
-		evaluateAllModels();
+		try {
+			initialize();
+			evaluateAllModels();
+		}
+		finally {
+			solverEvaluationsForEachSlot.forEach(solverEvaluations -> solverEvaluations.forEach(SolverEvaluation::close));
+			if (checkpoint != null) {
+				checkpoint.close();
+			}
+		}
 		long evaluationEnd = System.currentTimeMillis();
 		
 		notifier.notifyAboutTotalEvaluationTime(evaluationStart, evaluationEnd);
@@ -94,15 +138,19 @@ public class Evaluation {
 
 	private void initialize() {
 		doInitialBurnInToEnsureOSCachingEtcOccurBeforeMeasuringPerformance();
+		List<SolverEvaluation> solverEvaluations = solverEvaluationsForEachSlot.get(0);
 		csvWriter.outputReportHeaderLine(solverEvaluations);
+		openCheckpoint(csvWriter.makeReportHeaderLine(solverEvaluations));
 	}
 
 	private void doInitialBurnInToEnsureOSCachingEtcOccurBeforeMeasuringPerformance() {
 		Problem problem = makeBurnInProblem();
 		notifier.notifyAboutBeginningOfBurnInForAllSolvers(evaluationConfiguration.getModelsContainer(), problem);
-		for (SolverEvaluation solverEvaluation : solverEvaluations) {
-			solverEvaluation.performBurnIn(problem);
+		List<Runnable> burnIns = new ArrayList<>();
+		for (List<SolverEvaluation> solverEvaluations : solverEvaluationsForEachSlot) {
+			burnIns.add(() -> solverEvaluations.forEach(solverEvaluation -> solverEvaluation.performBurnIn(problem)));
 		}
+		runConcurrently(burnIns);
 	}
 
 	private Problem makeBurnInProblem() {
@@ -112,28 +160,170 @@ public class Evaluation {
 		return problem;
 	}
 
+	private void openCheckpoint(String headerLine) {
+		if (evaluationConfiguration.getCheckpointFile() != null) {
+			try {
+				checkpoint = new EvaluationCheckpoint(evaluationConfiguration.getCheckpointFile(), headerLine);
+			}
+			catch (IOException exception) {
+				throw new IllegalArgumentException(exception);
+			}
+			if (checkpoint.getNumberOfRecordedLines() != 0) {
+				notifier.notify("Resuming from " + checkpoint.getNumberOfRecordedLines() + " problems recorded in " + checkpoint.getFile());
+			}
+		}
+	}
+
 	private void evaluateAllModels() {
 		notifier.notify("Starting to generate Evaluation Report");
+		makeProblemLines();
+		List<Runnable> solveAttempts = new ArrayList<>();
+		for (ProblemLine problemLine : problemLines) {
+			if (problemLine.line == null) {
+				for (int solverIndex = 0; solverIndex != problemLine.results.length; solverIndex++) {
+					int finalSolverIndex = solverIndex;
+					solveAttempts.add(() -> evaluateProblem(problemLine, finalSolverIndex));
+				}
+			}
+		}
+		outputCompleteProblemLinesInOrder(); // those taken from checkpoint
+		runConcurrently(solveAttempts);
+	}
+
+	private void makeProblemLines() {
+		problemLines = new ArrayList<>();
+		numberOfOutputProblemLines = 0;
+		int numberOfSolvers = evaluationConfiguration.getSolverImplementationClassNames().size();
 		for (ModelPage model : evaluationConfiguration.getModelsContainer().getPages()) {
-			evaluateModel(model);
+			String domainSizes = null;
+			for (String query : model.getDefaultQueriesToRun()) {
+				Problem problem = new Problem(evaluationConfiguration.getProblemType(), query, model);
+				String recordedLine = checkpoint == null? null : checkpoint.takeRecordedLine(problem.name);
+				if (recordedLine == null && domainSizes == null) {
+					domainSizes = getDomainSizes(model.getModelString());
+				}
+				problemLines.add(new ProblemLine(problem, domainSizes, numberOfSolvers, recordedLine));
+			}
+		}
+	}
+
+	private void evaluateProblem(ProblemLine problemLine, int solverIndex) {
+		if (problemLine.notifyAboutStart()) {
+			notifier.notify("Starting to evaluate " + problemLine.problem.name);
+		}
+		int slot = takeSlot();
+		try {
+			SolverEvaluation solverEvaluation = solverEvaluationsForEachSlot.get(slot).get(solverIndex);
+			SolverEvaluationResult result = solverEvaluation.getResultsFromAllRuns(problemLine.problem);
+			notifier.notifyAboutSolverTime(result);
+			notifier.notifyAboutRegression(result, csvWriter.getRegressionFlag(result));
+			recordResult(problemLine, solverIndex, result);
+		}
+		finally {
+			freeSlots.add(slot);
+		}
+	}
+
+	private synchronized void recordResult(ProblemLine problemLine, int solverIndex, SolverEvaluationResult result) {
+		problemLine.results[solverIndex] = result;
+		if (problemLine.isComplete()) {
+			problemLine.line = csvWriter.makeQueryLine(problemLine.problem, problemLine.domainSizes, Arrays.asList(problemLine.results));
+			if (checkpoint != null) {
+				checkpoint.record(problemLine.line);
+			}
+			outputCompleteProblemLinesInOrder();
+		}
+	}
+
+	private synchronized void outputCompleteProblemLinesInOrder() {
+		while (numberOfOutputProblemLines != problemLines.size() && problemLines.get(numberOfOutputProblemLines).line != null) {
+			csvWriter.csvResultOutput(problemLines.get(numberOfOutputProblemLines).line);
+			numberOfOutputProblemLines++;
+		}
+	}
+
+	/////////////// CONCURRENCY
+	
+	private BlockingQueue<Integer> freeSlots;
+
+	/**
+	 * Runs tasks, in order, with as many threads as there are slots,
+	 * stopping at the first one to throw an exception and rethrowing it.
+	 */
+	private void runConcurrently(List<Runnable> tasks) {
+		int numberOfSlots = solverEvaluationsForEachSlot.size();
+		freeSlots = new ArrayBlockingQueue<>(numberOfSlots);
+		for (int slot = 0; slot != numberOfSlots; slot++) {
+			freeSlots.add(slot);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfSlots);
+		try {
+			List<Future<?>> futures = mapIntoList(tasks, task -> executor.submit(task));
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		catch (ExecutionException exception) {
+			Throwable cause = exception.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(exception);
+		}
+		finally {
+			executor.shutdownNow();
 		}
 	}
 
-	private void evaluateModel(ModelPage model) {
-		domainSizesOfCurrentModel = getDomainSizes(model.getModelString());
-		for (String query : model.getDefaultQueriesToRun()) {
-			Problem problem = new Problem(evaluationConfiguration.getProblemType(), query, model);
-			evaluateProblem(problem);
+	private int takeSlot() {
+		try {
+			return freeSlots.take();
+		}
+		catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(exception);
 		}
 	}
 
-	private void evaluateProblem(Problem problem) {
-		notifier.notify("Starting to evaluate " + problem.name);
-		csvWriter.initializeQueryLine(problem, domainSizesOfCurrentModel);
-		for (SolverEvaluation solverEvaluation : solverEvaluations) {
-			solverEvaluation.evaluate(problem);
+	/**
+	 * A problem and the results of the solvers on it, from which its CSV line is made once all solvers are done.
+	 */
+	private static class ProblemLine {
+		public Problem problem;
+		public String domainSizes;
+		public SolverEvaluationResult[] results;
+		public String line;
+		private boolean started;
+
+		public ProblemLine(Problem problem, String domainSizes, int numberOfSolvers, String recordedLine) {
+			this.problem = problem;
+			this.domainSizes = domainSizes;
+			this.results = new SolverEvaluationResult[numberOfSolvers];
+			this.line = recordedLine;
+			this.started = false;
+		}
+
+		public synchronized boolean notifyAboutStart() {
+			boolean result = !started;
+			started = true;
+			return result;
+		}
+
+		public boolean isComplete() {
+			for (SolverEvaluationResult result : results) {
+				if (result == null) {
+					return false;
+				}
+			}
+			return true;
 		}
-		csvWriter.finalizeQueryLine();
 	}
 
 	/////////////// LOW-LEVEL METHODS
@@ -64,6 +64,14 @@ public class EvaluationConfiguration {
 	private int totalCPURuntimeLimitSecondsPerSolveAttempt = 600;
 	private int totalMemoryLimitInMegabytesPerSolveAttempt = 2048;
 	private int numberOfRunsToAverageOver = 10;
+	private int numberOfWarmUpRunsPerProblem = 0;
+	private boolean reportsTimeStatistics = false;
+	private File baselineFile = null;
+	private double regressionTolerance = 0.1;
+	private int numberOfSolverWorkers = 0;
+	private int numberOfParallelSolveAttempts = 1;
+	private boolean pinsSolveAttemptsToProcessors = false;
+	private File checkpointFile = null;
 
 	private boolean doesNotCacheTranslations = false;
 
@@ -149,6 +157,109 @@ public class EvaluationConfiguration {
 	}
 
 	
+	/**
+	 * The number of runs of each solver on each problem performed before the ones averaged over,
+	 * whose times are discarded so that JIT compilation, caches etc. do not affect the measurements.
+	 */
+	public int getNumberOfWarmUpRunsPerProblem() {
+		return numberOfWarmUpRunsPerProblem;
+	}
+
+	public void setNumberOfWarmUpRunsPerProblem(int numberOfWarmUpRunsPerProblem) {
+		this.numberOfWarmUpRunsPerProblem = numberOfWarmUpRunsPerProblem;
+	}
+
+	
+	/**
+	 * Whether the CSV output includes the inference time of every run and their median, 90th percentile,
+	 * standard deviation and 95% confidence interval, besides their average.
+	 */
+	public boolean reportsTimeStatistics() {
+		return reportsTimeStatistics;
+	}
+
+	public void setReportsTimeStatistics(boolean reportsTimeStatistics) {
+		this.reportsTimeStatistics = reportsTimeStatistics;
+	}
+
+	
+	/**
+	 * A CSV file output by a previous evaluation against whose inference times regressions are flagged
+	 * (null for no regression flagging).
+	 */
+	public File getBaselineFile() {
+		return baselineFile;
+	}
+
+	public void setBaselineFile(File baselineFile) {
+		this.baselineFile = baselineFile;
+	}
+
+	
+	/**
+	 * The fraction by which the mean inference time must differ from the baseline's to be flagged
+	 * as a regression (or improvement).
+	 */
+	public double getRegressionTolerance() {
+		return regressionTolerance;
+	}
+
+	public void setRegressionTolerance(double regressionTolerance) {
+		this.regressionTolerance = regressionTolerance;
+	}
+
+	
+	/**
+	 * The number of long-lived worker processes kept by each solver supporting them
+	 * (0 for a new process per solve attempt).
+	 */
+	public int getNumberOfSolverWorkers() {
+		return numberOfSolverWorkers;
+	}
+
+	public void setNumberOfSolverWorkers(int numberOfSolverWorkers) {
+		this.numberOfSolverWorkers = numberOfSolverWorkers;
+	}
+
+	
+	/**
+	 * The number of (problem, solver) pairs evaluated concurrently, each with its own solver instance.
+	 */
+	public int getNumberOfParallelSolveAttempts() {
+		return numberOfParallelSolveAttempts;
+	}
+
+	public void setNumberOfParallelSolveAttempts(int numberOfParallelSolveAttempts) {
+		this.numberOfParallelSolveAttempts = numberOfParallelSolveAttempts;
+	}
+
+	
+	/**
+	 * Whether each of the concurrent solve attempts is restricted to its own processor
+	 * (limiting them to the number of available processors) to reduce timing noise.
+	 */
+	public boolean pinsSolveAttemptsToProcessors() {
+		return pinsSolveAttemptsToProcessors;
+	}
+
+	public void setPinsSolveAttemptsToProcessors(boolean pinsSolveAttemptsToProcessors) {
+		this.pinsSolveAttemptsToProcessors = pinsSolveAttemptsToProcessors;
+	}
+
+	
+	/**
+	 * A file recording the CSV lines of evaluated problems, from which an interrupted evaluation is resumed
+	 * (null for no checkpointing).
+	 */
+	public File getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	public void setCheckpointFile(File checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	
 	public boolean doesNotCacheTranslations() {
 		return doesNotCacheTranslations;
 	}
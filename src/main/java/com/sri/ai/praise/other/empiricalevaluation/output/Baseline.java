@@ -0,0 +1,88 @@
+package com.sri.ai.praise.other.empiricalevaluation.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sri.ai.praise.other.empiricalevaluation.solverevaluation.SolverEvaluationResult;
+import com.sri.ai.praise.other.empiricalevaluation.solverevaluation.TimeStatistics;
+
+/**
+ * The inference times in a CSV file output by a previous evaluation, against which a new evaluation flags regressions.
+ * <p>
+ * A result is flagged as a {@link #REGRESSION} if its mean inference time exceeds the baseline's by more than the tolerance
+ * and, if the baseline reports confidence intervals, its confidence interval lies entirely above the baseline's
+ * (and symmetrically for an {@link #IMPROVEMENT}), so that noise alone does not get flagged.
+ * Means rather than medians are compared since the confidence intervals are those of the means,
+ * and since baselines without time statistics only report average inference times.
+ * <p>
+ * Lines whose number of values differs from the header's (which happens when an answer contains commas) are ignored.
+ *
+ */
+public class Baseline {
+
+	public static final String REGRESSION  = "REGRESSION";
+	public static final String IMPROVEMENT = "IMPROVEMENT";
+	public static final String NO_BASELINE = "NO BASELINE";
+
+	private Map<String, Map<String, String>> valuesByColumnNameForEachProblemName;
+
+	public Baseline(File csvFile) throws IOException {
+		valuesByColumnNameForEachProblemName = new HashMap<>();
+		List<String> lines = Files.readAllLines(csvFile.toPath(), StandardCharsets.UTF_8);
+		if (lines.isEmpty()) {
+			throw new IllegalArgumentException("Baseline file " + csvFile + " is empty");
+		}
+		String[] columnNames = lines.get(0).split(",", -1);
+		for (String line : lines.subList(1, lines.size())) {
+			String[] values = line.split(",", -1);
+			if (values.length == columnNames.length) {
+				Map<String, String> valuesByColumnName = new HashMap<>();
+				for (int i = 0; i != values.length; i++) {
+					valuesByColumnName.put(columnNames[i], values[i]);
+				}
+				valuesByColumnNameForEachProblemName.put(values[0], valuesByColumnName);
+			}
+		}
+	}
+
+	/**
+	 * Returns {@link #REGRESSION}, {@link #IMPROVEMENT}, {@link #NO_BASELINE} if the baseline has no time for the result's problem and solver,
+	 * or an empty string otherwise (including for failed results).
+	 */
+	public String compare(SolverEvaluationResult result, double tolerance) {
+		if (result.failed) {
+			return "";
+		}
+		String solverName = result.solver.getName();
+		Map<String, String> valuesByColumnName = valuesByColumnNameForEachProblemName.get(result.problem.name);
+		Double baselineTime = getNumber(valuesByColumnName, CSVWriter.averageInferenceTimeColumnName(solverName));
+		if (baselineTime == null) {
+			return NO_BASELINE;
+		}
+		Double baselineLow  = getNumber(valuesByColumnName, CSVWriter.inferenceTimeConfidenceIntervalLowColumnName(solverName));
+		Double baselineHigh = getNumber(valuesByColumnName, CSVWriter.inferenceTimeConfidenceIntervalHighColumnName(solverName));
+		TimeStatistics statistics = result.inferenceTimeStatistics;
+		if (statistics.mean > baselineTime*(1 + tolerance) && (baselineHigh == null || statistics.confidenceIntervalLow > baselineHigh)) {
+			return REGRESSION;
+		}
+		if (statistics.mean < baselineTime*(1 - tolerance) && (baselineLow == null || statistics.confidenceIntervalHigh < baselineLow)) {
+			return IMPROVEMENT;
+		}
+		return "";
+	}
+
+	private static Double getNumber(Map<String, String> valuesByColumnName, String columnName) {
+		String value = valuesByColumnName == null? null : valuesByColumnName.get(columnName);
+		try {
+			return value == null? null : Double.valueOf(value);
+		}
+		catch (NumberFormatException exception) {
+			return null;
+		}
+	}
+}
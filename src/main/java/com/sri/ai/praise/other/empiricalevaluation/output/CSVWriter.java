@@ -37,14 +37,17 @@
  */
 package com.sri.ai.praise.other.empiricalevaluation.output;
 
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.Locale;
 import java.util.StringJoiner;
 
 import com.sri.ai.praise.other.empiricalevaluation.EvaluationConfiguration;
 import com.sri.ai.praise.other.empiricalevaluation.Problem;
 import com.sri.ai.praise.other.empiricalevaluation.solverevaluation.SolverEvaluation;
 import com.sri.ai.praise.other.empiricalevaluation.solverevaluation.SolverEvaluationResult;
+import com.sri.ai.praise.other.empiricalevaluation.solverevaluation.TimeStatistics;
 import com.sri.ai.util.Util;
 
 /**
@@ -58,24 +61,64 @@ public class CSVWriter {
 	
 	private String problemTypeName;
 	private int numberOfRunsToAverageOver;
+	private boolean reportsTimeStatistics;
+	private Baseline baseline;
+	private double regressionTolerance;
 	private PrintStream csvOut;
 
 	public CSVWriter(EvaluationConfiguration configuration) {
 		this.problemTypeName = configuration.getProblemType().name();
 		this.numberOfRunsToAverageOver = configuration.getNumberOfRunsToAverageOver();
+		this.reportsTimeStatistics = configuration.reportsTimeStatistics();
+		this.baseline = readBaseline(configuration);
+		this.regressionTolerance = configuration.getRegressionTolerance();
 		this.csvOut = configuration.getCSVOut();
 	}
+
+	private static Baseline readBaseline(EvaluationConfiguration configuration) {
+		if (configuration.getBaselineFile() == null) {
+			return null;
+		}
+		try {
+			return new Baseline(configuration.getBaselineFile());
+		}
+		catch (IOException exception) {
+			throw new IllegalArgumentException(exception);
+		}
+	}
+	
+	// Column names shared with Baseline
+	
+	public static String averageInferenceTimeColumnName(String solverName) {
+		return "Inference ms. for " + solverName;
+	}
+
+	public static String inferenceTimeConfidenceIntervalLowColumnName(String solverName) {
+		return "Inference ms. 95% CI low for " + solverName;
+	}
+
+	public static String inferenceTimeConfidenceIntervalHighColumnName(String solverName) {
+		return "Inference ms. 95% CI high for " + solverName;
+	}
 	
 	// Header methods
 	
 	private StringJoiner cvsHeaderLine = new StringJoiner(",");
 
 	public void outputReportHeaderLine(List<SolverEvaluation> solverEvaluations) {
+		csvResultOutput(makeReportHeaderLine(solverEvaluations));
+	}
+
+	/**
+	 * Returns the header line for the given solver evaluations without outputting it.
+	 */
+	public String makeReportHeaderLine(List<SolverEvaluation> solverEvaluations) {
+		cvsHeaderLine = new StringJoiner(",");
 		initializeHeaderLine();
 		for (SolverEvaluation solverEvaluation : solverEvaluations) {
 			writeHeaderForSolver(solverEvaluation);
 		}
-		finalizeHeaderLine();
+		return cvsHeaderLine.toString();
 	}
 
 	public void initializeHeaderLine() {
@@ -88,20 +131,32 @@ public class CSVWriter {
 	public void writeHeaderForSolver(SolverEvaluation solverEvaluation) {
 		cvsHeaderLine.add("ExternalProcessSolver");
 		cvsHeaderLine.add("Result for " + solverEvaluation.solver.getName());
-		cvsHeaderLine.add("Inference ms. for " + solverEvaluation.solver.getName());
+		cvsHeaderLine.add(averageInferenceTimeColumnName(solverEvaluation.solver.getName()));
 		cvsHeaderLine.add("HH:MM:SS.");
 		cvsHeaderLine.add("Translation ms. for " + solverEvaluation.solver.getName());
 		cvsHeaderLine.add("HH:MM:SS.");
-	}
-
-	private void finalizeHeaderLine() {
-		csvResultOutput(cvsHeaderLine.toString());
+		if (reportsTimeStatistics) {
+			cvsHeaderLine.add("Inference ms. samples for " + solverEvaluation.solver.getName());
+			cvsHeaderLine.add("Median inference ms. for " + solverEvaluation.solver.getName());
+			cvsHeaderLine.add("90th percentile inference ms. for " + solverEvaluation.solver.getName());
+			cvsHeaderLine.add("Inference ms. std. dev. for " + solverEvaluation.solver.getName());
+			cvsHeaderLine.add(inferenceTimeConfidenceIntervalLowColumnName(solverEvaluation.solver.getName()));
+			cvsHeaderLine.add(inferenceTimeConfidenceIntervalHighColumnName(solverEvaluation.solver.getName()));
+		}
+		if (baseline != null) {
+			cvsHeaderLine.add("Regression for " + solverEvaluation.solver.getName());
+		}
 	}
 
 	// Query line methods
 	
 	StringJoiner queryCSVLine;
 	
+	/**
+	 * @deprecated build the whole line with {@link #makeQueryLine(Problem, String, List)} instead,
+	 * which does not depend on solvers being evaluated one at a time.
+	 */
+	@Deprecated
 	public void initializeQueryLine(Problem problem, String domainSizesOfCurrentModel) {
 		queryCSVLine = new StringJoiner(",");
 		queryCSVLine.add(problem.name);
@@ -110,20 +165,73 @@ public class CSVWriter {
 		queryCSVLine.add(Integer.toString(numberOfRunsToAverageOver));
 	}
 
+	/**
+	 * @deprecated use {@link #makeQueryLine(Problem, String, List)} instead.
+	 */
+	@Deprecated
 	public void addToQueryLine(SolverEvaluationResult solverEvaluationResult) {
+		addToQueryLine(queryCSVLine, solverEvaluationResult);
+	}
+
+	private void addToQueryLine(StringJoiner queryCSVLine, SolverEvaluationResult solverEvaluationResult) {
 		queryCSVLine.add(solverEvaluationResult.solver.getName());
 		queryCSVLine.add(solverEvaluationResult.failed ? "FAILED" : "" + solverEvaluationResult.answer);
 		queryCSVLine.add("" + solverEvaluationResult.averageInferenceTimeInMilliseconds);
 		queryCSVLine.add(Util.toHoursMinutesAndSecondsString(solverEvaluationResult.averageInferenceTimeInMilliseconds));
 		queryCSVLine.add("" + solverEvaluationResult.averagelTranslationTimeInMilliseconds);
 		queryCSVLine.add(Util.toHoursMinutesAndSecondsString(solverEvaluationResult.averagelTranslationTimeInMilliseconds));
+		if (reportsTimeStatistics) {
+			TimeStatistics statistics = solverEvaluationResult.inferenceTimeStatistics;
+			queryCSVLine.add(Util.join(";", solverEvaluationResult.inferenceTimeSamplesInMilliseconds));
+			queryCSVLine.add(format(statistics.median));
+			queryCSVLine.add(format(statistics.percentile90));
+			queryCSVLine.add(format(statistics.standardDeviation));
+			queryCSVLine.add(format(statistics.confidenceIntervalLow));
+			queryCSVLine.add(format(statistics.confidenceIntervalHigh));
+		}
+		if (baseline != null) {
+			queryCSVLine.add(getRegressionFlag(solverEvaluationResult));
+		}
 	}
 
+	/**
+	 * Returns {@link Baseline#REGRESSION}, {@link Baseline#IMPROVEMENT}, {@link Baseline#NO_BASELINE}
+	 * or an empty string for the result's inference times compared to the baseline, or null if there is no baseline.
+	 */
+	public String getRegressionFlag(SolverEvaluationResult solverEvaluationResult) {
+		return baseline == null? null : baseline.compare(solverEvaluationResult, regressionTolerance);
+	}
+
+	private static String format(double milliseconds) {
+		return String.format(Locale.ROOT, "%.1f", milliseconds);
+	}
+
+	/**
+	 * @deprecated output the line made by {@link #makeQueryLine(Problem, String, List)} with {@link #csvResultOutput(String)} instead.
+	 */
+	@Deprecated
 	public void finalizeQueryLine() {
 		csvResultOutput(queryCSVLine.toString());
 	}
 
-	public void csvResultOutput(String queryCSVLine) {
+	/**
+	 * Returns the whole line for a problem and the results of all solvers on it, without outputting it
+	 * or affecting the line being built with the deprecated {@link #initializeQueryLine(Problem, String)}.
+	 */
+	public String makeQueryLine(Problem problem, String domainSizesOfCurrentModel, List<SolverEvaluationResult> solverEvaluationResults) {
+		StringJoiner result = new StringJoiner(",");
+		result.add(problem.name);
+		result.add(problemTypeName);
+		result.add(domainSizesOfCurrentModel);
+		result.add(Integer.toString(numberOfRunsToAverageOver));
+		for (SolverEvaluationResult solverEvaluationResult : solverEvaluationResults) {
+			addToQueryLine(result, solverEvaluationResult);
+		}
+		return result.toString();
+	}
+
+	public synchronized void csvResultOutput(String queryCSVLine) {
 		csvOut.println(queryCSVLine);
+		csvOut.flush();
 	}
 }
\ No newline at end of file
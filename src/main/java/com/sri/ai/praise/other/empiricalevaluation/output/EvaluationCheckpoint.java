@@ -0,0 +1,129 @@
+package com.sri.ai.praise.other.empiricalevaluation.output;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+import com.sri.ai.praise.other.empiricalevaluation.Evaluation;
+
+/**
+ * A file recording the CSV lines of the problems already evaluated by an {@link Evaluation},
+ * so that an interrupted evaluation can be resumed without evaluating them again.
+ * <p>
+ * The file starts with the CSV header line, which must match the one of the resumed evaluation
+ * (that is, the same solvers must be evaluated), followed by a line per evaluated problem, in order of completion.
+ * Each line is flushed as soon as it is recorded, and an incomplete last line (left by a crash while writing it)
+ * is discarded when the file is opened, after checking the header line so that files recorded for other solvers are left untouched.
+ *
+ */
+public class EvaluationCheckpoint implements AutoCloseable {
+
+	private File file;
+	private LinkedList<String> recordedLines;
+	private PrintStream out;
+
+	/**
+	 * Opens a checkpoint file, creating it with the given header line if it does not exist.
+	 * @throws IllegalArgumentException if the file exists but was recorded with another header line
+	 */
+	public EvaluationCheckpoint(File file, String headerLine) throws IOException {
+		this.file = file;
+		this.recordedLines = new LinkedList<>();
+		if (file.exists() && file.length() != 0) {
+			readRecordedLines(headerLine);
+		}
+		boolean isNew = !file.exists() || file.length() == 0; // also if only an incomplete header line had been recorded
+		this.out = new PrintStream(new FileOutputStream(file, true), false, StandardCharsets.UTF_8.name());
+		if (isNew) {
+			record(headerLine);
+		}
+	}
+
+	private void readRecordedLines(String headerLine) throws IOException {
+		String contents = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		checkHeaderLine(contents, headerLine);
+		String completeLines = contents.substring(0, contents.lastIndexOf('\n') + 1);
+		if (completeLines.length() != contents.length()) {
+			discardIncompleteLastLine(completeLines);
+		}
+		try (BufferedReader reader = new BufferedReader(new StringReader(completeLines))) {
+			reader.readLine(); // the header line
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				recordedLines.add(line);
+			}
+		}
+	}
+
+	/**
+	 * Checks the first line of the file, which, if incomplete, only needs to be the beginning of the header line.
+	 */
+	private void checkHeaderLine(String contents, String headerLine) {
+		int endOfFirstLine = contents.indexOf('\n');
+		boolean matches;
+		if (endOfFirstLine == -1) {
+			matches = headerLine.startsWith(contents);
+		}
+		else {
+			String firstLine = contents.substring(0, endOfFirstLine);
+			matches = firstLine.equals(headerLine) || firstLine.equals(headerLine + "\r");
+		}
+		if (!matches) {
+			throw new IllegalArgumentException("Checkpoint file " + file + " was recorded for another set of solvers, since it does not start with " + headerLine);
+		}
+	}
+
+	private void discardIncompleteLastLine(String completeLines) throws IOException {
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+			randomAccessFile.setLength(completeLines.getBytes(StandardCharsets.UTF_8).length);
+		}
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * The number of problem lines read from the file when it was opened and not yet taken.
+	 */
+	public synchronized int getNumberOfRecordedLines() {
+		return recordedLines.size();
+	}
+
+	/**
+	 * Removes and returns a line recorded for the problem with the given name when the file was opened,
+	 * or returns null if there is none.
+	 */
+	public synchronized String takeRecordedLine(String problemName) {
+		String prefix = problemName + ",";
+		Iterator<String> iterator = recordedLines.iterator();
+		while (iterator.hasNext()) {
+			String line = iterator.next();
+			if (line.startsWith(prefix)) {
+				iterator.remove();
+				return line;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Appends a line to the file, flushing it immediately.
+	 */
+	public synchronized void record(String line) {
+		out.println(line);
+		out.flush();
+	}
+
+	@Override
+	public synchronized void close() {
+		out.close();
+	}
+}
@@ -74,6 +74,15 @@ public class Notifier {
 		notify("ExternalProcessSolver " + solverName + " took an average inference time of " + duration + " to solve " + problemName);
 	}
 
+	public void notifyAboutRegression(SolverEvaluationResult solverEvaluationResult, String regressionFlag) {
+		if (Baseline.REGRESSION.equals(regressionFlag) || Baseline.IMPROVEMENT.equals(regressionFlag)) {
+			String mean = toHoursMinutesAndSecondsString((long) solverEvaluationResult.inferenceTimeStatistics.mean);
+			String solverName = solverEvaluationResult.solver.getName();
+			String problemName = solverEvaluationResult.problem.name;
+			notify(regressionFlag + ": ExternalProcessSolver " + solverName + " took a mean inference time of " + mean + " to solve " + problemName);
+		}
+	}
+
 	public void notifyAboutTotalEvaluationTime(long evaluationStart, long evaluationEnd) {
 		String duration = toHoursMinutesAndSecondsString(evaluationEnd - evaluationStart);
 		notify("Evaluation took " + duration + " to run to completion.");
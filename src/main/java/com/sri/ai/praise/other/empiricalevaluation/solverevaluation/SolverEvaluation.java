@@ -61,15 +61,32 @@ public class SolverEvaluation {
 	private Notifier notifier;
 	private CSVWriter csvWriter;
 
+	/**
+	 * @deprecated the CSV writer is only used by the deprecated {@link #evaluate(Problem)};
+	 * use {@link #SolverEvaluation(String, Notifier, EvaluationConfiguration)} instead.
+	 */
+	@Deprecated
 	public SolverEvaluation(String solverImplementationClassName, Notifier notifier, CSVWriter csvWriter, EvaluationConfiguration configuration) {
+		this(solverImplementationClassName, notifier, configuration, -1);
+		this.csvWriter = csvWriter;
+	}
+
+	public SolverEvaluation(String solverImplementationClassName, Notifier notifier, EvaluationConfiguration configuration) {
+		this(solverImplementationClassName, notifier, configuration, -1);
+	}
+
+	/**
+	 * Makes an evaluation whose solver processes run only on the given processor (any, if it is -1).
+	 */
+	public SolverEvaluation(String solverImplementationClassName, Notifier notifier, EvaluationConfiguration configuration, int processorAffinity) {
 		this.configuration = configuration;
-		this.solver = makeSolverFromClassName(solverImplementationClassName, configuration);
+		this.solver = makeSolverFromClassName(solverImplementationClassName, configuration, processorAffinity);
 		this.notifier = notifier;
-		this.csvWriter = csvWriter;
 	}
 
-	private ExternalProcessSolver makeSolverFromClassName(String solverImplementationClassName, EvaluationConfiguration configuration) {
+	private ExternalProcessSolver makeSolverFromClassName(String solverImplementationClassName, EvaluationConfiguration configuration, int processorAffinity) {
 		ExternalProcessSolverConfiguration solverConfiguration = makeSolverConfiguration(solverImplementationClassName, configuration);
+		solverConfiguration.setProcessorAffinity(processorAffinity);
 		ExternalProcessSolver solver = makeSolverFromConfiguration(solverConfiguration);
 		return solver;
 	}
@@ -81,7 +98,9 @@ public class SolverEvaluation {
 						configuration.getTotalCPURuntimeLimitSecondsPerSolveAttempt(),
 						configuration.getTotalMemoryLimitInMegabytesPerSolveAttempt(),
 						!configuration.doesNotCacheTranslations(),
-						configuration.getWorkingDirectory());
+						configuration.getWorkingDirectory(),
+						configuration.getNumberOfSolverWorkers(),
+						ExternalProcessSolverConfiguration.DEFAULT_MAXIMUM_NUMBER_OF_SOLVES_PER_WORKER);
 		return solverConfiguration;
 	}
 
@@ -108,13 +127,26 @@ public class SolverEvaluation {
 		notifier.notifyAboutBurnIn(solver.getName(), solverEvaluationResult);
 	}
 
+	/**
+	 * @deprecated use {@link #getResultsFromAllRuns(Problem)} and {@link CSVWriter#makeQueryLine(Problem, String, java.util.List)} instead;
+	 * this requires the evaluation to have been made with a CSV writer.
+	 */
+	@Deprecated
 	public void evaluate(Problem problem) {
 		SolverEvaluationResult solverEvaluationResult = getResultsFromAllRuns(problem);
 		csvWriter.addToQueryLine(solverEvaluationResult);
 		notifier.notifyAboutSolverTime(solverEvaluationResult);
+		notifier.notifyAboutRegression(solverEvaluationResult, csvWriter.getRegressionFlag(solverEvaluationResult));
 	}
 
-	private SolverEvaluationResult getResultsFromAllRuns(Problem problem) {
+	/**
+	 * Solves the problem the configured number of warm-up times, discarding the results,
+	 * and then the configured number of times to average over, without outputting or notifying about the result.
+	 */
+	public SolverEvaluationResult getResultsFromAllRuns(Problem problem) {
+		for (int i = 0; i != configuration.getNumberOfWarmUpRunsPerProblem(); i++) {
+			solve(problem);
+		}
 		SolverEvaluationResult solverEvaluationResult = new SolverEvaluationResult(solver, problem);	
 		for (int i = 0; i != configuration.getNumberOfRunsToAverageOver(); i++) {
 			ExternalProcessSolverResult solverResult = solve(problem);
@@ -124,6 +156,13 @@ public class SolverEvaluation {
 		return solverEvaluationResult;
 	}
 
+	/**
+	 * Releases the solver's resources, such as worker processes.
+	 */
+	public void close() {
+		solver.close();
+	}
+
 	/////////////// LOW-LEVEL METHODS
 	
 	private ExternalProcessSolverResult solve(Problem problem) {
@@ -37,6 +37,9 @@
  */
 package com.sri.ai.praise.other.empiricalevaluation.solverevaluation;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.sri.ai.expresso.api.Expression;
 import com.sri.ai.praise.core.inference.externalprocesssolver.api.ExternalProcessSolver;
 import com.sri.ai.praise.core.inference.externalprocesssolver.core.ExternalProcessSolverResult;
@@ -59,6 +62,8 @@ public class SolverEvaluationResult {
 	public long averagelTranslationTimeInMilliseconds;
 	public long sumOfTotalInferenceTimeInMilliseconds   = 0L;
 	public long sumOfTotalTranslationTimeInMilliseconds = 0L;
+	public List<Long> inferenceTimeSamplesInMilliseconds = new ArrayList<>();
+	public TimeStatistics inferenceTimeStatistics;
 	
 	public SolverEvaluationResult(ExternalProcessSolver solver, Problem problem) {
 		this.solver = solver;
@@ -73,6 +78,7 @@ public class SolverEvaluationResult {
 	private void updateTime(ExternalProcessSolverResult solverResult) {
 		sumOfTotalInferenceTimeInMilliseconds   += solverResult.getTotalInferenceTimeInMilliseconds();
 		sumOfTotalTranslationTimeInMilliseconds += solverResult.getTotalTranslationTimeInMilliseconds();
+		inferenceTimeSamplesInMilliseconds.add(solverResult.getTotalInferenceTimeInMilliseconds());
 	}
 	
 	private void updateAnswer(ExternalProcessSolverResult solverResult) {
@@ -87,5 +93,6 @@ public class SolverEvaluationResult {
 	public void recordAverageTime(int numberOfRuns) {
 		averageInferenceTimeInMilliseconds    = sumOfTotalInferenceTimeInMilliseconds / numberOfRuns;
 		averagelTranslationTimeInMilliseconds = sumOfTotalTranslationTimeInMilliseconds / numberOfRuns;
+		inferenceTimeStatistics = new TimeStatistics(inferenceTimeSamplesInMilliseconds);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.sri.ai.praise.other.empiricalevaluation.solverevaluation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summary statistics of the times (in milliseconds) measured by the runs of a {@link SolverEvaluation} on a problem.
+ * <p>
+ * The confidence interval is the 95% confidence interval of the mean time, based on Student's t distribution
+ * since the number of runs is typically small.
+ *
+ */
+public class TimeStatistics {
+
+	/**
+	 * Two-sided 95% critical values of Student's t distribution for 1 to 30 degrees of freedom.
+	 */
+	private static final double[] T_CRITICAL_VALUES_95 = {
+			12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+			 2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+			 2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042 };
+
+	private static final double NORMAL_CRITICAL_VALUE_95 = 1.960;
+
+	public int numberOfSamples;
+	public double mean;
+	public double median;
+	public double percentile90;
+	public double standardDeviation;
+	public double confidenceIntervalLow;
+	public double confidenceIntervalHigh;
+
+	public TimeStatistics(List<Long> samples) {
+		if (samples.isEmpty()) {
+			throw new IllegalArgumentException("Time statistics require at least one sample");
+		}
+		List<Long> sorted = new ArrayList<>(samples);
+		Collections.sort(sorted);
+		numberOfSamples = sorted.size();
+		mean = mean(sorted);
+		median = median(sorted);
+		percentile90 = sorted.get(nearestRank(0.9, numberOfSamples));
+		standardDeviation = sampleStandardDeviation(sorted, mean);
+		double halfWidth = numberOfSamples > 1? criticalValue95(numberOfSamples - 1) * standardDeviation / Math.sqrt(numberOfSamples) : 0;
+		confidenceIntervalLow  = mean - halfWidth;
+		confidenceIntervalHigh = mean + halfWidth;
+	}
+
+	private static double mean(List<Long> samples) {
+		double sum = 0;
+		for (long sample : samples) {
+			sum += sample;
+		}
+		return sum / samples.size();
+	}
+
+	private static double median(List<Long> sorted) {
+		int middle = sorted.size() / 2;
+		if (sorted.size() % 2 == 1) {
+			return sorted.get(middle);
+		}
+		return (sorted.get(middle - 1) + sorted.get(middle)) / 2.0;
+	}
+
+	private static int nearestRank(double percentile, int numberOfSamples) {
+		return Math.max(0, (int) Math.ceil(percentile * numberOfSamples) - 1);
+	}
+
+	private static double sampleStandardDeviation(List<Long> samples, double mean) {
+		if (samples.size() < 2) {
+			return 0;
+		}
+		double sumOfSquares = 0;
+		for (long sample : samples) {
+			sumOfSquares += (sample - mean) * (sample - mean);
+		}
+		return Math.sqrt(sumOfSquares / (samples.size() - 1));
+	}
+
+	private static double criticalValue95(int degreesOfFreedom) {
+		return degreesOfFreedom <= T_CRITICAL_VALUES_95.length? T_CRITICAL_VALUES_95[degreesOfFreedom - 1] : NORMAL_CRITICAL_VALUE_95;
+	}
+}
@@ -0,0 +1,87 @@
+package com.sri.ai.praise.core.representation.translation.ciaranframework.core.uai;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+import org.junit.Test;
+
+import com.sri.ai.expresso.api.Expression;
+import com.sri.ai.expresso.helper.Expressions;
+import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedModel;
+import com.sri.ai.praise.core.representation.classbased.hogm.components.HOGMExpressionBasedModel;
+import com.sri.ai.praise.core.representation.classbased.hogm.parsing.HOGMParserWrapper;
+import com.sri.ai.util.math.Rational;
+
+/**
+ * Tests that factor tables grounded concurrently ahead of their turn are notified unchanged after being spilled to disk.
+ * It lives in the package of {@link HOGModelGrounding} because the number of runs kept in memory can only be set from there.
+ */
+public class HOGModelGroundingSpillingTest {
+
+	@Test
+	public void testSpilledGrounding() {
+		StringJoiner sj = new StringJoiner("\n");
+		sj.add("sort People : 10, Putin;");
+		sj.add("sort Countries : 10, USA, Russia;");
+		sj.add("random country : Countries;");
+		sj.add("random president : People;");
+		sj.add("random communism : Boolean;");
+		sj.add("random democracy : Boolean;");
+		sj.add("random votePutin : 1..15;");
+		sj.add("if country = Russia then if president = Putin then communism else not communism else if democracy then not communism else communism;");
+		sj.add("if country = Russia then if votePutin > 5 then president = Putin else not president = Putin;");
+		sj.add("if democracy then 0.7 else 0.3;");
+		sj.add("if votePutin < 3 then 0.1 else if president = Putin then 0.6 else 0.4;");
+		sj.add("if country = USA then if democracy then 0.9 else 0.2 else 0.5;");
+		sj.add("if votePutin > 10 then if communism then 0.8 else 0.1 else 0.5;");
+
+		ExpressionBasedModel factorsAndTypes = new HOGMExpressionBasedModel(new HOGMParserWrapper().parseModel(sj.toString()));
+		List<Expression> evidence = new ArrayList<>();
+		evidence.add(Expressions.parse("communism"));
+
+		String sequential = groundToString(factorsAndTypes, evidence, 1, HOGModelGrounding.MAXIMUM_NUMBER_OF_RUNS_IN_MEMORY);
+		// more factors than are kept in flight, and tables spilled after every run
+		assertEquals(sequential, groundToString(factorsAndTypes, evidence, 2, 1));
+		assertEquals(sequential, groundToString(factorsAndTypes, evidence, 3, 2));
+	}
+
+	private static String groundToString(ExpressionBasedModel factorsAndTypes, List<Expression> evidence, int numberOfThreads, int maximumNumberOfRunsInMemory) {
+		StringBuilder result = new StringBuilder();
+		HOGModelGrounding.ground(factorsAndTypes, evidence, new HOGModelGrounding.Listener() {
+			@Override
+			public void numberGroundVariables(int number) {
+				result.append("variables " + number + "\n");
+			}
+			@Override
+			public void groundVariableCardinality(int variableIndex, int cardinality) {
+				result.append("cardinality " + variableIndex + " " + cardinality + "\n");
+			}
+			@Override
+			public void numberFactors(int number) {
+				result.append("factors " + number + "\n");
+			}
+			@Override
+			public void factorParticipants(int factorIndex, int[] variableIndexes) {
+				result.append("participants " + factorIndex + " " + Arrays.toString(variableIndexes) + "\n");
+			}
+			@Override
+			public void factorValue(int numberFactorValues, boolean isFirstValue, boolean isLastValue, Rational value) {
+				result.append(numberFactorValues + " " + isFirstValue + " " + isLastValue + " " + value + "\n");
+			}
+			@Override
+			public void evidence(int variableIndex, int valueIndex) {
+				result.append("evidence " + variableIndex + " " + valueIndex + "\n");
+			}
+			@Override
+			public void groundingComplete() {
+				result.append("complete\n");
+			}
+		}, numberOfThreads, maximumNumberOfRunsInMemory);
+		return result.toString();
+	}
+
+}
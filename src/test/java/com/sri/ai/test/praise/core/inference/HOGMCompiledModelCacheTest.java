@@ -0,0 +1,68 @@
+package com.sri.ai.test.praise.core.inference;
+
+import static com.sri.ai.util.Util.list;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.solver.HOGMCompiledModel;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.solver.HOGMCompiledModelCache;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.solver.HOGMMultiQueryProblemSolver;
+import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.hogm.solver.HOGMProblemResult;
+
+public class HOGMCompiledModelCacheTest {
+
+	private static final String MODEL1 = "random earthquake: Boolean; random burglary: Boolean; earthquake 0.01; burglary 0.1;";
+	private static final String MODEL2 = "random x : 1..5; if x > 2 then 0.8 else 0.2;";
+	private static final String MODEL3 = "random y : Boolean; y 0.3;";
+
+	@Test
+	public void testHitsMissesAndEvictions() {
+		HOGMCompiledModelCache cache = new HOGMCompiledModelCache(2);
+
+		HOGMCompiledModel compiled1 = cache.get(MODEL1);
+		assertTrue(compiled1 == cache.get(MODEL1));
+		assertEquals(1, cache.getNumberOfMisses());
+		assertEquals(1, cache.getNumberOfHits());
+
+		cache.get(MODEL2);
+		cache.get(MODEL1); // MODEL2 is now the least recently used
+		cache.get(MODEL3);
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getNumberOfEvictions());
+		assertTrue(cache.contains(MODEL1));
+		assertFalse(cache.contains(MODEL2));
+		assertTrue(cache.contains(MODEL3));
+		assertEquals(0.4, cache.getHitRate(), 1e-9);
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getNumberOfHits());
+	}
+
+	@Test
+	public void testErroneousModelsAreCachedWithTheirErrors() {
+		HOGMCompiledModelCache cache = new HOGMCompiledModelCache(2);
+		HOGMCompiledModel compiled = cache.get("random x : Boolean; y;");
+		assertFalse(compiled.getErrors().isEmpty());
+		assertTrue(compiled == cache.get("random x : Boolean; y;"));
+	}
+
+	@Test
+	public void testSolverUsesCache() {
+		HOGMCompiledModelCache cache = new HOGMCompiledModelCache(2);
+		for (String query : list("earthquake", "burglary", "earthquake or burglary")) {
+			HOGMMultiQueryProblemSolver solver = new HOGMMultiQueryProblemSolver(MODEL1, query);
+			solver.setModelCache(cache);
+			List<HOGMProblemResult> results = solver.getResults();
+			assertEquals(1, results.size());
+			assertFalse(results.get(0).hasErrors());
+		}
+		assertEquals(1, cache.getNumberOfMisses());
+		assertEquals(2, cache.getNumberOfHits());
+	}
+}
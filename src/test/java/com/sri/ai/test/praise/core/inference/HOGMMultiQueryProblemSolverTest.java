@@ -46,8 +46,12 @@ import static com.sri.ai.util.explanation.logging.api.ThreadExplanationLogger.co
 import static com.sri.ai.util.explanation.logging.api.ThreadExplanationLogger.explanationBlockToFile;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -252,4 +256,101 @@ public class HOGMMultiQueryProblemSolverTest {
 		println("actual: " + result.getResult());
 		assertEquals(expected.toString(), result.getResult().toString());
 	}
+
+	@Test
+	public void concurrentQueries() {
+		String model = 
+				"random earthquake : Boolean;\n" + 
+				"random burglary : Boolean;\n" + 
+				"random alarm : Boolean;\n" + 
+				"random neighborCalls : Boolean;\n" + 
+				"earthquake 0.01;\n" + 
+				"burglary 0.1;\n" + 
+				"if earthquake then if burglary then alarm 0.95 else alarm 0.6 else if burglary then alarm 0.9 else alarm 0.01;\n" + 
+				"if alarm then neighborCalls 0.7 else neighborCalls 0.1;\n" + 
+				"neighborCalls;\n";
+		
+		List<String> queries = list("earthquake", "burglary", "alarm", "not alarm", "earthquake and burglary", "neighborCalls", "undeclared");
+
+		HOGMMultiQueryProblemSolver sequentialSolver = new HOGMMultiQueryProblemSolver(model, queries);
+		List<HOGMProblemResult> sequentialResults = sequentialSolver.getResults();
+
+		HOGMMultiQueryProblemSolver concurrentSolver = new HOGMMultiQueryProblemSolver(model, queries);
+		concurrentSolver.setNumberOfThreads(4);
+		concurrentSolver.setQueryTimeout(1, TimeUnit.MINUTES);
+		List<HOGMProblemResult> concurrentResults = concurrentSolver.getResults();
+
+		assertEquals(queries.size(), concurrentResults.size());
+		for (int i = 0; i != queries.size(); i++) {
+			HOGMProblemResult sequentialResult = sequentialResults.get(i);
+			HOGMProblemResult concurrentResult = concurrentResults.get(i);
+			assertEquals(queries.get(i), concurrentResult.getQueryString());
+			assertEquals(sequentialResult.hasErrors(), concurrentResult.hasErrors());
+			if (!sequentialResult.hasErrors()) {
+				assertEquals(sequentialResult.getResult(), concurrentResult.getResult());
+			}
+		}
+		assertTrue(concurrentResults.get(queries.size() - 1).hasErrors());
+		assertTrue(concurrentSolver.getWallClockMillisecondsToCompute() >= 0);
+		assertTrue(concurrentSolver.getSummedMillisecondsToCompute() >= 0);
+	}
+
+	@Test
+	public void queryTimeout() {
+		HOGMMultiQueryProblemSolver solver = new HOGMMultiQueryProblemSolver(gridModel(5), list("v00"));
+		solver.setQueryTimeout(50, TimeUnit.MILLISECONDS);
+		List<HOGMProblemResult> results = solver.getResults();
+
+		assertEquals(1, results.size());
+		HOGMProblemResult result = getFirst(results);
+		assertTrue(result.hasErrors());
+		assertTrue(result.getErrors().get(0).getErrorMessage(), result.getErrors().get(0).getErrorMessage().startsWith("Query timed out after "));
+	}
+
+	@Test
+	public void interruptRunningQueries() throws InterruptedException {
+		for (int numberOfThreads : new int[] { 1, 3 }) {
+			HOGMMultiQueryProblemSolver solver = new HOGMMultiQueryProblemSolver(gridModel(5), list("v00", "v22", "v44"));
+			solver.setNumberOfThreads(numberOfThreads);
+			AtomicReference<Throwable> failureToInterrupt = new AtomicReference<>();
+			Thread interrupter = new Thread(() -> {
+				try {
+					Thread.sleep(200);
+					solver.interrupt();
+				}
+				catch (Throwable throwable) {
+					failureToInterrupt.set(throwable);
+				}
+			});
+			interrupter.start();
+			List<HOGMProblemResult> results = solver.getResults();
+			interrupter.join();
+
+			assertNull(failureToInterrupt.get());
+			assertTrue(results.isEmpty()); // none of the queries completes before being interrupted
+		}
+	}
+
+	/**
+	 * A loopy model on a grid of Boolean variables, on which exact BP takes long.
+	 */
+	private static String gridModel(int size) {
+		StringBuilder model = new StringBuilder();
+		for (int i = 0; i != size; i++) {
+			for (int j = 0; j != size; j++) {
+				model.append("random v" + i + j + " : Boolean;\n");
+			}
+		}
+		for (int i = 0; i != size; i++) {
+			for (int j = 0; j != size; j++) {
+				if (i + 1 != size) {
+					model.append("if v" + i + j + " = v" + (i + 1) + j + " then 0.6 else 0.4;\n");
+				}
+				if (j + 1 != size) {
+					model.append("if v" + i + j + " = v" + i + (j + 1) + " then 0.7 else 0.3;\n");
+				}
+			}
+		}
+		return model.toString();
+	}
 }
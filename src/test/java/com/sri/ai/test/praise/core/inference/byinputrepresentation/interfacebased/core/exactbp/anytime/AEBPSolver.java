@@ -182,8 +182,8 @@ public class AEBPSolver {
 				Pair<TableFactor, TableFactor> maxMinProba = getMaxMinProbabilityFromIntensionalConvHull((IntensionalConvexHullOfFactors) polytope);
 				
 				result = new Pair<>(
-						maxMinProba.first.getEntries(),
-						maxMinProba.second.getEntries());
+						new ArrayList<>(maxMinProba.first.getEntries()),
+						new ArrayList<>(maxMinProba.second.getEntries()));
 			}
 			else if(polytope instanceof Simplex) {
 				println("simplex.");
@@ -239,16 +239,16 @@ public class AEBPSolver {
 			}
 		}
 		
-		private ArrayList<Double> getMinOf(ArrayList<Double> entries, ArrayList<Double> entries2) {
+		private ArrayList<Double> getMinOf(List<Double> entries, List<Double> entries2) {
 			ArrayList<Double> result = collectFromOfTwoLists(entries,entries2, (a,b)->Double.min(a, b));
 			return result;
 		}
-		private ArrayList<Double> getMaxOf(ArrayList<Double> entries, ArrayList<Double> entries2) {
+		private ArrayList<Double> getMaxOf(List<Double> entries, List<Double> entries2) {
 			ArrayList<Double> result = collectFromOfTwoLists(entries,entries2, (a,b)->Double.max(a, b));
 			return result;
 		}
 
-		private <T> ArrayList<T> collectFromOfTwoLists(ArrayList<T> entries, ArrayList<T> entries2,BiFunction<T, T, T> function) {
+		private <T> ArrayList<T> collectFromOfTwoLists(List<T> entries, List<T> entries2,BiFunction<T, T, T> function) {
 			if(entries.size() != entries2.size()) {
 				return null;
 			}
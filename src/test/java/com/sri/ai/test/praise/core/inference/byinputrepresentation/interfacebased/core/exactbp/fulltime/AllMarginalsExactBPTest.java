@@ -0,0 +1,58 @@
+package com.sri.ai.test.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.anytime.gabriel.TestCases;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.AllMarginalsExactBP;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ExactBP;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+
+/**
+ * Checks that computing all marginals with cached messages gives the same marginals as one exact BP per variable.
+ *
+ */
+public class AllMarginalsExactBPTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	@Test
+	public void testTree() {
+		List<TableFactor> factors = TestCases.treeWithUniformlyRandomEntries(4, 3, 2);
+		AllMarginalsExactBP allMarginals = compareWithOneExactBPPerVariable(factors);
+
+		// on a tree, each message from a factor to one of its variables is computed exactly once
+		int numberOfEdges = 0;
+		for (TableFactor factor : factors) {
+			numberOfEdges += factor.getVariables().size();
+		}
+		assertEquals(numberOfEdges, allMarginals.getMessageCache().getNumberOfMisses());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testLoopyGrid() {
+		List<TableFactor> factors = (List<TableFactor>) TestCases.gridModelWithRandomFactors(3, true);
+		compareWithOneExactBPPerVariable(factors);
+	}
+
+	private static AllMarginalsExactBP compareWithOneExactBPPerVariable(List<TableFactor> factors) {
+		AllMarginalsExactBP allMarginals = new AllMarginalsExactBP(new TableFactorNetwork(factors));
+		Map<Variable, Factor> marginals = allMarginals.solve();
+		for (Map.Entry<Variable, Factor> entry : marginals.entrySet()) {
+			TableFactor expected = (TableFactor) new ExactBP(entry.getKey(), new TableFactorNetwork(factors)).apply();
+			TableFactor actual = (TableFactor) entry.getValue();
+			assertArrayEquals(expected.normalize().getEntriesArray(), actual.getEntriesArray(), TOLERANCE);
+		}
+		return allMarginals;
+	}
+
+}
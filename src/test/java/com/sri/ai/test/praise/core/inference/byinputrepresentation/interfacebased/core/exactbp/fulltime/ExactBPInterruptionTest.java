@@ -0,0 +1,56 @@
+package com.sri.ai.test.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.anytime.gabriel.TestCases;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ExactBP;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ParallelExactBPNodeEvaluator;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+
+/**
+ * Checks that exact BP, sequential or parallel, stops once its interruption flag is set, and is unaffected by it otherwise.
+ *
+ */
+public class ExactBPInterruptionTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testInterruptionFlag() {
+		List<TableFactor> factors = (List<TableFactor>) TestCases.gridModelWithRandomFactors(4, true);
+		TableVariable query = factors.get(0).getVariables().get(0);
+		TableFactor expected = (TableFactor) new ExactBP(query, new TableFactorNetwork(factors)).apply();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (ParallelExactBPNodeEvaluator parallelEvaluator : new ParallelExactBPNodeEvaluator[] { null, new ParallelExactBPNodeEvaluator(pool, 1) }) {
+				ExactBP exactBP = new ExactBP(query, new TableFactorNetwork(factors), parallelEvaluator);
+				exactBP.setInterruptionFlag(new AtomicBoolean(true));
+				try {
+					exactBP.apply();
+					fail("Exact BP should have been interrupted");
+				}
+				catch (CancellationException cancellation) {
+				}
+
+				exactBP = new ExactBP(query, new TableFactorNetwork(factors), parallelEvaluator);
+				exactBP.setInterruptionFlag(new AtomicBoolean(false));
+				TableFactor marginal = (TableFactor) exactBP.apply();
+				assertArrayEquals(expected.normalize().getEntriesArray(), marginal.normalize().getEntriesArray(), TOLERANCE);
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+}
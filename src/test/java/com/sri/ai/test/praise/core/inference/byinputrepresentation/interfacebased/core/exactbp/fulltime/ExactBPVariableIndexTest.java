@@ -0,0 +1,66 @@
+package com.sri.ai.test.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.anytime.gabriel.TestCases;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ExactBP;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ExactBPVariableIndex;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+
+/**
+ * Checks the variable ids and bit sets of {@link ExactBPVariableIndex},
+ * and that exact BP gives the same marginals with and without it.
+ *
+ */
+public class ExactBPVariableIndexTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	@Test
+	public void testIdsAndContains() {
+		TableVariable a = new TableVariable("a", 2);
+		TableVariable b = new TableVariable("b", 3);
+		TableVariable c = new TableVariable("c", 2);
+		TableFactor ab = new TableFactor(Arrays.asList(a, b), 1.0);
+		TableFactor bc = new TableFactor(Arrays.asList(b, c), 1.0);
+
+		ExactBPVariableIndex index = new ExactBPVariableIndex();
+		int idOfA = index.getId(a);
+		int idOfC = index.getId(c);
+		assertEquals(idOfA, index.getId(new TableVariable("a", 2)));
+		assertEquals(2, index.size());
+
+		assertTrue(index.contains(ab, idOfA));
+		assertFalse(index.contains(ab, idOfC));
+		assertTrue(index.contains(bc, index.getId(b)));
+		assertTrue(index.contains(bc, idOfC));
+		assertEquals(3, index.size());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testSameMarginalsWithAndWithoutIndex() {
+		List<TableFactor> factors = (List<TableFactor>) TestCases.gridModelWithRandomFactors(3, true);
+		TableFactorNetwork network = new TableFactorNetwork(factors);
+		for (Variable variable : network.getBs()) {
+			ExactBP withIndex = new ExactBP(variable, network);
+			ExactBP withoutIndex = new ExactBP(variable, network);
+			withoutIndex.setVariableIndex(null);
+			TableFactor expected = (TableFactor) withoutIndex.apply();
+			TableFactor actual = (TableFactor) withIndex.apply();
+			assertArrayEquals(expected.getEntriesArray(), actual.getEntriesArray(), TOLERANCE);
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.sri.ai.test.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.anytime.gabriel.TestCases;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ExactBP;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.LogTableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+
+/**
+ * Checks that exact BP computes the same marginals on a log-space {@link TableFactorNetwork} as on the linear-space one.
+ *
+ */
+public class LogSpaceExactBPTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	@Test
+	public void testTree() {
+		List<TableFactor> factors = TestCases.treeWithUniformlyRandomEntries(4, 3, 2);
+		for (TableVariable query : variablesOf(factors)) {
+			compareLinearAndLogSpace(factors, query);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testLoopyGrid() {
+		List<TableFactor> factors = (List<TableFactor>) TestCases.gridModelWithRandomFactors(3, true);
+		compareLinearAndLogSpace(factors, factors.get(0).getVariables().get(0));
+	}
+
+	@Test
+	public void testMixedProducts() {
+		TableVariable a = new TableVariable("a", 2);
+		TableFactor linear = new TableFactor(Arrays.asList(a), new double[] {1., 3.});
+		LogTableFactor log = LogTableFactor.fromTableFactor(linear);
+		assertTrue(linear.multiply((Factor) log) instanceof LogTableFactor);
+		assertTrue(linear.add((Factor) log) instanceof LogTableFactor);
+		assertArrayEquals(new double[] {0.1, 0.9}, ((LogTableFactor) linear.multiply((Factor) log)).toTableFactor().normalize().getEntriesArray(), TOLERANCE);
+	}
+
+	private static List<TableVariable> variablesOf(List<TableFactor> factors) {
+		List<TableVariable> result = new ArrayList<>();
+		for (TableFactor factor : factors) {
+			for (TableVariable variable : factor.getVariables()) {
+				if (!result.contains(variable)) {
+					result.add(variable);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static void compareLinearAndLogSpace(List<TableFactor> factors, TableVariable query) {
+		TableFactor linear = (TableFactor) new ExactBP(query, new TableFactorNetwork(factors)).apply();
+		Factor logSpace = new ExactBP(query, new TableFactorNetwork(factors, true)).apply();
+		assertTrue(logSpace instanceof LogTableFactor);
+		assertArrayEquals(linear.normalize().getEntriesArray(), ((LogTableFactor) logSpace).toTableFactor().normalize().getEntriesArray(), TOLERANCE);
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.sri.ai.test.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.anytime.gabriel.TestCases;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ExactBP;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ParallelExactBPNodeEvaluator;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+
+/**
+ * Checks that exact BP computes the same marginals with sub-messages evaluated in parallel as sequentially.
+ *
+ */
+public class ParallelExactBPTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	@Test
+	public void testTree() {
+		List<TableFactor> factors = TestCases.treeWithUniformlyRandomEntries(4, 3, 2);
+		TableVariable query = factors.get(0).getVariables().get(0);
+		compareSequentialAndParallel(factors, query, 1);
+		compareSequentialAndParallel(factors, query, ParallelExactBPNodeEvaluator.DEFAULT_SEQUENTIAL_THRESHOLD);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testLoopyGrid() {
+		List<TableFactor> factors = (List<TableFactor>) TestCases.gridModelWithRandomFactors(4, true);
+		TableVariable query = factors.get(0).getVariables().get(0);
+		compareSequentialAndParallel(factors, query, 1);
+	}
+
+	private static void compareSequentialAndParallel(List<TableFactor> factors, TableVariable query, int sequentialThreshold) {
+		TableFactor sequential = (TableFactor) new ExactBP(query, new TableFactorNetwork(factors)).apply();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			ParallelExactBPNodeEvaluator parallelEvaluator = new ParallelExactBPNodeEvaluator(pool, sequentialThreshold);
+			TableFactor parallel = (TableFactor) new ExactBP(query, new TableFactorNetwork(factors), parallelEvaluator).apply();
+			assertArrayEquals(sequential.normalize().getEntriesArray(), parallel.normalize().getEntriesArray(), TOLERANCE);
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.sri.ai.test.praise.core.inference.byinputrepresentation.interfacebased.core.junctiontree;
+
+import static com.sri.ai.util.Util.arrayList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.anytime.gabriel.TestCases;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.junctiontree.core.JunctionTree;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Variable;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.ConstantFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+
+/**
+ * Checks junction tree marginals and probability of evidence against the product of all factors,
+ * as evidence is entered and retracted, and after saving and loading the tree.
+ *
+ */
+public class JunctionTreeTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testEvidenceEntryAndRetraction() throws IOException {
+		List<TableFactor> factors = (List<TableFactor>) TestCases.gridModelWithRandomFactors(3, true);
+		JunctionTree junctionTree = JunctionTree.compile(new TableFactorNetwork(factors));
+		Map<TableVariable, Integer> evidence = new LinkedHashMap<>();
+		checkAgainstBruteForce(factors, evidence, junctionTree);
+		assertTrue(junctionTree.isCalibrated());
+
+		TableVariable first = factors.get(0).getVariables().get(0);
+		TableVariable last = factors.get(factors.size() - 1).getVariables().get(1);
+
+		junctionTree.setEvidence(first, 1);
+		evidence.put(first, 1);
+		checkAgainstBruteForce(factors, evidence, junctionTree);
+
+		junctionTree.setEvidence(last, 0);
+		evidence.put(last, 0);
+		checkAgainstBruteForce(factors, evidence, junctionTree);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		junctionTree.save(bytes);
+		JunctionTree loaded = JunctionTree.load(new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals(evidence, loaded.getEvidence());
+		assertEquals(junctionTree.numberOfCliques(), loaded.numberOfCliques());
+		checkAgainstBruteForce(factors, evidence, loaded);
+
+		junctionTree.retractEvidence(first);
+		evidence.remove(first);
+		checkAgainstBruteForce(factors, evidence, junctionTree);
+
+		junctionTree.retractAllEvidence();
+		evidence.clear();
+		checkAgainstBruteForce(factors, evidence, junctionTree);
+	}
+
+	@Test
+	public void testNetworkWithoutVariables() throws IOException {
+		List<TableFactor> factors = arrayList(new TableFactor(new ArrayList<>(), 2.0), new TableFactor(new ArrayList<>(), 3.0));
+		JunctionTree junctionTree = JunctionTree.compile(new TableFactorNetwork(factors));
+		assertEquals(1, junctionTree.numberOfCliques());
+		assertTrue(junctionTree.marginals().isEmpty());
+		// factor networks only index factors through their variables, so constant factors are not part of it
+		assertEquals(1.0, junctionTree.probabilityOfEvidence(), TOLERANCE);
+
+		JunctionTree empty = JunctionTree.compile(new TableFactorNetwork(new ArrayList<>()));
+		assertEquals(1, empty.numberOfCliques());
+		assertEquals(1.0, empty.probabilityOfEvidence(), TOLERANCE);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		empty.save(bytes);
+		assertEquals(1.0, JunctionTree.load(new ByteArrayInputStream(bytes.toByteArray())).probabilityOfEvidence(), TOLERANCE);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testInterruptedThreadStopsCompilationAndCalibration() {
+		List<TableFactor> factors = (List<TableFactor>) TestCases.gridModelWithRandomFactors(3, true);
+		TableFactorNetwork network = new TableFactorNetwork(factors);
+		JunctionTree junctionTree = JunctionTree.compile(network);
+		try {
+			Thread.currentThread().interrupt();
+			try {
+				JunctionTree.compile(network);
+				fail("Compilation in an interrupted thread should have been cancelled");
+			}
+			catch (CancellationException exception) {
+			}
+			try {
+				junctionTree.probabilityOfEvidence();
+				fail("Calibration in an interrupted thread should have been cancelled");
+			}
+			catch (CancellationException exception) {
+			}
+		}
+		finally {
+			Thread.interrupted();
+		}
+		checkAgainstBruteForce(factors, new LinkedHashMap<>(), junctionTree); // calibrates once no longer interrupted
+	}
+
+	private static void checkAgainstBruteForce(List<TableFactor> factors, Map<TableVariable, Integer> evidence, JunctionTree junctionTree) {
+		List<Factor> factorsAndEvidence = new ArrayList<>(factors);
+		for (Map.Entry<TableVariable, Integer> entry : evidence.entrySet()) {
+			TableFactor indicator = new TableFactor(arrayList(entry.getKey()), 0.0);
+			indicator.setEntry(entry.getValue(), 1.0);
+			factorsAndEvidence.add(indicator);
+		}
+		Factor product = Factor.multiply(factorsAndEvidence);
+
+		for (Map.Entry<TableVariable, TableFactor> entry : junctionTree.marginals().entrySet()) {
+			List<Variable> others = new ArrayList<>(product.getVariables());
+			others.remove(entry.getKey());
+			TableFactor expected = ((TableFactor) product.sumOut(others)).normalize();
+			assertArrayEquals(expected.getEntriesArray(), entry.getValue().getEntriesArray(), TOLERANCE);
+		}
+
+		double partitionFunction = ((ConstantFactor) product.sumOut(product.getVariables())).getConstant();
+		assertEquals(1.0, junctionTree.probabilityOfEvidence()/partitionFunction, TOLERANCE);
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.sri.ai.test.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination;
+
+import static com.sri.ai.util.Util.arrayList;
+import static com.sri.ai.util.Util.list;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.anytime.gabriel.TestCases;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ExactBP;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.core.EliminationOrdering;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.core.EliminationOrderingHeuristics;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.variableelimination.core.VariableElimination;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+
+/**
+ * Checks variable elimination against exact BP, and the elimination orderings on a small network.
+ *
+ */
+public class VariableEliminationTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testLoopyGrid() {
+		List<TableFactor> factors = (List<TableFactor>) TestCases.gridModelWithRandomFactors(3, true);
+		TableVariable query = factors.get(0).getVariables().get(0);
+		TableFactor expected = (TableFactor) new ExactBP(query, new TableFactorNetwork(factors)).apply();
+		for (EliminationOrderingHeuristics heuristic : EliminationOrderingHeuristics.values()) {
+			TableFactor actual = (TableFactor) new VariableElimination(query, new TableFactorNetwork(factors), heuristic).apply();
+			assertArrayEquals(expected.normalize().getEntriesArray(), actual.normalize().getEntriesArray(), TOLERANCE);
+		}
+	}
+
+	@Test
+	public void testOrderings() {
+		// a star around C, with A in a triangle with C and B
+		TableVariable a = new TableVariable("A", 2);
+		TableVariable b = new TableVariable("B", 2);
+		TableVariable c = new TableVariable("C", 3);
+		TableVariable d = new TableVariable("D", 4);
+		TableVariable e = new TableVariable("E", 4);
+		TableFactorNetwork network = new TableFactorNetwork(list(
+				new TableFactor(arrayList(a, b), 1.0),
+				new TableFactor(arrayList(a, c), 1.0),
+				new TableFactor(arrayList(b, c), 1.0),
+				new TableFactor(arrayList(c, d), 1.0),
+				new TableFactor(arrayList(c, e), 1.0)));
+
+		// eliminating C before its neighbors would connect them all, so both heuristics postpone it
+		EliminationOrdering minDegree = EliminationOrdering.make(network, list(a, b, c, d, e), EliminationOrderingHeuristics.MIN_DEGREE);
+		assertEquals(list(d, e, a, b, c), minDegree.getVariables());
+		assertEquals(2, minDegree.getInducedWidth());
+		assertEquals(12, minDegree.getMaximumTableSize());
+
+		EliminationOrdering minFill = EliminationOrdering.make(network, list(a, b, c, d, e), EliminationOrderingHeuristics.MIN_FILL);
+		assertEquals(list(a, b, d, c, e), minFill.getVariables());
+		assertEquals(12, minFill.getMaximumTableSize());
+
+		VariableElimination variableElimination = new VariableElimination(c, network, EliminationOrderingHeuristics.WEIGHTED_MIN_FILL);
+		assertEquals(4, variableElimination.getEliminationOrdering().getVariables().size());
+		TableFactor marginal = ((TableFactor) variableElimination.apply()).normalize();
+		assertArrayEquals(new double[] {1./3, 1./3, 1./3}, marginal.getEntriesArray(), TOLERANCE);
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.sri.ai.test.praise.core.inference.externalprocesssolver.core.praise;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.inference.externalprocesssolver.core.ExternalProcessSolverConfiguration;
+import com.sri.ai.praise.core.inference.externalprocesssolver.core.praise.PRAiSESolverWorkerPool;
+import com.sri.ai.praise.core.inference.externalprocesssolver.core.praise.PRAiSESolverWorkerPool.Response;
+import com.sri.ai.praise.other.application.praise.commandline.PRAiSEWorker;
+
+/**
+ * Checks the framing of {@link PRAiSEWorker} strings and the recycling of workers by {@link PRAiSESolverWorkerPool},
+ * using {@link ScriptedWorker} processes so that no model needs to be solved.
+ *
+ */
+public class PRAiSESolverWorkerPoolTest {
+
+	private static final String HANG = "hang";
+
+	/**
+	 * A worker following the protocol of {@link PRAiSEWorker} that answers each query with the model, the query and
+	 * the number of requests the process has served so far, except for query {@link #HANG}, which it never answers.
+	 */
+	public static class ScriptedWorker {
+
+		public static void main(String[] args) throws IOException, InterruptedException {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+			out.writeInt(PRAiSEWorker.READY);
+			out.flush();
+			int numberOfSolves = 0;
+			while (in.readInt() == PRAiSEWorker.SOLVE_REQUEST) {
+				String model = PRAiSEWorker.readString(in);
+				String query = PRAiSEWorker.readString(in);
+				numberOfSolves++;
+				if (query.equals(HANG)) {
+					Thread.sleep(Long.MAX_VALUE);
+				}
+				out.writeInt(PRAiSEWorker.RESULT_RESPONSE);
+				PRAiSEWorker.writeString(model + " " + query + " " + numberOfSolves, out);
+				out.writeLong(0);
+				out.flush();
+			}
+		}
+	}
+
+	@Test
+	public void testFramedStringsRoundTrip() throws IOException {
+		StringBuilder longString = new StringBuilder();
+		for (int i = 0; i != 30000; i++) {
+			longString.append("é中"); // more bytes than DataOutputStream.writeUTF accepts
+		}
+		String[] strings = { "", "random a: Boolean;\na 0.3;", "p(élève) ≤ 1", longString.toString() };
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		for (String string : strings) {
+			PRAiSEWorker.writeString(string, out);
+		}
+		out.writeInt(PRAiSEWorker.SHUTDOWN_REQUEST);
+		out.flush();
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		for (String string : strings) {
+			assertEquals(string, PRAiSEWorker.readString(in));
+		}
+		assertEquals(PRAiSEWorker.SHUTDOWN_REQUEST, in.readInt()); // strings consume exactly their frames
+		assertEquals(0, in.available());
+	}
+
+	@Test
+	public void testWorkerIsRecycledAfterMaximumNumberOfSolves() throws IOException, InterruptedException {
+		try (PRAiSESolverWorkerPool pool = makePool(10, 2)) {
+			for (int i = 0; i != 5; i++) {
+				Response response = pool.solve("model", "query" + i);
+				assertTrue(response.isResult);
+				assertEquals("model query" + i + " " + (i % 2 + 1), response.text);
+			}
+			assertEquals(3, pool.getNumberOfStartedWorkers());
+		}
+	}
+
+	@Test
+	public void testWorkerExceedingTimeLimitIsKilledAndReplaced() throws IOException, InterruptedException {
+		try (PRAiSESolverWorkerPool pool = makePool(0, 10)) {
+			assertEquals("model query 1", pool.solve("model", "query").text);
+			try {
+				pool.solve("model", HANG);
+				fail("Worker not answering should have been killed");
+			}
+			catch (Error error) {
+				assertTrue(error.getMessage(), error.getMessage().contains("did not respond within 5 seconds"));
+			}
+			assertEquals("model query 1", pool.solve("model", "query").text); // answered by a new worker
+			assertEquals(2, pool.getNumberOfStartedWorkers());
+		}
+	}
+
+	private static PRAiSESolverWorkerPool makePool(int timeLimitInSeconds, int maximumNumberOfSolvesPerWorker) {
+		File workingDirectory = new File(System.getProperty("java.io.tmpdir"));
+		ExternalProcessSolverConfiguration configuration =
+				new ExternalProcessSolverConfiguration(null, timeLimitInSeconds, 64, false, workingDirectory, 1, maximumNumberOfSolvesPerWorker);
+		return new PRAiSESolverWorkerPool(configuration, ScriptedWorker.class.getName());
+	}
+}
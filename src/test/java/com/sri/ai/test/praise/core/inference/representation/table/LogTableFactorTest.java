@@ -0,0 +1,99 @@
+package com.sri.ai.test.praise.core.inference.representation.table;
+
+import static com.sri.ai.util.Util.arrayList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.ConstantFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.LogTableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+
+/**
+ * Class to test the LogTableFactor data type against the regular TableFactor
+ *
+ */
+public class LogTableFactorTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	TableVariable V1 = new TableVariable("V1", 2);
+	TableVariable V2 = new TableVariable("V2", 3);
+	TableVariable V3 = new TableVariable("V3", 4);
+	TableVariable V4 = new TableVariable("V4", 2);
+
+	TableFactor f1 = new TableFactor(arrayList(V1,V2,V3),
+			new double[] {1., 2., 3., 4., 5., 6., 7., 8., 9., 10., 11., 12., 13., 14., 15., 16., 17., 18., 19., 20., 21., 22., 23., 24.});
+	TableFactor f2 = new TableFactor(arrayList(V2,V4), new double[] {11., 12., 21., 22., 31., 32.});
+
+	LogTableFactor logF1 = LogTableFactor.fromTableFactor(f1);
+	LogTableFactor logF2 = LogTableFactor.fromTableFactor(f2);
+
+	@Test
+	public void testMultiplication() {
+		TableFactor expected = f1.multiply(f2).normalizedCopy();
+		LogTableFactor product = (LogTableFactor) logF1.multiply(logF2);
+		assertEquals(expected.getVariables(), product.getVariables());
+		assertArrayEquals(expected.getEntriesArray(), product.toTableFactor().normalizedCopy().getEntriesArray(), TOLERANCE);
+	}
+
+	@Test
+	public void testSumOut() {
+		TableFactor expected = ((TableFactor) f1.sumOut(arrayList(V1, V3))).normalizedCopy();
+		LogTableFactor summed = (LogTableFactor) logF1.sumOut(arrayList(V1, V3));
+		assertEquals(arrayList(V2), summed.getVariables());
+		assertArrayEquals(expected.getEntriesArray(), summed.toTableFactor().normalizedCopy().getEntriesArray(), TOLERANCE);
+
+		LogTableFactor everythingSummed = (LogTableFactor) logF2.sumOut(arrayList(V2, V4));
+		assertEquals(0, everythingSummed.getVariables().size());
+		assertEquals(Math.log(129.), everythingSummed.getEntry(0), TOLERANCE);
+	}
+
+	@Test
+	public void testNormalize() {
+		LogTableFactor normalized = logF2.normalizedCopy();
+		assertEquals(0.0, LogTableFactor.logSumExp(normalized.getEntriesArray()), TOLERANCE);
+		assertArrayEquals(f2.normalizedCopy().getEntriesArray(), normalized.toTableFactor().normalizedCopy().getEntriesArray(), TOLERANCE);
+		assertEquals(Math.log(11./129.), normalized.getEntry(0), TOLERANCE);
+	}
+
+	@Test
+	public void testAdditionAndConstants() {
+		TableFactor expectedSum = f1.add(f2);
+		LogTableFactor sum = (LogTableFactor) logF1.add(logF2);
+		for (int i = 0; i < expectedSum.numberOfEntries(); i++) {
+			assertEquals(Math.log(expectedSum.getEntry(i)), sum.getEntry(i), TOLERANCE);
+		}
+
+		Factor timesConstant = new ConstantFactor(2.).multiply(logF2);
+		assertTrue(timesConstant instanceof LogTableFactor);
+		assertEquals(Math.log(22.), ((LogTableFactor) timesConstant).getEntry(0), TOLERANCE);
+
+		LogTableFactor inverse = (LogTableFactor) logF2.invert();
+		assertEquals(-Math.log(11.), inverse.getEntry(0), TOLERANCE);
+	}
+
+	@Test
+	public void testNoUnderflowInLongProducts() {
+		TableFactor small = new TableFactor(arrayList(V4), new double[] {1e-30, 2e-30});
+		TableFactor product = small;
+		LogTableFactor logProduct = LogTableFactor.fromTableFactor(small);
+		for (int i = 0; i < 20; i++) {
+			product = product.multiply(small);
+			logProduct = logProduct.multiply(small);
+		}
+		// the regular table underflows to zero and cannot be normalized anymore
+		assertEquals(0.0, product.getEntry(0) + product.getEntry(1), 0.0);
+
+		// whereas the log table still holds the right distribution, proportional to 1 and 2^21
+		LogTableFactor normalized = logProduct.normalize();
+		double expectedFirst = 1.0/(1.0 + Math.pow(2, 21));
+		assertEquals(Math.log(expectedFirst), normalized.getEntry(0), TOLERANCE);
+		assertEquals(Math.log(1.0 - expectedFirst), normalized.getEntry(1), TOLERANCE);
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.sri.ai.test.praise.core.inference.representation.table;
+
+import static com.sri.ai.util.Util.arrayList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.Factor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.ConstantFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.SparseTableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactor;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableFactorNetwork;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+import com.sri.ai.util.base.IdentityWrapper;
+
+/**
+ * Class to test the SparseTableFactor data type against the regular TableFactor
+ *
+ */
+public class SparseTableFactorTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	TableVariable V1 = new TableVariable("V1", 2);
+	TableVariable V2 = new TableVariable("V2", 3);
+	TableVariable V3 = new TableVariable("V3", 4);
+	TableVariable V4 = new TableVariable("V4", 2);
+
+	TableFactor f1 = randomSparseTable(arrayList(V1,V2,V3), 0.7, 1);
+	TableFactor f2 = randomSparseTable(arrayList(V2,V4), 0.5, 2);
+
+	SparseTableFactor sparseF1 = SparseTableFactor.fromTableFactor(f1);
+	SparseTableFactor sparseF2 = SparseTableFactor.fromTableFactor(f2);
+
+	@Test
+	public void testConversion() {
+		assertEquals(24, sparseF1.numberOfEntries());
+		assertEquals(24 - Math.round(24*SparseTableFactor.sparsityOf(f1)), sparseF1.numberOfNonZeroEntries());
+		assertArrayEquals(f1.getEntriesArray(), sparseF1.toTableFactor().getEntriesArray(), 0.0);
+		assertEquals(f1.getEntryFor(new int[] {1, 2, 3}), sparseF1.getEntryFor(new int[] {1, 2, 3}), 0.0);
+	}
+
+	@Test
+	public void testMultiplication() {
+		TableFactor expected = f1.multiply(f2);
+		SparseTableFactor product = sparseF1.multiply(sparseF2);
+		assertEquals(expected.getVariables(), product.getVariables());
+		assertArrayEquals(expected.getEntriesArray(), product.toTableFactor().getEntriesArray(), TOLERANCE);
+
+		Factor mixedProduct = f2.multiply(sparseF1);
+		assertTrue(mixedProduct instanceof SparseTableFactor);
+		assertArrayEquals(expected.getEntriesArray(), ((SparseTableFactor) mixedProduct).toTableFactor().getEntriesArray(), TOLERANCE);
+	}
+
+	@Test
+	public void testSumOut() {
+		TableFactor expected = (TableFactor) f1.sumOut(arrayList(V1, V3));
+		SparseTableFactor summed = (SparseTableFactor) sparseF1.sumOut(arrayList(V1, V3));
+		assertEquals(arrayList(V2), summed.getVariables());
+		assertArrayEquals(expected.getEntriesArray(), summed.toTableFactor().getEntriesArray(), TOLERANCE);
+
+		ConstantFactor everythingSummed = (ConstantFactor) sparseF2.sumOut(arrayList(V2, V4));
+		assertEquals(((ConstantFactor) f2.sumOut(arrayList(V2, V4))).getConstant(), everythingSummed.getConstant(), TOLERANCE);
+	}
+
+	@Test
+	public void testAdditionAndNormalization() {
+		TableFactor expected = f1.add(f2);
+		SparseTableFactor sum = sparseF1.add(sparseF2);
+		assertArrayEquals(expected.getEntriesArray(), sum.toTableFactor().getEntriesArray(), TOLERANCE);
+
+		Factor timesConstant = new ConstantFactor(3.).multiply(sparseF2);
+		TableFactor expectedTimesConstant = (TableFactor) new ConstantFactor(3.).multiply(f2);
+		assertArrayEquals(expectedTimesConstant.getEntriesArray(), ((SparseTableFactor) timesConstant).toTableFactor().getEntriesArray(), TOLERANCE);
+
+		assertArrayEquals(f1.normalizedCopy().getEntriesArray(), sparseF1.normalize().toTableFactor().getEntriesArray(), TOLERANCE);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testMaximizationIsUnsupported() {
+		sparseF1.max(arrayList(V1));
+	}
+
+	@Test
+	public void testNetworkPicksSparseFactorsAboveThreshold() {
+		TableVariable V5 = new TableVariable("V5", 4);
+		TableVariable V6 = new TableVariable("V6", 4);
+		TableFactor mostlyZeros = randomSparseTable(arrayList(V3, V5, V6), 0.95, 3);
+		TableFactor mostlyNonZeros = randomSparseTable(arrayList(V3, V5, V6), 0.05, 4);
+
+		TableFactorNetwork network = new TableFactorNetwork(arrayList(mostlyZeros, mostlyNonZeros), false, 0.9);
+		int numberOfSparseFactors = 0;
+		for (IdentityWrapper<Factor> factor : network.getAs()) {
+			if (factor.getObject() instanceof SparseTableFactor) {
+				numberOfSparseFactors++;
+			}
+		}
+		assertEquals(1, numberOfSparseFactors);
+
+		TableFactorNetwork denseNetwork = new TableFactorNetwork(arrayList(mostlyZeros, mostlyNonZeros));
+		for (IdentityWrapper<Factor> factor : denseNetwork.getAs()) {
+			assertTrue(factor.getObject() instanceof TableFactor);
+		}
+	}
+
+	private static TableFactor randomSparseTable(ArrayList<TableVariable> variables, double fractionOfZeros, long seed) {
+		Random random = new Random(seed);
+		TableFactor result = new TableFactor(variables, 0.0);
+		for (int i = 0; i < result.numberOfEntries(); i++) {
+			if (random.nextDouble() >= fractionOfZeros) {
+				result.setEntry(i, 1.0 + random.nextInt(9));
+			}
+		}
+		return result;
+	}
+
+}
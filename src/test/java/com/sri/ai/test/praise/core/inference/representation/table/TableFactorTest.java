@@ -332,6 +332,55 @@ public class TableFactorTest {
 		println();
 	}
 	
+	@Test
+	public void testCopyToSubTableFactor() {
+		
+		println();
+		println("SLICING F2 AND F2*F1");
+		println("--------------------");
+
+		TableFactor f2AtV2Equal1 = TableFactor.copyToSubTableFactor(f2, arrayList(V2), arrayList(1));
+		println(f2AtV2Equal1);
+		assertEquals("phi[{V4:card=2}]: [21.0, 22.0]", f2AtV2Equal1.toString());
+		
+		TableFactor f2AtV4Equal1 = TableFactor.copyToSubTableFactor(f2, arrayList(V4), arrayList(1));
+		println(f2AtV4Equal1);
+		assertEquals("phi[{V2:card=3}]: [12.0, 22.0, 32.0]", f2AtV4Equal1.toString());
+		
+		TableFactor f2f1AtV4Equal0AndV1Equal1 = TableFactor.copyToSubTableFactor((TableFactor) f2.multiply(f1), arrayList(V4,V1), arrayList(0,1));
+		println(f2f1AtV4Equal0AndV1Equal1);
+		assertEquals("phi[{V2:card=3}, {V3:card=4}]: [11.0, 11.0, 11.0, 11.0, 21.0, 21.0, 21.0, 21.0, 31.0, 31.0, 31.0, 31.0]", f2f1AtV4Equal0AndV1Equal1.toString());
+		
+		println();
+	}
+	
+	@Test
+	public void testArrayBackedEntries() {
+		
+		println();
+		println("ARRAY-BACKED ENTRIES OF F3");
+		println("--------------------------");
+
+		double[] entries = new double[] {1., 2., 3., 4., 5., 6.};
+		TableFactor f3 = new TableFactor("f3", arrayList(V2,V4), entries);
+		
+		println(f3);
+		assertEquals("f3[{V2:card=3}, {V4:card=2}]: [1.0, 2.0, 3.0, 4.0, 5.0, 6.0]", f3.toString());
+		assertEquals(6, f3.numberOfEntries());
+		assertEquals(4.0, f3.getEntryFor(new int[] {1, 1}), 0.0);
+		
+		f3.getEntries().set(0, 10.);
+		assertEquals(10.0, entries[0], 0.0);
+		
+		f3.setEntryFor(new int[] {2, 0}, 50.);
+		assertEquals(50.0, f3.getEntries().get(4), 0.0);
+		
+		f3.reinitializeEntries(0.5);
+		assertEquals("[0.5, 0.5, 0.5, 0.5, 0.5, 0.5]", f3.getEntries().toString());
+		
+		println();
+	}
+	
 	////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
 }
@@ -43,10 +43,14 @@ import static com.sri.ai.expresso.helper.Expressions.parse;
 import static com.sri.ai.grinder.library.FunctorConstants.MINUS;
 import static com.sri.ai.util.Util.list;
 import static com.sri.ai.util.Util.println;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 
@@ -60,11 +64,14 @@ import com.sri.ai.grinder.library.number.Times;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.api.ExpressionBasedSolver;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.core.byalgorithm.evaluation.EvaluationExpressionBasedSolver;
 import com.sri.ai.praise.core.inference.byinputrepresentation.classbased.expressionbased.core.byalgorithm.exactbp.ExactBPExpressionBasedSolver;
+import com.sri.ai.praise.core.inference.byinputrepresentation.interfacebased.core.exactbp.fulltime.core.ParallelExactBPNodeEvaluator;
 import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedModel;
 import com.sri.ai.praise.core.representation.classbased.expressionbased.api.ExpressionBasedProblem;
 import com.sri.ai.praise.core.representation.classbased.expressionbased.core.DefaultExpressionBasedProblem;
 import com.sri.ai.praise.core.representation.classbased.hogm.components.HOGMExpressionBasedModel;
+import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.api.ExpressionFactor;
 import com.sri.ai.util.Util;
+import com.sri.ai.util.explanation.tree.DefaultExplanationTree;
 
 public class ExpressionBasedSolverTest {
 	
@@ -923,6 +930,98 @@ public class ExpressionBasedSolverTest {
 		runTest(queryExpression, evidence, expected, expected, isBayesianNetwork, factors, mapFromRandomVariableNameToTypeName, mapFromNonUniquelyNamedConstantNameToTypeName, mapFromUniquelyNamedConstantNameToTypeName, mapFromCategoricalTypeNameToSizeString, additionalTypes);
 	}
 	
+	@Test
+	public void batch() {
+		
+		HOGMExpressionBasedModel model = new HOGMExpressionBasedModel(
+				Times.getMultiplicands(parse("" + 
+						"(if earthquake then 0.01 else 0.99) * " +
+						"(if burglar = none then 0.7 else if burglar = tom then 0.1 else 0.2 / (|Folks| - 2)) * " +
+						"(if burglar != none or earthquake then if alarm then 0.9 else 0.1 else if alarm then 0.05 else 0.95) * " +
+						"(if alarm then if call then 0.7 else 0.3 else if call then 0.1 else 0.9)")),
+				Util.map("earthquake", "Boolean", "burglar", "Folks", "alarm", "Boolean", "call", "Boolean"),
+				Util.map(),
+				Util.map("none", "Folks", "tom", "Folks"),
+				Util.map("Folks", "10", "Boolean", "2"),
+				list(),
+				false);
+		ExpressionBasedModel conditionedModel = model.getConditionedModel(parse("call"));
+		
+		List<Expression> queries = list(parse("earthquake"), parse("burglar"), parse("alarm"), parse("burglar = tom"), parse("earthquake or burglar = none"), parse("call"));
+		
+		ExactBPExpressionBasedSolver exactBPSolver = new ExactBPExpressionBasedSolver();
+		ExpressionBasedSolver[] solvers = new ExpressionBasedSolver[] {
+
+				new EvaluationExpressionBasedSolver(true),
+				exactBPSolver
+				
+		};
+		
+		for (ExpressionBasedSolver solver : solvers) {
+			List<Expression> marginals = solver.solve(queries, conditionedModel);
+			for (int i = 0; i != queries.size(); i++) {
+				queryExpression = queries.get(i);
+				ExpressionBasedProblem problem = new DefaultExpressionBasedProblem(queryExpression, conditionedModel);
+				Expression expected = new ExactBPExpressionBasedSolver().solve(problem);
+				checkResult(problem, expected, marginals.get(i), solver);
+			}
+		}
+		
+		// the queries share messages from factors to variables, so the batch must reuse some of them
+		assertTrue(exactBPSolver.getNumberOfReusedMessages() > 0);
+	}
+	
+	@Test
+	public void explanationsDisabled() {
+		
+		HOGMExpressionBasedModel model = new HOGMExpressionBasedModel(""
+				+ "random earthquake: Boolean;"
+				+ "random burglary: Boolean;"
+				+ "random alarm: Boolean;"
+				+ "earthquake 0.01;"
+				+ "burglary 0.1;"
+				+ "if earthquake then if burglary then alarm 0.95 else alarm 0.6 else if burglary then alarm 0.9 else alarm 0.01;");
+		ExpressionBasedModel conditionedModel = model.getConditionedModel(parse("alarm"));
+		
+		ExactBPExpressionBasedSolver solverWithExplanations = new ExactBPExpressionBasedSolver();
+		ExactBPExpressionBasedSolver solverWithoutExplanations = new ExactBPExpressionBasedSolver();
+		solverWithoutExplanations.setExplanationsEnabled(false);
+		
+		for (Expression query : list(parse("earthquake"), parse("burglary"))) {
+			ExpressionBasedProblem problem = new DefaultExpressionBasedProblem(query, conditionedModel);
+			Expression expected = solverWithExplanations.solve(problem);
+			Expression marginal = solverWithoutExplanations.solve(problem);
+			queryExpression = query;
+			checkResult(problem, expected, marginal, solverWithoutExplanations);
+			assertNotSame(DefaultExplanationTree.PLACEHOLDER, ((ExpressionFactor) expected).getExplanation());
+			assertSame(DefaultExplanationTree.PLACEHOLDER, ((ExpressionFactor) marginal).getExplanation());
+		}
+	}
+	
+	@Test
+	public void parallelExactBPOnDeterministicModel() {
+		
+		HOGMExpressionBasedModel model = new HOGMExpressionBasedModel(""
+				+ "random a: Boolean;"
+				+ "random b: Boolean;"
+				+ "random c: Boolean;"
+				+ "random d: Boolean;"
+				+ "if a then b else not b;"
+				+ "if a then c 0.3 else c 0.8;"
+				+ "if b then if c then d 0.9 else d 0.4 else if c then d 0.2 else d 0.6;"
+				+ "if a then d 0.7 else d 0.1;");
+		ExpressionBasedModel conditionedModel = model.getConditionedModel(parse("a"));
+		
+		ExpressionBasedSolver sequentialSolver = new ExactBPExpressionBasedSolver();
+		ExpressionBasedSolver parallelSolver = new ExactBPExpressionBasedSolver(new ParallelExactBPNodeEvaluator(new ForkJoinPool(4), 1));
+		
+		for (Expression query : list(parse("a"), parse("b"), parse("c"), parse("d"))) {
+			ExpressionBasedProblem problem = new DefaultExpressionBasedProblem(query, conditionedModel);
+			queryExpression = query;
+			checkResult(problem, sequentialSolver.solve(problem), parallelSolver.solve(problem), parallelSolver);
+		}
+	}
+	
 	//@Test
 	public void linearRealArithmeticBug() {
 		
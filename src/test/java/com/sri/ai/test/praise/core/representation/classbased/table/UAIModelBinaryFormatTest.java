@@ -0,0 +1,74 @@
+package com.sri.ai.test.praise.core.representation.classbased.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModel;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIModelBinaryFormat;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIModelReader;
+
+/**
+ * Tests round trips of {@link UAIModel}s through the {@link UAIModelBinaryFormat}.
+ *
+ */
+public class UAIModelBinaryFormatTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		for (String name : new String[] {"BN_0.uai", "grid10x10.f10.uai", "or_chain_1.fg.uai", "pedigree13.uai"}) {
+			File uaiFile = new File(new File("").getAbsolutePath() + "/UAITests/" + name);
+			UAIModel model = UAIModelReader.read(uaiFile);
+			model.addEvidence(0, 0);
+
+			File binaryFile = File.createTempFile("model", UAIModelBinaryFormat.FILE_EXTENSION);
+			binaryFile.deleteOnExit();
+			UAIModelBinaryFormat.write(model, binaryFile);
+			assertTrue(UAIModelBinaryFormat.isBinaryModelFile(binaryFile));
+			assertFalse(UAIModelBinaryFormat.isBinaryModelFile(uaiFile));
+
+			UAIModel loaded = UAIModelBinaryFormat.read(binaryFile);
+			assertEquals(model.numberVariables(), loaded.numberVariables());
+			assertEquals(model.numberTables(), loaded.numberTables());
+			assertEquals(model.numberUniqueFunctionTables(), loaded.numberUniqueFunctionTables());
+			assertEquals(model.getEvidence(), loaded.getEvidence());
+			for (int i = 0; i < model.numberVariables(); i++) {
+				assertEquals(model.cardinality(i), loaded.cardinality(i));
+			}
+			for (int t = 0; t < model.numberTables(); t++) {
+				assertEquals(model.getVariableIndexesForTable(t), loaded.getVariableIndexesForTable(t));
+				assertEquals(model.getTable(t), loaded.getTable(t));
+				assertArrayEquals(model.getTable(t).getEntriesArray(), loaded.getTable(t).getEntriesArray(), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testUniqueTablesAreShared() throws IOException {
+		File uaiFile = new File(new File("").getAbsolutePath() + "/UAITests/grid10x10.f10.uai");
+		UAIModel model = UAIModelReader.read(uaiFile);
+		File binaryFile = File.createTempFile("model", UAIModelBinaryFormat.FILE_EXTENSION);
+		binaryFile.deleteOnExit();
+		UAIModelBinaryFormat.write(model, binaryFile);
+
+		UAIModel loaded = UAIModelBinaryFormat.read(binaryFile);
+		for (int u = 0; u < loaded.numberUniqueFunctionTables(); u++) {
+			for (Integer t : loaded.getTableIndexes(u)) {
+				assertSame(loaded.getUniqueFunctionTable(u), loaded.getTable(t));
+			}
+		}
+		long expectedEntriesSize = 0;
+		for (int u = 0; u < model.numberUniqueFunctionTables(); u++) {
+			expectedEntriesSize += 8L*model.getUniqueFunctionTable(u).numberEntries();
+		}
+		assertTrue(binaryFile.length() >= expectedEntriesSize);
+		assertTrue(binaryFile.length() < expectedEntriesSize + 32*model.numberTables() + 8*model.numberVariables() + 1024);
+	}
+}
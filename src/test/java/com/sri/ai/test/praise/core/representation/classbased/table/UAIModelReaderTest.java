@@ -0,0 +1,85 @@
+package com.sri.ai.test.praise.core.representation.classbased.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModel;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIModelReader;
+
+/**
+ * Tests that the memory-mapped and line-based readers of {@link UAIModelReader} produce the same models.
+ *
+ */
+public class UAIModelReaderTest {
+
+	private static final String MODEL =
+			"MARKOV\n" +
+			"3\n" +
+			"2 2 3\n" +
+			"3\n" +
+			"1 0\n" +
+			"2 0 1\n" +
+			"\n" +
+			"2\t1 2\n" +
+			"2\n" +
+			" 0.436 0.564\n" +
+			"\n" +
+			"4 1e-3 -0 12345678901234567890 2.5E+2\n" +
+			"6\n" +
+			" 0.1 0.2 0.3\n" +
+			" 0.30000000000000004 4.9e-324 1.7976931348623157e308\n";
+
+	@Test
+	public void testMemoryMappedAgainstLineBased() throws IOException {
+		File file = File.createTempFile("model", ".uai");
+		file.deleteOnExit();
+		try (PrintWriter writer = new PrintWriter(file)) {
+			writer.print(MODEL);
+		}
+
+		UAIModel lineBased = UAIModelReader.read(new StringReader(MODEL));
+		UAIModel memoryMapped = UAIModelReader.read(file);
+		assertSameModel(lineBased, memoryMapped);
+
+		assertArrayEquals(new double[] {1e-3, -0.0, 12345678901234567890.0, 250.0}, memoryMapped.getTable(1).getEntriesArray(), 0.0);
+		assertEquals(Double.MIN_VALUE, memoryMapped.getTable(2).getEntriesArray()[4], 0.0);
+	}
+
+	@Test
+	public void testUAITests() throws IOException {
+		for (String name : new String[] {"BN_0.uai", "grid10x10.f10.uai", "or_chain_1.fg.uai", "pedigree13.uai"}) {
+			File file = new File(new File("").getAbsolutePath() + "/UAITests/" + name);
+			assertSameModel(UAIModelReader.read(new FileReader(file)), UAIModelReader.read(file));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadlyDefinedTable() throws IOException {
+		File file = File.createTempFile("model", ".uai");
+		file.deleteOnExit();
+		try (PrintWriter writer = new PrintWriter(file)) {
+			writer.print("MARKOV\n2\n2 2\n1\n3 0 1\n4\n1 2 3 4\n");
+		}
+		UAIModelReader.read(file);
+	}
+
+	private static void assertSameModel(UAIModel expected, UAIModel actual) {
+		assertEquals(expected.numberVariables(), actual.numberVariables());
+		assertEquals(expected.numberTables(), actual.numberTables());
+		for (int i = 0; i < expected.numberVariables(); i++) {
+			assertEquals(expected.cardinality(i), actual.cardinality(i));
+		}
+		for (int t = 0; t < expected.numberTables(); t++) {
+			assertEquals(expected.getVariableIndexesForTable(t), actual.getVariableIndexesForTable(t));
+			assertArrayEquals(expected.getTable(t).getEntriesArray(), actual.getTable(t).getEntriesArray(), 0.0);
+		}
+	}
+}
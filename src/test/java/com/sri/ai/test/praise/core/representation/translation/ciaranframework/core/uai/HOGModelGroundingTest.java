@@ -40,6 +40,7 @@ package com.sri.ai.test.praise.core.representation.translation.ciaranframework.c
 import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.StringJoiner;
 
@@ -178,4 +179,63 @@ public class HOGModelGroundingTest {
 		assertEquals(expected, outputBuffer.toString());
 	}
 
+	@Test
+	public void testConcurrentGrounding() {
+		StringJoiner sj = new StringJoiner("\n");
+		sj.add("sort People : 10, Putin;");
+		sj.add("sort Countries : 10, USA, Russia;");
+		sj.add("random country : Countries;");
+		sj.add("random president : People;");
+		sj.add("random communism : Boolean;");
+		sj.add("random democracy : Boolean;");
+		sj.add("random votePutin : 1..15;");
+		sj.add("if country = Russia then if president = Putin then communism else not communism else if democracy then not communism else communism;");
+		sj.add("if country = Russia then if votePutin > 5 then president = Putin else not president = Putin;");
+		sj.add("if democracy then 0.7 else 0.3;");
+		sj.add("if votePutin < 3 then 0.1 else if president = Putin then 0.6 else 0.4;");
+		
+		ExpressionBasedModel factorsAndTypes = new HOGMExpressionBasedModel(new HOGMParserWrapper().parseModel(sj.toString()));
+		List<Expression> evidence = new ArrayList<>();
+		evidence.add(Expressions.parse("communism"));
+		
+		String sequential = groundToString(factorsAndTypes, evidence, 1);
+		assertEquals(sequential, groundToString(factorsAndTypes, evidence, 3));
+		assertEquals(sequential, groundToString(factorsAndTypes, evidence, 8));
+	}
+
+	private static String groundToString(ExpressionBasedModel factorsAndTypes, List<Expression> evidence, int numberOfThreads) {
+		StringBuilder result = new StringBuilder();
+		HOGModelGrounding.ground(factorsAndTypes, evidence, new HOGModelGrounding.Listener() {
+			@Override
+			public void numberGroundVariables(int number) {
+				result.append("variables " + number + "\n");
+			}
+			@Override
+			public void groundVariableCardinality(int variableIndex, int cardinality) {
+				result.append("cardinality " + variableIndex + " " + cardinality + "\n");
+			}
+			@Override
+			public void numberFactors(int number) {
+				result.append("factors " + number + "\n");
+			}
+			@Override
+			public void factorParticipants(int factorIndex, int[] variableIndexes) {
+				result.append("participants " + factorIndex + " " + Arrays.toString(variableIndexes) + "\n");
+			}
+			@Override
+			public void factorValue(int numberFactorValues, boolean isFirstValue, boolean isLastValue, Rational value) {
+				result.append(numberFactorValues + " " + isFirstValue + " " + isLastValue + " " + value + "\n");
+			}
+			@Override
+			public void evidence(int variableIndex, int valueIndex) {
+				result.append("evidence " + variableIndex + " " + valueIndex + "\n");
+			}
+			@Override
+			public void groundingComplete() {
+				result.append("complete\n");
+			}
+		}, numberOfThreads);
+		return result.toString();
+	}
+
 }
@@ -18,6 +18,7 @@ import com.sri.ai.grinder.library.Equality;
 import com.sri.ai.grinder.library.boole.And;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.api.ExpressionVariable;
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.expression.core.DefaultExpressionVariable;
+import com.sri.ai.praise.learning.parameterlearning.ParallelParameterLearner;
 import com.sri.ai.praise.learning.parameterlearning.representation.dataset.DefaultDatapoint;
 import com.sri.ai.praise.learning.parameterlearning.representation.dataset.DefaultDataset;
 import com.sri.ai.praise.learning.parameterlearning.representation.expression.ExpressionBayesianModel;
@@ -388,6 +389,72 @@ public class ExpressionBayesianModelTest {
 		assertEquals(Expressions.TRUE, burglaryNodeVerification);
 	}
 	
+	/**
+	 * Learning in parallel, with the datapoints split in shards, must give the same nodes as learning sequentially
+	 */
+	@Test
+	public void testParallelLearningOfEarthquakeBurglaryAlarmModel() {
+		ExpressionBayesianModel model = generateEarthquakeBurglaryAlarmModel();
+		DefaultDataset dataset = generateDatasetForEarthquakeBurglaryAlarmModel(3, 4);
+		
+		ExpressionBayesianModel sequentiallyLearnedModel = (ExpressionBayesianModel) model.learnModelParametersFromCompleteData(dataset);
+		ParallelParameterLearner learner = new ParallelParameterLearner(3);
+		ExpressionBayesianModel modelLearnedInParallel = (ExpressionBayesianModel) learner.learn(model, dataset);
+		
+		for(int n = 0; n < model.getNodes().size(); n++) {
+			Expression verification = Equality.make(sequentiallyLearnedModel.getNodes().get(n), modelLearnedInParallel.getNodes().get(n));
+			verification = contextForEarthquakeBurglaryAlarmModel.evaluate(verification);
+			assertEquals(Expressions.TRUE, verification);
+		}
+		assertEquals(dataset.getDatapoints().size(), learner.getNumberOfRowsOfLastLearning());
+	}
+	
+	/**
+	 * Updating the model online with mini-batches, from scratch or after learning from part of the data, must give the same nodes as learning from all the data
+	 */
+	@Test
+	public void testOnlineUpdatesOfEarthquakeBurglaryAlarmModel() {
+		ExpressionBayesianModel model = generateEarthquakeBurglaryAlarmModel();
+		DefaultDataset firstBatch = generateDatasetForEarthquakeBurglaryAlarmModel(2, 1);
+		DefaultDataset secondBatch = generateDatasetForEarthquakeBurglaryAlarmModel(1, 3);
+		DefaultDataset allData = generateDatasetForEarthquakeBurglaryAlarmModel(3, 4);
+		
+		ExpressionBayesianModel learnedFromAllData = (ExpressionBayesianModel) model.learnModelParametersFromCompleteData(allData);
+		
+		ExpressionBayesianModel updatedModel = model.copy();
+		updatedModel.updateModelParametersGivenNewData(firstBatch);
+		updatedModel.updateModelParametersGivenNewData(secondBatch);
+		
+		ExpressionBayesianModel continuedModel = (ExpressionBayesianModel) model.learnModelParametersFromCompleteData(firstBatch);
+		continuedModel.updateModelParametersGivenNewData(secondBatch);
+		
+		for(int n = 0; n < model.getNodes().size(); n++) {
+			Expression updatedVerification = Equality.make(learnedFromAllData.getNodes().get(n), updatedModel.getNodes().get(n));
+			Expression continuedVerification = Equality.make(learnedFromAllData.getNodes().get(n), continuedModel.getNodes().get(n));
+			assertEquals(Expressions.TRUE, contextForEarthquakeBurglaryAlarmModel.evaluate(updatedVerification));
+			assertEquals(Expressions.TRUE, contextForEarthquakeBurglaryAlarmModel.evaluate(continuedVerification));
+		}
+	}
+	
+	/**
+	 * Many decayed updates, which bring the counts back to their actual values along the way, must keep forgetting the oldest datapoints
+	 */
+	@Test
+	public void testManyDecayedUpdatesOfEarthquakeBurglaryAlarmModel() {
+		ExpressionBayesianModel model = generateEarthquakeBurglaryAlarmModel().copy();
+		DefaultDataset batch = generateDatasetForEarthquakeBurglaryAlarmModel(1, 0);
+		
+		// with decay 0.5, the count of burglaries tends to 2 while the initial count of no burglaries tends to 0
+		for(int i = 0; i < 100; i++) {
+			model.updateModelParametersGivenNewData(batch, 0.5);
+		}
+		
+		Expression burglaryNode = model.getNodes().get(2);
+		Expression probabilityOfBurglary = burglaryNode.replaceAllOccurrences(burglary, parse("1"), contextForEarthquakeBurglaryAlarmModel);
+		probabilityOfBurglary = contextForEarthquakeBurglaryAlarmModel.evaluate(probabilityOfBurglary);
+		assertEquals(1.0, probabilityOfBurglary.doubleValue(), 1e-9);
+	}
+	
 	/**
 	 * Printing the test for a simple Child/Parent Bayesian model, choose one of the five expressionForChildNode below to be tested. The distribution (expression) for the parentNode is fixed to a uniform with only one parameter (as set in generateChildParentModel)
 	 */
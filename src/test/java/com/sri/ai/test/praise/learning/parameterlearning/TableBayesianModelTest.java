@@ -7,11 +7,14 @@ import static com.sri.ai.util.Util.map;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.sri.ai.praise.core.representation.interfacebased.factor.core.table.TableVariable;
+import com.sri.ai.praise.learning.parameterlearning.ParallelParameterLearner;
+import com.sri.ai.praise.learning.parameterlearning.representation.dataset.ColumnarDataset;
 import com.sri.ai.praise.learning.parameterlearning.representation.dataset.DefaultDatapoint;
 import com.sri.ai.praise.learning.parameterlearning.representation.dataset.DefaultDataset;
 import com.sri.ai.praise.learning.parameterlearning.representation.table.TableBayesianModel;
@@ -31,6 +34,11 @@ public class TableBayesianModelTest {
 	static final TableVariable sunVariable = new TableVariable("sun", 2);
 	static final TableVariable coldVariable = new TableVariable("cold", 2);
 	
+	static final TableVariable aVariable = new TableVariable("a", 3);
+	static final TableVariable bVariable = new TableVariable("b", 2);
+	static final TableVariable cVariable = new TableVariable("c", 4);
+	static final List<TableVariable> abcVariables = list(aVariable, bVariable, cVariable);
+	
 	// Simple model with 3 nodes: Sick as child and [Sun, Cold] as parents 
 	static TableBayesianModel sickSunColdModel = generateSickSunColdModel();
 	
@@ -46,6 +54,38 @@ public class TableBayesianModelTest {
 		return sickSunColdModel;
 	}
 	
+	/**
+	 * A model with non-binary variables and more than one parent, so that strides are exercised: c with parents [b, a], and b with parent a
+	 * 
+	 * @return the a/b/c model
+	 */
+	static TableBayesianModel generateABCModel() {
+		TableBayesianNode aNode = new TableBayesianNode(aVariable, arrayList());
+		TableBayesianNode bNode = new TableBayesianNode(bVariable, arrayList(aVariable));
+		TableBayesianNode cNode = new TableBayesianNode(cVariable, arrayList(bVariable, aVariable));
+		return new TableBayesianModel(list(cNode, aNode, bNode));
+	}
+	
+	/**
+	 * Generates datapoints for the a/b/c model with uniformly random values
+	 * 
+	 * @param numberOfDatapoints
+	 * @param seed - the seed of the random generator, so that tests are reproducible
+	 * @return the datapoints, with values in the order of abcVariables
+	 */
+	static List<DefaultDatapoint> generateRandomDatapointsForABCModel(int numberOfDatapoints, long seed) {
+		Random random = new Random(seed);
+		List<DefaultDatapoint> datapoints = list();
+		for(int row = 0; row < numberOfDatapoints; row++) {
+			List<Integer> values = list();
+			for(TableVariable variable : abcVariables) {
+				values.add(random.nextInt(variable.getCardinality()));
+			}
+			datapoints.add(new DefaultDatapoint(abcVariables, values));
+		}
+		return datapoints;
+	}
+	
 	@Test
 	public void testSickSunColdModel() {
 		// Dataset
@@ -240,6 +280,126 @@ public class TableBayesianModelTest {
  	    
 	}
 	
+	@Test
+	public void testColumnarDatasetLearnsSameParametersAsDatapoints() {
+		TableBayesianModel model = generateABCModel();
+		List<TableVariable> variables = abcVariables;
+		int numberOfRows = 500;
+		List<DefaultDatapoint> datapoints = generateRandomDatapointsForABCModel(numberOfRows, 0);
+		int[][] columns = new int[variables.size()][numberOfRows];
+		for(int row = 0; row < numberOfRows; row++) {
+			List<? extends Object> values = datapoints.get(row).getValuesOfVariables(variables);
+			for(int i = 0; i < variables.size(); i++) {
+				columns[i][row] = (Integer) values.get(i);
+			}
+		}
+		
+		TableBayesianModel learnedFromDatapoints = (TableBayesianModel) model.learnModelParametersFromCompleteData(new DefaultDataset(datapoints));
+		ColumnarDataset columnarDataset = new ColumnarDataset(variables, columns);
+		TableBayesianModel learnedFromColumns = model.learnModelParametersFromCompleteData(columnarDataset);
+		
+		for(int n = 0; n < model.getNodes().size(); n++) {
+			TableBayesianNode fromDatapoints = learnedFromDatapoints.getNodes().get(n);
+			TableBayesianNode fromColumns = learnedFromColumns.getNodes().get(n);
+			Assert.assertArrayEquals(fromDatapoints.getEntriesArray(), fromColumns.getEntriesArray(), 1e-12);
+			
+			TableBayesianNode singleNode = fromDatapoints.copy();
+			singleNode.setParametersGivenCompleteData(columnarDataset);
+			Assert.assertArrayEquals(fromDatapoints.getEntriesArray(), singleNode.getEntriesArray(), 1e-12);
+		}
+		
+		// Datapoint views of columns
+		Assert.assertEquals(numberOfRows, columnarDataset.getDatapoints().size());
+		Assert.assertEquals(list(columns[0][7], columns[1][7], columns[2][7]), columnarDataset.getDatapoints().get(7).getValuesOfVariables(variables));
+	}
+	
+	@Test
+	public void testParallelLearningLearnsSameParametersAsSequential() {
+		TableBayesianModel model = generateABCModel();
+		int numberOfRows = 1001; // not a multiple of the number of threads, so that shards differ in size
+		List<DefaultDatapoint> datapoints = generateRandomDatapointsForABCModel(numberOfRows, 1);
+		DefaultDataset dataset = new DefaultDataset(datapoints);
+		ColumnarDataset columnarDataset = new ColumnarDataset(abcVariables, dataset);
+		
+		TableBayesianModel sequentiallyLearnedModel = (TableBayesianModel) model.learnModelParametersFromCompleteData(dataset);
+		ParallelParameterLearner learner = new ParallelParameterLearner(4);
+		TableBayesianModel learnedFromDatapoints = (TableBayesianModel) learner.learn(model, dataset);
+		TableBayesianModel learnedFromColumns = (TableBayesianModel) learner.learn(model, columnarDataset);
+		
+		for(int n = 0; n < model.getNodes().size(); n++) {
+			double[] expected = sequentiallyLearnedModel.getNodes().get(n).getEntriesArray();
+			Assert.assertArrayEquals(expected, learnedFromDatapoints.getNodes().get(n).getEntriesArray(), 1e-12);
+			Assert.assertArrayEquals(expected, learnedFromColumns.getNodes().get(n).getEntriesArray(), 1e-12);
+		}
+		Assert.assertEquals(numberOfRows, learner.getNumberOfRowsOfLastLearning());
+		Assert.assertTrue(learner.getRowsPerSecondOfLastLearning() > 0);
+		
+		// more threads than rows
+		TableBayesianModel learnedFromFewRows = (TableBayesianModel) new ParallelParameterLearner(8).learn(model, new DefaultDataset(datapoints.subList(0, 3)));
+		TableBayesianModel sequentiallyLearnedFromFewRows = (TableBayesianModel) model.learnModelParametersFromCompleteData(new DefaultDataset(datapoints.subList(0, 3)));
+		for(int n = 0; n < model.getNodes().size(); n++) {
+			Assert.assertArrayEquals(sequentiallyLearnedFromFewRows.getNodes().get(n).getEntriesArray(), learnedFromFewRows.getNodes().get(n).getEntriesArray(), 1e-12);
+		}
+	}
+	
+	@Test
+	public void testOnlineUpdatesInMiniBatchesLearnSameParametersAsCompleteData() {
+		TableBayesianModel model = generateABCModel();
+		List<DefaultDatapoint> datapoints = generateRandomDatapointsForABCModel(300, 2);
+		
+		TableBayesianModel learnedFromCompleteData = (TableBayesianModel) model.learnModelParametersFromCompleteData(new DefaultDataset(datapoints));
+		
+		// from scratch, in mini-batches of different sizes
+		TableBayesianModel updatedModel = model.copy();
+		updatedModel.updateModelParametersGivenNewData(new DefaultDataset(datapoints.subList(0, 1)));
+		updatedModel.updateModelParametersGivenNewData(new DefaultDataset(datapoints.subList(1, 120)));
+		updatedModel.updateModelParametersGivenNewData(new DefaultDataset(datapoints.subList(120, 300)));
+		
+		// continuing a model learned from part of the data
+		TableBayesianModel continuedModel = (TableBayesianModel) model.learnModelParametersFromCompleteData(new DefaultDataset(datapoints.subList(0, 200)));
+		continuedModel.updateModelParametersGivenNewData(new DefaultDataset(datapoints.subList(200, 300)));
+		
+		for(int n = 0; n < model.getNodes().size(); n++) {
+			TableBayesianNode expected = learnedFromCompleteData.getNodes().get(n);
+			Assert.assertArrayEquals(expected.getEntriesArray(), updatedModel.getNodes().get(n).getEntriesArray(), 1e-12);
+			Assert.assertArrayEquals(expected.getEntriesArray(), continuedModel.getNodes().get(n).getEntriesArray(), 1e-12);
+			Assert.assertArrayEquals(expected.getCounts(), updatedModel.getNodes().get(n).getCounts(), 1e-9);
+		}
+	}
+	
+	@Test
+	public void testOnlineUpdatesWithDecay() {
+		TableBayesianNode sunNode = new TableBayesianNode(sunVariable, arrayList());
+		TableBayesianNode sickNode = new TableBayesianNode(sickVariable, arrayList(sunVariable));
+		TableBayesianModel model = new TableBayesianModel(list(sickNode, sunNode));
+		List<TableVariable> variables = list(sickVariable, sunVariable);
+		DefaultDataset sunny = new DefaultDataset(list(new DefaultDatapoint(variables, list(1, 0))));
+		DefaultDataset cloudy = new DefaultDataset(list(new DefaultDatapoint(variables, list(0, 1))));
+		double decay = 0.5;
+		
+		// counts for sun start at [1, 1], then become [1*0.5 + 1, 1*0.5] = [1.5, 0.5]
+		model.updateModelParametersGivenNewData(sunny, decay);
+		Assert.assertArrayEquals(new double[] {1.5, 0.5}, sunNode.getCounts(), 1e-12);
+		Assert.assertArrayEquals(new double[] {0.75, 0.25}, sunNode.getEntriesArray(), 1e-12);
+		
+		// then [1.5*0.5, 0.5*0.5 + 1] = [0.75, 1.25]
+		model.updateModelParametersGivenNewData(cloudy, decay);
+		Assert.assertArrayEquals(new double[] {0.75, 1.25}, sunNode.getCounts(), 1e-12);
+		Assert.assertArrayEquals(new double[] {0.375, 0.625}, sunNode.getEntriesArray(), 1e-12);
+		
+		// sick and sun (entries ordered as (sick, sun)): counts [1*0.25, 1*0.25 + 1, (1*0.5 + 1)*0.5, 1*0.25],
+		// and the parameters for sun = 0, not affected by the second update, are still those of the first
+		Assert.assertArrayEquals(new double[] {0.25, 1.25, 0.75, 0.25}, sickNode.getCounts(), 1e-12);
+		Assert.assertArrayEquals(new double[] {0.25, 5.0/6, 0.75, 1.0/6}, sickNode.getEntriesArray(), 1e-12);
+		
+		// many decays do not overflow counts
+		for(int i = 0; i < 2000; i++) {
+			model.updateModelParametersGivenNewData(sunny, decay);
+		}
+		Assert.assertArrayEquals(new double[] {2.0, 0.0}, sunNode.getCounts(), 1e-12);
+		Assert.assertArrayEquals(new double[] {1.0, 0.0}, sunNode.getEntriesArray(), 1e-12);
+	}
+	
 	public static void printSickSunColdModelTest() {
 		// Dataset
 		List<TableVariable> variables = list(sickVariable, sunVariable, coldVariable);
@@ -0,0 +1,139 @@
+package com.sri.ai.test.praise.other.application.uai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModel;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIModelReader;
+import com.sri.ai.praise.other.application.uai.UAIMARBatchSolver;
+import com.sri.ai.praise.other.application.uai.UAIMARBatchSolver.Result;
+import com.sri.ai.praise.other.application.uai.UAIMARBatchSolver.Status;
+import com.sri.ai.praise.other.application.uai.UAIMARSolver;
+import com.sri.ai.praise.other.application.uai.UAIResultReading;
+
+/**
+ * Checks that {@link UAIMARBatchSolver} solves all models, whatever its memory budget, writes their summaries,
+ * and times out models without holding up the others.
+ *
+ */
+public class UAIMARBatchSolverTest {
+
+	private static final String MODEL =
+			"MARKOV\n" +
+			"3\n" +
+			"2 2 3\n" +
+			"2\n" +
+			"2 0 1\n" +
+			"2 1 2\n" +
+			"4\n" +
+			" 1 2 3 4\n" +
+			"6\n" +
+			" 0.5 1 2 3 1 0.25\n";
+
+	@Test
+	public void testSolveAndSummaries() throws IOException {
+		Map<String, UAIModel> namedModels = new LinkedHashMap<>();
+		for (int i = 0; i != 4; i++) {
+			UAIModel model = UAIModelReader.read(new StringReader(MODEL));
+			model.addEvidence(2, i % 3);
+			namedModels.put("model" + i + ".uai", model);
+		}
+		File outputDirectory = Files.createTempDirectory("mar").toFile();
+
+		UAIMARBatchSolver batchSolver = new UAIMARBatchSolver(3, 60, null);
+		batchSolver.setMemoryBudgetInBytes(1); // models are admitted one at a time
+		batchSolver.setMARResultDirectory(outputDirectory);
+		List<Result> results = batchSolver.solve(namedModels);
+
+		assertEquals(namedModels.size(), results.size());
+		int i = 0;
+		for (Map.Entry<String, UAIModel> entry : namedModels.entrySet()) {
+			Result result = results.get(i++);
+			assertEquals(entry.getKey(), result.getName());
+			assertEquals(Status.SOLVED, result.getStatus());
+			assertEquals(10*UAIMARBatchSolver.DEFAULT_BYTES_PER_TABLE_ENTRY, result.getEstimatedMemoryInBytes());
+			File marFile = new File(outputDirectory, entry.getKey() + ".MAR");
+			marFile.deleteOnExit();
+			assertEquals(UAIMARSolver.solveWithTables(entry.getValue(), entry.getValue().getEvidence()), UAIResultReading.readMAR(marFile));
+		}
+		outputDirectory.deleteOnExit();
+
+		StringWriter csv = new StringWriter();
+		UAIMARBatchSolver.writeCSV(csv, results);
+		String[] lines = csv.toString().split("\n");
+		assertEquals(1 + results.size(), lines.length);
+		assertTrue(lines[1].startsWith("model0.uai,SOLVED,"));
+
+		StringWriter json = new StringWriter();
+		UAIMARBatchSolver.writeJSON(json, results);
+		assertTrue(json.toString().startsWith("[\n  {\"name\": \"model0.uai\", \"status\": \"SOLVED\""));
+	}
+
+	@Test
+	public void testTimeOut() throws IOException {
+		Map<String, UAIModel> namedModels = new LinkedHashMap<>();
+		for (String name : new String[] { "responsive.uai", "stubborn.uai", "model0.uai", "model1.uai" }) {
+			namedModels.put(name, UAIModelReader.read(new StringReader(MODEL)));
+		}
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch stubbornFinished = new CountDownLatch(1);
+
+		UAIMARBatchSolver batchSolver = new UAIMARBatchSolver(2, 1, null) {
+			@Override
+			protected Callable<Boolean> makeTask(String name, UAIModel model, File marOutputFile) {
+				if (name.equals("responsive.uai")) {
+					return () -> { Thread.sleep(Long.MAX_VALUE); return true; };
+				}
+				if (name.equals("stubborn.uai")) {
+					return () -> {
+						try {
+							while (true) {
+								try {
+									release.await();
+									break;
+								}
+								catch (InterruptedException interruption) {
+									// ignores interruptions, running until released
+								}
+							}
+						}
+						finally {
+							stubbornFinished.countDown();
+						}
+						return true;
+					};
+				}
+				return super.makeTask(name, model, marOutputFile);
+			}
+		};
+		batchSolver.setGracePeriodInMilliseconds(200);
+		try {
+			List<Result> results = batchSolver.solve(namedModels);
+
+			assertEquals(Status.TIMED_OUT, results.get(0).getStatus());
+			assertNull(results.get(0).getMessage());
+			assertEquals(Status.TIMED_OUT, results.get(1).getStatus());
+			assertEquals("Did not stop within 200 ms of being interrupted", results.get(1).getMessage());
+			assertEquals(Status.SOLVED, results.get(2).getStatus());
+			assertEquals(Status.SOLVED, results.get(3).getStatus());
+			assertEquals(1, stubbornFinished.getCount()); // still running when its slot was given to other models
+		}
+		finally {
+			release.countDown();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.sri.ai.test.praise.other.application.uai;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.UAIModel;
+import com.sri.ai.praise.core.representation.classbased.table.core.uai.parsing.UAIModelReader;
+import com.sri.ai.praise.other.application.uai.UAIMARSolver;
+import com.sri.ai.praise.other.application.uai.UAIResultReading;
+import com.sri.ai.praise.other.application.uai.UAIResultWriting;
+import com.sri.ai.util.Util;
+
+/**
+ * Checks the numeric solving of {@link UAIMARSolver} against brute-force marginals,
+ * and that marginals written by {@link UAIResultWriting} are read back by {@link UAIResultReading}.
+ *
+ */
+public class UAIMARSolverTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	// a chain a - b - c, with a and b Boolean and c ternary
+	private static final double[] AB = {1, 2, 3, 4};
+	private static final double[] BC = {0.5, 1, 2, 3, 1, 0.25};
+
+	private static final String MODEL =
+			"MARKOV\n" +
+			"4\n" +
+			"2 2 3 2\n" +
+			"2\n" +
+			"2 0 1\n" +
+			"2 1 2\n" +
+			"4\n" +
+			" 1 2 3 4\n" +
+			"6\n" +
+			" 0.5 1 2 3 1 0.25\n";
+
+	@Test
+	public void testSolveWithTables() throws IOException {
+		UAIModel model = UAIModelReader.read(new StringReader(MODEL));
+		assertMarginals(bruteForceMarginals(-1), UAIMARSolver.solveWithTables(model, Util.map()));
+
+		// c = 1 as evidence of the model, then as additional evidence
+		model.addEvidence(2, 1);
+		assertMarginals(bruteForceMarginals(1), UAIMARSolver.solveWithTables(model, Util.map()));
+		model.clearEvidence();
+		assertMarginals(bruteForceMarginals(1), UAIMARSolver.solveWithTables(model, Util.map(2, 1)));
+	}
+
+	@Test
+	public void testWriteAndReadMAR() throws IOException {
+		UAIModel model = UAIModelReader.read(new StringReader(MODEL));
+		Map<Integer, List<Double>> marginals = UAIMARSolver.solveWithTables(model, Util.map());
+		File file = File.createTempFile("model", ".uai.MAR");
+		file.deleteOnExit();
+		UAIResultWriting.writeMAR(file, marginals);
+		assertEquals(marginals, UAIResultReading.readMAR(file));
+	}
+
+	/**
+	 * Marginals of a, b, c and the unconnected d, conditioned on c having the given value (if not -1).
+	 */
+	private static double[][] bruteForceMarginals(int valueOfC) {
+		double[][] result = {new double[2], new double[2], new double[3], {0.5, 0.5}};
+		double total = 0;
+		for (int a = 0; a != 2; a++) {
+			for (int b = 0; b != 2; b++) {
+				for (int c = 0; c != 3; c++) {
+					if (valueOfC != -1 && c != valueOfC) {
+						continue;
+					}
+					double weight = AB[a*2 + b]*BC[b*3 + c];
+					result[0][a] += weight;
+					result[1][b] += weight;
+					result[2][c] += weight;
+					total += weight;
+				}
+			}
+		}
+		for (int i = 0; i != 3; i++) {
+			for (int v = 0; v != result[i].length; v++) {
+				result[i][v] /= total;
+			}
+		}
+		return result;
+	}
+
+	private static void assertMarginals(double[][] expected, Map<Integer, List<Double>> actual) {
+		assertEquals(expected.length, actual.size());
+		for (int i = 0; i != expected.length; i++) {
+			assertEquals(expected[i].length, actual.get(i).size());
+			for (int v = 0; v != expected[i].length; v++) {
+				assertEquals("variable " + i + " value " + v, expected[i][v], actual.get(i).get(v), TOLERANCE);
+			}
+		}
+	}
+}
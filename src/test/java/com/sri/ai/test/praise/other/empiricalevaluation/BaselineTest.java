@@ -0,0 +1,119 @@
+package com.sri.ai.test.praise.other.empiricalevaluation;
+
+import static com.sri.ai.util.Util.list;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.core.inference.externalprocesssolver.api.ExternalProcessSolver;
+import com.sri.ai.praise.core.inference.externalprocesssolver.core.ExternalProcessSolverConfiguration;
+import com.sri.ai.praise.core.representation.classbased.modelscontainer.ModelPage;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.ModelLanguage;
+import com.sri.ai.praise.other.empiricalevaluation.Problem;
+import com.sri.ai.praise.other.empiricalevaluation.ProblemType;
+import com.sri.ai.praise.other.empiricalevaluation.output.Baseline;
+import com.sri.ai.praise.other.empiricalevaluation.output.CSVWriter;
+import com.sri.ai.praise.other.empiricalevaluation.solverevaluation.SolverEvaluationResult;
+import com.sri.ai.praise.other.empiricalevaluation.solverevaluation.TimeStatistics;
+
+/**
+ * Checks the flags {@link Baseline} gives to results compared to the mean inference times of a previous evaluation.
+ *
+ */
+public class BaselineTest {
+
+	private static final double TOLERANCE = 0.1;
+
+	private static final ExternalProcessSolver SOLVER = new ExternalProcessSolver() {
+
+		@Override
+		public String getName() {
+			return "S";
+		}
+
+		@Override
+		public ExternalProcessSolverConfiguration getConfiguration() {
+			return null;
+		}
+
+		@Override
+		public void setConfiguration(ExternalProcessSolverConfiguration configuration) {
+		}
+
+		@Override
+		public ModelLanguage getExpectedModelLanguage() {
+			return ModelLanguage.HOGMv1;
+		}
+	};
+
+	@Test
+	public void testBaselineWithConfidenceIntervals() throws IOException {
+		Baseline baseline = makeBaseline(
+				"Problem," +
+				CSVWriter.averageInferenceTimeColumnName("S") + "," +
+				CSVWriter.inferenceTimeConfidenceIntervalLowColumnName("S") + "," +
+				CSVWriter.inferenceTimeConfidenceIntervalHighColumnName("S"),
+				problem("q").name + ",100,95,105");
+
+		assertEquals(Baseline.REGRESSION,  baseline.compare(result("q", 148L, 150L, 152L), TOLERANCE));
+		assertEquals(Baseline.IMPROVEMENT, baseline.compare(result("q", 58L, 60L, 62L), TOLERANCE));
+		assertEquals("", baseline.compare(result("q", 101L, 103L, 105L), TOLERANCE)); // within tolerance
+		assertEquals("", baseline.compare(result("q", 20L, 150L, 280L), TOLERANCE)); // slower, but too noisy to tell
+		assertEquals("", baseline.compare(result("q", 100L, 100L, 100L, 100L, 900L), TOLERANCE)); // regressed mean but not median, too noisy
+		assertEquals(Baseline.NO_BASELINE, baseline.compare(result("other", 150L), TOLERANCE));
+
+		SolverEvaluationResult failed = result("q", 150L, 150L, 150L);
+		failed.failed = true;
+		assertEquals("", baseline.compare(failed, TOLERANCE));
+	}
+
+	@Test
+	public void testBaselineWithoutConfidenceIntervals() throws IOException {
+		Baseline baseline = makeBaseline(
+				"Problem," + CSVWriter.averageInferenceTimeColumnName("S"),
+				problem("q").name + ",100",
+				problem("malformed").name + ",1,2"); // ignored since it has more values than the header
+
+		assertEquals(Baseline.REGRESSION,  baseline.compare(result("q", 20L, 150L, 280L), TOLERANCE)); // means only
+		assertEquals(Baseline.IMPROVEMENT, baseline.compare(result("q", 60L), TOLERANCE));
+		assertEquals("", baseline.compare(result("q", 95L, 105L), TOLERANCE));
+		assertEquals(Baseline.NO_BASELINE, baseline.compare(result("malformed", 150L), TOLERANCE));
+	}
+
+	@Test
+	public void testMeansRatherThanMediansAreCompared() throws IOException {
+		Baseline baseline = makeBaseline("Problem," + CSVWriter.averageInferenceTimeColumnName("S"), problem("q").name + ",100");
+		assertEquals(Baseline.REGRESSION, baseline.compare(result("q", 100L, 100L, 400L), TOLERANCE)); // median is 100
+		assertEquals("", baseline.compare(result("q", 0L, 150L, 170L), TOLERANCE)); // median is 150
+	}
+
+	private static Baseline makeBaseline(String... lines) throws IOException {
+		File file = File.createTempFile("baseline", ".csv");
+		try {
+			Files.write(file.toPath(), list(lines), StandardCharsets.UTF_8);
+			return new Baseline(file);
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	private static Problem problem(String query) {
+		ModelPage model = new ModelPage(ModelLanguage.HOGMv1, "m", "random q: Boolean;", list(query));
+		return new Problem(ProblemType.PR, query, model);
+	}
+
+	private static SolverEvaluationResult result(String query, Long... inferenceTimeSamplesInMilliseconds) {
+		SolverEvaluationResult result = new SolverEvaluationResult(SOLVER, problem(query));
+		List<Long> samples = list(inferenceTimeSamplesInMilliseconds);
+		result.inferenceTimeSamplesInMilliseconds = samples;
+		result.inferenceTimeStatistics = new TimeStatistics(samples);
+		return result;
+	}
+}
@@ -0,0 +1,85 @@
+package com.sri.ai.test.praise.other.empiricalevaluation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.other.empiricalevaluation.output.EvaluationCheckpoint;
+
+/**
+ * Checks that {@link EvaluationCheckpoint} resumes from the complete lines of a file recorded with the same header,
+ * and leaves files recorded with another header untouched.
+ *
+ */
+public class EvaluationCheckpointTest {
+
+	private static final String HEADER = "Problem,Inference Type,Domain Size(s),# runs values averaged over,ExternalProcessSolver";
+
+	@Test
+	public void testNewFileStartsWithHeader() throws IOException {
+		File file = File.createTempFile("checkpoint", ".csv");
+		file.delete();
+		try (EvaluationCheckpoint checkpoint = new EvaluationCheckpoint(file, HEADER)) {
+			assertEquals(0, checkpoint.getNumberOfRecordedLines());
+			checkpoint.record("PR on m : a,PR,,1,S");
+		}
+		assertEquals(HEADER + "\n" + "PR on m : a,PR,,1,S\n", read(file));
+		file.delete();
+	}
+
+	@Test
+	public void testIncompleteLastLineIsDiscarded() throws IOException {
+		File file = write(HEADER + "\n" + "PR on m : a,PR,,1,S\n" + "PR on m : b,PR,,1,S\n" + "PR on m : c,P");
+		try (EvaluationCheckpoint checkpoint = new EvaluationCheckpoint(file, HEADER)) {
+			assertEquals(2, checkpoint.getNumberOfRecordedLines());
+			assertNull(checkpoint.takeRecordedLine("PR on m : c"));
+			assertEquals("PR on m : b,PR,,1,S", checkpoint.takeRecordedLine("PR on m : b"));
+			assertNull(checkpoint.takeRecordedLine("PR on m : b")); // taken already
+			assertEquals(1, checkpoint.getNumberOfRecordedLines());
+			checkpoint.record("PR on m : c,PR,,1,S");
+		}
+		assertEquals(HEADER + "\n" + "PR on m : a,PR,,1,S\n" + "PR on m : b,PR,,1,S\n" + "PR on m : c,PR,,1,S\n", read(file));
+		file.delete();
+	}
+
+	@Test
+	public void testIncompleteHeaderLineIsRewritten() throws IOException {
+		File file = write(HEADER.substring(0, 10));
+		try (EvaluationCheckpoint checkpoint = new EvaluationCheckpoint(file, HEADER)) {
+			assertEquals(0, checkpoint.getNumberOfRecordedLines());
+		}
+		assertEquals(HEADER + "\n", read(file));
+		file.delete();
+	}
+
+	@Test
+	public void testMismatchedHeaderLeavesFileUntouched() throws IOException {
+		String contents = HEADER + ",Result for S\n" + "PR on m : a,PR,,1,S,0.5\n" + "PR on m : b,P";
+		File file = write(contents);
+		try {
+			new EvaluationCheckpoint(file, HEADER).close();
+			fail("Checkpoint recorded with another header should have been rejected");
+		}
+		catch (IllegalArgumentException exception) {
+			assertEquals(contents, read(file));
+		}
+		file.delete();
+	}
+
+	private static File write(String contents) throws IOException {
+		File file = File.createTempFile("checkpoint", ".csv");
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+	}
+}
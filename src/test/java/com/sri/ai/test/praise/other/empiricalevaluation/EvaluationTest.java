@@ -0,0 +1,137 @@
+package com.sri.ai.test.praise.other.empiricalevaluation;
+
+import static com.sri.ai.util.Util.list;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.Test;
+
+import com.sri.ai.expresso.helper.Expressions;
+import com.sri.ai.praise.core.inference.externalprocesssolver.api.ExternalProcessSolver;
+import com.sri.ai.praise.core.inference.externalprocesssolver.core.ExternalProcessSolverConfiguration;
+import com.sri.ai.praise.core.inference.externalprocesssolver.core.ExternalProcessSolverResult;
+import com.sri.ai.praise.core.representation.classbased.modelscontainer.ModelPage;
+import com.sri.ai.praise.core.representation.classbased.modelscontainer.PagedModelContainer;
+import com.sri.ai.praise.core.representation.interfacebased.factor.api.ModelLanguage;
+import com.sri.ai.praise.other.empiricalevaluation.Evaluation;
+import com.sri.ai.praise.other.empiricalevaluation.EvaluationConfiguration;
+
+/**
+ * Checks that {@link Evaluation} outputs CSV lines in the order of the problems when they are solved concurrently,
+ * and that it does not solve again the problems recorded in its checkpoint file.
+ *
+ */
+public class EvaluationTest {
+
+	private static final List<String> QUERIES = list("a", "b", "c", "d");
+
+	/**
+	 * A solver answering each query with itself after a delay that is longer for earlier queries,
+	 * so that concurrent solve attempts complete in the reverse order of the problems.
+	 */
+	public static class DelayingSolver implements ExternalProcessSolver {
+
+		public static final ConcurrentLinkedQueue<String> solvedQueries = new ConcurrentLinkedQueue<>();
+
+		private ExternalProcessSolverConfiguration configuration;
+
+		@Override
+		public String getName() {
+			return "Delaying";
+		}
+
+		@Override
+		public ExternalProcessSolverConfiguration getConfiguration() {
+			return configuration;
+		}
+
+		@Override
+		public void setConfiguration(ExternalProcessSolverConfiguration configuration) {
+			this.configuration = configuration;
+		}
+
+		@Override
+		public ModelLanguage getExpectedModelLanguage() {
+			return ModelLanguage.HOGMv1;
+		}
+
+		@Override
+		public ExternalProcessSolverResult solve(String solveRequestId, ModelLanguage modelLanguage, String model, String query) throws Exception {
+			long delay = 100 * (QUERIES.size() - QUERIES.indexOf(query));
+			Thread.sleep(delay);
+			solvedQueries.add(query);
+			return new ExternalProcessSolverResult(0, delay, Expressions.makeSymbol(query));
+		}
+	}
+
+	@Test
+	public void testLinesAreOutputInOrderOfProblems() throws IOException {
+		File checkpointFile = File.createTempFile("checkpoint", ".csv");
+		checkpointFile.delete();
+		try {
+			List<String> lines = evaluate(checkpointFile);
+			assertEquals(1 + QUERIES.size(), lines.size());
+			for (int i = 0; i != QUERIES.size(); i++) {
+				assertTrue(lines.get(1 + i), lines.get(1 + i).startsWith("PR on page : " + QUERIES.get(i) + ",PR,"));
+			}
+			List<String> recordedLines = Files.readAllLines(checkpointFile.toPath(), StandardCharsets.UTF_8);
+			assertEquals(lines.get(0), recordedLines.get(0));
+			assertEquals(new HashSet<>(lines), new HashSet<>(recordedLines)); // in order of completion instead
+		}
+		finally {
+			checkpointFile.delete();
+		}
+	}
+
+	@Test
+	public void testRecordedProblemsAreNotSolvedAgain() throws IOException {
+		File checkpointFile = File.createTempFile("checkpoint", ".csv");
+		checkpointFile.delete();
+		try {
+			List<String> lines = evaluate(checkpointFile);
+
+			String header = lines.get(0);
+			String lineOfB = lines.get(2);
+			String incompleteLineOfC = lines.get(3).substring(0, 20);
+			Files.write(checkpointFile.toPath(), (header + "\n" + lineOfB + "\n" + incompleteLineOfC).getBytes(StandardCharsets.UTF_8));
+
+			DelayingSolver.solvedQueries.clear();
+			List<String> resumedLines = evaluate(checkpointFile);
+			assertEquals(lines, resumedLines);
+			Set<String> solvedQueries = new HashSet<>(DelayingSolver.solvedQueries);
+			assertEquals(new HashSet<>(list("a", "c", "d")), solvedQueries); // "a" is also solved for burn-in
+			assertEquals(1 + QUERIES.size(), Files.readAllLines(checkpointFile.toPath(), StandardCharsets.UTF_8).size());
+		}
+		finally {
+			checkpointFile.delete();
+		}
+	}
+
+	private static List<String> evaluate(File checkpointFile) throws IOException {
+		ModelPage page = new ModelPage(ModelLanguage.HOGMv1, "page", "random a: Boolean; random b: Boolean; random c: Boolean; random d: Boolean;", QUERIES);
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		EvaluationConfiguration configuration = new EvaluationConfiguration();
+		configuration.setModelsContainer(new PagedModelContainer("container", list(page)));
+		configuration.setSolverImplementationClassNames(list(DelayingSolver.class.getName()));
+		configuration.setNotificationOut(new PrintStream(new ByteArrayOutputStream()));
+		configuration.setCSVOut(new PrintStream(csv, true, StandardCharsets.UTF_8.name()));
+		configuration.setNumberOfRunsToAverageOver(1);
+		configuration.setNumberOfParallelSolveAttempts(QUERIES.size());
+		configuration.setCheckpointFile(checkpointFile);
+		configuration.setWorkingDirectory(checkpointFile.getParentFile());
+		new Evaluation(configuration).evaluate();
+		return Arrays.asList(new String(csv.toByteArray(), StandardCharsets.UTF_8).split(System.lineSeparator()));
+	}
+}
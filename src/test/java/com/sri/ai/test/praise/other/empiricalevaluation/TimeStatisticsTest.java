@@ -0,0 +1,75 @@
+package com.sri.ai.test.praise.other.empiricalevaluation;
+
+import static com.sri.ai.util.Util.list;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.sri.ai.praise.other.empiricalevaluation.solverevaluation.TimeStatistics;
+
+/**
+ * Checks {@link TimeStatistics} on small samples whose statistics are computed by hand.
+ *
+ */
+public class TimeStatisticsTest {
+
+	private static final double DELTA = 1e-3;
+
+	@Test
+	public void testOddNumberOfSamples() {
+		TimeStatistics statistics = new TimeStatistics(list(30L, 10L, 50L, 20L, 40L));
+		assertEquals(5, statistics.numberOfSamples);
+		assertEquals(30.0, statistics.mean, DELTA);
+		assertEquals(30.0, statistics.median, DELTA);
+		assertEquals(50.0, statistics.percentile90, DELTA); // nearest rank ceil(0.9*5) = 5
+		assertEquals(Math.sqrt(250), statistics.standardDeviation, DELTA);
+		double halfWidth = 2.776*Math.sqrt(250)/Math.sqrt(5); // t for 4 degrees of freedom
+		assertEquals(30.0 - halfWidth, statistics.confidenceIntervalLow, DELTA);
+		assertEquals(30.0 + halfWidth, statistics.confidenceIntervalHigh, DELTA);
+	}
+
+	@Test
+	public void testEvenNumberOfSamples() {
+		TimeStatistics statistics = new TimeStatistics(list(4L, 1L, 3L, 2L));
+		assertEquals(2.5, statistics.mean, DELTA);
+		assertEquals(2.5, statistics.median, DELTA);
+		assertEquals(4.0, statistics.percentile90, DELTA); // nearest rank ceil(0.9*4) = 4
+		assertEquals(Math.sqrt(5.0/3), statistics.standardDeviation, DELTA);
+		double halfWidth = 3.182*Math.sqrt(5.0/3)/2; // t for 3 degrees of freedom
+		assertEquals(2.5 - halfWidth, statistics.confidenceIntervalLow, DELTA);
+		assertEquals(2.5 + halfWidth, statistics.confidenceIntervalHigh, DELTA);
+	}
+
+	@Test
+	public void testSingleSample() {
+		TimeStatistics statistics = new TimeStatistics(list(7L));
+		assertEquals(7.0, statistics.median, DELTA);
+		assertEquals(7.0, statistics.percentile90, DELTA);
+		assertEquals(0.0, statistics.standardDeviation, DELTA);
+		assertEquals(7.0, statistics.confidenceIntervalLow, DELTA);
+		assertEquals(7.0, statistics.confidenceIntervalHigh, DELTA);
+	}
+
+	@Test
+	public void testManySamplesUseNormalCriticalValue() {
+		List<Long> samples = new ArrayList<>();
+		for (long i = 40; i != 0; i--) {
+			samples.add(i);
+		}
+		TimeStatistics statistics = new TimeStatistics(samples);
+		assertEquals(20.5, statistics.mean, DELTA);
+		assertEquals(20.5, statistics.median, DELTA);
+		assertEquals(36.0, statistics.percentile90, DELTA);
+		double standardDeviation = Math.sqrt(40*41/12.0);
+		assertEquals(standardDeviation, statistics.standardDeviation, DELTA);
+		assertEquals(20.5 + 1.960*standardDeviation/Math.sqrt(40), statistics.confidenceIntervalHigh, DELTA);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoSamples() {
+		new TimeStatistics(new ArrayList<>());
+	}
+}